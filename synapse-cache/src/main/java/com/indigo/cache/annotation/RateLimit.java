@@ -22,7 +22,8 @@ public @interface RateLimit {
     String key() default "";
     
     /**
-     * 限流算法类型
+     * 限流算法类型：SLIDING_WINDOW、TOKEN_BUCKET、FIXED_WINDOW、GCRA
+     * 高并发场景推荐 GCRA（每个键一个整数，O(1)检查）
      */
     String algorithm() default "SLIDING_WINDOW";
     
@@ -45,4 +46,60 @@ public @interface RateLimit {
      * 限流提示信息
      */
     String message() default "请求过于频繁，请稍后再试";
+
+    /**
+     * 分层配额
+     * 配置后改用配额引擎：所有层级在一次Lua调用中检查，全部通过才扣减（任一层级超限则都不扣减），
+     * 此时 key/algorithm/window/limit 不再生效
+     */
+    Quota[] quotas() default {};
+
+    /**
+     * 是否将配额结果写入响应头（X-RateLimit-Limit / X-RateLimit-Remaining / X-RateLimit-Reset / Retry-After）
+     */
+    boolean quotaHeaders() default true;
+
+    /**
+     * 配额层级
+     */
+    enum Scope {
+        /** 全局 */
+        GLOBAL,
+        /** 租户（需通过 key 指定租户表达式） */
+        TENANT,
+        /** 用户（默认取当前登录用户ID，匿名请求跳过该层级） */
+        USER,
+        /** 客户端IP */
+        IP,
+        /** 接口（默认取 类名.方法名） */
+        ENDPOINT
+    }
+
+    /**
+     * 单个层级的配额
+     */
+    @Target({})
+    @Retention(RetentionPolicy.RUNTIME)
+    @interface Quota {
+
+        /**
+         * 配额层级
+         */
+        Scope scope();
+
+        /**
+         * 层级键，支持SpEL表达式，为空时按层级取默认值
+         */
+        String key() default "";
+
+        /**
+         * 时间窗口（秒）
+         */
+        int window() default 60;
+
+        /**
+         * 窗口内最大请求数
+         */
+        int limit() default 100;
+    }
 } 
\ No newline at end of file
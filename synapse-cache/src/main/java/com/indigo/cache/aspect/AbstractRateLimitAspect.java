@@ -1,7 +1,10 @@
 package com.indigo.cache.aspect;
 
 import com.indigo.cache.annotation.RateLimit;
+import com.indigo.cache.extension.ratelimit.QuotaResult;
+import com.indigo.cache.extension.ratelimit.QuotaRule;
 import com.indigo.cache.extension.ratelimit.RateLimitService;
+import com.indigo.core.context.UserContext;
 import lombok.extern.slf4j.Slf4j;
 import org.aspectj.lang.ProceedingJoinPoint;
 import org.aspectj.lang.annotation.Around;
@@ -16,6 +19,10 @@ import org.springframework.stereotype.Component;
 import org.springframework.core.DefaultParameterNameDiscoverer;
 import org.aspectj.lang.reflect.MethodSignature;
 import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * 限流切面抽象基类
@@ -33,12 +40,31 @@ public abstract class AbstractRateLimitAspect {
     protected final RateLimitService rateLimitService;
     protected final ExpressionParser parser = new SpelExpressionParser();
 
+    /**
+     * 按方法缓存解析后的SpEL表达式与参数名，避免每次调用重复解析
+     */
+    private final Map<Method, Expression> expressionCache = new ConcurrentHashMap<>();
+    private final Map<Method, Expression[]> quotaExpressionCache = new ConcurrentHashMap<>();
+    private final Map<Method, String[]> parameterNamesCache = new ConcurrentHashMap<>();
+    private final DefaultParameterNameDiscoverer parameterNameDiscoverer = new DefaultParameterNameDiscoverer();
+
     protected AbstractRateLimitAspect(RateLimitService rateLimitService) {
         this.rateLimitService = rateLimitService;
     }
 
     @Around("@annotation(rateLimit)")
     public Object around(ProceedingJoinPoint joinPoint, RateLimit rateLimit) throws Throwable {
+        return doAround(joinPoint, rateLimit);
+    }
+
+    /**
+     * 执行限流检查 - 子类可重写（如响应式切面将检查组合进返回的 Mono/Flux）
+     */
+    protected Object doAround(ProceedingJoinPoint joinPoint, RateLimit rateLimit) throws Throwable {
+        if (rateLimit.quotas().length > 0) {
+            return doQuotaAround(joinPoint, rateLimit);
+        }
+
         // 生成限流键
         String key = generateKey(joinPoint, rateLimit);
         
@@ -60,6 +86,93 @@ public abstract class AbstractRateLimitAspect {
         return joinPoint.proceed();
     }
 
+    /**
+     * 分层配额检查：所有层级一次Lua调用，全部通过才扣减
+     */
+    protected Object doQuotaAround(ProceedingJoinPoint joinPoint, RateLimit rateLimit) throws Throwable {
+        List<QuotaRule> rules = resolveQuotaRules(joinPoint, rateLimit);
+        QuotaResult result = rateLimitService.consumeQuotas(rules, 1);
+        if (rateLimit.quotaHeaders()) {
+            applyQuotaHeaders(joinPoint, result);
+        }
+
+        if (!result.isAllowed()) {
+            log.warn("请求超出配额: violated={}, retryAfter={}ms", result.getViolatedRule(), result.getRetryAfterMillis());
+            return handleRateLimit(rateLimit);
+        }
+        return joinPoint.proceed();
+    }
+
+    /**
+     * 解析配额链
+     * 层级键为空时取默认值，无法确定键的层级（如匿名用户的 USER 层级）跳过
+     */
+    protected List<QuotaRule> resolveQuotaRules(ProceedingJoinPoint joinPoint, RateLimit rateLimit) {
+        RateLimit.Quota[] quotas = rateLimit.quotas();
+        Method method = ((MethodSignature) joinPoint.getSignature()).getMethod();
+        Expression[] expressions = quotaExpressionCache.computeIfAbsent(method, m -> {
+            Expression[] parsed = new Expression[quotas.length];
+            for (int i = 0; i < quotas.length; i++) {
+                parsed[i] = quotas[i].key().isEmpty() ? null : parser.parseExpression(quotas[i].key());
+            }
+            return parsed;
+        });
+
+        List<QuotaRule> rules = new ArrayList<>(quotas.length);
+        EvaluationContext context = null;
+        for (int i = 0; i < quotas.length; i++) {
+            RateLimit.Quota quota = quotas[i];
+            if (quota.limit() <= 0 || quota.window() <= 0) {
+                continue;
+            }
+            String key;
+            if (expressions[i] != null) {
+                if (context == null) {
+                    context = createEvaluationContext(joinPoint);
+                }
+                try {
+                    Object value = expressions[i].getValue(context);
+                    key = value != null ? value.toString() : null;
+                } catch (Exception e) {
+                    log.warn("解析配额键表达式失败: {}", quota.key(), e);
+                    key = null;
+                }
+            } else {
+                key = getDefaultQuotaKey(joinPoint, quota.scope());
+            }
+            if (key != null && !key.isEmpty()) {
+                rules.add(QuotaRule.of(quota.scope().name(), key, quota.window(), quota.limit()));
+            }
+        }
+        return rules;
+    }
+
+    /**
+     * 获取配额层级的默认键
+     */
+    protected String getDefaultQuotaKey(ProceedingJoinPoint joinPoint, RateLimit.Scope scope) {
+        return switch (scope) {
+            case GLOBAL -> "global";
+            case USER -> UserContext.getCurrentUserId();
+            case IP -> getClientIp(joinPoint);
+            case ENDPOINT -> joinPoint.getSignature().getDeclaringType().getSimpleName()
+                    + "." + joinPoint.getSignature().getName();
+            // 租户没有统一来源，必须通过 key 指定
+            case TENANT -> null;
+        };
+    }
+
+    /**
+     * 获取客户端IP - 由子类实现
+     */
+    protected abstract String getClientIp(ProceedingJoinPoint joinPoint);
+
+    /**
+     * 写入配额响应头 - 子类可重写
+     */
+    protected void applyQuotaHeaders(ProceedingJoinPoint joinPoint, QuotaResult result) {
+    }
+
     /**
      * 生成限流键
      */
@@ -72,8 +185,9 @@ public abstract class AbstractRateLimitAspect {
         }
         
         try {
-            // 解析 SpEL 表达式
-            Expression expression = parser.parseExpression(keyExpression);
+            // 解析 SpEL 表达式（按方法缓存）
+            Method method = ((MethodSignature) joinPoint.getSignature()).getMethod();
+            Expression expression = expressionCache.computeIfAbsent(method, m -> parser.parseExpression(keyExpression));
             EvaluationContext context = createEvaluationContext(joinPoint);
             Object result = expression.getValue(context);
             return result != null ? result.toString() : getDefaultKey(joinPoint);
@@ -101,9 +215,15 @@ public abstract class AbstractRateLimitAspect {
             MethodSignature methodSignature = (MethodSignature) joinPoint.getSignature();
             Method method = methodSignature.getMethod();
             
-            // 使用Spring的参数名发现器
-            DefaultParameterNameDiscoverer discoverer = new DefaultParameterNameDiscoverer();
-            return discoverer.getParameterNames(method);
+            // 使用Spring的参数名发现器（按方法缓存）
+            String[] names = parameterNamesCache.get(method);
+            if (names == null) {
+                names = parameterNameDiscoverer.getParameterNames(method);
+                if (names != null) {
+                    parameterNamesCache.put(method, names);
+                }
+            }
+            return names;
         } catch (Exception e) {
             log.warn("无法获取方法参数名: {}", e.getMessage());
             // 如果无法获取参数名，生成默认的参数名
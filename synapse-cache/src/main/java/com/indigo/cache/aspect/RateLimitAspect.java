@@ -1,6 +1,7 @@
 package com.indigo.cache.aspect;
 
 import com.indigo.cache.annotation.RateLimit;
+import com.indigo.cache.extension.ratelimit.QuotaResult;
 import com.indigo.cache.extension.ratelimit.RateLimitService;
 import lombok.extern.slf4j.Slf4j;
 import org.aspectj.lang.ProceedingJoinPoint;
@@ -13,6 +14,7 @@ import org.springframework.web.context.request.RequestContextHolder;
 import org.springframework.web.context.request.ServletRequestAttributes;
 
 import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 
 /**
  * WebMVC 限流切面
@@ -83,6 +85,21 @@ public class RateLimitAspect extends AbstractRateLimitAspect {
         return key.toString();
     }
 
+    @Override
+    protected String getClientIp(ProceedingJoinPoint joinPoint) {
+        ServletRequestAttributes attributes = (ServletRequestAttributes) RequestContextHolder.getRequestAttributes();
+        return attributes != null ? getClientIp(attributes.getRequest()) : null;
+    }
+
+    @Override
+    protected void applyQuotaHeaders(ProceedingJoinPoint joinPoint, QuotaResult result) {
+        ServletRequestAttributes attributes = (ServletRequestAttributes) RequestContextHolder.getRequestAttributes();
+        HttpServletResponse response = attributes != null ? attributes.getResponse() : null;
+        if (response != null && !response.isCommitted()) {
+            result.toHeaders().forEach(response::setHeader);
+        }
+    }
+
     /**
      * 获取客户端 IP
      */
@@ -1,22 +1,38 @@
 package com.indigo.cache.aspect;
 
 import com.indigo.cache.annotation.RateLimit;
+import com.indigo.cache.extension.ratelimit.QuotaResult;
+import com.indigo.cache.extension.ratelimit.QuotaRule;
 import com.indigo.cache.extension.ratelimit.RateLimitService;
+import com.indigo.cache.extension.ratelimit.ReactiveRateLimitService;
 import lombok.extern.slf4j.Slf4j;
 import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.reflect.MethodSignature;
+import org.reactivestreams.Publisher;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
 import org.springframework.expression.EvaluationContext;
 import org.springframework.expression.spel.support.StandardEvaluationContext;
 import org.springframework.http.server.reactive.ServerHttpRequest;
 import org.springframework.stereotype.Component;
 import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
 
+import java.time.Duration;
+import java.util.List;
 import java.util.Optional;
 
 /**
  * 响应式限流切面
  * 拦截 @RateLimit 注解，执行限流逻辑
  * 仅在 WebFlux 环境下启用（支持 ServerHttpRequest）
+ * <p>
+ * 返回 Mono/Flux 的方法：限流检查通过 {@link ReactiveRateLimitService} 以响应式方式执行，
+ * 并组合进被拦截方法返回的 Mono/Flux，订阅时才检查，不阻塞事件循环线程。
+ * 未注册 ReactiveRateLimitService 时，同步检查被调度到 boundedElastic 线程池执行。
+ * 其他返回类型仍走同步检查。
  *
  * @author 史偕成
  * @date 2025/12/19
@@ -26,8 +42,119 @@ import java.util.Optional;
 @ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
 public class ReactiveRateLimitAspect extends AbstractRateLimitAspect {
 
-    public ReactiveRateLimitAspect(RateLimitService rateLimitService) {
+    private final ReactiveRateLimitService reactiveRateLimitService;
+
+    public ReactiveRateLimitAspect(RateLimitService rateLimitService,
+                                   ObjectProvider<ReactiveRateLimitService> reactiveRateLimitService) {
         super(rateLimitService);
+        this.reactiveRateLimitService = reactiveRateLimitService.getIfAvailable();
+    }
+
+    @Override
+    protected Object doAround(ProceedingJoinPoint joinPoint, RateLimit rateLimit) throws Throwable {
+        Class<?> returnType = ((MethodSignature) joinPoint.getSignature()).getReturnType();
+        boolean isMono = Mono.class.isAssignableFrom(returnType);
+        if (!isMono && !Flux.class.isAssignableFrom(returnType)) {
+            return super.doAround(joinPoint, rateLimit);
+        }
+
+        // 限流键在组装阶段计算（SpEL 表达式按方法缓存），检查延迟到订阅时执行
+        String key;
+        Mono<Boolean> allowed;
+        if (rateLimit.quotas().length > 0) {
+            List<QuotaRule> rules = resolveQuotaRules(joinPoint, rateLimit);
+            key = rules.toString();
+            allowed = Mono.defer(() -> checkQuotas(joinPoint, rules, rateLimit));
+        } else {
+            key = generateKey(joinPoint, rateLimit);
+            allowed = Mono.defer(() -> checkAllowed(key, rateLimit));
+        }
+
+        if (isMono) {
+            return allowed.flatMap(ok -> ok
+                    ? Mono.from(proceed(joinPoint))
+                    : onRateLimited(joinPoint, rateLimit, key).next());
+        }
+        return allowed.flatMapMany(ok -> ok
+                ? Flux.from(proceed(joinPoint))
+                : onRateLimited(joinPoint, rateLimit, key));
+    }
+
+    /**
+     * 执行限流检查
+     */
+    private Mono<Boolean> checkAllowed(String key, RateLimit rateLimit) {
+        if (reactiveRateLimitService != null) {
+            return reactiveRateLimitService.isAllowed(key, rateLimit.algorithm(), rateLimit.window(), rateLimit.limit());
+        }
+        return Mono.fromCallable(() -> rateLimitService.isAllowed(key, rateLimit.algorithm(), rateLimit.window(), rateLimit.limit()))
+                .subscribeOn(Schedulers.boundedElastic());
+    }
+
+    /**
+     * 执行分层配额检查，并按需写入响应头
+     */
+    private Mono<Boolean> checkQuotas(ProceedingJoinPoint joinPoint, List<QuotaRule> rules, RateLimit rateLimit) {
+        Mono<QuotaResult> result = reactiveRateLimitService != null
+                ? reactiveRateLimitService.consumeQuotas(rules, 1)
+                : Mono.fromCallable(() -> rateLimitService.consumeQuotas(rules, 1)).subscribeOn(Schedulers.boundedElastic());
+        return result
+                .doOnNext(quota -> {
+                    if (rateLimit.quotaHeaders()) {
+                        applyQuotaHeaders(joinPoint, quota);
+                    }
+                })
+                .map(QuotaResult::isAllowed);
+    }
+
+    @Override
+    protected void applyQuotaHeaders(ProceedingJoinPoint joinPoint, QuotaResult result) {
+        findServerWebExchange(joinPoint.getArgs()).ifPresent(exchange -> {
+            if (!exchange.getResponse().isCommitted()) {
+                result.toHeaders().forEach(exchange.getResponse().getHeaders()::set);
+            }
+        });
+    }
+
+    @Override
+    protected String getClientIp(ProceedingJoinPoint joinPoint) {
+        return findServerWebExchange(joinPoint.getArgs())
+                .map(exchange -> getClientIp(exchange.getRequest()))
+                .orElse(null);
+    }
+
+    /**
+     * 执行原方法，取得其返回的发布者
+     */
+    @SuppressWarnings("unchecked")
+    private Publisher<Object> proceed(ProceedingJoinPoint joinPoint) {
+        try {
+            Object result = joinPoint.proceed();
+            return result != null ? (Publisher<Object>) result : Mono.empty();
+        } catch (Throwable e) {
+            return Mono.error(e);
+        }
+    }
+
+    /**
+     * 按策略处理限流（响应式版本）
+     */
+    @SuppressWarnings("unchecked")
+    private Flux<Object> onRateLimited(ProceedingJoinPoint joinPoint, RateLimit rateLimit, String key) {
+        log.warn("请求被限流: key={}, algorithm={}, timeWindow={}s, maxRequests={}",
+                key, rateLimit.algorithm(), rateLimit.window(), rateLimit.limit());
+
+        return switch (rateLimit.strategy()) {
+            // 等待策略：延迟1秒后继续执行原方法，不占用线程
+            case "WAIT" -> Mono.delay(Duration.ofSeconds(1)).thenMany(Flux.defer(() -> proceed(joinPoint)));
+            case "FALLBACK" -> {
+                Object fallback = getFallbackResult(rateLimit);
+                yield fallback instanceof Publisher<?> publisher
+                        ? Flux.from((Publisher<Object>) publisher)
+                        : Mono.justOrEmpty(fallback).flux();
+            }
+            default -> Flux.error(new RuntimeException(rateLimit.message()));
+        };
     }
 
     @Override
@@ -9,12 +9,14 @@ import com.indigo.cache.manager.CacheKeyGenerator;
 import com.indigo.cache.session.*;
 import com.indigo.cache.session.impl.DefaultCachePermissionManager;
 import com.indigo.cache.session.impl.DefaultSessionManager;
+import com.indigo.cache.session.impl.DefaultStatisticsManager;
 import com.indigo.core.utils.JsonUtils;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.boot.autoconfigure.AutoConfiguration;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.ComponentScan;
@@ -23,6 +25,8 @@ import org.springframework.data.redis.connection.RedisConnectionFactory;
 import org.springframework.data.redis.core.RedisTemplate;
 import org.springframework.data.redis.core.StringRedisTemplate;
 
+import java.util.List;
+
 /**
  * 缓存自动配置类，用于自动注册缓存服务
  * 使用自定义的 Redis 配置，排除 Spring Boot 的默认 Redis 自动配置
@@ -34,7 +38,7 @@ import org.springframework.data.redis.core.StringRedisTemplate;
  */
 @Slf4j
 @AutoConfiguration
-@Import({RedisConnectionConfiguration.class, RedisConfiguration.class})
+@Import({RedisConnectionConfiguration.class, RedisConfiguration.class, ReactiveRedisConfiguration.class})
 @EnableConfigurationProperties(CacheProperties.class)
 @ComponentScan(basePackages = {"com.indigo.cache.aspect", "com.indigo.cache.core", "com.indigo.core"})
 public class CacheAutoConfiguration {
@@ -118,9 +122,44 @@ public class CacheAutoConfiguration {
     public UserSessionService userSessionService(
             SessionManager sessionManager,
             CachePermissionManager cachePermissionManager,
-            StatisticsManager statisticsManager) {
+            StatisticsManager statisticsManager,
+            @Autowired(required = false) AuthSnapshotLoader authSnapshotLoader) {
         log.debug("创建UserSessionService Bean - 使用新的session包架构");
-        return new UserSessionService(sessionManager, cachePermissionManager, statisticsManager);
+        return new UserSessionService(sessionManager, cachePermissionManager, statisticsManager, authSnapshotLoader);
+    }
+
+    /**
+     * 注册认证快照加载器
+     * 会话、权限、角色与剩余时间一次 Redis 往返读取
+     */
+    @Bean
+    @ConditionalOnMissingBean
+    public AuthSnapshotLoader authSnapshotLoader(
+            RedisService redisService,
+            @Qualifier("synapseCacheKeyGenerator") CacheKeyGenerator cacheKeyGenerator,
+            @Autowired(required = false) CaffeineCacheManager caffeineCacheManager,
+            @Autowired(required = false) CacheInvalidationTracker invalidationTracker,
+            @Autowired(required = false) SessionIndex sessionIndex,
+            @Autowired(required = false) SessionRenewalQueue sessionRenewalQueue) {
+        log.debug("创建AuthSnapshotLoader Bean - 认证快照加载器");
+        return new AuthSnapshotLoader(redisService, cacheKeyGenerator, caffeineCacheManager, invalidationTracker,
+                sessionIndex, sessionRenewalQueue);
+    }
+
+    /**
+     * 注册会话续期队列
+     * 滑动过期续期在后台按批次执行，请求线程只做一次入队
+     */
+    @Bean
+    @ConditionalOnMissingBean
+    @ConditionalOnProperty(prefix = "synapse.cache.session-renewal", name = "enabled", havingValue = "true", matchIfMissing = true)
+    public SessionRenewalQueue sessionRenewalQueue(
+            RedisService redisService,
+            @Qualifier("synapseCacheKeyGenerator") CacheKeyGenerator cacheKeyGenerator,
+            @Autowired(required = false) SessionIndex sessionIndex,
+            CacheProperties cacheProperties) {
+        log.debug("创建SessionRenewalQueue Bean - 会话续期队列");
+        return new SessionRenewalQueue(redisService, cacheKeyGenerator, sessionIndex, cacheProperties.getSessionRenewal());
     }
 
     /**
@@ -165,6 +204,65 @@ public class CacheAutoConfiguration {
         return listener;
     }
 
+    /**
+     * 注册在线会话索引
+     * 登录/登出时维护，统计与强制下线无需扫描键空间
+     */
+    @Bean
+    @ConditionalOnMissingBean
+    public SessionIndex sessionIndex(
+            RedisService redisService,
+            @Qualifier("synapseCacheKeyGenerator") CacheKeyGenerator cacheKeyGenerator) {
+        log.debug("创建SessionIndex Bean - 在线会话索引");
+        return new SessionIndex(redisService, cacheKeyGenerator);
+    }
+
+    /**
+     * 注册批量会话操作
+     * 批量强制下线、批量推送权限/角色变更时按批次并行执行
+     */
+    @Bean
+    @ConditionalOnMissingBean
+    public SessionBulkOperations sessionBulkOperations(
+            RedisService redisService,
+            @Qualifier("synapseCacheKeyGenerator") CacheKeyGenerator cacheKeyGenerator,
+            SessionIndex sessionIndex,
+            @Autowired(required = false) CacheInvalidationService cacheInvalidationService,
+            @Autowired(required = false) List<SessionRevocationListener> sessionRevocationListeners,
+            CacheProperties cacheProperties) {
+        log.debug("创建SessionBulkOperations Bean - 批量会话操作");
+        return SessionBulkOperations.builder(redisService, cacheKeyGenerator, sessionIndex)
+                .invalidationService(cacheInvalidationService)
+                .config(cacheProperties.getSessionBulk())
+                .revocationListeners(sessionRevocationListeners)
+                .build();
+    }
+
+    /**
+     * 注册权限字典
+     * 将权限/角色编码驻留为整数ID，权限判断使用位图运算
+     */
+    @Bean
+    @ConditionalOnMissingBean
+    public PermissionDictionary permissionDictionary() {
+        log.debug("创建PermissionDictionary Bean - 权限字典");
+        return new PermissionDictionary();
+    }
+
+    /**
+     * 注册会话活跃度统计（需通过 synapse.cache.session-analytics.enabled=true 显式开启）
+     */
+    @Bean
+    @ConditionalOnMissingBean
+    @ConditionalOnProperty(prefix = "synapse.cache.session-analytics", name = "enabled", havingValue = "true")
+    public SessionAnalytics sessionAnalytics(
+            RedisService redisService,
+            @Qualifier("synapseCacheKeyGenerator") CacheKeyGenerator cacheKeyGenerator,
+            CacheProperties cacheProperties) {
+        log.debug("创建SessionAnalytics Bean - 会话活跃度统计");
+        return new SessionAnalytics(redisService, cacheKeyGenerator, cacheProperties.getSessionAnalytics());
+    }
+
     /**
      * 注册会话管理器
      * 支持 Caffeine 二级缓存和缓存失效通知（如果可用）
@@ -176,13 +274,16 @@ public class CacheAutoConfiguration {
             @Qualifier("synapseCacheKeyGenerator") CacheKeyGenerator cacheKeyGenerator,
             @Autowired(required = false) CaffeineCacheManager caffeineCacheManager,
             @Autowired(required = false) CacheInvalidationService cacheInvalidationService,
-            @Autowired(required = false) CacheInvalidationTracker invalidationTracker) {
+            @Autowired(required = false) CacheInvalidationTracker invalidationTracker,
+            @Autowired(required = false) SessionIndex sessionIndex,
+            @Autowired(required = false) SessionRenewalQueue sessionRenewalQueue) {
         log.debug("创建SessionManager Bean，Caffeine缓存: {}, 失效通知: {}, 失效追踪: {}", 
                 caffeineCacheManager != null ? "启用" : "未启用",
                 cacheInvalidationService != null ? "启用" : "未启用",
                 invalidationTracker != null ? "启用" : "未启用");
         return new DefaultSessionManager(
-                cacheService, cacheKeyGenerator, caffeineCacheManager, cacheInvalidationService, invalidationTracker);
+                cacheService, cacheKeyGenerator, caffeineCacheManager, cacheInvalidationService, invalidationTracker,
+                sessionIndex, sessionRenewalQueue);
     }
 
     /**
@@ -196,13 +297,16 @@ public class CacheAutoConfiguration {
             @Qualifier("synapseCacheKeyGenerator") CacheKeyGenerator cacheKeyGenerator,
             @Autowired(required = false) CaffeineCacheManager caffeineCacheManager,
             @Autowired(required = false) CacheInvalidationService cacheInvalidationService,
-            @Autowired(required = false) CacheInvalidationTracker invalidationTracker) {
+            @Autowired(required = false) CacheInvalidationTracker invalidationTracker,
+            @Autowired(required = false) SessionIndex sessionIndex,
+            @Autowired(required = false) PermissionDictionary permissionDictionary) {
         log.debug("创建CachePermissionManager Bean，Caffeine缓存: {}, 失效通知: {}, 失效追踪: {}", 
                 caffeineCacheManager != null ? "启用" : "未启用",
                 cacheInvalidationService != null ? "启用" : "未启用",
                 invalidationTracker != null ? "启用" : "未启用");
         return new DefaultCachePermissionManager(
-                cacheService, cacheKeyGenerator, caffeineCacheManager, cacheInvalidationService, invalidationTracker);
+                cacheService, cacheKeyGenerator, caffeineCacheManager, cacheInvalidationService, invalidationTracker,
+                sessionIndex, permissionDictionary);
     }
 
     /**
@@ -215,10 +319,23 @@ public class CacheAutoConfiguration {
             @Qualifier("synapseCacheKeyGenerator") CacheKeyGenerator cacheKeyGenerator,
             RedisService redisService,
             SessionManager sessionManager,
-            CachePermissionManager permissionManager) {
-        log.debug("创建StatisticsManager Bean");
-        return UserSessionServiceFactory.createStatisticsManager(
-                cacheService, cacheKeyGenerator, redisService, sessionManager, permissionManager);
+            CachePermissionManager permissionManager,
+            @Autowired(required = false) SessionIndex sessionIndex,
+            @Autowired(required = false) SessionAnalytics sessionAnalytics,
+            @Autowired(required = false) SessionBulkOperations sessionBulkOperations,
+            @Autowired(required = false) List<SessionRevocationListener> sessionRevocationListeners) {
+        log.debug("创建StatisticsManager Bean，在线会话索引: {}, 活跃度统计: {}, 批量会话操作: {}, 会话吊销监听: {}",
+                sessionIndex != null ? "启用" : "未启用",
+                sessionAnalytics != null ? "启用" : "未启用",
+                sessionBulkOperations != null ? "启用" : "未启用",
+                sessionRevocationListeners != null ? sessionRevocationListeners.size() : 0);
+        return DefaultStatisticsManager.builder(cacheService, cacheKeyGenerator, redisService, sessionManager,
+                        permissionManager)
+                .sessionIndex(sessionIndex)
+                .sessionAnalytics(sessionAnalytics)
+                .sessionBulkOperations(sessionBulkOperations)
+                .revocationListeners(sessionRevocationListeners)
+                .build();
     }
 
     /**
@@ -228,9 +345,10 @@ public class CacheAutoConfiguration {
     @ConditionalOnMissingBean
     public RateLimitService rateLimitService(
             RedisService redisService,
-            @Qualifier("synapseCacheKeyGenerator") CacheKeyGenerator cacheKeyGenerator) {
+            @Qualifier("synapseCacheKeyGenerator") CacheKeyGenerator cacheKeyGenerator,
+            CacheProperties cacheProperties) {
         log.debug("创建RateLimitService Bean");
-        return new RateLimitService(redisService, cacheKeyGenerator);
+        return new RateLimitService(redisService, cacheKeyGenerator, cacheProperties.getRateLimiter());
     }
 
     /**
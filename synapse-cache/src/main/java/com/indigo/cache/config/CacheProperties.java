@@ -48,6 +48,26 @@ public class CacheProperties {
      */
     private SessionWarmup sessionWarmup = new SessionWarmup();
 
+    /**
+     * 分布式限流器配置
+     */
+    private RateLimiter rateLimiter = new RateLimiter();
+
+    /**
+     * 会话活跃度统计配置
+     */
+    private SessionAnalytics sessionAnalytics = new SessionAnalytics();
+
+    /**
+     * 会话续期队列配置
+     */
+    private SessionRenewal sessionRenewal = new SessionRenewal();
+
+    /**
+     * 批量会话操作配置
+     */
+    private SessionBulk sessionBulk = new SessionBulk();
+
     /**
      * 缓存穿透防护配置
      */
@@ -590,4 +610,132 @@ public class CacheProperties {
          */
         private int threadPoolSize = 4;
     }
-} 
\ No newline at end of file
+
+    /**
+     * 分布式限流器配置
+     */
+    @Data
+    public static class RateLimiter {
+        /**
+         * 是否启用本地令牌预分配（GCRA算法）
+         * 启用后每次从Redis预取一批许可在本地消费，大部分检查不再访问Redis
+         */
+        private boolean localPrefetchEnabled = false;
+
+        /**
+         * 每次从Redis预取的许可数
+         */
+        private int localPrefetchSize = 10;
+
+        /**
+         * 本地预取许可的有效期（毫秒），过期未用完的许可作废
+         */
+        private long localLeaseMillis = 1000;
+
+        /**
+         * 本地预取许可、进程内限流器最多缓存的限流键数量
+         */
+        private long localMaxKeys = 10000;
+
+        /**
+         * 是否启用进程内前置限流
+         * 单节点已超过限额的请求直接拒绝，不再访问Redis
+         */
+        private boolean localPreFilterEnabled = false;
+    }
+
+    /**
+     * 会话活跃度统计配置
+     */
+    @Data
+    public static class SessionAnalytics {
+        /**
+         * 是否启用会话活跃度统计（默认关闭，需显式开启）
+         */
+        private boolean enabled = false;
+
+        /**
+         * 本地预聚合数据刷新到Redis的间隔（毫秒），同时也是统计查询结果的本地缓存时间
+         */
+        private long flushIntervalMillis = 5000;
+
+        /**
+         * 单个分钟桶最多缓冲的用户数，超过时提前刷新
+         */
+        private int maxBufferedUsers = 10000;
+
+        /**
+         * 分钟桶保留时间（分钟）
+         */
+        private int minuteRetentionMinutes = 120;
+
+        /**
+         * 小时桶保留时间（小时）
+         */
+        private int hourRetentionHours = 48;
+
+        /**
+         * 日活Bitmap保留时间（天）
+         */
+        private int dayRetentionDays = 8;
+
+        /**
+         * 日活Bitmap允许的最大用户ID（位偏移），默认 2^24 - 1（Bitmap 最大约 2MB）
+         * 超过此值或非数字的用户ID记入当日 HyperLogLog，日活为两者之和
+         */
+        private long maxBitmapOffset = 0xFFFFFFL;
+    }
+
+    /**
+     * 会话续期队列配置（滑动过期的后台批量续期）
+     */
+    @Data
+    public static class SessionRenewal {
+        /**
+         * 是否启用后台续期队列，关闭时在请求线程上同步续期
+         */
+        private boolean enabled = true;
+
+        /**
+         * 批次执行间隔（毫秒）
+         */
+        private long flushIntervalMillis = 200;
+
+        /**
+         * 单个批次最多续期的 token 数，待续期数量达到此值时提前执行
+         */
+        private int batchSize = 50;
+
+        /**
+         * 去重窗口（毫秒），同一 token 在窗口内只入队一次
+         */
+        private long dedupWindowMillis = 30000;
+
+        /**
+         * 去重窗口最多跟踪的 token 数量
+         */
+        private long maxTrackedTokens = 100000;
+    }
+
+    /**
+     * 批量会话操作配置（批量强制下线、批量推送权限）
+     */
+    @Data
+    public static class SessionBulk {
+        /**
+         * 并行执行的批次数
+         */
+        private int parallelism = 4;
+
+        /**
+         * 单个批次处理的 token 数（一次管道）
+         */
+        private int batchSize = 500;
+
+        /**
+         * 每个批次、每种缓存类型只发布一条合并的本地缓存失效通知
+         * 旧版本节点无法识别合并通知，滚动升级期间保持关闭（逐键发布），所有节点升级后再开启
+         */
+        private boolean mergedInvalidation = false;
+    }
+}
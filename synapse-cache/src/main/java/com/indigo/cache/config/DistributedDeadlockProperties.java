@@ -61,4 +61,25 @@ public class DistributedDeadlockProperties {
      * 清理间隔（毫秒）
      */
     private long cleanupInterval = 30000;
+
+    /**
+     * 全局增量流最大长度（近似裁剪，超出后落后的节点会触发全量重建）
+     */
+    private long deltaStreamMaxLen = 10000;
+
+    /**
+     * 每次全局检测读取的最大增量条数
+     */
+    private int deltaReadBatchSize = 1000;
+
+    /**
+     * 全局等待图全量重建间隔（毫秒），用于兜底修正本地镜像
+     */
+    private long fullResyncInterval = 300000;
+
+    /**
+     * 本地待发布增量上限（全局检测关闭期间不积累增量；Redis不可用导致积压超过上限时丢弃增量，
+     * 恢复后以本节点当前等待图全量重新发布）
+     */
+    private int maxPendingDeltas = 10000;
 }
@@ -0,0 +1,68 @@
+package com.indigo.cache.config;
+
+import com.indigo.cache.extension.ratelimit.ReactiveRateLimitService;
+import com.indigo.cache.manager.CacheKeyGenerator;
+import com.indigo.cache.session.AuthSnapshotLoader;
+import com.indigo.cache.session.ReactiveAuthSnapshotLoader;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.redis.connection.ReactiveRedisConnectionFactory;
+import org.springframework.data.redis.core.ReactiveStringRedisTemplate;
+
+/**
+ * 响应式Redis配置
+ * 仅在 classpath 存在 Reactor 且连接工厂支持响应式连接时生效（spring-boot-starter-data-redis-reactive 为可选依赖），
+ * 否则跳过，响应式限流切面退回到 boundedElastic 上执行同步检查
+ *
+ * @author 史偕成
+ * @date 2025/12/19
+ */
+@Slf4j
+@Configuration
+@ConditionalOnClass(name = "reactor.core.publisher.Mono")
+@ConditionalOnBean(ReactiveRedisConnectionFactory.class)
+public class ReactiveRedisConfiguration {
+
+    /**
+     * 配置ReactiveStringRedisTemplate
+     * 复用同一个Lettuce连接工厂，不额外创建连接池
+     */
+    @Bean("reactiveStringRedisTemplate")
+    @ConditionalOnMissingBean(name = "reactiveStringRedisTemplate")
+    public ReactiveStringRedisTemplate reactiveStringRedisTemplate(ReactiveRedisConnectionFactory reactiveRedisConnectionFactory) {
+        log.debug("创建自定义ReactiveStringRedisTemplate Bean");
+        return new ReactiveStringRedisTemplate(reactiveRedisConnectionFactory);
+    }
+
+    /**
+     * 注册响应式限流服务
+     */
+    @Bean
+    @ConditionalOnMissingBean
+    public ReactiveRateLimitService reactiveRateLimitService(
+            ReactiveStringRedisTemplate reactiveStringRedisTemplate,
+            @Qualifier("synapseCacheKeyGenerator") CacheKeyGenerator cacheKeyGenerator,
+            CacheProperties cacheProperties) {
+        log.debug("创建ReactiveRateLimitService Bean");
+        return new ReactiveRateLimitService(reactiveStringRedisTemplate, cacheKeyGenerator,
+                cacheProperties.getRateLimiter());
+    }
+
+    /**
+     * 注册响应式认证快照加载器
+     * 与 AuthSnapshotLoader 共用脚本和本地缓存，供 WebFlux 过滤器在事件循环线程上解析会话
+     */
+    @Bean
+    @ConditionalOnMissingBean
+    public ReactiveAuthSnapshotLoader reactiveAuthSnapshotLoader(
+            ReactiveStringRedisTemplate reactiveStringRedisTemplate,
+            AuthSnapshotLoader authSnapshotLoader) {
+        log.debug("创建ReactiveAuthSnapshotLoader Bean - 响应式认证快照加载器");
+        return new ReactiveAuthSnapshotLoader(reactiveStringRedisTemplate, authSnapshotLoader);
+    }
+}
@@ -40,11 +40,12 @@ public class RedisConnectionConfiguration {
      * 使用synapse.cache.redis配置
      * 使用 @Primary 确保此 Bean 优先于 Spring Boot 自动配置的 Bean
      * 使用 @AutoConfigureBefore 确保此配置在 RedisAutoConfiguration 之前加载
+     * 返回类型声明为 LettuceConnectionFactory，条件注解可以据此判断是否支持响应式连接
      */
     @Bean("redisConnectionFactory")
     @Primary
-    public RedisConnectionFactory redisConnectionFactory() {
-        RedisConnectionFactory factory;
+    public LettuceConnectionFactory redisConnectionFactory() {
+        LettuceConnectionFactory factory;
         
         if (cacheProperties.getRedisCache().getCluster().isEnabled()) {
             factory = createClusterConnectionFactory();
@@ -63,7 +64,7 @@ public class RedisConnectionConfiguration {
     /**
      * 创建单机Redis连接工厂
      */
-    private RedisConnectionFactory createStandaloneConnectionFactory() {
+    private LettuceConnectionFactory createStandaloneConnectionFactory() {
         CacheProperties.RedisCache.Connection conn = cacheProperties.getRedisCache().getConnection();
         CacheProperties.RedisCache.Pool pool = cacheProperties.getRedisCache().getPool();
         
@@ -84,7 +85,7 @@ public class RedisConnectionConfiguration {
     /**
      * 创建哨兵Redis连接工厂
      */
-    private RedisConnectionFactory createSentinelConnectionFactory() {
+    private LettuceConnectionFactory createSentinelConnectionFactory() {
         CacheProperties.RedisCache.Sentinel sentinel = cacheProperties.getRedisCache().getSentinel();
         CacheProperties.RedisCache.Pool pool = cacheProperties.getRedisCache().getPool();
         CacheProperties.RedisCache.Connection conn = cacheProperties.getRedisCache().getConnection();
@@ -124,7 +125,7 @@ public class RedisConnectionConfiguration {
     /**
      * 创建集群Redis连接工厂
      */
-    private RedisConnectionFactory createClusterConnectionFactory() {
+    private LettuceConnectionFactory createClusterConnectionFactory() {
         CacheProperties.RedisCache.Cluster cluster = cacheProperties.getRedisCache().getCluster();
         CacheProperties.RedisCache.Pool pool = cacheProperties.getRedisCache().getPool();
         
@@ -1,5 +1,6 @@
 package com.indigo.cache.core;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
 import com.indigo.cache.infrastructure.RedisService;
 import com.indigo.core.utils.JsonUtils;
 
@@ -12,6 +13,8 @@ import org.springframework.data.redis.connection.RedisConnectionFactory;
 import org.springframework.data.redis.listener.ChannelTopic;
 import org.springframework.data.redis.listener.RedisMessageListenerContainer;
 
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 
@@ -145,6 +148,32 @@ public class CacheInvalidationService {
         log.debug("批量发布缓存失效事件: cacheType={}, count={}", cacheType, cacheKeys.size());
     }
 
+    /**
+     * 合并发布缓存失效事件
+     * 所有键合并为一条消息发布，接收端逐个通知监听器。
+     * 旧版本节点无法识别合并消息，只有所有节点都升级后才能使用，否则应使用 {@link #publishInvalidationBatch}
+     *
+     * @param cacheType 缓存类型
+     * @param cacheKeys 缓存键列表
+     */
+    public void publishMergedInvalidation(String cacheType, Set<String> cacheKeys) {
+        if (cacheKeys == null || cacheKeys.isEmpty()) {
+            return;
+        }
+        if (cacheKeys.size() == 1) {
+            publishInvalidation(cacheType, cacheKeys.iterator().next());
+            return;
+        }
+
+        try {
+            CacheInvalidationEvent event = new CacheInvalidationEvent(cacheType, new ArrayList<>(cacheKeys));
+            redisService.publish(CACHE_INVALIDATION_CHANNEL, event);
+            log.debug("合并发布缓存失效事件: cacheType={}, count={}", cacheType, cacheKeys.size());
+        } catch (Exception e) {
+            log.error("合并发布缓存失效事件失败: cacheType={}, count={}", cacheType, cacheKeys.size(), e);
+        }
+    }
+
     /**
      * 处理失效事件
      */
@@ -155,22 +184,35 @@ public class CacheInvalidationService {
                 return;
             }
             
-            log.debug("收到缓存失效事件: cacheType={}, cacheKey={}", event.getCacheType(), event.getCacheKey());
-            
-            // 通知所有监听器
-            for (CacheInvalidationListener listener : listeners) {
-                try {
-                    listener.onCacheInvalidation(event.getCacheType(), event.getCacheKey());
-                } catch (Exception e) {
-                    log.error("监听器处理缓存失效事件失败: listener={}, cacheType={}, cacheKey={}", 
-                            listener.getClass().getSimpleName(), event.getCacheType(), event.getCacheKey(), e);
+            if (event.getCacheKeys() != null) {
+                log.debug("收到合并缓存失效事件: cacheType={}, count={}", event.getCacheType(), event.getCacheKeys().size());
+                for (String cacheKey : event.getCacheKeys()) {
+                    notifyListeners(event.getCacheType(), cacheKey);
                 }
+                return;
             }
+
+            log.debug("收到缓存失效事件: cacheType={}, cacheKey={}", event.getCacheType(), event.getCacheKey());
+            notifyListeners(event.getCacheType(), event.getCacheKey());
         } catch (Exception e) {
             log.error("处理缓存失效事件失败: event={}", event, e);
         }
     }
 
+    /**
+     * 通知所有监听器
+     */
+    private void notifyListeners(String cacheType, String cacheKey) {
+        for (CacheInvalidationListener listener : listeners) {
+            try {
+                listener.onCacheInvalidation(cacheType, cacheKey);
+            } catch (Exception e) {
+                log.error("监听器处理缓存失效事件失败: listener={}, cacheType={}, cacheKey={}", 
+                        listener.getClass().getSimpleName(), cacheType, cacheKey, e);
+            }
+        }
+    }
+
     /**
      * 缓存失效事件
      */
@@ -179,6 +221,13 @@ public class CacheInvalidationService {
     public static class CacheInvalidationEvent {
         private String cacheType;
         private String cacheKey;
+
+        /**
+         * 合并失效的缓存键（合并事件时使用，此时 cacheKey 为空）
+         * 为空时不序列化，单键事件的消息格式与旧版本保持一致
+         */
+        @JsonInclude(JsonInclude.Include.NON_NULL)
+        private List<String> cacheKeys;
         private long timestamp;
 
         public CacheInvalidationEvent() {
@@ -191,6 +240,12 @@ public class CacheInvalidationService {
             this.timestamp = System.currentTimeMillis();
         }
 
+        public CacheInvalidationEvent(String cacheType, List<String> cacheKeys) {
+            this.cacheType = cacheType;
+            this.cacheKeys = cacheKeys;
+            this.timestamp = System.currentTimeMillis();
+        }
+
         public String toJson() {
             return JsonUtils.toJsonString(this);
         }
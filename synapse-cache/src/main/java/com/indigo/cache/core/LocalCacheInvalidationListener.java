@@ -39,7 +39,7 @@ public class LocalCacheInvalidationListener implements CacheInvalidationService.
             if (cacheName != null) {
                 caffeineCacheManager.remove(cacheName, cacheKey);
                 log.debug("清除本地缓存: cacheType={}, cacheKey={}", cacheType, cacheKey);
-            } else {
+            } else if (!isHandledElsewhere(cacheType)) {
                 log.warn("未知的缓存类型: cacheType={}, cacheKey={}", cacheType, cacheKey);
             }
         } catch (Exception e) {
@@ -47,6 +47,15 @@ public class LocalCacheInvalidationListener implements CacheInvalidationService.
         }
     }
 
+    /**
+     * 不对应 Caffeine 缓存、由其他监听器处理的类型（如签名 Token 的吊销通知）
+     */
+    private boolean isHandledElsewhere(String cacheType) {
+        return SessionCacheConstants.CACHE_TYPE_TOKEN_REVOCATION.equals(cacheType)
+                || SessionCacheConstants.CACHE_TYPE_TOKEN_VERSION.equals(cacheType)
+                || SessionCacheConstants.CACHE_TYPE_IP_LOCK.equals(cacheType);
+    }
+
     /**
      * 根据缓存类型获取缓存名称
      */
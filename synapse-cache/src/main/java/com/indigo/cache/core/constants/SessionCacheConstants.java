@@ -104,5 +104,22 @@ public final class SessionCacheConstants {
      * 用于缓存失效通知中的缓存类型标识
      */
     public static final String CACHE_TYPE_USER_SYSTEMS = "userSystems";
-}
 
+    /**
+     * 签名 Token 吊销类型
+     * 用于通知各节点把 token 标识（jti）加入本地吊销列表，不对应 Caffeine 缓存
+     */
+    public static final String CACHE_TYPE_TOKEN_REVOCATION = "tokenRevocation";
+
+    /**
+     * 用户会话版本类型
+     * 用于通知各节点清除本地缓存的用户会话版本，不对应 Caffeine 缓存
+     */
+    public static final String CACHE_TYPE_TOKEN_VERSION = "tokenVersion";
+
+    /**
+     * 登录 IP 锁定类型
+     * 用于通知各节点清除本地记录的 IP 锁定（解锁 IP 时发布），不对应 Caffeine 缓存
+     */
+    public static final String CACHE_TYPE_IP_LOCK = "ipLock";
+}
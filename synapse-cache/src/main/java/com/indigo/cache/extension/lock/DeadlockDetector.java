@@ -6,19 +6,27 @@ import org.springframework.beans.factory.annotation.Qualifier;
 
 import java.util.*;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
 
 /**
  * 分布式死锁检测器
  * 基于资源分配图的死锁检测算法
  * 
  * 特性：
- * 1. 定期检测死锁：定时扫描资源分配图
+ * 1. 增量检测死锁：只从上次检测后新增等待边的线程出发查找回路，无需全图DFS
  * 2. 死锁预防：通过超时机制预防死锁
  * 3. 死锁恢复：自动释放超时锁
  * 4. 资源依赖图：构建线程间的资源依赖关系
+ * 5. 检测指标：暴露检测耗时、图规模等指标（见 {@link #getStatus()}）
+ *
+ * 增量检测原理：等待图中的新回路必然包含自上次检测以来新增的边。
+ * 新增边只有两种来源：线程开始等待某锁（waiter→holder），或线程获取了已有等待者的锁（waiters→新holder）。
+ * 两种情况分别把 waiter / 新 holder 标记为"脏"线程，检测时只从脏线程出发寻找回到自身的路径。
  * 
  * <p><b>注意：</b>此类通过 {@link LockAutoConfiguration} 中的 {@code @Bean} 方法注册为 Bean，
  * 不需要 {@code @Component} 注解。如果同时使用 {@code @Component} 和 {@code @Bean}，
@@ -50,8 +58,43 @@ public class DeadlockDetector {
     // 线程超时时间：线程 -> 超时时间戳
     private final ConcurrentHashMap<String, Long> threadTimeouts = new ConcurrentHashMap<>();
 
+    // 上次检测后新增等待边的起点线程（增量检测的起点）
+    private final ConcurrentLinkedQueue<String> dirtyThreads = new ConcurrentLinkedQueue<>();
+
     private final AtomicBoolean running = new AtomicBoolean(true);
 
+    // 检测指标
+    private final AtomicLong detectionRuns = new AtomicLong();
+    private final AtomicLong lastDetectionNanos = new AtomicLong();
+    private final AtomicLong totalDetectionNanos = new AtomicLong();
+    private final AtomicLong checkedStartThreads = new AtomicLong();
+    private final AtomicLong visitedThreads = new AtomicLong();
+    private final AtomicLong detectedCycles = new AtomicLong();
+
+    /**
+     * 等待图变更类型，用于向子类（如分布式检测器）传递增量
+     */
+    public enum EdgeOp {
+        /** 新增等待边 */
+        WAIT_ADD('W'),
+        /** 移除等待边 */
+        WAIT_REMOVE('w'),
+        /** 新增持有关系 */
+        HOLD_ADD('H'),
+        /** 移除持有关系 */
+        HOLD_REMOVE('h');
+
+        private final char code;
+
+        EdgeOp(char code) {
+            this.code = code;
+        }
+
+        public char getCode() {
+            return code;
+        }
+    }
+
     public DeadlockDetector(@Qualifier("lockScheduledExecutor") ScheduledExecutorService scheduler) {
         this.scheduler = scheduler;
         // 启动死锁检测任务
@@ -69,6 +112,13 @@ public class DeadlockDetector {
         lockHolders.put(lockKey, threadId);
         threadTimeouts.put(threadId, System.currentTimeMillis() + LOCK_TIMEOUT * 1000L);
 
+        // 已有等待者时，新增了 waiters→threadId 的边，从新持有者出发即可覆盖这些边上的回路
+        Set<String> waiters = lockWaiters.get(lockKey);
+        if (waiters != null && !waiters.isEmpty()) {
+            dirtyThreads.offer(threadId);
+        }
+        onEdgeChange(EdgeOp.HOLD_ADD, threadId, lockKey);
+
         log.debug("[DeadlockDetector] 记录锁获取: threadId={} lockKey={}", threadId, lockKey);
     }
 
@@ -88,6 +138,7 @@ public class DeadlockDetector {
             }
         }
         lockHolders.remove(lockKey);
+        onEdgeChange(EdgeOp.HOLD_REMOVE, threadId, lockKey);
 
         log.info("[DeadlockDetector] 记录锁释放: threadId={} lockKey={}", threadId, lockKey);
     }
@@ -101,6 +152,8 @@ public class DeadlockDetector {
     public void recordLockWaitStart(String threadId, String lockKey) {
         threadWaits.computeIfAbsent(threadId, k -> ConcurrentHashMap.newKeySet()).add(lockKey);
         lockWaiters.computeIfAbsent(lockKey, k -> ConcurrentHashMap.newKeySet()).add(threadId);
+        dirtyThreads.offer(threadId);
+        onEdgeChange(EdgeOp.WAIT_ADD, threadId, lockKey);
 
         log.info("[DeadlockDetector] 记录锁等待: threadId={} lockKey={}", threadId, lockKey);
     }
@@ -127,10 +180,35 @@ public class DeadlockDetector {
                 lockWaiters.remove(lockKey);
             }
         }
+        onEdgeChange(EdgeOp.WAIT_REMOVE, threadId, lockKey);
 
         log.info("[DeadlockDetector] 记录锁等待结束: threadId={} lockKey={}", threadId, lockKey);
     }
 
+    /**
+     * 等待图变更回调（默认空实现）
+     * 子类可覆盖以收集增量，例如分布式检测器把增量发布到全局
+     *
+     * @param op 变更类型
+     * @param threadId 线程ID
+     * @param lockKey 锁键
+     */
+    protected void onEdgeChange(EdgeOp op, String threadId, String lockKey) {
+    }
+
+    /**
+     * 按当前等待图重放全部边（持有关系与等待关系）到 {@link #onEdgeChange}
+     * 用于增量丢失后由子类重新发布全量状态
+     */
+    protected void replayEdges() {
+        lockHolders.forEach((lockKey, threadId) -> onEdgeChange(EdgeOp.HOLD_ADD, threadId, lockKey));
+        threadWaits.forEach((threadId, lockKeys) -> {
+            for (String lockKey : lockKeys) {
+                onEdgeChange(EdgeOp.WAIT_ADD, threadId, lockKey);
+            }
+        });
+    }
+
     /**
      * 启动死锁检测任务
      */
@@ -150,8 +228,10 @@ public class DeadlockDetector {
             // 清理超时线程
             cleanupTimeoutThreads();
 
-            // 检测死锁
-            List<Set<String>> deadlockCycles = findDeadlockCycles();
+            // 增量检测死锁：只从新增等待边的起点出发
+            long start = System.nanoTime();
+            List<Set<String>> deadlockCycles = findNewDeadlockCycles();
+            recordDetection(System.nanoTime() - start, deadlockCycles.size());
 
             if (!deadlockCycles.isEmpty()) {
                 log.warn("[DeadlockDetector] 检测到死锁，死锁环数量: {}", deadlockCycles.size());
@@ -217,70 +297,134 @@ public class DeadlockDetector {
             }
         }
         
-        threadWaits.remove(threadId);
+        // 等待关系同样逐条移除，保持 lockWaiters 一致并向子类发布 WAIT_REMOVE
+        Set<String> waits = threadWaits.get(threadId);
+        if (waits != null) {
+            for (String lockKey : new HashSet<>(waits)) {
+                recordLockWaitEnd(threadId, lockKey);
+            }
+        }
         threadTimeouts.remove(threadId);
     }
 
     /**
-     * 查找死锁环
-     * 
-     * @return 死锁环列表
+     * 增量查找死锁环
+     * 只从上次检测后新增等待边的线程出发，沿 waiter→holder 方向寻找回到起点的路径
+     *
+     * @return 新出现的死锁环列表
      */
-    private List<Set<String>> findDeadlockCycles() {
+    private List<Set<String>> findNewDeadlockCycles() {
+        if (dirtyThreads.isEmpty()) {
+            return Collections.emptyList();
+        }
+        Set<String> starts = new LinkedHashSet<>();
+        String threadId;
+        while ((threadId = dirtyThreads.poll()) != null) {
+            starts.add(threadId);
+        }
+        checkedStartThreads.addAndGet(starts.size());
+
         List<Set<String>> cycles = new ArrayList<>();
-        Set<String> visited = new HashSet<>();
-        Set<String> recursionStack = new HashSet<>();
-        
-        for (String threadId : threadLocks.keySet()) {
-            if (!visited.contains(threadId)) {
-                Set<String> cycle = new HashSet<>();
-                if (hasCycle(threadId, visited, recursionStack, cycle)) {
-                    cycles.add(new HashSet<>(cycle));
-                }
+        Set<String> inCycle = new HashSet<>();
+        for (String start : starts) {
+            if (inCycle.contains(start)) {
+                continue;
+            }
+            List<String> path = findCycleFrom(start, threadWaits, lockHolders::get);
+            if (path != null) {
+                Set<String> cycle = new LinkedHashSet<>(path);
+                inCycle.addAll(cycle);
+                cycles.add(cycle);
             }
         }
-        
         return cycles;
     }
 
     /**
-     * 使用DFS检测环
-     * 
-     * @param threadId 当前线程ID
-     * @param visited 已访问的线程
-     * @param recursionStack 递归栈
-     * @param cycle 当前环
-     * @return 是否存在环
+     * 全量查找死锁环（对整个等待图执行一次增量检测，用于手动触发或兜底）
+     *
+     * @return 死锁环列表
      */
-    private boolean hasCycle(String threadId, Set<String> visited, Set<String> recursionStack, Set<String> cycle) {
-        if (recursionStack.contains(threadId)) {
-            cycle.add(threadId);
-            return true;
-        }
-        
-        if (visited.contains(threadId)) {
-            return false;
+    public List<Set<String>> findAllDeadlockCycles() {
+        for (String threadId : threadWaits.keySet()) {
+            dirtyThreads.offer(threadId);
         }
-        
-        visited.add(threadId);
-        recursionStack.add(threadId);
-        cycle.add(threadId);
-        
-        Set<String> waits = threadWaits.get(threadId);
-        if (waits != null) {
-            for (String lockKey : waits) {
-                String holder = lockHolders.get(lockKey);
-                if (holder != null && !holder.equals(threadId)) {
-                    if (hasCycle(holder, visited, recursionStack, cycle)) {
-                        return true;
-                    }
+        return findNewDeadlockCycles();
+    }
+
+    /**
+     * 从起点出发沿等待图做迭代DFS，寻找回到起点的路径
+     *
+     * @param start 起点线程
+     * @param waits 线程 -> 等待的锁集合
+     * @param holderOf 锁 -> 持有线程
+     * @return 回路上的线程（从起点开始），无回路返回null
+     */
+    protected List<String> findCycleFrom(String start, Map<String, Set<String>> waits,
+                                         Function<String, String> holderOf) {
+        Set<String> visited = new HashSet<>();
+        Deque<String> path = new ArrayDeque<>();
+        Deque<Iterator<String>> stack = new ArrayDeque<>();
+
+        visited.add(start);
+        path.addLast(start);
+        stack.push(nextThreads(start, waits, holderOf).iterator());
+        long visits = 1;
+
+        try {
+            while (!stack.isEmpty()) {
+                Iterator<String> it = stack.peek();
+                if (!it.hasNext()) {
+                    stack.pop();
+                    path.removeLast();
+                    continue;
+                }
+                String next = it.next();
+                if (next.equals(start)) {
+                    return new ArrayList<>(path);
+                }
+                if (visited.add(next)) {
+                    visits++;
+                    path.addLast(next);
+                    stack.push(nextThreads(next, waits, holderOf).iterator());
                 }
             }
+            return null;
+        } finally {
+            visitedThreads.addAndGet(visits);
         }
-        
-        recursionStack.remove(threadId);
-        cycle.remove(threadId);
-        return false;
+    }
+
+    /**
+     * 获取线程在等待图中的后继（其等待的锁的持有者）
+     */
+    private List<String> nextThreads(String threadId, Map<String, Set<String>> waits,
+                                     Function<String, String> holderOf) {
+        Set<String> lockKeys = waits.get(threadId);
+        if (lockKeys == null || lockKeys.isEmpty()) {
+            return Collections.emptyList();
+        }
+        List<String> next = new ArrayList<>(lockKeys.size());
+        for (String lockKey : lockKeys) {
+            String holder = holderOf.apply(lockKey);
+            if (holder != null && !holder.equals(threadId)) {
+                next.add(holder);
+            }
+        }
+        return next;
+    }
+
+    /**
+     * 记录一次检测的耗时与结果
+     *
+     * @param elapsedNanos 检测耗时（纳秒）
+     * @param cycles 发现的死锁环数量
+     */
+    protected void recordDetection(long elapsedNanos, int cycles) {
+        detectionRuns.incrementAndGet();
+        lastDetectionNanos.set(elapsedNanos);
+        totalDetectionNanos.addAndGet(elapsedNanos);
+        detectedCycles.addAndGet(cycles);
     }
 
     /**
@@ -372,9 +516,36 @@ public class DeadlockDetector {
         status.put("lockHolders", new HashMap<>(lockHolders));
         status.put("lockWaiters", new HashMap<>(lockWaiters));
         status.put("threadTimeouts", new HashMap<>(threadTimeouts));
+        status.put("metrics", getMetrics());
         return status;
     }
 
+    /**
+     * 获取检测指标（检测耗时与图规模）
+     *
+     * @return 指标
+     */
+    public Map<String, Object> getMetrics() {
+        long runs = detectionRuns.get();
+        int waitEdges = 0;
+        for (Set<String> waits : threadWaits.values()) {
+            waitEdges += waits.size();
+        }
+        Map<String, Object> metrics = new LinkedHashMap<>();
+        metrics.put("detectionRuns", runs);
+        metrics.put("lastDetectionMicros", lastDetectionNanos.get() / 1000);
+        metrics.put("avgDetectionMicros", runs == 0 ? 0 : totalDetectionNanos.get() / runs / 1000);
+        metrics.put("checkedStartThreads", checkedStartThreads.get());
+        metrics.put("visitedThreads", visitedThreads.get());
+        metrics.put("detectedCycles", detectedCycles.get());
+        metrics.put("pendingStartThreads", dirtyThreads.size());
+        metrics.put("holdingThreads", threadLocks.size());
+        metrics.put("waitingThreads", threadWaits.size());
+        metrics.put("heldLocks", lockHolders.size());
+        metrics.put("waitEdges", waitEdges);
+        return metrics;
+    }
+
     /**
      * 停止死锁检测
      */
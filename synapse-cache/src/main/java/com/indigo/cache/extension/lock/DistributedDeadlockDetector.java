@@ -5,12 +5,19 @@ import com.indigo.cache.config.DistributedDeadlockProperties;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.domain.Range;
+import org.springframework.data.redis.connection.Limit;
+import org.springframework.data.redis.connection.stream.MapRecord;
+import org.springframework.data.redis.core.StreamOperations;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
 
 import java.util.*;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicLong;
 
 /**
@@ -19,10 +26,21 @@ import java.util.concurrent.atomic.AtomicLong;
  * <p>
  * 特性：
  * 1. 混合检测策略：本地检测 + 全局协调检测
- * 2. 状态同步：定期同步本地状态到Redis全局图
- * 3. 分布式算法：支持跨节点的死锁检测
+ * 2. 增量同步：节点只发布等待图的边变更（增量），不再定期全量上报快照
+ * 3. 增量检测：全局检测维护本地镜像，只从新增等待边的线程出发查找回路
  * 4. 智能处理：本地死锁立即处理，全局死锁协调处理
  * 5. 容错机制：单点故障不影响整体检测
+ * <p>
+ * Redis结构（prefix 为 {@link DistributedDeadlockProperties#getRedisPrefix()}）：
+ * <ul>
+ *   <li>{@code prefix:waits}  Hash，field 为 {@code 全局线程ID|锁键}，表示一条等待边</li>
+ *   <li>{@code prefix:holders} Hash，field 为锁键，value 为持有者全局线程ID</li>
+ *   <li>{@code prefix:deltas} Stream，每条记录为一批增量（同一批增量与两个Hash在同一Lua脚本内原子更新）</li>
+ * </ul>
+ * 检测方按 Stream ID 顺序读取增量更新镜像；发现 Stream 已被裁剪导致断档，或到达全量重建间隔时，从两个Hash重建镜像。
+ * <p>
+ * 本地待发布增量有上限（{@link DistributedDeadlockProperties#getMaxPendingDeltas()}）：全局检测关闭期间不积累增量，
+ * Redis 不可用导致积压超限时丢弃全部增量，恢复后先清理本节点的全局状态，再按本地等待图全量重新发布。
  * 
  * <p><b>注意：</b>此类通过 {@link LockAutoConfiguration} 中的 {@code @Bean} 方法注册为 Bean，
  * 不需要 {@code @Component} 注解。如果同时使用 {@code @Component} 和 {@code @Bean}，
@@ -47,6 +65,91 @@ public class DistributedDeadlockDetector extends DeadlockDetector {
     private final Map<String, Long> nodeHeartbeats = new ConcurrentHashMap<>();
     private final Set<String> activeNodes = ConcurrentHashMap.newKeySet();
 
+    /**
+     * 发布增量脚本
+     * KEYS[1]=waits KEYS[2]=holders KEYS[3]=deltas
+     * ARGV[1]=Stream最大长度 ARGV[2]=节点ID ARGV[3..]=增量（操作符 + 全局线程ID|锁键）
+     * 返回新增的Stream记录ID
+     */
+    private static final DefaultRedisScript<String> PUBLISH_DELTAS_SCRIPT = new DefaultRedisScript<>(
+            "for i = 3, #ARGV do " +
+            "  local d = ARGV[i] " +
+            "  local op = string.sub(d, 1, 1) " +
+            "  local edge = string.sub(d, 2) " +
+            "  local sep = string.find(edge, '|', 1, true) " +
+            "  local thread = string.sub(edge, 1, sep - 1) " +
+            "  local lock = string.sub(edge, sep + 1) " +
+            "  if op == 'W' then redis.call('hset', KEYS[1], edge, '1') " +
+            "  elseif op == 'w' then redis.call('hdel', KEYS[1], edge) " +
+            "  elseif op == 'H' then redis.call('hset', KEYS[2], lock, thread) " +
+            "  elseif op == 'h' and redis.call('hget', KEYS[2], lock) == thread then redis.call('hdel', KEYS[2], lock) end " +
+            "end " +
+            "return redis.call('xadd', KEYS[3], 'MAXLEN', '~', ARGV[1], '*', 'node', ARGV[2], 'd', table.concat(ARGV, '\\n', 3))",
+            String.class);
+
+    /**
+     * 清理节点脚本：删除该节点的所有等待边与持有关系，并以增量形式发布
+     * KEYS[1]=waits KEYS[2]=holders KEYS[3]=deltas KEYS[4]=nodes
+     * ARGV[1]=Stream最大长度 ARGV[2]=节点ID
+     * 返回清理的边数
+     */
+    private static final DefaultRedisScript<Long> CLEANUP_NODE_SCRIPT = new DefaultRedisScript<>(
+            "local prefix = ARGV[2] .. ':' " +
+            "local deltas = {} " +
+            "local waits = redis.call('hkeys', KEYS[1]) " +
+            "for _, edge in ipairs(waits) do " +
+            "  if string.sub(edge, 1, #prefix) == prefix then " +
+            "    redis.call('hdel', KEYS[1], edge) " +
+            "    table.insert(deltas, 'w' .. edge) " +
+            "  end " +
+            "end " +
+            "local holders = redis.call('hgetall', KEYS[2]) " +
+            "for i = 1, #holders, 2 do " +
+            "  local lock = holders[i] " +
+            "  local thread = holders[i + 1] " +
+            "  if string.sub(thread, 1, #prefix) == prefix then " +
+            "    redis.call('hdel', KEYS[2], lock) " +
+            "    table.insert(deltas, 'h' .. thread .. '|' .. lock) " +
+            "  end " +
+            "end " +
+            "redis.call('hdel', KEYS[4], ARGV[2]) " +
+            "if #deltas > 0 then " +
+            "  redis.call('xadd', KEYS[3], 'MAXLEN', '~', ARGV[1], '*', 'node', ARGV[2], 'd', table.concat(deltas, '\\n')) " +
+            "end " +
+            "return #deltas",
+            Long.class);
+
+    /**
+     * Stream 为空时的游标（自动生成的记录ID总是大于它）
+     */
+    private static final String EMPTY_STREAM_ID = "0-0";
+
+    // 待发布的本地增量（由等待图变更回调写入）
+    private final ConcurrentLinkedQueue<String> pendingDeltas = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger pendingDeltaCount = new AtomicInteger();
+    // 上次发布失败、需优先重发的增量（保持顺序）
+    private final List<String> unsentDeltas = new ArrayList<>();
+    // 未发送增量数（只在同步方法内更新，供变更回调近似判断积压上限）
+    private volatile int unsentDeltaSize;
+    // 增量已丢失（积压超限或全局检测曾关闭），下次同步需全量重新发布本节点状态
+    private final AtomicBoolean republishRequired = new AtomicBoolean(false);
+
+    // 全局等待图镜像（仅在 detectGlobalDeadlocks 持锁访问）
+    private final Map<String, Set<String>> mirrorThreadWaits = new HashMap<>();
+    private final Map<String, String> mirrorLockHolders = new HashMap<>();
+    private final Map<String, Set<String>> mirrorLockWaiters = new HashMap<>();
+    private String lastStreamId;
+    private long lastFullResyncTime;
+
+    // 全局检测指标
+    private final AtomicLong publishedDeltas = new AtomicLong();
+    private final AtomicLong appliedDeltas = new AtomicLong();
+    private final AtomicLong fullResyncs = new AtomicLong();
+    private final AtomicLong droppedDeltas = new AtomicLong();
+    private final AtomicLong globalDetectionRuns = new AtomicLong();
+    private final AtomicLong lastGlobalDetectionNanos = new AtomicLong();
+    private final AtomicLong totalGlobalDetectionNanos = new AtomicLong();
+
     public DistributedDeadlockDetector(@Qualifier("lockScheduledExecutor") ScheduledExecutorService scheduler,
                                        RedisService redisService,
                                        DistributedDeadlockProperties distributedDeadlockProperties) {
@@ -80,10 +183,35 @@ public class DistributedDeadlockDetector extends DeadlockDetector {
         log.debug("[DistributedDeadlockDetector] 分布式检测任务已启动");
     }
 
+    @Override
+    protected void onEdgeChange(EdgeOp op, String threadId, String lockKey) {
+        // 全局检测关闭或增量已丢失时不积累增量，恢复后按本地等待图全量发布
+        if (!isGlobalDetectionEnabled.get() || republishRequired.get()) {
+            return;
+        }
+        if (pendingDeltaCount.incrementAndGet() + unsentDeltaSize > properties.getMaxPendingDeltas()) {
+            pendingDeltaCount.decrementAndGet();
+            markDeltasLost();
+            return;
+        }
+        pendingDeltas.offer(op.getCode() + nodeId + ":" + threadId + "|" + lockKey);
+    }
+
+    /**
+     * 积压超限：丢弃待发布增量，下次同步时全量重新发布
+     */
+    private void markDeltasLost() {
+        if (republishRequired.compareAndSet(false, true)) {
+            log.warn("[DistributedDeadlockDetector] 待发布增量超过上限 {}，丢弃积压增量，恢复后全量重新发布本节点状态",
+                    properties.getMaxPendingDeltas());
+        }
+    }
+
     /**
      * 同步本地状态到全局Redis
+     * 只发布上次同步以来的等待图增量，增量与全局Hash在同一Lua脚本中原子更新
      */
-    public void syncLocalStateToGlobal() {
+    public synchronized void syncLocalStateToGlobal() {
         if (!isGlobalDetectionEnabled.get()) {
             return;
         }
@@ -94,18 +222,23 @@ public class DistributedDeadlockDetector extends DeadlockDetector {
             // 更新节点心跳
             updateNodeHeartbeat();
 
-            // 同步本地资源分配图
-            syncThreadLocksToGlobal();
-
-            // 同步等待图
-            syncThreadWaitsToGlobal();
+            if (republishRequired.get() && !republishLocalState()) {
+                return;
+            }
 
-            // 同步锁持有者信息
-            syncLockHoldersToGlobal();
+            String delta;
+            while ((delta = pendingDeltas.poll()) != null) {
+                pendingDeltaCount.decrementAndGet();
+                unsentDeltas.add(delta);
+            }
+            if (!unsentDeltas.isEmpty()) {
+                publishDeltas();
+            }
+            unsentDeltaSize = unsentDeltas.size();
 
             lastSyncTime.set(currentTime);
 
-            log.debug("[DistributedDeadlockDetector] 本地状态同步完成，节点: {}", nodeId);
+            log.debug("[DistributedDeadlockDetector] 本地增量同步完成，节点: {}", nodeId);
 
         } catch (Exception e) {
             log.error("[DistributedDeadlockDetector] 同步本地状态失败", e);
@@ -113,89 +246,86 @@ public class DistributedDeadlockDetector extends DeadlockDetector {
     }
 
     /**
-     * 同步线程锁信息到全局
+     * 全量重新发布本节点状态：丢弃积压增量，清理本节点在全局的边，再按本地等待图重放
+     * 清理与重放之间产生的增量同时出现在重放结果和增量队列中，重复应用是幂等的
+     *
+     * @return false 表示 Redis 仍不可用，下次同步重试
      */
-    private void syncThreadLocksToGlobal() {
-        try {
-            Map<String, Object> status = getStatus();
-            @SuppressWarnings("unchecked")
-            Map<String, Object> localThreadLocks = (Map<String, Object>) status.get("threadLocks");
-            if (localThreadLocks != null && !localThreadLocks.isEmpty()) {
-                for (Map.Entry<String, Object> entry : localThreadLocks.entrySet()) {
-                    String globalThreadId = nodeId + ":" + entry.getKey();
-                    String lockKeys = entry.getValue().toString();
-
-                    redisService.hset(properties.getRedisPrefix() + ":graph", globalThreadId, lockKeys);
-                }
-            }
-        } catch (Exception e) {
-            log.error("[DistributedDeadlockDetector] 同步线程锁信息失败", e);
+    private boolean republishLocalState() {
+        int dropped = unsentDeltas.size();
+        unsentDeltas.clear();
+        unsentDeltaSize = 0;
+        while (pendingDeltas.poll() != null) {
+            pendingDeltaCount.decrementAndGet();
+            dropped++;
         }
-    }
+        droppedDeltas.addAndGet(dropped);
 
-    /**
-     * 同步等待图到全局
-     */
-    private void syncThreadWaitsToGlobal() {
-        try {
-            Map<String, Object> status = getStatus();
-            @SuppressWarnings("unchecked")
-            Map<String, Object> localThreadWaits = (Map<String, Object>) status.get("threadWaits");
-            if (localThreadWaits != null && !localThreadWaits.isEmpty()) {
-                for (Map.Entry<String, Object> entry : localThreadWaits.entrySet()) {
-                    String globalThreadId = nodeId + ":" + entry.getKey();
-                    String waitKeys = entry.getValue().toString();
-
-                    redisService.hset(properties.getRedisPrefix() + ":waits", globalThreadId, waitKeys);
-                }
-            }
-        } catch (Exception e) {
-            log.error("[DistributedDeadlockDetector] 同步等待图失败", e);
+        Long removed = redisService.executeScript(CLEANUP_NODE_SCRIPT,
+                Arrays.asList(waitsKey(), holdersKey(), deltasKey(), properties.getRedisPrefix() + ":nodes"),
+                String.valueOf(properties.getDeltaStreamMaxLen()), nodeId);
+        if (removed == null) {
+            log.warn("[DistributedDeadlockDetector] 清理本节点全局状态失败，下次同步重试全量发布");
+            return false;
         }
+        // 清理脚本会移除节点心跳，立即补写
+        updateNodeHeartbeat();
+
+        republishRequired.set(false);
+        replayEdges();
+        log.info("[DistributedDeadlockDetector] 已全量重新发布本节点等待图，丢弃增量: {}, 清理边数: {}", dropped, removed);
+        return true;
     }
 
     /**
-     * 同步锁持有者信息到全局
+     * 分批发布未发送的增量，失败的批次保留到下次同步重发
      */
-    private void syncLockHoldersToGlobal() {
-        try {
-            Map<String, Object> status = getStatus();
-            @SuppressWarnings("unchecked")
-            Map<String, Object> localLockHolders = (Map<String, Object>) status.get("lockHolders");
-            if (localLockHolders != null && !localLockHolders.isEmpty()) {
-                for (Map.Entry<String, Object> entry : localLockHolders.entrySet()) {
-                    String lockKey = entry.getKey();
-                    String holderThreadId = entry.getValue().toString();
-                    String globalHolderId = nodeId + ":" + holderThreadId;
-
-                    redisService.hset(properties.getRedisPrefix() + ":holders", lockKey, globalHolderId);
-                }
+    private void publishDeltas() {
+        List<String> keys = Arrays.asList(waitsKey(), holdersKey(), deltasKey());
+        int batchSize = Math.max(1, properties.getDeltaReadBatchSize());
+
+        while (!unsentDeltas.isEmpty()) {
+            List<String> batch = unsentDeltas.subList(0, Math.min(batchSize, unsentDeltas.size()));
+            String[] args = new String[batch.size() + 2];
+            args[0] = String.valueOf(properties.getDeltaStreamMaxLen());
+            args[1] = nodeId;
+            for (int i = 0; i < batch.size(); i++) {
+                args[i + 2] = batch.get(i);
             }
-        } catch (Exception e) {
-            log.error("[DistributedDeadlockDetector] 同步锁持有者信息失败", e);
+
+            String streamId = redisService.executeScript(PUBLISH_DELTAS_SCRIPT, keys, args);
+            if (streamId == null) {
+                log.warn("[DistributedDeadlockDetector] 发布增量失败，{} 条增量将在下次同步重发", unsentDeltas.size());
+                return;
+            }
+            publishedDeltas.addAndGet(batch.size());
+            batch.clear();
         }
     }
 
     /**
      * 检测全局死锁
+     * 读取自上次检测以来的全局增量更新镜像，只从新增等待边的线程出发查找回路
      */
-    public List<Set<String>> detectGlobalDeadlocks() {
+    public synchronized List<Set<String>> detectGlobalDeadlocks() {
         if (!isGlobalDetectionEnabled.get()) {
             return Collections.emptyList();
         }
 
+        long start = System.nanoTime();
         try {
             // 清理超时节点
             cleanupTimeoutNodes();
 
-            // 构建全局资源分配图
-            Map<String, Set<String>> globalThreadLocks = buildGlobalThreadLocks();
-            Map<String, Set<String>> globalThreadWaits = buildGlobalThreadWaits();
-            Map<String, String> globalLockHolders = buildGlobalLockHolders();
+            Set<String> dirtyThreads = new LinkedHashSet<>();
+            boolean resyncDue = System.currentTimeMillis() - lastFullResyncTime >= properties.getFullResyncInterval();
+            if (lastStreamId == null || resyncDue || !applyGlobalDeltas(dirtyThreads)) {
+                dirtyThreads.clear();
+                fullResync(dirtyThreads);
+            }
 
             // 检测全局死锁环
-            List<Set<String>> globalDeadlockCycles = findGlobalDeadlockCycles(
-                    globalThreadLocks, globalThreadWaits, globalLockHolders);
+            List<Set<String>> globalDeadlockCycles = findGlobalDeadlockCycles(dirtyThreads);
 
             if (!globalDeadlockCycles.isEmpty()) {
                 log.warn("[DistributedDeadlockDetector] 检测到全局死锁，死锁环数量: {}", globalDeadlockCycles.size());
@@ -213,156 +343,150 @@ public class DistributedDeadlockDetector extends DeadlockDetector {
         } catch (Exception e) {
             log.error("[DistributedDeadlockDetector] 全局死锁检测异常", e);
             return Collections.emptyList();
+        } finally {
+            long elapsed = System.nanoTime() - start;
+            globalDetectionRuns.incrementAndGet();
+            lastGlobalDetectionNanos.set(elapsed);
+            totalGlobalDetectionNanos.addAndGet(elapsed);
         }
     }
 
     /**
-     * 构建全局线程锁信息
+     * 读取并应用上次检测以来的全局增量
+     *
+     * @param dirtyThreads 收集新增等待边的起点线程
+     * @return false 表示增量已断档（Stream被裁剪），需要全量重建
      */
-    private Map<String, Set<String>> buildGlobalThreadLocks() {
-        Map<String, Set<String>> globalLocks = new HashMap<>();
+    private boolean applyGlobalDeltas(Set<String> dirtyThreads) {
+        StreamOperations<String, Object, Object> streamOps = redisService.getStringRedisTemplate().opsForStream();
+        int batchSize = Math.max(1, properties.getDeltaReadBatchSize());
+
+        while (true) {
+            // 包含上次读到的记录本身，用于确认其仍在Stream中（未被裁剪）
+            List<MapRecord<String, Object, Object>> records = streamOps.range(deltasKey(),
+                    Range.rightUnbounded(Range.Bound.inclusive(lastStreamId)), Limit.limit().count(batchSize + 1));
+            // 重建时 Stream 为空：游标本身不在 Stream 中，全部记录都是新增量
+            int first = EMPTY_STREAM_ID.equals(lastStreamId) ? 0 : 1;
+            if (first == 1 && (records == null || records.isEmpty() || !lastStreamId.equals(records.get(0).getId().getValue()))) {
+                log.debug("[DistributedDeadlockDetector] 全局增量断档，lastStreamId={}", lastStreamId);
+                return false;
+            }
+            if (records == null) {
+                return true;
+            }
 
-        try {
-            Map<String, Object> globalGraph = redisService.hashGetAll(properties.getRedisPrefix() + ":graph");
-            if (globalGraph != null) {
-                for (Map.Entry<String, Object> entry : globalGraph.entrySet()) {
-                    String threadId = entry.getKey();
-                    String lockKeysStr = entry.getValue().toString();
-
-                    Set<String> lockKeys = new HashSet<>();
-                    if (lockKeysStr != null && !lockKeysStr.isEmpty()) {
-                        String[] keys = lockKeysStr.split(",");
-                        for (String key : keys) {
-                            if (!key.trim().isEmpty()) {
-                                lockKeys.add(key.trim());
-                            }
-                        }
+            for (int i = first; i < records.size(); i++) {
+                MapRecord<String, Object, Object> record = records.get(i);
+                Object deltas = record.getValue().get("d");
+                if (deltas != null) {
+                    for (String delta : deltas.toString().split("\n")) {
+                        applyDelta(delta, dirtyThreads);
                     }
-
-                    globalLocks.put(threadId, lockKeys);
                 }
+                lastStreamId = record.getId().getValue();
             }
-        } catch (Exception e) {
-            log.error("[DistributedDeadlockDetector] 构建全局线程锁信息失败", e);
-        }
 
-        return globalLocks;
+            if (records.size() <= batchSize) {
+                return true;
+            }
+        }
     }
 
     /**
-     * 构建全局等待图
+     * 从全局Hash全量重建镜像，所有等待线程都作为检测起点
      */
-    private Map<String, Set<String>> buildGlobalThreadWaits() {
-        Map<String, Set<String>> globalWaits = new HashMap<>();
-
-        try {
-            Map<String, Object> globalWaitsData = redisService.hashGetAll(properties.getRedisPrefix() + ":waits");
-            if (globalWaitsData != null) {
-                for (Map.Entry<String, Object> entry : globalWaitsData.entrySet()) {
-                    String threadId = entry.getKey();
-                    String waitKeysStr = entry.getValue().toString();
-
-                    Set<String> waitKeys = new HashSet<>();
-                    if (waitKeysStr != null && !waitKeysStr.isEmpty()) {
-                        String[] keys = waitKeysStr.split(",");
-                        for (String key : keys) {
-                            if (!key.trim().isEmpty()) {
-                                waitKeys.add(key.trim());
-                            }
-                        }
-                    }
-
-                    globalWaits.put(threadId, waitKeys);
-                }
+    private void fullResync(Set<String> dirtyThreads) {
+        StreamOperations<String, Object, Object> streamOps = redisService.getStringRedisTemplate().opsForStream();
+        // 先取Stream尾部ID再读Hash，期间产生的增量会在下次检测时按序重放（重放是幂等的）
+        List<MapRecord<String, Object, Object>> tail = streamOps.reverseRange(deltasKey(),
+                Range.unbounded(), Limit.limit().count(1));
+        String tailId = tail == null || tail.isEmpty() ? EMPTY_STREAM_ID : tail.get(0).getId().getValue();
+
+        Map<String, Object> waits = redisService.hashGetAll(waitsKey());
+        Map<String, Object> holders = redisService.hashGetAll(holdersKey());
+
+        mirrorThreadWaits.clear();
+        mirrorLockHolders.clear();
+        mirrorLockWaiters.clear();
+        if (holders != null) {
+            for (Map.Entry<String, Object> entry : holders.entrySet()) {
+                mirrorLockHolders.put(entry.getKey(), entry.getValue().toString());
+            }
+        }
+        if (waits != null) {
+            for (String edge : waits.keySet()) {
+                applyDelta(EdgeOp.WAIT_ADD.getCode() + edge, dirtyThreads);
             }
-        } catch (Exception e) {
-            log.error("[DistributedDeadlockDetector] 构建全局等待图失败", e);
         }
 
-        return globalWaits;
+        lastStreamId = tailId;
+        lastFullResyncTime = System.currentTimeMillis();
+        fullResyncs.incrementAndGet();
+        log.debug("[DistributedDeadlockDetector] 全局等待图镜像已重建，等待线程: {}, 持有锁: {}",
+                mirrorThreadWaits.size(), mirrorLockHolders.size());
     }
 
     /**
-     * 构建全局锁持有者信息
+     * 将单条增量应用到镜像
      */
-    private Map<String, String> buildGlobalLockHolders() {
-        Map<String, String> globalHolders = new HashMap<>();
-
-        try {
-            Map<String, Object> globalHoldersData = redisService.hashGetAll(properties.getRedisPrefix() + ":holders");
-            if (globalHoldersData != null) {
-                for (Map.Entry<String, Object> entry : globalHoldersData.entrySet()) {
-                    String lockKey = entry.getKey();
-                    String holderThreadId = entry.getValue().toString();
-                    globalHolders.put(lockKey, holderThreadId);
-                }
+    private void applyDelta(String delta, Set<String> dirtyThreads) {
+        int sep = delta.indexOf('|');
+        if (delta.length() < 2 || sep < 0) {
+            return;
+        }
+        char op = delta.charAt(0);
+        String threadId = delta.substring(1, sep);
+        String lockKey = delta.substring(sep + 1);
+
+        if (op == EdgeOp.WAIT_ADD.getCode()) {
+            mirrorThreadWaits.computeIfAbsent(threadId, k -> new HashSet<>()).add(lockKey);
+            mirrorLockWaiters.computeIfAbsent(lockKey, k -> new HashSet<>()).add(threadId);
+            dirtyThreads.add(threadId);
+        } else if (op == EdgeOp.WAIT_REMOVE.getCode()) {
+            removeFromIndex(mirrorThreadWaits, threadId, lockKey);
+            removeFromIndex(mirrorLockWaiters, lockKey, threadId);
+        } else if (op == EdgeOp.HOLD_ADD.getCode()) {
+            mirrorLockHolders.put(lockKey, threadId);
+            Set<String> waiters = mirrorLockWaiters.get(lockKey);
+            if (waiters != null && !waiters.isEmpty()) {
+                dirtyThreads.add(threadId);
             }
-        } catch (Exception e) {
-            log.error("[DistributedDeadlockDetector] 构建全局锁持有者信息失败", e);
+        } else if (op == EdgeOp.HOLD_REMOVE.getCode()) {
+            mirrorLockHolders.remove(lockKey, threadId);
         }
-
-        return globalHolders;
+        appliedDeltas.incrementAndGet();
     }
 
-    /**
-     * 查找全局死锁环
-     */
-    private List<Set<String>> findGlobalDeadlockCycles(Map<String, Set<String>> globalThreadLocks,
-                                                       Map<String, Set<String>> globalThreadWaits,
-                                                       Map<String, String> globalLockHolders) {
-        List<Set<String>> cycles = new ArrayList<>();
-        Set<String> visited = new HashSet<>();
-        Set<String> recursionStack = new HashSet<>();
-
-        for (String threadId : globalThreadLocks.keySet()) {
-            if (!visited.contains(threadId)) {
-                Set<String> cycle = new HashSet<>();
-                if (hasGlobalCycle(threadId, globalThreadLocks, globalThreadWaits,
-                        globalLockHolders, visited, recursionStack, cycle)) {
-                    cycles.add(new HashSet<>(cycle));
-                }
+    private void removeFromIndex(Map<String, Set<String>> index, String key, String value) {
+        Set<String> values = index.get(key);
+        if (values != null) {
+            values.remove(value);
+            if (values.isEmpty()) {
+                index.remove(key);
             }
         }
-
-        return cycles;
     }
 
     /**
-     * 使用DFS检测全局环
+     * 从新增等待边的起点查找全局死锁环
      */
-    private boolean hasGlobalCycle(String threadId, Map<String, Set<String>> globalThreadLocks,
-                                   Map<String, Set<String>> globalThreadWaits,
-                                   Map<String, String> globalLockHolders,
-                                   Set<String> visited, Set<String> recursionStack, Set<String> cycle) {
-        if (recursionStack.contains(threadId)) {
-            cycle.add(threadId);
-            return true;
-        }
-
-        if (visited.contains(threadId)) {
-            return false;
-        }
-
-        visited.add(threadId);
-        recursionStack.add(threadId);
-        cycle.add(threadId);
+    private List<Set<String>> findGlobalDeadlockCycles(Set<String> dirtyThreads) {
+        List<Set<String>> cycles = new ArrayList<>();
+        Set<String> inCycle = new HashSet<>();
 
-        Set<String> waits = globalThreadWaits.get(threadId);
-        if (waits != null) {
-            for (String lockKey : waits) {
-                String holder = globalLockHolders.get(lockKey);
-                if (holder != null && !holder.equals(threadId)) {
-                    if (hasGlobalCycle(holder, globalThreadLocks, globalThreadWaits,
-                            globalLockHolders, visited, recursionStack, cycle)) {
-                        return true;
-                    }
-                }
+        for (String threadId : dirtyThreads) {
+            if (inCycle.contains(threadId)) {
+                continue;
+            }
+            List<String> path = findCycleFrom(threadId, mirrorThreadWaits, mirrorLockHolders::get);
+            if (path != null) {
+                Set<String> cycle = new LinkedHashSet<>(path);
+                inCycle.addAll(cycle);
+                cycles.add(cycle);
             }
         }
 
-        recursionStack.remove(threadId);
-        cycle.remove(threadId);
-        return false;
+        return cycles;
     }
 
     /**
@@ -472,6 +596,9 @@ public class DistributedDeadlockDetector extends DeadlockDetector {
             if (nodeStatus != null) {
                 for (Map.Entry<String, Object> entry : nodeStatus.entrySet()) {
                     String nodeId = entry.getKey();
+                    if (nodeId.equals(this.nodeId)) {
+                        continue;
+                    }
                     long lastHeartbeat = Long.parseLong(entry.getValue().toString());
 
                     if (currentTime - lastHeartbeat > properties.getNodeTimeout()) {
@@ -491,12 +618,12 @@ public class DistributedDeadlockDetector extends DeadlockDetector {
      */
     private void cleanupNodeState(String nodeId) {
         try {
-            // 清理该节点的所有状态
-            redisService.hashDelete(properties.getRedisPrefix() + ":graph", nodeId + ":*");
-            redisService.hashDelete(properties.getRedisPrefix() + ":waits", nodeId + ":*");
-            redisService.hashDelete(properties.getRedisPrefix() + ":nodes", nodeId);
+            // 清理该节点的所有等待边与持有关系，并作为增量发布给其他节点
+            Long removed = redisService.executeScript(CLEANUP_NODE_SCRIPT,
+                    Arrays.asList(waitsKey(), holdersKey(), deltasKey(), properties.getRedisPrefix() + ":nodes"),
+                    String.valueOf(properties.getDeltaStreamMaxLen()), nodeId);
 
-            log.debug("[DistributedDeadlockDetector] 已清理节点 {} 的状态", nodeId);
+            log.debug("[DistributedDeadlockDetector] 已清理节点 {} 的状态，移除边数: {}", nodeId, removed);
 
         } catch (Exception e) {
             log.error("[DistributedDeadlockDetector] 清理节点状态失败", e);
@@ -520,10 +647,22 @@ public class DistributedDeadlockDetector extends DeadlockDetector {
         return "node_" + System.currentTimeMillis() + "_" + Thread.currentThread().getId();
     }
 
+    private String waitsKey() {
+        return properties.getRedisPrefix() + ":waits";
+    }
+
+    private String holdersKey() {
+        return properties.getRedisPrefix() + ":holders";
+    }
+
+    private String deltasKey() {
+        return properties.getRedisPrefix() + ":deltas";
+    }
+
     /**
      * 获取全局状态
      */
-    public Map<String, Object> getGlobalStatus() {
+    public synchronized Map<String, Object> getGlobalStatus() {
         Map<String, Object> status = new HashMap<>();
         status.put("nodeId", nodeId);
         status.put("lastSyncTime", lastSyncTime.get());
@@ -531,14 +670,27 @@ public class DistributedDeadlockDetector extends DeadlockDetector {
         status.put("activeNodes", new HashSet<>(activeNodes));
         status.put("nodeHeartbeats", new HashMap<>(nodeHeartbeats));
 
-        // 添加全局图状态
-        try {
-            status.put("globalThreadLocks", buildGlobalThreadLocks());
-            status.put("globalThreadWaits", buildGlobalThreadWaits());
-            status.put("globalLockHolders", buildGlobalLockHolders());
-        } catch (Exception e) {
-            log.error("[DistributedDeadlockDetector] 获取全局状态失败", e);
-        }
+        // 添加全局图镜像状态
+        Map<String, Set<String>> globalThreadWaits = new HashMap<>();
+        mirrorThreadWaits.forEach((threadId, lockKeys) -> globalThreadWaits.put(threadId, new HashSet<>(lockKeys)));
+        status.put("globalThreadWaits", globalThreadWaits);
+        status.put("globalLockHolders", new HashMap<>(mirrorLockHolders));
+
+        // 添加全局检测指标
+        long runs = globalDetectionRuns.get();
+        Map<String, Object> metrics = new LinkedHashMap<>();
+        metrics.put("detectionRuns", runs);
+        metrics.put("lastDetectionMicros", lastGlobalDetectionNanos.get() / 1000);
+        metrics.put("avgDetectionMicros", runs == 0 ? 0 : totalGlobalDetectionNanos.get() / runs / 1000);
+        metrics.put("publishedDeltas", publishedDeltas.get());
+        metrics.put("appliedDeltas", appliedDeltas.get());
+        metrics.put("pendingDeltas", pendingDeltaCount.get() + unsentDeltas.size());
+        metrics.put("droppedDeltas", droppedDeltas.get());
+        metrics.put("fullResyncs", fullResyncs.get());
+        metrics.put("lastStreamId", lastStreamId);
+        metrics.put("waitingThreads", mirrorThreadWaits.size());
+        metrics.put("heldLocks", mirrorLockHolders.size());
+        status.put("metrics", metrics);
 
         return status;
     }
@@ -547,7 +699,11 @@ public class DistributedDeadlockDetector extends DeadlockDetector {
      * 启用/禁用全局检测
      */
     public void setGlobalDetectionEnabled(boolean enabled) {
-        isGlobalDetectionEnabled.set(enabled);
+        boolean wasEnabled = isGlobalDetectionEnabled.getAndSet(enabled);
+        if (enabled && !wasEnabled) {
+            // 关闭期间没有积累增量，重新启用后全量发布本节点状态
+            republishRequired.set(true);
+        }
         log.debug("[DistributedDeadlockDetector] 全局检测已{}", enabled ? "启用" : "禁用");
     }
 
@@ -5,6 +5,8 @@ import com.indigo.cache.manager.CacheKeyGenerator;
 import com.indigo.core.utils.ThreadUtils;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.DisposableBean;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
 
 import java.lang.management.ManagementFactory;
 import java.util.*;
@@ -24,6 +26,7 @@ import java.util.concurrent.locks.LockSupport;
  * 3. 加锁/解锁/续期均用Lua脚本，保证原子性
  * 4. 自动续期：业务未完成时自动延长锁过期时间
  * 5. 支持便捷执行
+ * 6. 防护令牌租约：加锁脚本内原子INCR生成单调递增令牌，供下游拒绝过期持有者的写入
  * 
  * 📋 正确用法：
  * ```java
@@ -70,6 +73,20 @@ public class DistributedLockService implements DisposableBean {
     private static final String RENEWAL_SCRIPT = 
             "if string.sub(redis.call('get', KEYS[1]) or '', 1, #ARGV[1]) == ARGV[1] then return redis.call('expire', KEYS[1], ARGV[2]) else return 0 end";
 
+    // 防护令牌计数器键后缀（计数器永不过期，保证令牌跨租约单调递增）
+    private static final String FENCE_KEY_SUFFIX = ":fence";
+
+    /**
+     * 租约加锁脚本：SET NX EX 成功后在同一脚本内 INCR 令牌计数器
+     * KEYS[1]=锁键 KEYS[2]=令牌计数器键；返回令牌，0表示获取失败
+     * 注意：Redis Cluster 下两个键需位于同一槽位，可在 lockName 中使用 {hashTag}
+     */
+    private static final RedisScript<Long> LEASE_LOCK_SCRIPT = new DefaultRedisScript<>(
+            "if redis.call('set', KEYS[1], ARGV[1], 'NX', 'EX', ARGV[2]) then " +
+            "return redis.call('incr', KEYS[2]) else return 0 end", Long.class);
+
+    private static final RedisScript<Long> LEASE_UNLOCK_SCRIPT = new DefaultRedisScript<>(UNLOCK_SCRIPT, Long.class);
+
     // 本地可重入锁计数（ThreadLocal，线程隔离）
     private final ThreadLocal<Map<String, ReentrantInfo>> reentrantLocks = ThreadLocal.withInitial(HashMap::new);
     // 全局持有锁信息（仅本节点持有的锁，用于看门狗续期）
@@ -337,6 +354,122 @@ public class DistributedLockService implements DisposableBean {
         return null;
     }
 
+    /**
+     * 获取带防护令牌的租约（Lua原子操作：加锁与令牌递增在同一脚本内完成）
+     *
+     * 与 {@link #tryLock} 的区别：
+     * - 返回单调递增的防护令牌，下游写入时作为条件更新的守卫
+     * - 不可重入，不参与看门狗续期，租约到期即失效
+     *
+     * @param lockName     锁名称
+     * @param key          业务键
+     * @param leaseSeconds 租约时长（秒）
+     * @return 租约，null表示获取失败
+     */
+    public FencingLease tryLease(String lockName, String key, int leaseSeconds) {
+        String lockKey = keyGenerator.generate(CacheKeyGenerator.Module.LOCK, lockName, key);
+        String lockValue = NODE_ID + ":" + Thread.currentThread().getId() + ":" + UUID.randomUUID();
+        long acquiredAt = System.currentTimeMillis();
+
+        Long token = redisService.executeScript(LEASE_LOCK_SCRIPT,
+                Arrays.asList(lockKey, lockKey + FENCE_KEY_SUFFIX), lockValue, String.valueOf(leaseSeconds));
+        if (token == null || token <= 0) {
+            log.debug("[Lease] 获取租约失败: {}", lockKey);
+            return null;
+        }
+        log.debug("[Lease] 获取租约成功: {} token={}", lockKey, token);
+        return new FencingLease(lockName, key, lockValue, token, acquiredAt + leaseSeconds * 1000L);
+    }
+
+    /**
+     * 等待并获取带防护令牌的租约
+     *
+     * @param lockName     锁名称
+     * @param key          业务键
+     * @param leaseSeconds 租约时长（秒）
+     * @param waitTimeout  等待超时时间（秒）
+     * @return 租约，null表示获取失败
+     */
+    public FencingLease lease(String lockName, String key, int leaseSeconds, int waitTimeout) {
+        long waitEndTime = System.currentTimeMillis() + (waitTimeout * 1000L);
+        while (true) {
+            FencingLease lease = tryLease(lockName, key, leaseSeconds);
+            if (lease != null) {
+                return lease;
+            }
+            long remainingTime = waitEndTime - System.currentTimeMillis();
+            if (remainingTime <= 0) {
+                return null;
+            }
+            LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(Math.min(remainingTime, DEFAULT_RETRY_INTERVAL)));
+            if (Thread.currentThread().isInterrupted()) {
+                return null;
+            }
+        }
+    }
+
+    /**
+     * 释放租约（只有持有者才能释放，租约已过期时返回false）
+     *
+     * @param lease 租约
+     * @return 是否释放成功
+     */
+    public boolean releaseLease(FencingLease lease) {
+        if (lease == null) {
+            return false;
+        }
+        String lockKey = keyGenerator.generate(CacheKeyGenerator.Module.LOCK, lease.getLockName(), lease.getKey());
+        Long result = redisService.executeScript(LEASE_UNLOCK_SCRIPT,
+                Collections.singletonList(lockKey), lease.getLockValue());
+        boolean released = result != null && result == 1L;
+        if (released) {
+            tryWakeupWaitingThreads(lockKey);
+            log.debug("[Lease] 释放租约成功: {} token={}", lockKey, lease.getFencingToken());
+        } else {
+            log.debug("[Lease] 释放租约失败（可能已过期）: {} token={}", lockKey, lease.getFencingToken());
+        }
+        return released;
+    }
+
+    /**
+     * 获取锁键当前已发放的最大防护令牌
+     *
+     * @param lockName 锁名称
+     * @param key      业务键
+     * @return 当前令牌，从未发放过返回0
+     */
+    public long getCurrentFencingToken(String lockName, String key) {
+        String lockKey = keyGenerator.generate(CacheKeyGenerator.Module.LOCK, lockName, key);
+        String value = redisService.getString(lockKey + FENCE_KEY_SUFFIX);
+        return value == null ? 0L : Long.parseLong(value);
+    }
+
+    /**
+     * 便捷方法：获取租约并执行操作，自动释放
+     * 操作内应把令牌作为下游写入的守卫条件
+     *
+     * @param lockName     锁名称
+     * @param key          业务键
+     * @param leaseSeconds 租约时长（秒）
+     * @param action       需要执行的操作
+     * @param <T>          返回值类型
+     * @return 操作结果，获取租约失败返回null
+     */
+    public <T> T executeWithLease(String lockName, String key, int leaseSeconds, FencedLockAction<T> action) {
+        FencingLease lease = tryLease(lockName, key, leaseSeconds);
+        if (lease != null) {
+            try {
+                return action.execute(lease.getFencingToken());
+            } catch (Exception e) {
+                log.error("[DistributedLock] 租约内操作异常: {}:{} token={}", lockName, key, lease.getFencingToken(), e);
+                throw new RuntimeException("分布式锁租约内操作执行失败", e);
+            } finally {
+                releaseLease(lease);
+            }
+        }
+        return null;
+    }
+
     /**
      * 获取节点ID
      */
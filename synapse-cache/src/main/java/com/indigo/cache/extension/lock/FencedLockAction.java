@@ -0,0 +1,22 @@
+package com.indigo.cache.extension.lock;
+
+/**
+ * 携带防护令牌的锁操作接口
+ * 用于在获取租约后执行业务逻辑，业务逻辑应将令牌透传给下游写操作
+ *
+ * @param <T> 返回值类型
+ * @author 史偕成
+ * @date 2025/01/08
+ */
+@FunctionalInterface
+public interface FencedLockAction<T> {
+
+    /**
+     * 执行业务逻辑
+     *
+     * @param fencingToken 当前租约的防护令牌
+     * @return 执行结果
+     * @throws Exception 执行过程中可能抛出的异常
+     */
+    T execute(long fencingToken) throws Exception;
+}
@@ -0,0 +1,72 @@
+package com.indigo.cache.extension.lock;
+
+/**
+ * 带防护令牌（Fencing Token）的锁租约
+ *
+ * 防护令牌在加锁Lua脚本中通过 INCR 原子生成，对同一锁键严格单调递增。
+ * 持有者在写下游存储时携带该令牌，下游只接受不小于已记录令牌的写入，
+ * 从而拒绝"租约已过期但仍在执行"的旧持有者（如长时间GC停顿后恢复的线程）。
+ *
+ * 租约不参与看门狗续期，到期即失效，这是防护令牌生效的前提。
+ *
+ * @author 史偕成
+ * @date 2025/01/08
+ */
+public final class FencingLease {
+
+    private final String lockName;
+    private final String key;
+    private final String lockValue;
+    private final long fencingToken;
+    private final long expireAt;
+
+    public FencingLease(String lockName, String key, String lockValue, long fencingToken, long expireAt) {
+        this.lockName = lockName;
+        this.key = key;
+        this.lockValue = lockValue;
+        this.fencingToken = fencingToken;
+        this.expireAt = expireAt;
+    }
+
+    public String getLockName() {
+        return lockName;
+    }
+
+    public String getKey() {
+        return key;
+    }
+
+    /**
+     * 锁唯一标识（nodeId:threadId:uuid），用于释放租约
+     */
+    public String getLockValue() {
+        return lockValue;
+    }
+
+    /**
+     * 单调递增的防护令牌
+     */
+    public long getFencingToken() {
+        return fencingToken;
+    }
+
+    /**
+     * 本地估算的租约到期时间（毫秒时间戳）
+     */
+    public long getExpireAt() {
+        return expireAt;
+    }
+
+    /**
+     * 按本地时钟判断租约是否已过期
+     * 仅作快速判断，真正的防护由下游校验令牌完成
+     */
+    public boolean isExpired() {
+        return System.currentTimeMillis() >= expireAt;
+    }
+
+    @Override
+    public String toString() {
+        return "FencingLease{" + lockName + ":" + key + ", token=" + fencingToken + ", expireAt=" + expireAt + "}";
+    }
+}
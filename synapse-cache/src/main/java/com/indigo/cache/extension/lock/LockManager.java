@@ -98,7 +98,8 @@ public class LockManager {
         this.distributedLockService = distributedLockService;
         this.readWriteLockService = readWriteLockService;
         this.fairLockService = fairLockService;
-        this.deadlockDetector = deadlockDetector;
+        // 分布式检测器本身也是本地检测器，启用时由它接收等待图变更，才能把增量同步到全局
+        this.deadlockDetector = distributedDeadlockDetector != null ? distributedDeadlockDetector : deadlockDetector;
         this.performanceMonitor = performanceMonitor;
         this.fastRecoveryManager = fastRecoveryManager;
         this.distributedDeadlockDetector = distributedDeadlockDetector;
@@ -527,6 +528,119 @@ public class LockManager {
         return null;
     }
 
+    // ==================== 防护令牌租约 ====================
+
+    /**
+     * 尝试获取带防护令牌的租约
+     * 令牌对同一锁键单调递增，下游写入时应作为条件更新的守卫，
+     * 使租约过期后仍在执行的旧持有者写入失败
+     *
+     * @param lockName 锁名称
+     * @param key 业务键
+     * @param leaseSeconds 租约时长（秒）
+     * @return 租约，null表示获取失败
+     */
+    public FencingLease tryLease(String lockName, String key, int leaseSeconds) {
+        ensureInitialized();
+        long startTime = System.currentTimeMillis();
+        String threadId = String.valueOf(Thread.currentThread().getId());
+
+        try {
+            performanceMonitor.recordLockAttempt(lockName, key, startTime);
+
+            FencingLease lease = distributedLockService.tryLease(lockName, key, leaseSeconds);
+
+            if (lease != null) {
+                performanceMonitor.recordLockSuccess(lockName, key, startTime, lease.getLockValue());
+                deadlockDetector.recordLockAcquired(threadId, generateLockKey(lockName, key));
+                log.info("[LockManager] 获取租约成功: {}:{} token={}", lockName, key, lease.getFencingToken());
+            } else {
+                performanceMonitor.recordLockFailure(lockName, key, startTime, "获取租约失败");
+                log.info("[LockManager] 获取租约失败: {}:{}", lockName, key);
+            }
+
+            return lease;
+        } catch (Exception e) {
+            performanceMonitor.recordLockFailure(lockName, key, startTime, e.getMessage());
+            log.error("[LockManager] 获取租约异常: {}:{}", lockName, key, e);
+            return null;
+        }
+    }
+
+    /**
+     * 释放租约
+     *
+     * @param lease 租约
+     * @return 是否释放成功（租约已过期时返回false）
+     */
+    public boolean releaseLease(FencingLease lease) {
+        if (lease == null) {
+            return false;
+        }
+        long startTime = System.currentTimeMillis();
+        String threadId = String.valueOf(Thread.currentThread().getId());
+        String lockKey = generateLockKey(lease.getLockName(), lease.getKey());
+
+        try {
+            boolean released = distributedLockService.releaseLease(lease);
+            deadlockDetector.recordLockReleased(threadId, lockKey);
+
+            if (released) {
+                long holdTime = System.currentTimeMillis() - startTime;
+                performanceMonitor.recordLockRelease(lease.getLockName(), lease.getKey(), lease.getLockValue(), holdTime);
+                log.info("[LockManager] 释放租约成功: {}:{} token={}", lease.getLockName(), lease.getKey(), lease.getFencingToken());
+            } else {
+                log.info("[LockManager] 释放租约失败: {}:{} token={}", lease.getLockName(), lease.getKey(), lease.getFencingToken());
+            }
+
+            return released;
+        } catch (Exception e) {
+            log.error("[LockManager] 释放租约异常: {}:{}", lease.getLockName(), lease.getKey(), e);
+            return false;
+        }
+    }
+
+    /**
+     * 获取锁键当前已发放的最大防护令牌
+     *
+     * @param lockName 锁名称
+     * @param key 业务键
+     * @return 当前令牌，从未发放过返回0
+     */
+    public long getCurrentFencingToken(String lockName, String key) {
+        return distributedLockService.getCurrentFencingToken(lockName, key);
+    }
+
+    /**
+     * 便捷方法：获取租约并执行操作，自动释放
+     *
+     * <pre>{@code
+     * lockManager.executeWithLease("order", orderId, 10, token ->
+     *     FencingTokenGuard.update(orderRepository.getMapper(), wrapper, "fence_token", token));
+     * }</pre>
+     *
+     * @param lockName 锁名称
+     * @param key 业务键
+     * @param leaseSeconds 租约时长（秒）
+     * @param action 需要执行的操作（入参为防护令牌）
+     * @param <T> 返回值类型
+     * @return 操作结果，获取租约失败返回null
+     */
+    public <T> T executeWithLease(String lockName, String key, int leaseSeconds, FencedLockAction<T> action) {
+        FencingLease lease = tryLease(lockName, key, leaseSeconds);
+        if (lease != null) {
+            try {
+                return action.execute(lease.getFencingToken());
+            } catch (Exception e) {
+                log.error("[LockManager] 租约内操作异常: {}:{} token={}", lockName, key, lease.getFencingToken(), e);
+                throw new RuntimeException("租约内操作执行失败", e);
+            } finally {
+                releaseLease(lease);
+            }
+        }
+        return null;
+    }
+
     /**
      * 获取锁统计信息
      * 
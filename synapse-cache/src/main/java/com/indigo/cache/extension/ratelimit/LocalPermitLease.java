@@ -0,0 +1,40 @@
+package com.indigo.cache.extension.ratelimit;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 本地预取的许可（已在Redis中扣减，过期作废）
+ *
+ * @author 史偕成
+ * @date 2025/12/19
+ */
+final class LocalPermitLease {
+
+    private final AtomicLong available;
+
+    LocalPermitLease(long available) {
+        this.available = new AtomicLong(available);
+    }
+
+    boolean tryTake(long permits) {
+        while (true) {
+            long current = available.get();
+            if (current < permits) {
+                return false;
+            }
+            if (available.compareAndSet(current, current - permits)) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * 预取许可的键：按限流键、时间窗口和上限区分，不同规则的调用不会互相消费
+     *
+     * @param key         限流键
+     * @param timeWindow  时间窗口（秒）
+     * @param maxRequests 窗口内最大请求数
+     */
+    record Key(String key, long timeWindow, long maxRequests) {
+    }
+}
@@ -0,0 +1,69 @@
+package com.indigo.cache.extension.ratelimit;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 进程内限流器（GCRA）
+ * 每个键只保存一个理论到达时间，不访问Redis
+ *
+ * <p>作为分布式限流的前置过滤：单个节点的请求已超过限额时，全局必然超过限额，可直接拒绝；
+ * 只有本地放行的请求才需要再经过Redis校验。
+ *
+ * @author 史偕成
+ * @date 2025/12/19
+ */
+public class LocalRateLimiter {
+
+    private final Cache<String, AtomicLong> states;
+
+    public LocalRateLimiter(long maxKeys) {
+        this.states = Caffeine.newBuilder()
+                .maximumSize(maxKeys)
+                .expireAfterAccess(10, TimeUnit.MINUTES)
+                .build();
+    }
+
+    /**
+     * 申请许可
+     *
+     * @param key         限流键
+     * @param permits     申请的许可数
+     * @param timeWindow  时间窗口（秒）
+     * @param maxRequests 窗口内最大请求数
+     * @return 是否允许
+     */
+    public boolean tryAcquire(String key, long permits, long timeWindow, long maxRequests) {
+        if (permits > maxRequests) {
+            return false;
+        }
+        long interval = Math.max(1, TimeUnit.SECONDS.toNanos(timeWindow) / maxRequests);
+        long capacity = interval * maxRequests;
+        AtomicLong tatHolder = states.get(key, k -> new AtomicLong(Long.MIN_VALUE));
+
+        while (true) {
+            long now = System.nanoTime();
+            long tat = tatHolder.get();
+            long start = tat == Long.MIN_VALUE || tat - now < 0 ? now : tat;
+            long newTat = start + interval * permits;
+            if (newTat - now > capacity) {
+                return false;
+            }
+            if (tatHolder.compareAndSet(tat, newTat)) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * 重置限流状态
+     *
+     * @param key 限流键
+     */
+    public void reset(String key) {
+        states.invalidate(key);
+    }
+}
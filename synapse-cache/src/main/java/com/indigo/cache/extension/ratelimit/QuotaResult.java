@@ -0,0 +1,111 @@
+package com.indigo.cache.extension.ratelimit;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 配额检查结果
+ * 包含是否放行、首个超限层级以及每个层级的剩余量与重置时间
+ *
+ * @author 史偕成
+ * @date 2025/12/19
+ */
+public class QuotaResult {
+
+    private final boolean allowed;
+    private final QuotaRule violatedRule;
+    private final long retryAfterMillis;
+    private final List<Usage> usages;
+
+    public QuotaResult(boolean allowed, QuotaRule violatedRule, long retryAfterMillis, List<Usage> usages) {
+        this.allowed = allowed;
+        this.violatedRule = violatedRule;
+        this.retryAfterMillis = retryAfterMillis;
+        this.usages = usages;
+    }
+
+    /**
+     * 放行结果（无规则或限流服务异常时使用）
+     */
+    public static QuotaResult permitted() {
+        return new QuotaResult(true, null, 0, Collections.emptyList());
+    }
+
+    public boolean isAllowed() {
+        return allowed;
+    }
+
+    /**
+     * 首个超限的层级，放行时为null
+     */
+    public QuotaRule getViolatedRule() {
+        return violatedRule;
+    }
+
+    /**
+     * 被拒绝时建议的重试等待（毫秒）
+     */
+    public long getRetryAfterMillis() {
+        return retryAfterMillis;
+    }
+
+    public List<Usage> getUsages() {
+        return usages;
+    }
+
+    /**
+     * 剩余量最少（最严格）的层级
+     */
+    public Usage getTightest() {
+        Usage tightest = null;
+        for (Usage usage : usages) {
+            if (tightest == null || usage.getRemaining() < tightest.getRemaining()) {
+                tightest = usage;
+            }
+        }
+        return tightest;
+    }
+
+    /**
+     * 生成响应头（按最严格层级）
+     *
+     * @return X-RateLimit-Limit / X-RateLimit-Remaining / X-RateLimit-Reset（秒），被拒绝时附带 Retry-After（秒）
+     */
+    public Map<String, String> toHeaders() {
+        Map<String, String> headers = new LinkedHashMap<>();
+        Usage tightest = getTightest();
+        if (tightest != null) {
+            headers.put("X-RateLimit-Limit", String.valueOf(tightest.getRule().getMaxRequests()));
+            headers.put("X-RateLimit-Remaining", String.valueOf(tightest.getRemaining()));
+            headers.put("X-RateLimit-Reset", String.valueOf((tightest.getResetMillis() + 999) / 1000));
+        }
+        if (!allowed) {
+            headers.put("Retry-After", String.valueOf(Math.max(1, (retryAfterMillis + 999) / 1000)));
+        }
+        return headers;
+    }
+
+    /**
+     * 单个层级的使用情况
+     */
+    public static class Usage {
+        private final QuotaRule rule;
+        private final long remaining;
+        private final long resetMillis;
+
+        public Usage(QuotaRule rule, long remaining, long resetMillis) {
+            this.rule = rule;
+            this.remaining = remaining;
+            this.resetMillis = resetMillis;
+        }
+
+        // Getters
+        public QuotaRule getRule() { return rule; }
+        /** 剩余可立即获取的请求数 */
+        public long getRemaining() { return remaining; }
+        /** 配额完全恢复所需时间（毫秒） */
+        public long getResetMillis() { return resetMillis; }
+    }
+}
@@ -0,0 +1,57 @@
+package com.indigo.cache.extension.ratelimit;
+
+/**
+ * 配额规则
+ * 一条规则对应配额链中的一个层级（如全局、租户、用户、IP、接口）
+ *
+ * @author 史偕成
+ * @date 2025/12/19
+ */
+public final class QuotaRule {
+
+    private final String name;
+    private final String key;
+    private final long timeWindow;
+    private final long maxRequests;
+
+    private QuotaRule(String name, String key, long timeWindow, long maxRequests) {
+        this.name = name;
+        this.key = key;
+        this.timeWindow = timeWindow;
+        this.maxRequests = maxRequests;
+    }
+
+    /**
+     * 创建配额规则
+     *
+     * @param name        层级名称（如 GLOBAL、USER），参与Redis键生成
+     * @param key         层级键（如用户ID、IP）
+     * @param timeWindow  时间窗口（秒）
+     * @param maxRequests 窗口内最大请求数
+     * @return 配额规则
+     */
+    public static QuotaRule of(String name, String key, long timeWindow, long maxRequests) {
+        return new QuotaRule(name, key, timeWindow, maxRequests);
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public String getKey() {
+        return key;
+    }
+
+    public long getTimeWindow() {
+        return timeWindow;
+    }
+
+    public long getMaxRequests() {
+        return maxRequests;
+    }
+
+    @Override
+    public String toString() {
+        return name + ":" + key + "(" + maxRequests + "/" + timeWindow + "s)";
+    }
+}
@@ -0,0 +1,255 @@
+package com.indigo.cache.extension.ratelimit;
+
+import com.indigo.cache.manager.CacheKeyGenerator;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 限流Lua脚本
+ * 同步与响应式限流服务共用，脚本为静态常量，执行时优先EVALSHA
+ *
+ * @author 史偕成
+ * @date 2025/12/19
+ */
+final class RateLimitScripts {
+
+    private RateLimitScripts() {
+    }
+
+    /**
+     * 滑动窗口脚本
+     * KEYS[1]=限流键 ARGV[1]=当前时间（毫秒） ARGV[2]=窗口起点（毫秒） ARGV[3]=最大请求数
+     */
+    static final DefaultRedisScript<Long> SLIDING_WINDOW = new DefaultRedisScript<>("""
+            local key = KEYS[1]
+            local current_time = tonumber(ARGV[1])
+            local window_start = tonumber(ARGV[2])
+            local max_requests = tonumber(ARGV[3])
+            
+            -- 移除窗口外的请求记录
+            redis.call('ZREMRANGEBYSCORE', key, 0, window_start)
+            
+            -- 获取当前窗口内的请求数
+            local current_requests = redis.call('ZCARD', key)
+            
+            if current_requests < max_requests then
+                -- 添加当前请求记录
+                redis.call('ZADD', key, current_time, current_time .. ':' .. math.random())
+                redis.call('EXPIRE', key, 60)
+                return 1
+            else
+                return 0
+            end
+            """, Long.class);
+
+    /**
+     * 令牌桶脚本
+     * KEYS[1]=限流键 ARGV[1]=当前时间（毫秒） ARGV[2]=桶容量 ARGV[3]=令牌产生速率（个/秒）
+     */
+    static final DefaultRedisScript<Long> TOKEN_BUCKET = new DefaultRedisScript<>("""
+            local key = KEYS[1]
+            local current_time = tonumber(ARGV[1])
+            local capacity = tonumber(ARGV[2])
+            local rate = tonumber(ARGV[3])
+            
+            -- 获取当前令牌数和上次更新时间
+            local bucket_info = redis.call('HMGET', key, 'tokens', 'last_update')
+            local current_tokens = tonumber(bucket_info[1]) or capacity
+            local last_update = tonumber(bucket_info[2]) or current_time
+            
+            -- 计算需要补充的令牌数
+            local time_passed = (current_time - last_update) / 1000
+            local tokens_to_add = math.floor(time_passed * rate)
+            current_tokens = math.min(capacity, current_tokens + tokens_to_add)
+            
+            if current_tokens >= 1 then
+                -- 消耗一个令牌
+                current_tokens = current_tokens - 1
+                redis.call('HMSET', key, 'tokens', current_tokens, 'last_update', current_time)
+                redis.call('EXPIRE', key, 60)
+                return 1
+            else
+                return 0
+            end
+            """, Long.class);
+
+    /**
+     * 固定窗口脚本
+     * KEYS[1]=限流键 ARGV[1]=窗口起点（毫秒） ARGV[2]=最大请求数
+     */
+    static final DefaultRedisScript<Long> FIXED_WINDOW = new DefaultRedisScript<>("""
+            local key = KEYS[1]
+            local window_start = tonumber(ARGV[1])
+            local max_requests = tonumber(ARGV[2])
+            
+            -- 获取当前窗口的请求数
+            local current_requests = redis.call('GET', key)
+            if not current_requests then
+                current_requests = 0
+            else
+                current_requests = tonumber(current_requests)
+            end
+            
+            if current_requests < max_requests then
+                -- 增加请求计数
+                redis.call('INCR', key)
+                redis.call('EXPIRE', key, 60)
+                return 1
+            else
+                return 0
+            end
+            """, Long.class);
+
+    /**
+     * GCRA限流脚本
+     * KEYS[1]=限流键（值为TAT，微秒）
+     * ARGV[1]=单个许可的发放间隔（微秒） ARGV[2]=容量（突发上限） ARGV[3]=申请许可数
+     * 返回 {是否允许, 剩余许可数, 重试等待（毫秒）}
+     */
+    @SuppressWarnings("rawtypes")
+    static final DefaultRedisScript<List> GCRA = new DefaultRedisScript<>("""
+            local interval = tonumber(ARGV[1])
+            local capacity = tonumber(ARGV[2])
+            local permits = tonumber(ARGV[3])
+            local time = redis.call('TIME')
+            local now = tonumber(time[1]) * 1000000 + tonumber(time[2])
+            
+            local tat = tonumber(redis.call('GET', KEYS[1]))
+            if not tat or tat < now then
+                tat = now
+            end
+            
+            local new_tat = tat + interval * permits
+            local allow_at = new_tat - interval * capacity
+            if allow_at > now then
+                return {0, math.floor((interval * capacity - (tat - now)) / interval), math.ceil((allow_at - now) / 1000)}
+            end
+            
+            redis.call('SET', KEYS[1], string.format('%d', new_tat), 'PX', math.ceil((new_tat - now) / 1000) + 1)
+            return {1, math.floor((now - allow_at) / interval), 0}
+            """, List.class);
+
+    /**
+     * 分层配额脚本（每个层级一个GCRA键，全部通过才扣减）
+     * KEYS[i]=第i个层级的配额键（值为TAT，微秒）
+     * ARGV[1]=申请许可数 ARGV[2i]=第i个层级单个许可的发放间隔（微秒） ARGV[2i+1]=第i个层级容量
+     * 返回 {是否允许, 首个超限层级（从1开始，0表示无）, 重试等待（毫秒）, 各层级的 剩余许可数, 完全恢复时间（毫秒）}
+     */
+    @SuppressWarnings("rawtypes")
+    static final DefaultRedisScript<List> QUOTA = new DefaultRedisScript<>("""
+            local permits = tonumber(ARGV[1])
+            local time = redis.call('TIME')
+            local now = tonumber(time[1]) * 1000000 + tonumber(time[2])
+            
+            -- 先检查所有层级，不写入
+            local tats = {}
+            local allowed = 1
+            local violated = 0
+            local retry_after = 0
+            for i = 1, #KEYS do
+                local interval = tonumber(ARGV[i * 2])
+                local capacity = tonumber(ARGV[i * 2 + 1])
+                local tat = tonumber(redis.call('GET', KEYS[i]))
+                if not tat or tat < now then
+                    tat = now
+                end
+                tats[i] = tat
+                local allow_at = tat + interval * permits - interval * capacity
+                if allow_at > now then
+                    if allowed == 1 then
+                        violated = i
+                    end
+                    allowed = 0
+                    retry_after = math.max(retry_after, math.ceil((allow_at - now) / 1000))
+                end
+            end
+            
+            -- 全部通过才扣减，并计算各层级剩余量
+            local result = {allowed, violated, retry_after}
+            for i = 1, #KEYS do
+                local interval = tonumber(ARGV[i * 2])
+                local capacity = tonumber(ARGV[i * 2 + 1])
+                local tat = tats[i]
+                if allowed == 1 then
+                    tat = tat + interval * permits
+                    redis.call('SET', KEYS[i], string.format('%d', tat), 'PX', math.ceil((tat - now) / 1000) + 1)
+                end
+                table.insert(result, math.max(0, math.floor((interval * capacity - (tat - now)) / interval)))
+                table.insert(result, math.ceil((tat - now) / 1000))
+            end
+            return result
+            """, List.class);
+
+    /**
+     * 构造GCRA脚本参数
+     *
+     * @param permits     申请许可数
+     * @param timeWindow  时间窗口（秒）
+     * @param maxRequests 窗口内最大请求数
+     * @return 脚本参数
+     */
+    static String[] gcraArgs(long permits, long timeWindow, long maxRequests) {
+        long interval = Math.max(1, timeWindow * 1_000_000L / maxRequests);
+        return new String[]{String.valueOf(interval), String.valueOf(maxRequests), String.valueOf(permits)};
+    }
+
+    /**
+     * 解析GCRA脚本结果，结果缺失时默认放行
+     */
+    static RateLimitService.GcraResult toGcraResult(List<?> result, long maxRequests) {
+        if (result == null || result.size() < 3) {
+            return new RateLimitService.GcraResult(true, maxRequests, 0);
+        }
+        return new RateLimitService.GcraResult(toLong(result.get(0)) == 1, toLong(result.get(1)), toLong(result.get(2)));
+    }
+
+    private static long toLong(Object value) {
+        return value instanceof Number number ? number.longValue() : Long.parseLong(String.valueOf(value));
+    }
+
+    /**
+     * 生成配额链的Redis键
+     * 键中包含时间窗口和上限：同名同键但窗口或上限不同的配额各自维护TAT，互不影响
+     */
+    static List<String> quotaKeys(CacheKeyGenerator keyGenerator, List<QuotaRule> rules) {
+        List<String> keys = new ArrayList<>(rules.size());
+        for (QuotaRule rule : rules) {
+            keys.add(keyGenerator.generate(CacheKeyGenerator.Module.RATE_LIMIT, "quota", rule.getName(), rule.getKey(),
+                    rule.getTimeWindow() + "s", rule.getMaxRequests()));
+        }
+        return keys;
+    }
+
+    /**
+     * 构造分层配额脚本参数
+     */
+    static String[] quotaArgs(List<QuotaRule> rules, long permits) {
+        String[] args = new String[rules.size() * 2 + 1];
+        args[0] = String.valueOf(permits);
+        for (int i = 0; i < rules.size(); i++) {
+            QuotaRule rule = rules.get(i);
+            args[i * 2 + 1] = String.valueOf(Math.max(1, rule.getTimeWindow() * 1_000_000L / rule.getMaxRequests()));
+            args[i * 2 + 2] = String.valueOf(rule.getMaxRequests());
+        }
+        return args;
+    }
+
+    /**
+     * 解析分层配额脚本结果，结果缺失时默认放行
+     */
+    static QuotaResult toQuotaResult(List<?> result, List<QuotaRule> rules) {
+        if (result == null || result.size() < 3 + rules.size() * 2) {
+            return QuotaResult.permitted();
+        }
+        List<QuotaResult.Usage> usages = new ArrayList<>(rules.size());
+        for (int i = 0; i < rules.size(); i++) {
+            usages.add(new QuotaResult.Usage(rules.get(i),
+                    toLong(result.get(3 + i * 2)), toLong(result.get(4 + i * 2))));
+        }
+        int violated = (int) toLong(result.get(1));
+        return new QuotaResult(toLong(result.get(0)) == 1,
+                violated > 0 ? rules.get(violated - 1) : null, toLong(result.get(2)), usages);
+    }
+}
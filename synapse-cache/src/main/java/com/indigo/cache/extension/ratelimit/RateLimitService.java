@@ -1,14 +1,23 @@
 package com.indigo.cache.extension.ratelimit;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.indigo.cache.config.CacheProperties;
 import com.indigo.cache.infrastructure.RedisService;
 import com.indigo.cache.manager.CacheKeyGenerator;
 import lombok.extern.slf4j.Slf4j;
 
+import java.util.Collections;
+import java.util.List;
 import java.util.concurrent.TimeUnit;
 
 /**
  * 分布式限流服务
- * 支持滑动窗口、令牌桶、固定窗口等多种限流算法
+ * 支持滑动窗口、令牌桶、固定窗口、GCRA等多种限流算法
+ *
+ * <p>GCRA（通用信元速率算法）每个键只保存一个整数（理论到达时间TAT，微秒），
+ * 每次检查O(1)，内存与请求量无关；脚本为静态常量，执行时优先EVALSHA，无需每次传输脚本。
+ * 可选本地令牌预分配：一次从Redis预取一批许可在JVM内消费，大部分检查不访问Redis。
  *
  * @author 史偕成
  * @date 2025/12/19
@@ -18,10 +27,34 @@ public class RateLimitService {
 
     private final RedisService redisService;
     private final CacheKeyGenerator keyGenerator;
+    private final CacheProperties.RateLimiter config;
+
+    /**
+     * 本地预取许可（仅在启用本地预分配时创建）
+     */
+    private final Cache<LocalPermitLease.Key, LocalPermitLease> localLeases;
+
+    /**
+     * 进程内前置限流器（仅在启用时创建）
+     */
+    private final LocalRateLimiter localLimiter;
 
     public RateLimitService(RedisService redisService, CacheKeyGenerator keyGenerator) {
+        this(redisService, keyGenerator, new CacheProperties.RateLimiter());
+    }
+
+    public RateLimitService(RedisService redisService, CacheKeyGenerator keyGenerator,
+                            CacheProperties.RateLimiter config) {
         this.redisService = redisService;
         this.keyGenerator = keyGenerator;
+        this.config = config;
+        this.localLeases = config.isLocalPrefetchEnabled()
+                ? Caffeine.newBuilder()
+                        .maximumSize(config.getLocalMaxKeys())
+                        .expireAfterWrite(config.getLocalLeaseMillis(), TimeUnit.MILLISECONDS)
+                        .build()
+                : null;
+        this.localLimiter = config.isLocalPreFilterEnabled() ? new LocalRateLimiter(config.getLocalMaxKeys()) : null;
     }
 
     /**
@@ -37,31 +70,9 @@ public class RateLimitService {
         long currentTime = System.currentTimeMillis();
         long windowStart = currentTime - (timeWindow * 1000);
 
-        // 使用 Redis 的 ZREMRANGEBYSCORE 和 ZCARD 实现滑动窗口
-        String script = """
-            local key = KEYS[1]
-            local current_time = tonumber(ARGV[1])
-            local window_start = tonumber(ARGV[2])
-            local max_requests = tonumber(ARGV[3])
-            
-            -- 移除窗口外的请求记录
-            redis.call('ZREMRANGEBYSCORE', key, 0, window_start)
-            
-            -- 获取当前窗口内的请求数
-            local current_requests = redis.call('ZCARD', key)
-            
-            if current_requests < max_requests then
-                -- 添加当前请求记录
-                redis.call('ZADD', key, current_time, current_time .. ':' .. math.random())
-                redis.call('EXPIRE', key, 60)
-                return 1
-            else
-                return 0
-            end
-            """;
-
         try {
-            Long result = redisService.executeScript(script, rateLimitKey, 
+            // 使用 Redis 的 ZREMRANGEBYSCORE 和 ZCARD 实现滑动窗口
+            Long result = redisService.executeScript(RateLimitScripts.SLIDING_WINDOW, Collections.singletonList(rateLimitKey),
                 String.valueOf(currentTime), String.valueOf(windowStart), String.valueOf(maxRequests));
             return result != null && result == 1;
         } catch (Exception e) {
@@ -82,35 +93,8 @@ public class RateLimitService {
         String rateLimitKey = keyGenerator.generate(CacheKeyGenerator.Module.RATE_LIMIT, "token", key);
         long currentTime = System.currentTimeMillis();
 
-        String script = """
-            local key = KEYS[1]
-            local current_time = tonumber(ARGV[1])
-            local capacity = tonumber(ARGV[2])
-            local rate = tonumber(ARGV[3])
-            
-            -- 获取当前令牌数和上次更新时间
-            local bucket_info = redis.call('HMGET', key, 'tokens', 'last_update')
-            local current_tokens = tonumber(bucket_info[1]) or capacity
-            local last_update = tonumber(bucket_info[2]) or current_time
-            
-            -- 计算需要补充的令牌数
-            local time_passed = (current_time - last_update) / 1000
-            local tokens_to_add = math.floor(time_passed * rate)
-            current_tokens = math.min(capacity, current_tokens + tokens_to_add)
-            
-            if current_tokens >= 1 then
-                -- 消耗一个令牌
-                current_tokens = current_tokens - 1
-                redis.call('HMSET', key, 'tokens', current_tokens, 'last_update', current_time)
-                redis.call('EXPIRE', key, 60)
-                return 1
-            else
-                return 0
-            end
-            """;
-
         try {
-            Long result = redisService.executeScript(script, rateLimitKey,
+            Long result = redisService.executeScript(RateLimitScripts.TOKEN_BUCKET, Collections.singletonList(rateLimitKey),
                 String.valueOf(currentTime), String.valueOf(capacity), String.valueOf(rate));
             return result != null && result == 1;
         } catch (Exception e) {
@@ -131,31 +115,8 @@ public class RateLimitService {
         String rateLimitKey = keyGenerator.generate(CacheKeyGenerator.Module.RATE_LIMIT, "fixed", key);
         long windowStart = System.currentTimeMillis() / (timeWindow * 1000) * (timeWindow * 1000);
 
-        String script = """
-            local key = KEYS[1]
-            local window_start = tonumber(ARGV[1])
-            local max_requests = tonumber(ARGV[2])
-            
-            -- 获取当前窗口的请求数
-            local current_requests = redis.call('GET', key)
-            if not current_requests then
-                current_requests = 0
-            else
-                current_requests = tonumber(current_requests)
-            end
-            
-            if current_requests < max_requests then
-                -- 增加请求计数
-                redis.call('INCR', key)
-                redis.call('EXPIRE', key, 60)
-                return 1
-            else
-                return 0
-            end
-            """;
-
         try {
-            Long result = redisService.executeScript(script, rateLimitKey,
+            Long result = redisService.executeScript(RateLimitScripts.FIXED_WINDOW, Collections.singletonList(rateLimitKey),
                 String.valueOf(windowStart), String.valueOf(maxRequests));
             return result != null && result == 1;
         } catch (Exception e) {
@@ -164,6 +125,103 @@ public class RateLimitService {
         }
     }
 
+    /**
+     * GCRA限流（单个许可）
+     *
+     * @param key          限流键
+     * @param timeWindow   时间窗口（秒）
+     * @param maxRequests  窗口内最大请求数
+     * @return 是否允许请求
+     */
+    public boolean gcraLimit(String key, long timeWindow, long maxRequests) {
+        return tryAcquire(key, 1, timeWindow, maxRequests);
+    }
+
+    /**
+     * 批量申请许可（GCRA）
+     * 启用本地预分配时优先消费本地预取的许可
+     *
+     * @param key          限流键
+     * @param permits      申请的许可数
+     * @param timeWindow   时间窗口（秒）
+     * @param maxRequests  窗口内最大请求数
+     * @return 是否全部获得（不会部分扣减）
+     */
+    public boolean tryAcquire(String key, long permits, long timeWindow, long maxRequests) {
+        if (permits <= 0) {
+            return true;
+        }
+        if (localLeases == null) {
+            return gcra(key, permits, timeWindow, maxRequests).isAllowed();
+        }
+
+        LocalPermitLease.Key leaseKey = new LocalPermitLease.Key(key, timeWindow, maxRequests);
+        LocalPermitLease lease = localLeases.getIfPresent(leaseKey);
+        if (lease != null && lease.tryTake(permits)) {
+            return true;
+        }
+
+        // 本地许可不足，从Redis预取一批（预取量不超过容量）
+        long batch = Math.min(Math.max(permits, config.getLocalPrefetchSize()), maxRequests);
+        if (batch > permits) {
+            GcraResult result = gcra(key, batch, timeWindow, maxRequests);
+            if (result.isAllowed()) {
+                localLeases.put(leaseKey, new LocalPermitLease(batch - permits));
+                return true;
+            }
+        }
+        return gcra(key, permits, timeWindow, maxRequests).isAllowed();
+    }
+
+    /**
+     * GCRA限流，返回剩余许可与重试等待时间（不经过本地预分配）
+     *
+     * @param key          限流键
+     * @param permits      申请的许可数
+     * @param timeWindow   时间窗口（秒）
+     * @param maxRequests  窗口内最大请求数（即突发容量）
+     * @return 限流结果
+     */
+    public GcraResult gcra(String key, long permits, long timeWindow, long maxRequests) {
+        if (permits > maxRequests) {
+            return new GcraResult(false, maxRequests, -1);
+        }
+        String rateLimitKey = keyGenerator.generate(CacheKeyGenerator.Module.RATE_LIMIT, "gcra", key);
+
+        try {
+            List<?> result = redisService.executeScript(RateLimitScripts.GCRA, Collections.singletonList(rateLimitKey),
+                    RateLimitScripts.gcraArgs(permits, timeWindow, maxRequests));
+            return RateLimitScripts.toGcraResult(result, maxRequests);
+        } catch (Exception e) {
+            log.error("GCRA限流执行失败: {}", key, e);
+            return new GcraResult(true, maxRequests, 0); // 限流失败时默认放行
+        }
+    }
+
+    /**
+     * 分层配额检查
+     * 在一次Lua调用中检查配额链上的所有层级，全部通过才扣减（全有或全无）
+     *
+     * <p>Redis Cluster 下同一脚本的所有键需位于同一槽位，可在层级键中使用相同的 {hashTag}
+     *
+     * @param rules   配额链（如 全局 → 租户 → 用户 → IP → 接口）
+     * @param permits 申请的许可数
+     * @return 配额结果，包含每个层级的剩余量与重置时间
+     */
+    public QuotaResult consumeQuotas(List<QuotaRule> rules, long permits) {
+        if (rules == null || rules.isEmpty() || permits <= 0) {
+            return QuotaResult.permitted();
+        }
+        try {
+            List<?> result = redisService.executeScript(RateLimitScripts.QUOTA, RateLimitScripts.quotaKeys(keyGenerator, rules),
+                    RateLimitScripts.quotaArgs(rules, permits));
+            return RateLimitScripts.toQuotaResult(result, rules);
+        } catch (Exception e) {
+            log.error("分层配额检查执行失败: {}", rules, e);
+            return QuotaResult.permitted(); // 限流失败时默认放行
+        }
+    }
+
     /**
      * 通用限流方法
      *
@@ -174,6 +232,10 @@ public class RateLimitService {
      * @return 是否允许请求
      */
     public boolean isAllowed(String key, String algorithm, long timeWindow, long maxRequests) {
+        // 单节点已超限，全局必然超限，直接拒绝
+        if (localLimiter != null && !localLimiter.tryAcquire(key, 1, timeWindow, maxRequests)) {
+            return false;
+        }
         switch (algorithm.toUpperCase()) {
             case "SLIDING_WINDOW":
                 return slidingWindowLimit(key, timeWindow, maxRequests);
@@ -181,6 +243,8 @@ public class RateLimitService {
                 return tokenBucketLimit(key, maxRequests, (double) maxRequests / timeWindow);
             case "FIXED_WINDOW":
                 return fixedWindowLimit(key, timeWindow, maxRequests);
+            case "GCRA":
+                return gcraLimit(key, timeWindow, maxRequests);
             default:
                 return slidingWindowLimit(key, timeWindow, maxRequests);
         }
@@ -212,26 +276,34 @@ public class RateLimitService {
         String rateLimitKey = keyGenerator.generate(CacheKeyGenerator.Module.RATE_LIMIT, 
             algorithm.toLowerCase(), key);
         redisService.delete(rateLimitKey);
+        if (localLeases != null && "GCRA".equalsIgnoreCase(algorithm)) {
+            localLeases.asMap().keySet().removeIf(leaseKey -> leaseKey.key().equals(key));
+        }
+        if (localLimiter != null) {
+            localLimiter.reset(key);
+        }
                     log.info("重置限流计数器: {}", rateLimitKey);
     }
 
     /**
-     * 限流信息
+     * GCRA限流结果
      */
-    public static class RateLimitInfo {
-        private final String key;
-        private final String algorithm;
-        private final String redisKey;
+    public static class GcraResult {
+        private final boolean allowed;
+        private final long remaining;
+        private final long retryAfterMillis;
 
-        public RateLimitInfo(String key, String algorithm, String redisKey) {
-            this.key = key;
-            this.algorithm = algorithm;
-            this.redisKey = redisKey;
+        public GcraResult(boolean allowed, long remaining, long retryAfterMillis) {
+            this.allowed = allowed;
+            this.remaining = remaining;
+            this.retryAfterMillis = retryAfterMillis;
         }
 
         // Getters
-        public String getKey() { return key; }
-        public String getAlgorithm() { return algorithm; }
-        public String getRedisKey() { return redisKey; }
+        public boolean isAllowed() { return allowed; }
+        /** 剩余可立即获取的许可数 */
+        public long getRemaining() { return remaining; }
+        /** 被拒绝时建议的重试等待（毫秒），-1 表示申请数超过容量永远无法满足 */
+        public long getRetryAfterMillis() { return retryAfterMillis; }
     }
-} 
\ No newline at end of file
+}
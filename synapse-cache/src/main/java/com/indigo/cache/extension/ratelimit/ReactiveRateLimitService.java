@@ -0,0 +1,205 @@
+package com.indigo.cache.extension.ratelimit;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.indigo.cache.config.CacheProperties;
+import com.indigo.cache.manager.CacheKeyGenerator;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.redis.core.ReactiveStringRedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
+import reactor.core.publisher.Mono;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 响应式分布式限流服务
+ * 基于 ReactiveStringRedisTemplate（Lettuce响应式API）执行限流脚本，不阻塞事件循环线程
+ *
+ * <p>与 {@link RateLimitService} 使用相同的脚本与键，两者可混用同一限流键。
+ * 可选进程内前置过滤（{@link LocalRateLimiter}）与本地许可预取，常见场景无需访问Redis。
+ *
+ * @author 史偕成
+ * @date 2025/12/19
+ */
+@Slf4j
+public class ReactiveRateLimitService {
+
+    private final ReactiveStringRedisTemplate redisTemplate;
+    private final CacheKeyGenerator keyGenerator;
+    private final CacheProperties.RateLimiter config;
+
+    /**
+     * 进程内前置限流器（仅在启用时创建）
+     */
+    private final LocalRateLimiter localLimiter;
+
+    /**
+     * 本地预取许可（仅在启用本地预分配时创建）
+     */
+    private final Cache<LocalPermitLease.Key, LocalPermitLease> localLeases;
+
+    public ReactiveRateLimitService(ReactiveStringRedisTemplate redisTemplate, CacheKeyGenerator keyGenerator,
+                                    CacheProperties.RateLimiter config) {
+        this.redisTemplate = redisTemplate;
+        this.keyGenerator = keyGenerator;
+        this.config = config;
+        this.localLimiter = config.isLocalPreFilterEnabled() ? new LocalRateLimiter(config.getLocalMaxKeys()) : null;
+        this.localLeases = config.isLocalPrefetchEnabled()
+                ? Caffeine.newBuilder()
+                        .maximumSize(config.getLocalMaxKeys())
+                        .expireAfterWrite(config.getLocalLeaseMillis(), TimeUnit.MILLISECONDS)
+                        .build()
+                : null;
+    }
+
+    /**
+     * 通用限流方法
+     *
+     * @param key          限流键
+     * @param algorithm    限流算法
+     * @param timeWindow   时间窗口（秒）
+     * @param maxRequests  最大请求数
+     * @return 是否允许请求
+     */
+    public Mono<Boolean> isAllowed(String key, String algorithm, long timeWindow, long maxRequests) {
+        // 单节点已超限，全局必然超限，直接拒绝
+        if (localLimiter != null && !localLimiter.tryAcquire(key, 1, timeWindow, maxRequests)) {
+            return Mono.just(false);
+        }
+
+        return switch (algorithm.toUpperCase()) {
+            case "TOKEN_BUCKET" -> tokenBucketLimit(key, maxRequests, (double) maxRequests / timeWindow);
+            case "FIXED_WINDOW" -> fixedWindowLimit(key, timeWindow, maxRequests);
+            case "GCRA" -> tryAcquire(key, 1, timeWindow, maxRequests);
+            default -> slidingWindowLimit(key, timeWindow, maxRequests);
+        };
+    }
+
+    /**
+     * 滑动窗口限流
+     */
+    public Mono<Boolean> slidingWindowLimit(String key, long timeWindow, long maxRequests) {
+        String rateLimitKey = keyGenerator.generate(CacheKeyGenerator.Module.RATE_LIMIT, "sliding", key);
+        long currentTime = System.currentTimeMillis();
+        long windowStart = currentTime - (timeWindow * 1000);
+        return executeLimit(RateLimitScripts.SLIDING_WINDOW, rateLimitKey, key,
+                String.valueOf(currentTime), String.valueOf(windowStart), String.valueOf(maxRequests));
+    }
+
+    /**
+     * 令牌桶限流
+     */
+    public Mono<Boolean> tokenBucketLimit(String key, long capacity, double rate) {
+        String rateLimitKey = keyGenerator.generate(CacheKeyGenerator.Module.RATE_LIMIT, "token", key);
+        return executeLimit(RateLimitScripts.TOKEN_BUCKET, rateLimitKey, key,
+                String.valueOf(System.currentTimeMillis()), String.valueOf(capacity), String.valueOf(rate));
+    }
+
+    /**
+     * 固定窗口限流
+     */
+    public Mono<Boolean> fixedWindowLimit(String key, long timeWindow, long maxRequests) {
+        String rateLimitKey = keyGenerator.generate(CacheKeyGenerator.Module.RATE_LIMIT, "fixed", key);
+        long windowStart = System.currentTimeMillis() / (timeWindow * 1000) * (timeWindow * 1000);
+        return executeLimit(RateLimitScripts.FIXED_WINDOW, rateLimitKey, key,
+                String.valueOf(windowStart), String.valueOf(maxRequests));
+    }
+
+    /**
+     * 批量申请许可（GCRA）
+     * 启用本地预分配时优先消费本地预取的许可
+     *
+     * @return 是否全部获得（不会部分扣减）
+     */
+    public Mono<Boolean> tryAcquire(String key, long permits, long timeWindow, long maxRequests) {
+        if (permits <= 0) {
+            return Mono.just(true);
+        }
+        if (localLeases == null) {
+            return gcra(key, permits, timeWindow, maxRequests).map(RateLimitService.GcraResult::isAllowed);
+        }
+
+        LocalPermitLease.Key leaseKey = new LocalPermitLease.Key(key, timeWindow, maxRequests);
+        LocalPermitLease lease = localLeases.getIfPresent(leaseKey);
+        if (lease != null && lease.tryTake(permits)) {
+            return Mono.just(true);
+        }
+
+        long batch = Math.min(Math.max(permits, config.getLocalPrefetchSize()), maxRequests);
+        if (batch <= permits) {
+            return gcra(key, permits, timeWindow, maxRequests).map(RateLimitService.GcraResult::isAllowed);
+        }
+        return gcra(key, batch, timeWindow, maxRequests).flatMap(result -> {
+            if (result.isAllowed()) {
+                localLeases.put(leaseKey, new LocalPermitLease(batch - permits));
+                return Mono.just(true);
+            }
+            return gcra(key, permits, timeWindow, maxRequests).map(RateLimitService.GcraResult::isAllowed);
+        });
+    }
+
+    /**
+     * GCRA限流，返回剩余许可与重试等待时间（不经过本地预分配）
+     */
+    @SuppressWarnings("unchecked")
+    public Mono<RateLimitService.GcraResult> gcra(String key, long permits, long timeWindow, long maxRequests) {
+        if (permits > maxRequests) {
+            return Mono.just(new RateLimitService.GcraResult(false, maxRequests, -1));
+        }
+        String rateLimitKey = keyGenerator.generate(CacheKeyGenerator.Module.RATE_LIMIT, "gcra", key);
+        return redisTemplate.execute(RateLimitScripts.GCRA, Collections.singletonList(rateLimitKey),
+                        List.of(RateLimitScripts.gcraArgs(permits, timeWindow, maxRequests)))
+                .next()
+                .map(result -> RateLimitScripts.toGcraResult((List<?>) result, maxRequests))
+                .defaultIfEmpty(new RateLimitService.GcraResult(true, maxRequests, 0))
+                .onErrorResume(e -> {
+                    log.error("GCRA限流执行失败: {}", key, e);
+                    return Mono.just(new RateLimitService.GcraResult(true, maxRequests, 0)); // 限流失败时默认放行
+                });
+    }
+
+    /**
+     * 分层配额检查（响应式），语义同 {@link RateLimitService#consumeQuotas}
+     */
+    public Mono<QuotaResult> consumeQuotas(List<QuotaRule> rules, long permits) {
+        if (rules == null || rules.isEmpty() || permits <= 0) {
+            return Mono.just(QuotaResult.permitted());
+        }
+        List<String> keys = RateLimitScripts.quotaKeys(keyGenerator, rules);
+        return redisTemplate.execute(RateLimitScripts.QUOTA, keys, List.of(RateLimitScripts.quotaArgs(rules, permits)))
+                .next()
+                .map(result -> RateLimitScripts.toQuotaResult((List<?>) result, rules))
+                .defaultIfEmpty(QuotaResult.permitted())
+                .onErrorResume(e -> {
+                    log.error("分层配额检查执行失败: {}", rules, e);
+                    return Mono.just(QuotaResult.permitted()); // 限流失败时默认放行
+                });
+    }
+
+    private Mono<Boolean> executeLimit(RedisScript<Long> script, String rateLimitKey, String key, String... args) {
+        return redisTemplate.execute(script, Collections.singletonList(rateLimitKey), List.of(args))
+                .next()
+                .map(result -> result == 1)
+                .defaultIfEmpty(true)
+                .onErrorResume(e -> {
+                    log.error("限流执行失败: {}", key, e);
+                    return Mono.just(true); // 限流失败时默认放行
+                });
+    }
+
+    /**
+     * 重置本地限流状态（Redis中的计数器请通过 {@link RateLimitService#reset} 重置）
+     *
+     * @param key 限流键
+     */
+    public void resetLocal(String key) {
+        if (localLimiter != null) {
+            localLimiter.reset(key);
+        }
+        if (localLeases != null) {
+            localLeases.asMap().keySet().removeIf(leaseKey -> leaseKey.key().equals(key));
+        }
+    }
+}
@@ -4,11 +4,14 @@ import com.fasterxml.jackson.core.type.TypeReference;
 import com.indigo.core.utils.JsonUtils;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
 import org.springframework.data.redis.core.RedisTemplate;
 import org.springframework.data.redis.core.StringRedisTemplate;
 import org.springframework.data.redis.core.ScanOptions;
 import org.springframework.data.redis.core.Cursor;
 import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
 
 import java.util.*;
 import java.util.concurrent.TimeUnit;
@@ -589,6 +592,37 @@ public class RedisService {
         }
     }
 
+    /**
+     * 执行预编译的Lua脚本（多键）
+     * 使用 StringRedisTemplate，参数按原始字符串传递（不做JSON序列化）
+     * 脚本对象应声明为常量复用：Spring 会优先使用 EVALSHA，仅在脚本未缓存时回退 EVAL
+     *
+     * @param script 脚本对象（建议使用静态常量）
+     * @param keys   键列表
+     * @param args   参数
+     * @param <T>    返回类型
+     * @return 执行结果，执行失败返回null
+     */
+    public <T> T executeScript(RedisScript<T> script, List<String> keys, String... args) {
+        try {
+            return stringRedisTemplate.execute(script, keys, (Object[]) args);
+        } catch (Exception e) {
+            log.error("执行Lua脚本失败: keys={}, error={}", keys, e.getMessage(), e);
+            return null;
+        }
+    }
+
+    /**
+     * 当前连接是否为 Redis Cluster
+     * 集群下跨槽位的多键脚本会因 CROSSSLOT 失败，调用方可据此改用管道逐键执行
+     *
+     * @return 是否为集群连接
+     */
+    public boolean isClusterMode() {
+        RedisConnectionFactory factory = stringRedisTemplate.getConnectionFactory();
+        return factory instanceof LettuceConnectionFactory lettuce && lettuce.isClusterAware();
+    }
+
     // ==================== 键扫描（基础设施层） ====================
 
     /**
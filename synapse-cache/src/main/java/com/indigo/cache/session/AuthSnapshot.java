@@ -0,0 +1,62 @@
+package com.indigo.cache.session;
+
+import com.indigo.core.context.UserContext;
+
+import java.util.List;
+
+/**
+ * 认证快照
+ * 一次读取得到的会话、权限、角色与会话剩余时间
+ *
+ * @author 史偕成
+ * @date 2025/12/19
+ */
+public class AuthSnapshot {
+
+    private final UserContext userContext;
+    private final List<String> permissions;
+    private final List<String> roles;
+    private final long remainingSeconds;
+    private final boolean refreshed;
+
+    public AuthSnapshot(UserContext userContext, List<String> permissions, List<String> roles,
+                        long remainingSeconds, boolean refreshed) {
+        this.userContext = userContext;
+        this.permissions = permissions;
+        this.roles = roles;
+        this.remainingSeconds = remainingSeconds;
+        this.refreshed = refreshed;
+    }
+
+    public UserContext getUserContext() {
+        return userContext;
+    }
+
+    /**
+     * 权限列表，未存储时为null
+     */
+    public List<String> getPermissions() {
+        return permissions;
+    }
+
+    /**
+     * 角色列表，未存储时为null
+     */
+    public List<String> getRoles() {
+        return roles;
+    }
+
+    /**
+     * 会话剩余时间（秒），-1 表示永不过期或未知
+     */
+    public long getRemainingSeconds() {
+        return remainingSeconds;
+    }
+
+    /**
+     * 本次读取是否同时完成了滑动过期续期
+     */
+    public boolean isRefreshed() {
+        return refreshed;
+    }
+}
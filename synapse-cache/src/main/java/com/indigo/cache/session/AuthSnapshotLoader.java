@@ -0,0 +1,374 @@
+package com.indigo.cache.session;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.indigo.cache.core.CacheInvalidationTracker;
+import com.indigo.cache.core.constants.SessionCacheConstants;
+import com.indigo.cache.infrastructure.CaffeineCacheManager;
+import com.indigo.cache.infrastructure.RedisService;
+import com.indigo.cache.manager.CacheKeyGenerator;
+import com.indigo.core.context.UserContext;
+import com.indigo.core.utils.JsonUtils;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 认证快照加载器
+ * 在一次 Lua 调用中读取会话、权限、角色与剩余时间，并在需要时完成滑动过期续期
+ *
+ * <p>本地缓存未命中时，认证只需 1 次 Redis 往返（原先为 GET + TTL + EXPIRE 以及权限、角色各自的 GET + TTL）。
+ * 本地缓存命中且会话剩余时间充足时不访问 Redis；需要续期时，配置了 {@link SessionRenewalQueue} 则只做一次入队。
+ * 会话的各个键不在同一槽位，Redis Cluster 下改为管道读取（需要续期时再追加一次管道续期）。
+ * 读取结果会写入 Caffeine 本地缓存（与 SessionManager / CachePermissionManager 共用缓存名称）。
+ * 响应式应用使用 {@link ReactiveAuthSnapshotLoader}，两者共用同一脚本和本地缓存。
+ *
+ * @author 史偕成
+ * @date 2025/12/19
+ */
+@Slf4j
+public class AuthSnapshotLoader {
+
+    /**
+     * 默认续期阈值（秒）：剩余时间少于此值时续期，与会话管理器的滑动过期策略一致
+     */
+    public static final long DEFAULT_REFRESH_THRESHOLD = 1800;
+
+    /**
+     * 默认续期时长（秒）
+     */
+    public static final long DEFAULT_RENEWAL_DURATION = 3600;
+
+    /**
+     * 本地缓存默认过期时间（秒）
+     */
+    private static final int LOCAL_CACHE_EXPIRE_SECONDS = 300;
+
+    /**
+     * 滑动过期时需要续期的键类型，快照读取的会话、权限、角色依次排在最前
+     */
+    static final List<String> KEY_FAMILIES = List.of(
+            "session", "permissions", "roles", "token", "menus", "resources", "systems", "systemMenuTree");
+
+    /**
+     * 快照读取的键数量（会话、权限、角色）
+     */
+    private static final int SNAPSHOT_READS = 3;
+
+    /**
+     * KEYS 依次为 {@link #KEY_FAMILIES} 对应的键，KEYS[1]=session，KEYS[2]=permissions，KEYS[3]=roles
+     * ARGV[1]=续期阈值（秒），ARGV[2]=续期时长（秒，0 表示不续期）
+     * 续期只延长剩余时间短于续期时长的键，不存在或未设置过期时间的键忽略
+     * 返回 {session, permissions, roles, ttl, refreshed}，会话不存在时返回空表
+     */
+    @SuppressWarnings("rawtypes")
+    static final DefaultRedisScript<List> SNAPSHOT_SCRIPT = new DefaultRedisScript<>(
+            "local session = redis.call('GET', KEYS[1]) " +
+            "if not session then return {} end " +
+            "local ttl = redis.call('TTL', KEYS[1]) " +
+            "local renewal = tonumber(ARGV[2]) " +
+            "local refreshed = 0 " +
+            "if renewal > 0 and ttl > 0 and ttl < tonumber(ARGV[1]) and ttl < renewal then " +
+            "  for i = 1, #KEYS do " +
+            "    local keyTtl = redis.call('TTL', KEYS[i]) " +
+            "    if keyTtl > 0 and keyTtl < renewal then redis.call('EXPIRE', KEYS[i], renewal) end " +
+            "  end " +
+            "  ttl = renewal " +
+            "  refreshed = 1 " +
+            "end " +
+            "local permissions = redis.call('GET', KEYS[2]) or '' " +
+            "local roles = redis.call('GET', KEYS[3]) or '' " +
+            "return {session, permissions, roles, ttl, refreshed}",
+            List.class);
+
+    private final RedisService redisService;
+    private final CacheKeyGenerator keyGenerator;
+    private final CaffeineCacheManager caffeineCacheManager;
+    private final CacheInvalidationTracker invalidationTracker;
+    private final SessionIndex sessionIndex;
+    private final SessionRenewalQueue renewalQueue;
+
+    /**
+     * 会话到期时间（毫秒时间戳），用于本地缓存命中时判断是否需要续期
+     */
+    private final Cache<String, Long> localExpiresAt;
+
+    public AuthSnapshotLoader(RedisService redisService,
+                              CacheKeyGenerator keyGenerator,
+                              CaffeineCacheManager caffeineCacheManager,
+                              CacheInvalidationTracker invalidationTracker,
+                              SessionIndex sessionIndex) {
+        this(redisService, keyGenerator, caffeineCacheManager, invalidationTracker, sessionIndex, null);
+    }
+
+    public AuthSnapshotLoader(RedisService redisService,
+                              CacheKeyGenerator keyGenerator,
+                              CaffeineCacheManager caffeineCacheManager,
+                              CacheInvalidationTracker invalidationTracker,
+                              SessionIndex sessionIndex,
+                              SessionRenewalQueue renewalQueue) {
+        this.redisService = redisService;
+        this.keyGenerator = keyGenerator;
+        this.caffeineCacheManager = caffeineCacheManager;
+        this.invalidationTracker = invalidationTracker;
+        this.sessionIndex = sessionIndex;
+        this.renewalQueue = renewalQueue;
+        this.localExpiresAt = Caffeine.newBuilder()
+                .maximumSize(100_000)
+                .expireAfterWrite(LOCAL_CACHE_EXPIRE_SECONDS, TimeUnit.SECONDS)
+                .build();
+        if (renewalQueue != null) {
+            renewalQueue.addRenewalListener(this::onRenewed);
+        }
+    }
+
+    /**
+     * 加载认证快照（使用默认续期策略）
+     *
+     * @param token 访问令牌
+     * @return 认证快照，会话不存在时返回null
+     */
+    public AuthSnapshot load(String token) {
+        return load(token, DEFAULT_REFRESH_THRESHOLD, DEFAULT_RENEWAL_DURATION);
+    }
+
+    /**
+     * 加载认证快照
+     *
+     * @param token            访问令牌
+     * @param refreshThreshold 续期阈值（秒），剩余时间少于此值时续期
+     * @param renewalDuration  续期时长（秒），0 表示不续期
+     * @return 认证快照，会话不存在时返回null
+     */
+    public AuthSnapshot load(String token, long refreshThreshold, long renewalDuration) {
+        if (token == null) {
+            return null;
+        }
+        AuthSnapshot local = loadLocal(token, refreshThreshold, renewalDuration);
+        if (local != null) {
+            return local;
+        }
+
+        long readTimestamp = System.currentTimeMillis();
+        List<?> result = isClusterMode()
+                ? loadPipelined(token, refreshThreshold, renewalDuration)
+                : redisService.executeScript(SNAPSHOT_SCRIPT, snapshotKeys(token),
+                        String.valueOf(refreshThreshold), String.valueOf(Math.max(renewalDuration, 0)));
+        AuthSnapshot snapshot = fromScriptResult(token, result, readTimestamp);
+        if (snapshot != null && snapshot.isRefreshed()) {
+            touchIndex(token, snapshot.getRemainingSeconds());
+        }
+        return snapshot;
+    }
+
+    /**
+     * 解析快照脚本（或集群管道读取）的返回值并写入本地缓存，不访问 Redis
+     *
+     * @return 认证快照，会话不存在时返回null
+     */
+    AuthSnapshot fromScriptResult(String token, List<?> result, long readTimestamp) {
+        if (result == null || result.size() < 5) {
+            return null;
+        }
+
+        UserContext userContext = JsonUtils.fromJson(result.get(0).toString(), UserContext.class);
+        if (userContext == null) {
+            return null;
+        }
+        List<String> permissions = parseList(result.get(1));
+        List<String> roles = parseList(result.get(2));
+        long ttl = ((Number) result.get(3)).longValue();
+        boolean refreshed = ((Number) result.get(4)).longValue() == 1;
+
+        storeLocal(token, userContext, permissions, roles, ttl, readTimestamp);
+        log.debug("加载认证快照: token={}, ttl={}s, refreshed={}", token, ttl, refreshed);
+        return new AuthSnapshot(userContext, permissions, roles, ttl, refreshed);
+    }
+
+    /**
+     * 续期后同步更新在线会话索引（会访问 Redis）
+     */
+    void touchIndex(String token, long ttl) {
+        if (sessionIndex == null) {
+            return;
+        }
+        try {
+            sessionIndex.touch(token, ttl);
+        } catch (Exception e) {
+            log.warn("更新在线会话索引失败: token={}", token, e);
+        }
+    }
+
+    /**
+     * 是否为 Redis Cluster（快照的各个键不在同一槽位，不能使用快照脚本）
+     */
+    boolean isClusterMode() {
+        return redisService.isClusterMode();
+    }
+
+    /**
+     * 快照的 KEYS，与 {@link #KEY_FAMILIES} 一一对应
+     */
+    List<String> snapshotKeys(String token) {
+        List<String> keys = new ArrayList<>(KEY_FAMILIES.size());
+        for (String family : KEY_FAMILIES) {
+            keys.add(keyGenerator.generate(CacheKeyGenerator.Module.USER, family, token));
+        }
+        return keys;
+    }
+
+    /**
+     * 集群模式下读取快照，返回值与快照脚本一致
+     * 一次管道读取会话、权限、角色以及各键的剩余时间；需要续期时再以一次管道逐键 EXPIRE（与读取不在同一原子操作内）
+     */
+    List<?> loadPipelined(String token, long refreshThreshold, long renewalDuration) {
+        List<String> keys = snapshotKeys(token);
+        StringRedisTemplate template = redisService.getStringRedisTemplate();
+        List<Object> values = template.executePipelined((RedisCallback<Object>) connection -> {
+            for (int i = 0; i < SNAPSHOT_READS; i++) {
+                connection.stringCommands().get(bytes(keys.get(i)));
+            }
+            for (String key : keys) {
+                connection.keyCommands().ttl(bytes(key));
+            }
+            return null;
+        });
+        if (values == null || values.size() < SNAPSHOT_READS + keys.size() || values.get(0) == null) {
+            return Collections.emptyList();
+        }
+
+        long ttl = toLong(values.get(SNAPSHOT_READS));
+        long refreshed = 0;
+        if (renewalDuration > 0 && ttl > 0 && ttl < refreshThreshold && ttl < renewalDuration) {
+            List<byte[]> renewKeys = new ArrayList<>(keys.size());
+            for (int i = 0; i < keys.size(); i++) {
+                long keyTtl = toLong(values.get(SNAPSHOT_READS + i));
+                if (keyTtl > 0 && keyTtl < renewalDuration) {
+                    renewKeys.add(bytes(keys.get(i)));
+                }
+            }
+            template.executePipelined((RedisCallback<Object>) connection -> {
+                for (byte[] key : renewKeys) {
+                    connection.keyCommands().expire(key, renewalDuration);
+                }
+                return null;
+            });
+            ttl = renewalDuration;
+            refreshed = 1;
+        }
+        return Arrays.asList(values.get(0), orEmpty(values.get(1)), orEmpty(values.get(2)), ttl, refreshed);
+    }
+
+    /**
+     * 从本地缓存组装快照；会话未命中时返回null
+     * 需要续期时：配置了续期队列则入队并继续使用本地数据，否则返回null（由脚本同步续期）
+     * 只读取本地缓存和入队，不访问 Redis，可在事件循环线程上调用
+     */
+    AuthSnapshot loadLocal(String token, long refreshThreshold, long renewalDuration) {
+        if (caffeineCacheManager == null) {
+            return null;
+        }
+        try {
+            Long expiresAt = localExpiresAt.getIfPresent(token);
+            if (expiresAt == null) {
+                return null;
+            }
+            long remaining = expiresAt < 0 ? -1 : (expiresAt - System.currentTimeMillis()) / 1000;
+            if (renewalDuration > 0 && remaining >= 0 && remaining < refreshThreshold) {
+                if (renewalQueue == null) {
+                    return null;
+                }
+                renewalQueue.submit(token, refreshThreshold, renewalDuration);
+            }
+            Optional<UserContext> userContext = caffeineCacheManager.get(SessionCacheConstants.CACHE_NAME_USER_SESSION, token);
+            if (userContext.isEmpty()) {
+                return null;
+            }
+            Optional<List<String>> permissions = caffeineCacheManager.get(SessionCacheConstants.CACHE_NAME_USER_PERMISSIONS, token);
+            Optional<List<String>> roles = caffeineCacheManager.get(SessionCacheConstants.CACHE_NAME_USER_ROLES, token);
+            return new AuthSnapshot(userContext.get(), permissions.orElse(null), roles.orElse(null), remaining, false);
+        } catch (Exception e) {
+            log.warn("从本地缓存加载认证快照失败: token={}", token, e);
+            return null;
+        }
+    }
+
+    /**
+     * 队列续期成功后更新本地记录的到期时间，避免本地缓存命中时反复判定需要续期
+     */
+    void onRenewed(String token, long renewalDuration) {
+        localExpiresAt.asMap().computeIfPresent(token,
+                (k, expiresAt) -> expiresAt < 0 ? expiresAt : System.currentTimeMillis() + renewalDuration * 1000);
+    }
+
+    private void storeLocal(String token, UserContext userContext, List<String> permissions, List<String> roles,
+                            long ttl, long readTimestamp) {
+        if (caffeineCacheManager == null) {
+            return;
+        }
+        try {
+            int localExpireSeconds = ttl > 0 ? calculateLocalCacheExpire(ttl) : LOCAL_CACHE_EXPIRE_SECONDS;
+            putIfValid(SessionCacheConstants.CACHE_NAME_USER_SESSION, SessionCacheConstants.CACHE_TYPE_USER_SESSION,
+                    token, userContext, localExpireSeconds, readTimestamp);
+            putIfValid(SessionCacheConstants.CACHE_NAME_USER_PERMISSIONS, SessionCacheConstants.CACHE_TYPE_USER_PERMISSIONS,
+                    token, permissions, localExpireSeconds, readTimestamp);
+            putIfValid(SessionCacheConstants.CACHE_NAME_USER_ROLES, SessionCacheConstants.CACHE_TYPE_USER_ROLES,
+                    token, roles, localExpireSeconds, readTimestamp);
+            localExpiresAt.put(token, ttl > 0 ? readTimestamp + ttl * 1000 : -1L);
+        } catch (Exception e) {
+            log.warn("认证快照写入本地缓存失败: token={}", token, e);
+        }
+    }
+
+    /**
+     * 写入本地缓存（读取之后已失效的数据不写入，防止覆盖新数据）
+     */
+    private void putIfValid(String cacheName, String cacheType, String token, Object value,
+                            int expireSeconds, long readTimestamp) {
+        if (value == null) {
+            return;
+        }
+        if (invalidationTracker != null && invalidationTracker.isInvalidated(cacheType, token, readTimestamp)) {
+            log.debug("跳过写入本地缓存（数据已失效）: cacheType={}, token={}", cacheType, token);
+            return;
+        }
+        caffeineCacheManager.put(cacheName, token, value, expireSeconds);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static List<String> parseList(Object value) {
+        if (value == null || value.toString().isEmpty()) {
+            return null;
+        }
+        return JsonUtils.fromJson(value.toString(), List.class);
+    }
+
+    private static Object orEmpty(Object value) {
+        return value != null ? value : "";
+    }
+
+    private static long toLong(Object value) {
+        return value instanceof Number number ? number.longValue() : -2;
+    }
+
+    private static byte[] bytes(String value) {
+        return value.getBytes(StandardCharsets.UTF_8);
+    }
+
+    /**
+     * 本地缓存过期时间 = min(Redis过期时间的1/10, 5分钟)，至少 1 分钟
+     */
+    private static int calculateLocalCacheExpire(long redisExpiration) {
+        long localExpire = Math.min(redisExpiration / 10, LOCAL_CACHE_EXPIRE_SECONDS);
+        return (int) Math.max(localExpire, 60);
+    }
+}
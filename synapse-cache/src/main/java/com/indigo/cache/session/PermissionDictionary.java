@@ -0,0 +1,184 @@
+package com.indigo.cache.session;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.indigo.core.context.PermissionMatcher;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 权限字典
+ * 将权限/角色编码驻留为连续的整数ID，并把用户的权限、角色列表编译为 {@link PermissionMask}；
+ * 权限列表同时编译为 {@link PermissionMatcher}，用于通配授权（如 {@code system:user:*}）
+ *
+ * <p>编译结果按 token 缓存，并记录编译来源列表：只要本地缓存返回的仍是同一个列表实例，
+ * 就直接复用编译结果；权限变更或本地缓存失效后重新读取得到新实例，会自动重新编译，
+ * 因此无需单独维护失效逻辑。
+ *
+ * <p>注意：ID 一经分配不会回收，编码集合应是有限的（权限码、角色码），不要驻留用户输入等无界数据。
+ *
+ * @author 史偕成
+ * @date 2025/12/19
+ */
+public class PermissionDictionary {
+
+    private static final int MAX_COMPILED_TOKENS = 100_000;
+    private static final long COMPILED_EXPIRE_MINUTES = 30;
+
+    private final Map<String, Integer> ids = new ConcurrentHashMap<>();
+    private final AtomicInteger nextId = new AtomicInteger();
+
+    private final Cache<String, Compiled> compiledPermissions;
+    private final Cache<String, Compiled> compiledRoles;
+
+    public PermissionDictionary() {
+        this.compiledPermissions = newCompiledCache();
+        this.compiledRoles = newCompiledCache();
+    }
+
+    /**
+     * 驻留编码，返回其ID（已存在则返回原ID）
+     */
+    public int intern(String code) {
+        Integer id = ids.get(code);
+        if (id != null) {
+            return id;
+        }
+        return ids.computeIfAbsent(code, k -> nextId.getAndIncrement());
+    }
+
+    /**
+     * 查询编码的ID，未驻留时返回 -1
+     */
+    public int idOf(String code) {
+        if (code == null) {
+            return -1;
+        }
+        Integer id = ids.get(code);
+        return id != null ? id : -1;
+    }
+
+    /**
+     * 已驻留的编码数量
+     */
+    public int size() {
+        return ids.size();
+    }
+
+    /**
+     * 编译编码集合（会驻留其中的全部编码）
+     * 用于启动时或首次使用时预编译注解要求
+     */
+    public PermissionMask compile(String... codes) {
+        if (codes == null || codes.length == 0) {
+            return PermissionMask.EMPTY;
+        }
+        int[] codeIds = new int[codes.length];
+        int maxId = -1;
+        for (int i = 0; i < codes.length; i++) {
+            codeIds[i] = codes[i] != null ? intern(codes[i]) : -1;
+            maxId = Math.max(maxId, codeIds[i]);
+        }
+        return build(codeIds, maxId);
+    }
+
+    /**
+     * 编译编码集合（会驻留其中的全部编码）
+     */
+    public PermissionMask compile(Collection<String> codes) {
+        if (codes == null || codes.isEmpty()) {
+            return PermissionMask.EMPTY;
+        }
+        return compile(codes.toArray(new String[0]));
+    }
+
+    /**
+     * 获取 token 的权限位图
+     *
+     * @param token       访问令牌
+     * @param permissions 当前权限列表（通常来自本地缓存）
+     * @return 权限位图
+     */
+    public PermissionMask permissionsOf(String token, Collection<String> permissions) {
+        return compileCached(compiledPermissions, token, permissions).mask;
+    }
+
+    /**
+     * 获取 token 的通配权限匹配器
+     *
+     * @param token       访问令牌
+     * @param permissions 当前权限列表（通常来自本地缓存）
+     * @return 权限匹配器
+     */
+    public PermissionMatcher matcherOf(String token, Collection<String> permissions) {
+        return compileCached(compiledPermissions, token, permissions).matcher;
+    }
+
+    /**
+     * 获取 token 的角色位图
+     *
+     * @param token 访问令牌
+     * @param roles 当前角色列表（通常来自本地缓存）
+     * @return 角色位图
+     */
+    public PermissionMask rolesOf(String token, Collection<String> roles) {
+        return compileCached(compiledRoles, token, roles).mask;
+    }
+
+    /**
+     * 移除 token 的编译结果
+     */
+    public void evict(String token) {
+        if (token != null) {
+            compiledPermissions.invalidate(token);
+            compiledRoles.invalidate(token);
+        }
+    }
+
+    private Compiled compileCached(Cache<String, Compiled> cache, String token, Collection<String> codes) {
+        if (codes == null || codes.isEmpty()) {
+            return Compiled.EMPTY;
+        }
+        if (token == null) {
+            return new Compiled(codes, compile(codes), PermissionMatcher.compile(codes));
+        }
+        Compiled compiled = cache.getIfPresent(token);
+        if (compiled != null && compiled.source == codes) {
+            return compiled;
+        }
+        compiled = new Compiled(codes, compile(codes), PermissionMatcher.compile(codes));
+        cache.put(token, compiled);
+        return compiled;
+    }
+
+    private static PermissionMask build(int[] codeIds, int maxId) {
+        if (maxId < 0) {
+            return PermissionMask.EMPTY;
+        }
+        long[] words = new long[(maxId >>> 6) + 1];
+        for (int id : codeIds) {
+            if (id >= 0) {
+                words[id >>> 6] |= 1L << id;
+            }
+        }
+        return new PermissionMask(words);
+    }
+
+    private static Cache<String, Compiled> newCompiledCache() {
+        return Caffeine.newBuilder()
+                .maximumSize(MAX_COMPILED_TOKENS)
+                .expireAfterAccess(COMPILED_EXPIRE_MINUTES, TimeUnit.MINUTES)
+                .build();
+    }
+
+    /**
+     * 编译结果及其来源列表（按引用比较）
+     */
+    private record Compiled(Collection<String> source, PermissionMask mask, PermissionMatcher matcher) {
+        private static final Compiled EMPTY = new Compiled(null, PermissionMask.EMPTY, PermissionMatcher.EMPTY);
+    }
+}
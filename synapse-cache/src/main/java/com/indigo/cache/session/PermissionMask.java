@@ -0,0 +1,91 @@
+package com.indigo.cache.session;
+
+/**
+ * 编译后的权限/角色集合
+ * 以 {@link PermissionDictionary} 分配的整数ID为位下标的位图（long[]），不可变
+ *
+ * <p>AND/OR 判断为逐字的位运算，不产生任何对象分配。
+ *
+ * @author 史偕成
+ * @date 2025/12/19
+ */
+public final class PermissionMask {
+
+    /**
+     * 空集合
+     */
+    public static final PermissionMask EMPTY = new PermissionMask(new long[0]);
+
+    private final long[] words;
+
+    PermissionMask(long[] words) {
+        this.words = words;
+    }
+
+    /**
+     * 是否包含指定ID
+     *
+     * @param id 权限/角色ID，负数表示未知编码
+     * @return 是否包含
+     */
+    public boolean contains(int id) {
+        if (id < 0) {
+            return false;
+        }
+        int index = id >>> 6;
+        return index < words.length && (words[index] & (1L << id)) != 0;
+    }
+
+    /**
+     * 是否包含 required 中的全部元素（AND）
+     * required 为空时返回true
+     */
+    public boolean containsAll(PermissionMask required) {
+        long[] requiredWords = required.words;
+        for (int i = 0; i < requiredWords.length; i++) {
+            long word = i < words.length ? words[i] : 0L;
+            if ((word & requiredWords[i]) != requiredWords[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * 是否包含 required 中的任一元素（OR）
+     * required 为空时返回false
+     */
+    public boolean intersects(PermissionMask required) {
+        long[] requiredWords = required.words;
+        int length = Math.min(words.length, requiredWords.length);
+        for (int i = 0; i < length; i++) {
+            if ((words[i] & requiredWords[i]) != 0) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * 是否为空集合
+     */
+    public boolean isEmpty() {
+        for (long word : words) {
+            if (word != 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * 元素数量
+     */
+    public int cardinality() {
+        int count = 0;
+        for (long word : words) {
+            count += Long.bitCount(word);
+        }
+        return count;
+    }
+}
@@ -0,0 +1,84 @@
+package com.indigo.cache.session;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.redis.core.ReactiveStringRedisTemplate;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.util.List;
+
+/**
+ * 响应式认证快照加载器
+ * 与 {@link AuthSnapshotLoader} 使用相同的 Lua 脚本和本地缓存，但 Redis 读取通过
+ * ReactiveStringRedisTemplate（Lettuce响应式API）完成，不阻塞事件循环线程
+ *
+ * <p>本地缓存命中时直接在调用线程上返回（只读 Caffeine，必要时向续期队列入队）；
+ * 未命中时执行快照脚本，结果同样写入本地缓存。续期后更新在线会话索引仍是阻塞调用，
+ * 转移到 boundedElastic 线程异步执行。
+ *
+ * <p>Redis Cluster 下快照的各个键不在同一槽位，无法执行快照脚本，改为在 boundedElastic 线程上
+ * 执行 {@link AuthSnapshotLoader} 的管道读取，同样不占用事件循环线程。
+ *
+ * @author 史偕成
+ * @date 2025/12/19
+ */
+@Slf4j
+public class ReactiveAuthSnapshotLoader {
+
+    private final ReactiveStringRedisTemplate redisTemplate;
+    private final AuthSnapshotLoader snapshotLoader;
+
+    public ReactiveAuthSnapshotLoader(ReactiveStringRedisTemplate redisTemplate, AuthSnapshotLoader snapshotLoader) {
+        this.redisTemplate = redisTemplate;
+        this.snapshotLoader = snapshotLoader;
+    }
+
+    /**
+     * 加载认证快照（使用默认续期策略）
+     *
+     * @param token 访问令牌
+     * @return 认证快照，会话不存在时为空
+     */
+    public Mono<AuthSnapshot> load(String token) {
+        return load(token, AuthSnapshotLoader.DEFAULT_REFRESH_THRESHOLD, AuthSnapshotLoader.DEFAULT_RENEWAL_DURATION);
+    }
+
+    /**
+     * 加载认证快照
+     *
+     * @param token            访问令牌
+     * @param refreshThreshold 续期阈值（秒），剩余时间少于此值时续期
+     * @param renewalDuration  续期时长（秒），0 表示不续期
+     * @return 认证快照，会话不存在时为空
+     */
+    public Mono<AuthSnapshot> load(String token, long refreshThreshold, long renewalDuration) {
+        if (token == null) {
+            return Mono.empty();
+        }
+        AuthSnapshot local = snapshotLoader.loadLocal(token, refreshThreshold, renewalDuration);
+        if (local != null) {
+            return Mono.just(local);
+        }
+
+        long readTimestamp = System.currentTimeMillis();
+        if (snapshotLoader.isClusterMode()) {
+            return Mono.fromCallable(() -> snapshotLoader.load(token, refreshThreshold, renewalDuration))
+                    .subscribeOn(Schedulers.boundedElastic());
+        }
+        return redisTemplate.execute(AuthSnapshotLoader.SNAPSHOT_SCRIPT, snapshotLoader.snapshotKeys(token),
+                        List.of(String.valueOf(refreshThreshold), String.valueOf(Math.max(renewalDuration, 0))))
+                .next()
+                .mapNotNull(result -> snapshotLoader.fromScriptResult(token, (List<?>) result, readTimestamp))
+                .doOnNext(snapshot -> {
+                    if (snapshot.isRefreshed()) {
+                        touchIndexAsync(token, snapshot.getRemainingSeconds());
+                    }
+                });
+    }
+
+    private void touchIndexAsync(String token, long ttl) {
+        Mono.fromRunnable(() -> snapshotLoader.touchIndex(token, ttl))
+                .subscribeOn(Schedulers.boundedElastic())
+                .subscribe(null, e -> log.warn("更新在线会话索引失败: token={}", token, e));
+    }
+}
@@ -0,0 +1,428 @@
+package com.indigo.cache.session;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.indigo.cache.config.CacheProperties;
+import com.indigo.cache.infrastructure.RedisService;
+import com.indigo.cache.manager.CacheKeyGenerator;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.redis.connection.RedisConnection;
+import org.springframework.data.redis.core.RedisCallback;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Supplier;
+
+/**
+ * 会话活跃度统计（近似统计）
+ * 登录与访问先在本地按分钟预聚合（去重），再定期批量写入Redis，统计查询不再扫描会话
+ *
+ * <p>Redis结构（均以 {@code synapse:user:stats} 为前缀）：
+ * <ul>
+ *   <li>{@code active:m:{分钟}} / {@code active:h:{小时}} HyperLogLog，活跃用户</li>
+ *   <li>{@code active:d:{天}}  Bitmap，当日活跃的数字型用户ID（不超过 maxBitmapOffset，精确日活）</li>
+ *   <li>{@code active:dh:{天}} HyperLogLog，当日活跃的其他用户ID（超出 Bitmap 范围或非数字）</li>
+ *   <li>{@code login:m:{分钟}} / {@code login:h:{小时}} 计数器，登录次数</li>
+ * </ul>
+ * 任意窗口的去重活跃数通过多键 PFCOUNT（服务端合并，等价于 PFMERGE + PFCOUNT）得到，
+ * 60分钟以内按分钟桶统计，更长的窗口按小时桶统计（精度为小时）。
+ * HyperLogLog 标准误差约 0.81%；本地尚未刷新的数据（最多一个刷新间隔）不计入查询结果。
+ * 用户ID直接作为 Bitmap 偏移量，ID 很大时单个 SETBIT 会分配大量内存，因此超过 maxBitmapOffset 的ID改记 HyperLogLog。
+ *
+ * @author 史偕成
+ * @date 2025/12/19
+ */
+@Slf4j
+public class SessionAnalytics {
+
+    private static final long MINUTE_MILLIS = 60_000L;
+    private static final long MINUTES_PER_HOUR = 60L;
+    private static final long MINUTES_PER_DAY = 1440L;
+
+    /**
+     * Bitmap 最大偏移量（Redis 限制为 2^32 - 1）
+     */
+    private static final long MAX_BIT_OFFSET = 0xFFFFFFFFL;
+
+    private final RedisService redisService;
+    private final CacheProperties.SessionAnalytics config;
+    private final String prefix;
+    private final long maxBitmapOffset;
+
+    /**
+     * 本地预聚合桶：分钟 → 桶
+     */
+    private final Map<Long, MinuteBucket> buckets = new ConcurrentHashMap<>();
+
+    /**
+     * 查询结果缓存，避免看板轮询时频繁访问Redis
+     */
+    private final Cache<String, Long> queryCache;
+
+    private final ScheduledExecutorService scheduler;
+    private final AtomicBoolean flushScheduled = new AtomicBoolean(false);
+
+    public SessionAnalytics(RedisService redisService, CacheKeyGenerator keyGenerator,
+                            CacheProperties.SessionAnalytics config) {
+        this.redisService = redisService;
+        this.config = config;
+        this.prefix = keyGenerator.generate(CacheKeyGenerator.Module.USER, "stats");
+        this.maxBitmapOffset = Math.min(config.getMaxBitmapOffset(), MAX_BIT_OFFSET);
+        this.queryCache = Caffeine.newBuilder()
+                .maximumSize(1000)
+                .expireAfterWrite(config.getFlushIntervalMillis(), TimeUnit.MILLISECONDS)
+                .build();
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "synapse-session-analytics");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.scheduler.scheduleWithFixedDelay(this::flushQuietly,
+                config.getFlushIntervalMillis(), config.getFlushIntervalMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    // ========== 记录 ==========
+
+    /**
+     * 记录一次登录（同时记为活跃）
+     *
+     * @param userId 用户ID
+     */
+    public void recordLogin(String userId) {
+        if (userId == null) {
+            return;
+        }
+        while (true) {
+            MinuteBucket bucket = currentBucket();
+            if (!bucket.enter()) {
+                // 桶已被刷新线程封存，重新获取新桶
+                continue;
+            }
+            try {
+                bucket.logins.increment();
+                bucket.activeUsers.add(userId);
+            } finally {
+                bucket.exit();
+            }
+            checkBufferSize(bucket);
+            return;
+        }
+    }
+
+    /**
+     * 记录一次访问
+     * 同一分钟内同一用户只在本地记录一次
+     *
+     * @param userId 用户ID
+     */
+    public void recordActivity(String userId) {
+        if (userId == null) {
+            return;
+        }
+        long minute = currentMinute();
+        MinuteBucket bucket = buckets.get(minute);
+        if (bucket != null && bucket.activeUsers.contains(userId)) {
+            return;
+        }
+        while (true) {
+            bucket = buckets.computeIfAbsent(minute, k -> new MinuteBucket());
+            if (!bucket.enter()) {
+                continue;
+            }
+            boolean added;
+            try {
+                added = bucket.activeUsers.add(userId);
+            } finally {
+                bucket.exit();
+            }
+            if (added) {
+                checkBufferSize(bucket);
+            }
+            return;
+        }
+    }
+
+    // ========== 查询 ==========
+
+    /**
+     * 最近 N 分钟的去重活跃用户数（近似值）
+     *
+     * @param minutes 时间窗口（分钟）
+     * @return 活跃用户数
+     */
+    public long countActiveUsers(int minutes) {
+        if (minutes <= 0) {
+            return 0;
+        }
+        return cachedQuery("active:" + minutes, () -> {
+            List<String> keys = windowKeys("active", minutes);
+            Long count = redisService.getStringRedisTemplate().opsForHyperLogLog()
+                    .size(keys.toArray(new String[0]));
+            return count != null ? count : 0L;
+        });
+    }
+
+    /**
+     * 最近 N 分钟的登录次数
+     *
+     * @param minutes 时间窗口（分钟）
+     * @return 登录次数
+     */
+    public long countLogins(int minutes) {
+        if (minutes <= 0) {
+            return 0;
+        }
+        return cachedQuery("login:" + minutes, () -> {
+            List<String> values = redisService.getStringRedisTemplate().opsForValue()
+                    .multiGet(windowKeys("login", minutes));
+            long total = 0;
+            if (values != null) {
+                for (String value : values) {
+                    if (value != null) {
+                        total += Long.parseLong(value);
+                    }
+                }
+            }
+            return total;
+        });
+    }
+
+    /**
+     * 指定日期的日活
+     * Bitmap 范围内的数字型用户ID为精确计数，其余用户ID为 HyperLogLog 近似计数，两者互不重叠
+     *
+     * @param daysAgo 0 表示今天，1 表示昨天，依此类推
+     * @return 日活用户数
+     */
+    public long countDailyActiveUsers(int daysAgo) {
+        long day = currentMinute() / MINUTES_PER_DAY - daysAgo;
+        return cachedQuery("dau:" + day, () -> {
+            byte[] bitmapKey = bytes(prefix + ":active:d:" + day);
+            byte[] hllKey = bytes(prefix + ":active:dh:" + day);
+            Long count = redisService.getStringRedisTemplate().execute((RedisCallback<Long>) connection -> {
+                Long exact = connection.stringCommands().bitCount(bitmapKey);
+                Long approximate = connection.hyperLogLogCommands().pfCount(hllKey);
+                return (exact != null ? exact : 0L) + (approximate != null ? approximate : 0L);
+            });
+            return count != null ? count : 0L;
+        });
+    }
+
+    // ========== 刷新 ==========
+
+    /**
+     * 将本地预聚合数据批量写入Redis（单次管道）
+     * 当前分钟的桶也会被刷新，之后的记录写入新桶。
+     * 桶先从表中移除再封存，封存时等待正在写入的线程完成，之后仍持有旧桶引用的线程会改写新桶，不会丢失计数
+     */
+    public void flush() {
+        flushScheduled.set(false);
+        if (buckets.isEmpty()) {
+            return;
+        }
+        List<Map.Entry<Long, MinuteBucket>> drained = new ArrayList<>(buckets.size());
+        for (Map.Entry<Long, MinuteBucket> entry : buckets.entrySet()) {
+            MinuteBucket bucket = entry.getValue();
+            if (buckets.remove(entry.getKey(), bucket)) {
+                bucket.seal();
+                drained.add(Map.entry(entry.getKey(), bucket));
+            }
+        }
+        if (drained.isEmpty()) {
+            return;
+        }
+
+        redisService.getStringRedisTemplate().executePipelined((RedisCallback<Object>) connection -> {
+            for (Map.Entry<Long, MinuteBucket> entry : drained) {
+                writeBucket(connection, entry.getKey(), entry.getValue());
+            }
+            return null;
+        });
+        log.debug("会话统计已刷新: buckets={}", drained.size());
+    }
+
+    /**
+     * 刷新剩余数据并停止后台任务
+     */
+    public void shutdown() {
+        scheduler.shutdown();
+        flushQuietly();
+    }
+
+    private void writeBucket(RedisConnection connection, long minute, MinuteBucket bucket) {
+        long hour = minute / MINUTES_PER_HOUR;
+        long day = minute / MINUTES_PER_DAY;
+        long minuteTtl = config.getMinuteRetentionMinutes() * 60L;
+        long hourTtl = config.getHourRetentionHours() * 3600L;
+
+        List<String> users = new ArrayList<>(bucket.activeUsers);
+        if (!users.isEmpty()) {
+            byte[][] members = new byte[users.size()][];
+            for (int i = 0; i < members.length; i++) {
+                members[i] = bytes(users.get(i));
+            }
+            byte[] minuteKey = bytes(prefix + ":active:m:" + minute);
+            byte[] hourKey = bytes(prefix + ":active:h:" + hour);
+            connection.hyperLogLogCommands().pfAdd(minuteKey, members);
+            connection.keyCommands().expire(minuteKey, minuteTtl);
+            connection.hyperLogLogCommands().pfAdd(hourKey, members);
+            connection.keyCommands().expire(hourKey, hourTtl);
+
+            byte[] dayKey = bytes(prefix + ":active:d:" + day);
+            long dayTtl = config.getDayRetentionDays() * 86400L;
+            List<byte[]> overflow = new ArrayList<>();
+            boolean bitWritten = false;
+            for (int i = 0; i < members.length; i++) {
+                long offset = parseOffset(users.get(i));
+                if (offset >= 0) {
+                    connection.stringCommands().setBit(dayKey, offset, true);
+                    bitWritten = true;
+                } else {
+                    overflow.add(members[i]);
+                }
+            }
+            if (bitWritten) {
+                connection.keyCommands().expire(dayKey, dayTtl);
+            }
+            if (!overflow.isEmpty()) {
+                byte[] dayHllKey = bytes(prefix + ":active:dh:" + day);
+                connection.hyperLogLogCommands().pfAdd(dayHllKey, overflow.toArray(new byte[0][]));
+                connection.keyCommands().expire(dayHllKey, dayTtl);
+            }
+        }
+
+        long logins = bucket.logins.sum();
+        if (logins > 0) {
+            byte[] minuteKey = bytes(prefix + ":login:m:" + minute);
+            byte[] hourKey = bytes(prefix + ":login:h:" + hour);
+            connection.stringCommands().incrBy(minuteKey, logins);
+            connection.keyCommands().expire(minuteKey, minuteTtl);
+            connection.stringCommands().incrBy(hourKey, logins);
+            connection.keyCommands().expire(hourKey, hourTtl);
+        }
+    }
+
+    private void flushQuietly() {
+        try {
+            flush();
+        } catch (Exception e) {
+            log.warn("会话统计刷新失败", e);
+        }
+    }
+
+    // ========== 内部方法 ==========
+
+    private MinuteBucket currentBucket() {
+        return buckets.computeIfAbsent(currentMinute(), k -> new MinuteBucket());
+    }
+
+    /**
+     * 本地缓冲超过上限时提前刷新
+     */
+    private void checkBufferSize(MinuteBucket bucket) {
+        if (bucket.activeUsers.size() >= config.getMaxBufferedUsers() && flushScheduled.compareAndSet(false, true)) {
+            scheduler.execute(this::flushQuietly);
+        }
+    }
+
+    /**
+     * 时间窗口对应的桶键
+     * 60分钟以内使用分钟桶，否则使用小时桶（不超过小时桶保留期）
+     */
+    private List<String> windowKeys(String type, int minutes) {
+        long now = currentMinute();
+        List<String> keys = new ArrayList<>();
+        if (minutes <= MINUTES_PER_HOUR) {
+            long count = Math.min(minutes, config.getMinuteRetentionMinutes());
+            for (long i = 0; i < count; i++) {
+                keys.add(prefix + ":" + type + ":m:" + (now - i));
+            }
+        } else {
+            long hour = now / MINUTES_PER_HOUR;
+            long hours = Math.min((minutes + MINUTES_PER_HOUR - 1) / MINUTES_PER_HOUR, config.getHourRetentionHours());
+            for (long i = 0; i < hours; i++) {
+                keys.add(prefix + ":" + type + ":h:" + (hour - i));
+            }
+        }
+        return keys;
+    }
+
+    private long cachedQuery(String cacheKey, Supplier<Long> loader) {
+        try {
+            return queryCache.get(cacheKey, k -> loader.get());
+        } catch (Exception e) {
+            log.warn("会话统计查询失败: {}", cacheKey, e);
+            return 0;
+        }
+    }
+
+    /**
+     * 用户ID对应的 Bitmap 偏移量，非数字或超过 maxBitmapOffset 时返回 -1
+     */
+    long parseOffset(String userId) {
+        try {
+            long offset = Long.parseLong(userId);
+            return offset >= 0 && offset <= maxBitmapOffset ? offset : -1;
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    private static long currentMinute() {
+        return System.currentTimeMillis() / MINUTE_MILLIS;
+    }
+
+    private static byte[] bytes(String value) {
+        return value.getBytes(StandardCharsets.UTF_8);
+    }
+
+    /**
+     * 分钟预聚合桶
+     * 写入方持有读锁，刷新时获取写锁封存，封存后的桶不再接受写入
+     */
+    private static class MinuteBucket {
+        private final Set<String> activeUsers = ConcurrentHashMap.newKeySet();
+        private final LongAdder logins = new LongAdder();
+        private final ReadWriteLock lock = new ReentrantReadWriteLock();
+        private boolean sealed;
+
+        /**
+         * 开始写入，桶已封存时返回 false
+         */
+        boolean enter() {
+            lock.readLock().lock();
+            if (sealed) {
+                lock.readLock().unlock();
+                return false;
+            }
+            return true;
+        }
+
+        void exit() {
+            lock.readLock().unlock();
+        }
+
+        /**
+         * 封存桶，等待进行中的写入完成
+         */
+        void seal() {
+            lock.writeLock().lock();
+            try {
+                sealed = true;
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+    }
+}
@@ -0,0 +1,515 @@
+package com.indigo.cache.session;
+
+import com.indigo.cache.config.CacheProperties;
+import com.indigo.cache.core.CacheInvalidationService;
+import com.indigo.cache.core.constants.SessionCacheConstants;
+import com.indigo.cache.infrastructure.RedisService;
+import com.indigo.cache.manager.CacheKeyGenerator;
+import com.indigo.core.utils.JsonUtils;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.redis.connection.ReturnType;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 批量会话操作（批量强制下线、批量推送权限/角色变更）
+ * 逐个用户处理时每个 token 要经过多次 Redis 往返，上万用户需要数分钟；本类按批次处理：
+ * <ol>
+ *   <li>通过 {@link SessionIndex} 一次管道解析出所有用户的 token，不扫描键空间</li>
+ *   <li>token 按批次切分，在有界线程池中并行执行，每个批次的读写各用一次管道</li>
+ *   <li>每个批次发布本地缓存失效通知（{@link CacheInvalidationService}）</li>
+ *   <li>每完成一个批次回调一次进度</li>
+ * </ol>
+ *
+ * <p>权限和角色更新在 Lua 脚本中完成读取、合并和写回（{@code SET ... KEEPTTL}），
+ * 只更新仍存在的键，保留原有过期时间，与并发写入之间不会互相覆盖，需要 Redis 6.0+。
+ * 单机下整个批次为一次脚本调用；Redis Cluster 下各 token 的键位于不同槽位，
+ * 改为在一次管道中逐键执行同一脚本，避免 CROSSSLOT。键名与存储格式不变。
+ *
+ * <p>本地缓存失效通知默认逐键发布，与旧版本节点兼容；所有节点升级后可开启
+ * {@code synapse.cache.session-bulk.merged-invalidation}，每个批次、每种缓存类型只发布一条合并通知。
+ *
+ * <p>失败批次涉及的用户通过 {@link BulkResult#failedUsers()} 返回，调用方可以逐个重试。
+ * 可选组件较多，通过 {@link #builder} 创建。
+ *
+ * @author 史偕成
+ * @date 2025/12/19
+ */
+@Slf4j
+public class SessionBulkOperations {
+
+    /**
+     * 强制下线时删除的键类型
+     */
+    private static final String[] KEY_FAMILIES = {
+            "session", "token", "permissions", "roles", "menus", "resources", "systems", "systemMenuTree"
+    };
+
+    /**
+     * 强制下线时需要通知清除本地缓存的类型
+     */
+    private static final String[] SESSION_CACHE_TYPES = {
+            SessionCacheConstants.CACHE_TYPE_USER_SESSION,
+            SessionCacheConstants.CACHE_TYPE_USER_TOKEN,
+            SessionCacheConstants.CACHE_TYPE_USER_PERMISSIONS,
+            SessionCacheConstants.CACHE_TYPE_USER_ROLES,
+            SessionCacheConstants.CACHE_TYPE_USER_MENUS,
+            SessionCacheConstants.CACHE_TYPE_USER_RESOURCES,
+            SessionCacheConstants.CACHE_TYPE_USER_SYSTEMS
+    };
+
+    /**
+     * 合并并写回列表型键
+     * KEYS=各 token 的键（集群下每次调用只传一个键），ARGV[1]=授予的值个数 n，ARGV[2..n+1]=授予的值，其余为撤销的值
+     * 返回 {键序号, 新列表 JSON, ...}，只包含实际变更的键
+     */
+    @SuppressWarnings("rawtypes")
+    static final DefaultRedisScript<List> UPDATE_LISTS_SCRIPT = new DefaultRedisScript<>(
+            "local grantCount = tonumber(ARGV[1]) " +
+            "local grant = {} " +
+            "for i = 2, grantCount + 1 do table.insert(grant, ARGV[i]) end " +
+            "local revoked = {} " +
+            "for i = grantCount + 2, #ARGV do revoked[ARGV[i]] = true end " +
+            "local updated = {} " +
+            "for i = 1, #KEYS do " +
+            "  local json = redis.call('GET', KEYS[i]) " +
+            "  local ok, current = false, nil " +
+            "  if json then ok, current = pcall(cjson.decode, json) end " +
+            "  if ok and type(current) == 'table' then " +
+            "    local values, seen, changed = {}, {}, false " +
+            "    for _, value in ipairs(current) do " +
+            "      value = tostring(value) " +
+            "      if revoked[value] then changed = true " +
+            "      elseif not seen[value] then seen[value] = true table.insert(values, value) end " +
+            "    end " +
+            "    for _, value in ipairs(grant) do " +
+            "      if not seen[value] then seen[value] = true table.insert(values, value) changed = true end " +
+            "    end " +
+            "    if changed then " +
+            "      local encoded = '[]' " +
+            "      if #values > 0 then encoded = cjson.encode(values) end " +
+            "      redis.call('SET', KEYS[i], encoded, 'KEEPTTL') " +
+            "      table.insert(updated, i) " +
+            "      table.insert(updated, encoded) " +
+            "    end " +
+            "  end " +
+            "end " +
+            "return updated",
+            List.class);
+
+    private final RedisService redisService;
+    private final StringRedisTemplate redisTemplate;
+    private final CacheKeyGenerator keyGenerator;
+    private final SessionIndex sessionIndex;
+    private final CacheInvalidationService invalidationService;
+    private final List<SessionRevocationListener> revocationListeners;
+    private final int batchSize;
+    private final boolean mergedInvalidation;
+    private final ThreadPoolExecutor executor;
+
+    private SessionBulkOperations(Builder builder) {
+        CacheProperties.SessionBulk config = builder.config != null ? builder.config : new CacheProperties.SessionBulk();
+        this.redisService = builder.redisService;
+        this.redisTemplate = builder.redisService.getStringRedisTemplate();
+        this.keyGenerator = builder.keyGenerator;
+        this.sessionIndex = builder.sessionIndex;
+        this.invalidationService = builder.invalidationService;
+        this.revocationListeners = builder.revocationListeners != null
+                ? List.copyOf(builder.revocationListeners) : List.of();
+        this.batchSize = Math.max(config.getBatchSize(), 1);
+        this.mergedInvalidation = config.isMergedInvalidation();
+        int parallelism = Math.max(config.getParallelism(), 1);
+        AtomicInteger index = new AtomicInteger();
+        // 队列满时由提交线程执行，提交速度自然受限于执行速度
+        this.executor = new ThreadPoolExecutor(parallelism, parallelism, 60L, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(parallelism * 2),
+                r -> {
+                    Thread thread = new Thread(r, "synapse-session-bulk-" + index.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.CallerRunsPolicy());
+        this.executor.allowCoreThreadTimeOut(true);
+    }
+
+    /**
+     * 创建构建器
+     *
+     * @param redisService Redis服务
+     * @param keyGenerator 缓存键生成器
+     * @param sessionIndex 在线会话索引
+     * @return 构建器，可选组件通过链式方法设置
+     */
+    public static Builder builder(RedisService redisService, CacheKeyGenerator keyGenerator,
+                                  SessionIndex sessionIndex) {
+        return new Builder(redisService, keyGenerator, sessionIndex);
+    }
+
+    /**
+     * 批量强制用户下线：删除这些用户所有 token 的会话、权限、角色、菜单等键，并移除在线索引
+     * 删除会话之前先通知 {@link SessionRevocationListener}（如递增签名 Token 版本），通知失败时抛出异常
+     *
+     * @param userIds  用户ID
+     * @param progress 进度回调（可为 null）
+     * @return 执行结果
+     */
+    public BulkResult forceOffline(Collection<String> userIds, ProgressListener progress) {
+        notifyRevoked(userIds);
+        return run("forceOffline", userIds, progress, tokens -> {
+            redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+                for (String token : tokens) {
+                    for (String family : KEY_FAMILIES) {
+                        connection.keyCommands().del(key(family, token));
+                    }
+                }
+                return null;
+            });
+            sessionIndex.removeSessions(tokens);
+            Set<String> invalidated = new LinkedHashSet<>(tokens);
+            for (String cacheType : SESSION_CACHE_TYPES) {
+                publish(cacheType, invalidated);
+            }
+            return tokens.size();
+        });
+    }
+
+    /**
+     * 批量更新用户权限（作用于这些用户的所有在线 token）
+     *
+     * @param userIds  用户ID
+     * @param grant    授予的权限（可为空）
+     * @param revoke   撤销的权限（可为空）
+     * @param progress 进度回调（可为 null）
+     * @return 执行结果
+     */
+    public BulkResult updatePermissions(Collection<String> userIds, Collection<String> grant,
+                                        Collection<String> revoke, ProgressListener progress) {
+        return run("updatePermissions", userIds, progress, tokens -> {
+            Map<String, List<String>> updated = updateLists(tokens, "permissions", grant, revoke);
+            publish(SessionCacheConstants.CACHE_TYPE_USER_PERMISSIONS, updated.keySet());
+            return updated.size();
+        });
+    }
+
+    /**
+     * 批量更新用户角色（作用于这些用户的所有在线 token，同时更新角色索引）
+     *
+     * @param userIds  用户ID
+     * @param grant    授予的角色（可为空）
+     * @param revoke   撤销的角色（可为空）
+     * @param progress 进度回调（可为 null）
+     * @return 执行结果
+     */
+    public BulkResult updateRoles(Collection<String> userIds, Collection<String> grant,
+                                  Collection<String> revoke, ProgressListener progress) {
+        return run("updateRoles", userIds, progress, tokens -> {
+            Map<String, List<String>> updated = updateLists(tokens, "roles", grant, revoke);
+            for (Map.Entry<String, List<String>> entry : updated.entrySet()) {
+                sessionIndex.setRoles(entry.getKey(), entry.getValue());
+            }
+            publish(SessionCacheConstants.CACHE_TYPE_USER_ROLES, updated.keySet());
+            return updated.size();
+        });
+    }
+
+    /**
+     * 停止批量操作线程池
+     */
+    public void shutdown() {
+        executor.shutdown();
+    }
+
+    private BulkResult run(String operation, Collection<String> userIds, ProgressListener progress,
+                           BatchAction action) {
+        long start = System.currentTimeMillis();
+        Set<String> users = new LinkedHashSet<>();
+        if (userIds != null) {
+            userIds.stream().filter(Objects::nonNull).forEach(users::add);
+        }
+        if (users.isEmpty()) {
+            return new BulkResult(0, 0, 0, 0, 0, 0L, List.of());
+        }
+
+        Map<String, List<String>> userTokens = resolveTokens(users);
+        List<String> tokens = new ArrayList<>();
+        userTokens.values().forEach(tokens::addAll);
+        List<List<String>> batches = partition(tokens);
+
+        AtomicInteger processed = new AtomicInteger();
+        AtomicInteger affected = new AtomicInteger();
+        AtomicInteger failed = new AtomicInteger();
+        Set<String> failedTokens = ConcurrentHashMap.newKeySet();
+        List<Future<?>> futures = new ArrayList<>(batches.size());
+        for (List<String> batch : batches) {
+            futures.add(executor.submit(() -> {
+                try {
+                    affected.addAndGet(action.apply(batch));
+                } catch (Exception e) {
+                    failed.incrementAndGet();
+                    failedTokens.addAll(batch);
+                    log.error("批量会话操作失败: operation={}, batchSize={}", operation, batch.size(), e);
+                }
+                int done = processed.addAndGet(batch.size());
+                if (progress != null) {
+                    try {
+                        progress.onProgress(done, tokens.size());
+                    } catch (Exception e) {
+                        log.warn("批量会话操作进度回调异常: operation={}", operation, e);
+                    }
+                }
+            }));
+        }
+        for (Future<?> future : futures) {
+            try {
+                future.get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            } catch (ExecutionException e) {
+                log.error("批量会话操作失败: operation={}", operation, e.getCause());
+            }
+        }
+
+        List<String> failedUsers = new ArrayList<>();
+        if (!failedTokens.isEmpty()) {
+            userTokens.forEach((userId, owned) -> {
+                if (owned.stream().anyMatch(failedTokens::contains)) {
+                    failedUsers.add(userId);
+                }
+            });
+        }
+        BulkResult result = new BulkResult(users.size(), userTokens.size(), tokens.size(), affected.get(),
+                failed.get(), System.currentTimeMillis() - start, List.copyOf(failedUsers));
+        log.info("批量会话操作完成: operation={}, result={}", operation, result);
+        return result;
+    }
+
+    /**
+     * 按批次通过索引解析用户的 token
+     */
+    private Map<String, List<String>> resolveTokens(Set<String> users) {
+        Map<String, List<String>> result = new LinkedHashMap<>();
+        List<String> chunk = new ArrayList<>(Math.min(users.size(), batchSize));
+        for (String userId : users) {
+            chunk.add(userId);
+            if (chunk.size() == batchSize) {
+                result.putAll(sessionIndex.getUsersTokens(chunk));
+                chunk.clear();
+            }
+        }
+        if (!chunk.isEmpty()) {
+            result.putAll(sessionIndex.getUsersTokens(chunk));
+        }
+        return result;
+    }
+
+    /**
+     * 在一次 Lua 调用中读取、合并并写回整个批次 token 的列表型键
+     *
+     * @return 实际变更的 token → 新列表
+     */
+    private Map<String, List<String>> updateLists(List<String> tokens, String family,
+                                                  Collection<String> grant, Collection<String> revoke) {
+        List<String> keys = new ArrayList<>(tokens.size());
+        for (String token : tokens) {
+            keys.add(keyGenerator.generate(CacheKeyGenerator.Module.USER, family, token));
+        }
+        List<String> args = new ArrayList<>();
+        args.add(String.valueOf(grant != null ? grant.size() : 0));
+        if (grant != null) {
+            args.addAll(grant);
+        }
+        if (revoke != null) {
+            args.addAll(revoke);
+        }
+
+        // 脚本执行失败时抛出异常，由 run 记为失败批次
+        List<?> result = redisService.isClusterMode()
+                ? updateListsPerKey(keys, args)
+                : redisTemplate.execute(UPDATE_LISTS_SCRIPT, keys, args.toArray());
+        Map<String, List<String>> updated = new LinkedHashMap<>();
+        if (result == null) {
+            return updated;
+        }
+        for (int i = 0; i + 1 < result.size(); i += 2) {
+            String token = tokens.get(((Number) result.get(i)).intValue() - 1);
+            List<?> values = JsonUtils.fromJson(String.valueOf(result.get(i + 1)), List.class);
+            List<String> list = new ArrayList<>();
+            if (values != null) {
+                values.forEach(value -> list.add(String.valueOf(value)));
+            }
+            updated.put(token, list);
+        }
+        return updated;
+    }
+
+    /**
+     * 集群模式：在一次管道中逐键执行合并脚本（单键脚本不会跨槽位）
+     *
+     * @return 与整批脚本相同格式的结果 {键序号, 新列表 JSON, ...}
+     */
+    private List<Object> updateListsPerKey(List<String> keys, List<String> args) {
+        byte[] script = UPDATE_LISTS_SCRIPT.getScriptAsString().getBytes(StandardCharsets.UTF_8);
+        List<Object> results = redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+            for (String key : keys) {
+                byte[][] keysAndArgs = new byte[args.size() + 1][];
+                keysAndArgs[0] = key.getBytes(StandardCharsets.UTF_8);
+                for (int i = 0; i < args.size(); i++) {
+                    keysAndArgs[i + 1] = args.get(i).getBytes(StandardCharsets.UTF_8);
+                }
+                connection.scriptingCommands().eval(script, ReturnType.MULTI, 1, keysAndArgs);
+            }
+            return null;
+        });
+        List<Object> updated = new ArrayList<>();
+        for (int i = 0; i < results.size(); i++) {
+            if (results.get(i) instanceof List<?> result && result.size() == 2) {
+                updated.add((long) (i + 1));
+                Object json = result.get(1);
+                updated.add(json instanceof byte[] raw ? new String(raw, StandardCharsets.UTF_8) : json);
+            }
+        }
+        return updated;
+    }
+
+    private void notifyRevoked(Collection<String> userIds) {
+        if (revocationListeners.isEmpty() || userIds == null) {
+            return;
+        }
+        Set<String> users = new LinkedHashSet<>();
+        userIds.stream().filter(Objects::nonNull).forEach(users::add);
+        if (users.isEmpty()) {
+            return;
+        }
+        for (SessionRevocationListener listener : revocationListeners) {
+            listener.onUserSessionsRevoked(users);
+        }
+    }
+
+    private List<List<String>> partition(List<String> tokens) {
+        List<List<String>> batches = new ArrayList<>((tokens.size() + batchSize - 1) / batchSize);
+        for (int from = 0; from < tokens.size(); from += batchSize) {
+            batches.add(tokens.subList(from, Math.min(from + batchSize, tokens.size())));
+        }
+        return batches;
+    }
+
+    private void publish(String cacheType, Set<String> tokens) {
+        if (invalidationService == null || tokens.isEmpty()) {
+            return;
+        }
+        if (mergedInvalidation) {
+            invalidationService.publishMergedInvalidation(cacheType, tokens);
+        } else {
+            invalidationService.publishInvalidationBatch(cacheType, tokens);
+        }
+    }
+
+    private byte[] key(String family, String token) {
+        return keyGenerator.generate(CacheKeyGenerator.Module.USER, family, token).getBytes(StandardCharsets.UTF_8);
+    }
+
+    /**
+     * 批量会话操作构建器
+     */
+    public static class Builder {
+        private final RedisService redisService;
+        private final CacheKeyGenerator keyGenerator;
+        private final SessionIndex sessionIndex;
+        private CacheInvalidationService invalidationService;
+        private CacheProperties.SessionBulk config;
+        private List<SessionRevocationListener> revocationListeners;
+
+        private Builder(RedisService redisService, CacheKeyGenerator keyGenerator, SessionIndex sessionIndex) {
+            this.redisService = redisService;
+            this.keyGenerator = keyGenerator;
+            this.sessionIndex = sessionIndex;
+        }
+
+        /**
+         * 缓存失效通知服务（可选，为空时不通知其他节点清除本地缓存）
+         */
+        public Builder invalidationService(CacheInvalidationService invalidationService) {
+            this.invalidationService = invalidationService;
+            return this;
+        }
+
+        /**
+         * 批量操作配置（可选，为空时使用默认值）
+         */
+        public Builder config(CacheProperties.SessionBulk config) {
+            this.config = config;
+            return this;
+        }
+
+        /**
+         * 会话吊销监听器（可选），批量强制下线时回调
+         */
+        public Builder revocationListeners(List<SessionRevocationListener> revocationListeners) {
+            this.revocationListeners = revocationListeners;
+            return this;
+        }
+
+        public SessionBulkOperations build() {
+            return new SessionBulkOperations(this);
+        }
+    }
+
+    /**
+     * 单个批次的操作
+     */
+    @FunctionalInterface
+    private interface BatchAction {
+        /**
+         * @return 实际变更的 token 数
+         */
+        int apply(List<String> tokens);
+    }
+
+    /**
+     * 进度回调
+     */
+    @FunctionalInterface
+    public interface ProgressListener {
+        /**
+         * 每完成一个批次调用一次（可能在不同线程上调用）
+         *
+         * @param processedTokens 已处理的 token 数
+         * @param totalTokens     token 总数
+         */
+        void onProgress(int processedTokens, int totalTokens);
+    }
+
+    /**
+     * 批量操作结果
+     *
+     * @param users         请求的用户数
+     * @param onlineUsers   有在线会话的用户数
+     * @param tokens        处理的 token 数
+     * @param affected      实际变更的 token 数
+     * @param failedBatches 失败的批次数
+     * @param elapsedMillis 耗时（毫秒）
+     * @param failedUsers   有 token 位于失败批次中的用户ID
+     */
+    public record BulkResult(int users, int onlineUsers, int tokens, int affected, int failedBatches,
+                             long elapsedMillis, List<String> failedUsers) {
+    }
+}
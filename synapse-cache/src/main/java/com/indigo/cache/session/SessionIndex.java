@@ -0,0 +1,506 @@
+package com.indigo.cache.session;
+
+import com.indigo.cache.infrastructure.RedisService;
+import com.indigo.cache.manager.CacheKeyGenerator;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.redis.connection.RedisZSetCommands;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.ZSetOperations;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * 在线会话二级索引
+ * 在登录/登出时维护，替代对 {@code user:session:*} 的全库 SCAN
+ *
+ * <p>Redis结构（均以 {@code synapse:user:{online}} 为前缀）：
+ * <ul>
+ *   <li>{@code online}              ZSET，member 为 token，score 为会话过期时间（毫秒）</li>
+ *   <li>{@code online:owner}        Hash，token → userId</li>
+ *   <li>{@code online:roles}        Hash，token → 逗号分隔的角色</li>
+ *   <li>{@code online:user:{userId}} SET，该用户的 token</li>
+ *   <li>{@code online:role:{role}}   SET，具有该角色的 token</li>
+ * </ul>
+ * 会话自然过期时索引不会立即更新：查询时按 ZSET 分数过滤，并分批清理已过期的条目。
+ *
+ * <p>前缀中的 {@code {online}} 为 hash tag：脚本内拼接的用户/角色集合键与索引键位于同一槽位，Redis Cluster 下同样可用。
+ *
+ * @author 史偕成
+ * @date 2025/12/19
+ */
+@Slf4j
+public class SessionIndex {
+
+    /**
+     * 每次清理的最大过期条目数
+     */
+    private static final int PURGE_BATCH_SIZE = 500;
+
+    /**
+     * 移除 token 在角色集合中的索引（脚本片段）
+     * KEYS[3]=roles Hash，ARGV[1]=token，ARGV[2]=索引前缀
+     */
+    private static final String REMOVE_ROLES_LUA =
+            "local old = redis.call('HGET', KEYS[3], ARGV[1]) " +
+            "if old then " +
+            "  for role in string.gmatch(old, '[^,]+') do " +
+            "    redis.call('SREM', ARGV[2] .. ':role:' .. role, ARGV[1]) " +
+            "  end " +
+            "  redis.call('HDEL', KEYS[3], ARGV[1]) " +
+            "end ";
+
+    /**
+     * 移除 token 的所有索引（脚本片段）
+     * KEYS[1]=online ZSET，KEYS[2]=owner Hash，KEYS[3]=roles Hash，ARGV[1]=token，ARGV[2]=索引前缀
+     */
+    private static final String REMOVE_TOKEN_LUA =
+            "redis.call('ZREM', KEYS[1], ARGV[1]) " +
+            "local uid = redis.call('HGET', KEYS[2], ARGV[1]) " +
+            "if uid then " +
+            "  redis.call('SREM', ARGV[2] .. ':user:' .. uid, ARGV[1]) " +
+            "  redis.call('HDEL', KEYS[2], ARGV[1]) " +
+            "end " +
+            REMOVE_ROLES_LUA;
+
+    /**
+     * 登记会话：ARGV[3]=userId，ARGV[4]=过期时间（毫秒）
+     */
+    private static final DefaultRedisScript<Long> ADD_SESSION_SCRIPT = new DefaultRedisScript<>(
+            "local old = redis.call('HGET', KEYS[2], ARGV[1]) " +
+            "if old and old ~= ARGV[3] then " +
+            "  redis.call('SREM', ARGV[2] .. ':user:' .. old, ARGV[1]) " +
+            "end " +
+            "redis.call('ZADD', KEYS[1], ARGV[4], ARGV[1]) " +
+            "redis.call('HSET', KEYS[2], ARGV[1], ARGV[3]) " +
+            "redis.call('SADD', ARGV[2] .. ':user:' .. ARGV[3], ARGV[1]) " +
+            "return 1",
+            Long.class);
+
+    /**
+     * 移除会话索引
+     */
+    private static final DefaultRedisScript<Long> REMOVE_SESSION_SCRIPT = new DefaultRedisScript<>(
+            REMOVE_TOKEN_LUA + "return 1",
+            Long.class);
+
+    /**
+     * 批量移除会话索引：ARGV[1]=索引前缀，ARGV[2..]=token
+     */
+    private static final DefaultRedisScript<Long> REMOVE_SESSIONS_SCRIPT = new DefaultRedisScript<>(
+            "for i = 2, #ARGV do " +
+            "  local token = ARGV[i] " +
+            "  redis.call('ZREM', KEYS[1], token) " +
+            "  local uid = redis.call('HGET', KEYS[2], token) " +
+            "  if uid then " +
+            "    redis.call('SREM', ARGV[1] .. ':user:' .. uid, token) " +
+            "    redis.call('HDEL', KEYS[2], token) " +
+            "  end " +
+            "  local roles = redis.call('HGET', KEYS[3], token) " +
+            "  if roles then " +
+            "    for role in string.gmatch(roles, '[^,]+') do " +
+            "      redis.call('SREM', ARGV[1] .. ':role:' .. role, token) " +
+            "    end " +
+            "    redis.call('HDEL', KEYS[3], token) " +
+            "  end " +
+            "end " +
+            "return #ARGV - 1",
+            Long.class);
+
+    /**
+     * 登记角色：ARGV[3..]=角色
+     */
+    private static final DefaultRedisScript<Long> SET_ROLES_SCRIPT = new DefaultRedisScript<>(
+            REMOVE_ROLES_LUA +
+            "if #ARGV > 2 then " +
+            "  for i = 3, #ARGV do " +
+            "    redis.call('SADD', ARGV[2] .. ':role:' .. ARGV[i], ARGV[1]) " +
+            "  end " +
+            "  redis.call('HSET', KEYS[3], ARGV[1], table.concat(ARGV, ',', 3)) " +
+            "end " +
+            "return 1",
+            Long.class);
+
+    /**
+     * 移除角色索引
+     */
+    private static final DefaultRedisScript<Long> REMOVE_ROLES_SCRIPT = new DefaultRedisScript<>(
+            REMOVE_ROLES_LUA + "return 1",
+            Long.class);
+
+    /**
+     * 更新过期时间（仅更新已登记的会话）：ARGV[1]=token，ARGV[2]=过期时间（毫秒）
+     */
+    private static final DefaultRedisScript<Long> TOUCH_SCRIPT = new DefaultRedisScript<>(
+            "if redis.call('ZSCORE', KEYS[1], ARGV[1]) then " +
+            "  redis.call('ZADD', KEYS[1], ARGV[2], ARGV[1]) " +
+            "  return 1 " +
+            "end " +
+            "return 0",
+            Long.class);
+
+    /**
+     * 过滤集合中仍在线的 token：KEYS[1]=SET，KEYS[2]=online ZSET，ARGV[1]=当前时间（毫秒）
+     */
+    @SuppressWarnings("rawtypes")
+    private static final DefaultRedisScript<List> ALIVE_MEMBERS_SCRIPT = new DefaultRedisScript<>(
+            "local alive = {} " +
+            "for _, token in ipairs(redis.call('SMEMBERS', KEYS[1])) do " +
+            "  local score = redis.call('ZSCORE', KEYS[2], token) " +
+            "  if score and tonumber(score) > tonumber(ARGV[1]) then " +
+            "    table.insert(alive, token) " +
+            "  end " +
+            "end " +
+            "return alive",
+            List.class);
+
+    /**
+     * 清理已过期条目：ARGV[1]=当前时间（毫秒），ARGV[2]=索引前缀，ARGV[3]=批大小
+     */
+    private static final DefaultRedisScript<Long> PURGE_SCRIPT = new DefaultRedisScript<>(
+            "local expired = redis.call('ZRANGEBYSCORE', KEYS[1], '-inf', ARGV[1], 'LIMIT', 0, tonumber(ARGV[3])) " +
+            "for _, token in ipairs(expired) do " +
+            "  redis.call('ZREM', KEYS[1], token) " +
+            "  local uid = redis.call('HGET', KEYS[2], token) " +
+            "  if uid then " +
+            "    redis.call('SREM', ARGV[2] .. ':user:' .. uid, token) " +
+            "    redis.call('HDEL', KEYS[2], token) " +
+            "  end " +
+            "  local roles = redis.call('HGET', KEYS[3], token) " +
+            "  if roles then " +
+            "    for role in string.gmatch(roles, '[^,]+') do " +
+            "      redis.call('SREM', ARGV[2] .. ':role:' .. role, token) " +
+            "    end " +
+            "    redis.call('HDEL', KEYS[3], token) " +
+            "  end " +
+            "end " +
+            "return #expired",
+            Long.class);
+
+    private final RedisService redisService;
+    private final String prefix;
+    private final List<String> indexKeys;
+
+    public SessionIndex(RedisService redisService, CacheKeyGenerator keyGenerator) {
+        this.redisService = redisService;
+        this.prefix = keyGenerator.generate(CacheKeyGenerator.Module.USER, "{online}");
+        this.indexKeys = Arrays.asList(prefix, prefix + ":owner", prefix + ":roles");
+    }
+
+    // ========== 写入（登录/登出/续期时调用） ==========
+
+    /**
+     * 登记在线会话
+     *
+     * @param token             访问令牌
+     * @param userId            用户ID
+     * @param expirationSeconds 会话过期时间（秒）
+     */
+    public void addSession(String token, String userId, long expirationSeconds) {
+        if (token == null || userId == null) {
+            return;
+        }
+        execute(ADD_SESSION_SCRIPT, token, userId, String.valueOf(expireAt(expirationSeconds)));
+    }
+
+    /**
+     * 移除在线会话的所有索引（包括角色索引）
+     *
+     * @param token 访问令牌
+     */
+    public void removeSession(String token) {
+        if (token != null) {
+            execute(REMOVE_SESSION_SCRIPT, token);
+        }
+    }
+
+    /**
+     * 批量移除会话的所有索引
+     * 单机下为一次脚本调用；集群下先读出所属用户和角色，再用一次管道删除（索引键共享 {@code {online}} hash tag，位于同一节点）
+     *
+     * @param tokens 访问令牌
+     * @throws RuntimeException 执行失败时抛出，由调用方决定是否重试
+     */
+    public void removeSessions(Collection<String> tokens) {
+        if (tokens == null || tokens.isEmpty()) {
+            return;
+        }
+        if (redisService.isClusterMode()) {
+            removeSessionsPipelined(new ArrayList<>(tokens));
+            return;
+        }
+        String[] args = new String[tokens.size() + 1];
+        args[0] = prefix;
+        int i = 1;
+        for (String token : tokens) {
+            args[i++] = token;
+        }
+        redisService.getStringRedisTemplate().execute(REMOVE_SESSIONS_SCRIPT, indexKeys, (Object[]) args);
+    }
+
+    /**
+     * 更新会话过期时间（仅更新已登记的会话）
+     *
+     * @param token             访问令牌
+     * @param expirationSeconds 新的过期时间（秒）
+     */
+    public void touch(String token, long expirationSeconds) {
+        if (token != null && expirationSeconds > 0) {
+            redisService.executeScript(TOUCH_SCRIPT, Collections.singletonList(prefix),
+                    token, String.valueOf(expireAt(expirationSeconds)));
+        }
+    }
+
+    /**
+     * 批量更新会话过期时间（单次管道，仅更新已登记的会话）
+     *
+     * @param expirations token → 新的过期时间（秒）
+     */
+    public void touchAll(Map<String, Long> expirations) {
+        if (expirations == null || expirations.isEmpty()) {
+            return;
+        }
+        byte[] key = prefix.getBytes(StandardCharsets.UTF_8);
+        long now = System.currentTimeMillis();
+        redisService.getStringRedisTemplate().executePipelined((RedisCallback<Object>) connection -> {
+            for (Map.Entry<String, Long> entry : expirations.entrySet()) {
+                connection.zSetCommands().zAdd(key, now + entry.getValue() * 1000,
+                        entry.getKey().getBytes(StandardCharsets.UTF_8), RedisZSetCommands.ZAddArgs.ifExists());
+            }
+            return null;
+        });
+    }
+
+    /**
+     * 登记会话角色（覆盖旧角色）
+     *
+     * @param token 访问令牌
+     * @param roles 角色列表
+     */
+    public void setRoles(String token, List<String> roles) {
+        if (token == null) {
+            return;
+        }
+        List<String> args = new ArrayList<>();
+        args.add(token);
+        args.add(prefix);
+        if (roles != null) {
+            for (String role : roles) {
+                if (role != null && !role.isEmpty() && role.indexOf(',') < 0) {
+                    args.add(role);
+                }
+            }
+        }
+        redisService.executeScript(SET_ROLES_SCRIPT, indexKeys, args.toArray(new String[0]));
+    }
+
+    /**
+     * 移除会话角色索引
+     *
+     * @param token 访问令牌
+     */
+    public void removeRoles(String token) {
+        if (token != null) {
+            execute(REMOVE_ROLES_SCRIPT, token);
+        }
+    }
+
+    // ========== 查询 ==========
+
+    /**
+     * 在线会话数（O(log n)）
+     */
+    public long countOnline() {
+        Long count = redisService.getStringRedisTemplate().opsForZSet()
+                .count(prefix, System.currentTimeMillis(), Double.POSITIVE_INFINITY);
+        return count != null ? count : 0;
+    }
+
+    /**
+     * 所有在线 token 及其剩余时间（秒）
+     *
+     * @return token → 剩余秒数（按过期时间升序）
+     */
+    public Map<String, Long> getOnlineTokens() {
+        purgeExpired();
+        long now = System.currentTimeMillis();
+        Set<ZSetOperations.TypedTuple<String>> tuples = redisService.getStringRedisTemplate().opsForZSet()
+                .rangeByScoreWithScores(prefix, now, Double.POSITIVE_INFINITY);
+        Map<String, Long> result = new LinkedHashMap<>();
+        if (tuples != null) {
+            for (ZSetOperations.TypedTuple<String> tuple : tuples) {
+                if (tuple.getValue() != null && tuple.getScore() != null) {
+                    result.put(tuple.getValue(), (tuple.getScore().longValue() - now) / 1000);
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * 在线 token 的所属用户
+     *
+     * @param tokens token 列表
+     * @return token → userId（无记录的 token 不包含在内）
+     */
+    public Map<String, String> getOwners(List<String> tokens) {
+        Map<String, String> owners = new LinkedHashMap<>();
+        if (tokens == null || tokens.isEmpty()) {
+            return owners;
+        }
+        List<Object> values = redisService.getStringRedisTemplate().opsForHash()
+                .multiGet(prefix + ":owner", new ArrayList<>(tokens));
+        for (int i = 0; i < tokens.size() && i < values.size(); i++) {
+            if (values.get(i) != null) {
+                owners.put(tokens.get(i), values.get(i).toString());
+            }
+        }
+        return owners;
+    }
+
+    /**
+     * 用户的在线 token（O(k)）
+     *
+     * @param userId 用户ID
+     * @return 仍在线的 token
+     */
+    public List<String> getUserTokens(String userId) {
+        return userId == null ? Collections.emptyList() : aliveMembers(prefix + ":user:" + userId);
+    }
+
+    /**
+     * 批量获取用户的 token（单次管道，不过滤已过期但尚未清理的条目）
+     *
+     * @param userIds 用户ID
+     * @return userId → token 列表（无会话的用户不包含在内）
+     */
+    public Map<String, List<String>> getUsersTokens(Collection<String> userIds) {
+        Map<String, List<String>> result = new LinkedHashMap<>();
+        if (userIds == null || userIds.isEmpty()) {
+            return result;
+        }
+        List<String> ids = new ArrayList<>(userIds);
+        List<Object> members = redisService.getStringRedisTemplate().executePipelined((RedisCallback<Object>) connection -> {
+            for (String userId : ids) {
+                connection.setCommands().sMembers((prefix + ":user:" + userId).getBytes(StandardCharsets.UTF_8));
+            }
+            return null;
+        });
+        for (int i = 0; i < ids.size() && i < members.size(); i++) {
+            if (members.get(i) instanceof Collection<?> tokens && !tokens.isEmpty()) {
+                List<String> list = new ArrayList<>(tokens.size());
+                for (Object token : tokens) {
+                    list.add(token.toString());
+                }
+                result.put(ids.get(i), list);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * 具有指定角色的在线 token（O(k)）
+     *
+     * @param role 角色
+     * @return 仍在线的 token
+     */
+    public List<String> getRoleTokens(String role) {
+        return role == null ? Collections.emptyList() : aliveMembers(prefix + ":role:" + role);
+    }
+
+    /**
+     * 用户是否在线
+     *
+     * @param userId 用户ID
+     * @return 是否存在未过期的会话
+     */
+    public boolean isUserOnline(String userId) {
+        return !getUserTokens(userId).isEmpty();
+    }
+
+    /**
+     * 分批清理已过期的索引条目
+     *
+     * @return 清理的条目数
+     */
+    public long purgeExpired() {
+        Long purged = redisService.executeScript(PURGE_SCRIPT, indexKeys,
+                String.valueOf(System.currentTimeMillis()), prefix, String.valueOf(PURGE_BATCH_SIZE));
+        if (purged != null && purged > 0) {
+            log.debug("清理过期会话索引: {}", purged);
+        }
+        return purged != null ? purged : 0;
+    }
+
+    /**
+     * 通过管道批量移除会话索引（集群模式，不在脚本中拼接键名）
+     */
+    private void removeSessionsPipelined(List<String> tokens) {
+        StringRedisTemplate template = redisService.getStringRedisTemplate();
+        List<Object> fields = new ArrayList<>(tokens);
+        List<Object> owners = template.opsForHash().multiGet(prefix + ":owner", fields);
+        List<Object> roles = template.opsForHash().multiGet(prefix + ":roles", fields);
+        byte[][] members = new byte[tokens.size()][];
+        for (int i = 0; i < tokens.size(); i++) {
+            members[i] = bytes(tokens.get(i));
+        }
+        template.executePipelined((RedisCallback<Object>) connection -> {
+            connection.zSetCommands().zRem(bytes(prefix), members);
+            connection.hashCommands().hDel(bytes(prefix + ":owner"), members);
+            connection.hashCommands().hDel(bytes(prefix + ":roles"), members);
+            for (int i = 0; i < members.length; i++) {
+                Object owner = owners != null && i < owners.size() ? owners.get(i) : null;
+                if (owner != null) {
+                    connection.setCommands().sRem(bytes(prefix + ":user:" + owner), members[i]);
+                }
+                Object roleList = roles != null && i < roles.size() ? roles.get(i) : null;
+                if (roleList != null) {
+                    for (String role : roleList.toString().split(",")) {
+                        if (!role.isEmpty()) {
+                            connection.setCommands().sRem(bytes(prefix + ":role:" + role), members[i]);
+                        }
+                    }
+                }
+            }
+            return null;
+        });
+    }
+
+    private List<String> aliveMembers(String setKey) {
+        List<?> result = redisService.executeScript(ALIVE_MEMBERS_SCRIPT, Arrays.asList(setKey, prefix),
+                String.valueOf(System.currentTimeMillis()));
+        if (result == null || result.isEmpty()) {
+            return Collections.emptyList();
+        }
+        List<String> tokens = new ArrayList<>(result.size());
+        for (Object token : result) {
+            tokens.add(token.toString());
+        }
+        return tokens;
+    }
+
+    private void execute(DefaultRedisScript<Long> script, String token, String... extraArgs) {
+        String[] args = new String[extraArgs.length + 2];
+        args[0] = token;
+        args[1] = prefix;
+        System.arraycopy(extraArgs, 0, args, 2, extraArgs.length);
+        redisService.executeScript(script, indexKeys, args);
+    }
+
+    private static byte[] bytes(String value) {
+        return value.getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static long expireAt(long expirationSeconds) {
+        return System.currentTimeMillis() + expirationSeconds * 1000;
+    }
+}
@@ -0,0 +1,303 @@
+package com.indigo.cache.session;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.indigo.cache.config.CacheProperties;
+import com.indigo.cache.infrastructure.RedisService;
+import com.indigo.cache.manager.CacheKeyGenerator;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BiConsumer;
+
+/**
+ * 会话续期队列（滑动过期的后台批量续期）
+ * 请求线程只做一次入队，续期在后台线程按批次执行，不再在请求线程上读取 TTL 并逐个 EXPIRE
+ *
+ * <p>同一 token 在去重窗口内只会入队一次；每个批次通过两次管道完成：
+ * 第一次读取批次内所有键的 TTL，第二次对会话剩余时间少于阈值的 token 续期其会话、token、权限、角色、菜单、资源、系统等键
+ * （只延长不缩短，不存在或未设置过期时间的键忽略），并同步更新在线会话索引。
+ * 这些键分布在不同槽位，逐键执行的管道在 Redis Cluster 下同样可用；读取与续期之间被删除的键，EXPIRE 不会生效。
+ *
+ * @author 史偕成
+ * @date 2025/12/19
+ */
+@Slf4j
+public class SessionRenewalQueue {
+
+    /**
+     * 每个 token 需要续期的键类型（第一个为会话键），与 {@link AuthSnapshotLoader} 同步续期的键相同
+     */
+    private static final List<String> KEY_FAMILIES = AuthSnapshotLoader.KEY_FAMILIES;
+
+    private final RedisService redisService;
+    private final CacheKeyGenerator keyGenerator;
+    private final SessionIndex sessionIndex;
+    private final CacheProperties.SessionRenewal config;
+
+    /**
+     * 待续期的 token → 续期参数
+     */
+    private final Map<String, Renewal> pending = new ConcurrentHashMap<>();
+
+    /**
+     * 去重窗口内已入队的 token
+     */
+    private final Cache<String, Boolean> recentlySubmitted;
+
+    /**
+     * 续期成功后的回调（token, 续期时长秒），用于同步本地记录的到期时间
+     */
+    private final List<BiConsumer<String, Long>> renewalListeners = new CopyOnWriteArrayList<>();
+
+    private final ScheduledExecutorService scheduler;
+    private final AtomicBoolean flushScheduled = new AtomicBoolean(false);
+
+    private final AtomicLong submitted = new AtomicLong();
+    private final AtomicLong deduplicated = new AtomicLong();
+    private final AtomicLong renewed = new AtomicLong();
+    private final AtomicLong batches = new AtomicLong();
+    private final AtomicLong failedBatches = new AtomicLong();
+
+    public SessionRenewalQueue(RedisService redisService, CacheKeyGenerator keyGenerator, SessionIndex sessionIndex,
+                               CacheProperties.SessionRenewal config) {
+        this.redisService = redisService;
+        this.keyGenerator = keyGenerator;
+        this.sessionIndex = sessionIndex;
+        this.config = config;
+        this.recentlySubmitted = Caffeine.newBuilder()
+                .maximumSize(config.getMaxTrackedTokens())
+                .expireAfterWrite(config.getDedupWindowMillis(), TimeUnit.MILLISECONDS)
+                .build();
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "synapse-session-renewal");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.scheduler.scheduleWithFixedDelay(this::flushQuietly,
+                config.getFlushIntervalMillis(), config.getFlushIntervalMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * 提交续期请求
+     *
+     * @param token            访问令牌
+     * @param refreshThreshold 续期阈值（秒），会话剩余时间少于此值时才续期
+     * @param renewalDuration  续期时长（秒）
+     * @return 是否入队（去重窗口内重复提交返回false）
+     */
+    public boolean submit(String token, long refreshThreshold, long renewalDuration) {
+        if (token == null || renewalDuration <= 0) {
+            return false;
+        }
+        if (recentlySubmitted.asMap().putIfAbsent(token, Boolean.TRUE) != null) {
+            deduplicated.incrementAndGet();
+            return false;
+        }
+        pending.merge(token, new Renewal(refreshThreshold, renewalDuration),
+                (a, b) -> a.duration >= b.duration ? a : b);
+        submitted.incrementAndGet();
+        if (pending.size() >= config.getBatchSize() && flushScheduled.compareAndSet(false, true)) {
+            scheduler.execute(this::flushQuietly);
+        }
+        return true;
+    }
+
+    /**
+     * 注册续期成功回调，在后台线程上以 (token, 续期时长秒) 调用
+     *
+     * @param listener 回调
+     */
+    public void addRenewalListener(BiConsumer<String, Long> listener) {
+        renewalListeners.add(listener);
+    }
+
+    /**
+     * 执行所有待续期请求
+     * 批次执行失败时重新入队，等待下次调度重试
+     */
+    public void flush() {
+        flushScheduled.set(false);
+        while (!pending.isEmpty()) {
+            List<String> tokens = new ArrayList<>(config.getBatchSize());
+            List<Renewal> renewals = new ArrayList<>(config.getBatchSize());
+            Iterator<String> iterator = pending.keySet().iterator();
+            while (iterator.hasNext() && tokens.size() < config.getBatchSize()) {
+                String token = iterator.next();
+                Renewal renewal = pending.remove(token);
+                if (renewal != null) {
+                    tokens.add(token);
+                    renewals.add(renewal);
+                }
+            }
+            if (tokens.isEmpty()) {
+                return;
+            }
+            boolean success;
+            try {
+                success = renewBatch(tokens, renewals);
+            } catch (RuntimeException e) {
+                requeue(tokens, renewals);
+                throw e;
+            }
+            if (!success) {
+                // Redis 不可用时不再继续执行剩余批次，由下次调度重试
+                requeue(tokens, renewals);
+                log.warn("会话续期批次执行失败，已重新入队: batchSize={}", tokens.size());
+                return;
+            }
+        }
+    }
+
+    /**
+     * 执行剩余续期并停止后台任务
+     */
+    public void shutdown() {
+        scheduler.shutdown();
+        flushQuietly();
+    }
+
+    /**
+     * 获取队列状态
+     */
+    public Map<String, Object> getStatus() {
+        return Map.of(
+                "pending", pending.size(),
+                "submitted", submitted.get(),
+                "deduplicated", deduplicated.get(),
+                "renewed", renewed.get(),
+                "batches", batches.get(),
+                "failedBatches", failedBatches.get());
+    }
+
+    /**
+     * 失败的续期请求放回队列（已有更新的请求时保留续期时长更长的一个）
+     */
+    private void requeue(List<String> tokens, List<Renewal> renewals) {
+        failedBatches.incrementAndGet();
+        for (int i = 0; i < tokens.size(); i++) {
+            pending.merge(tokens.get(i), renewals.get(i), (a, b) -> a.duration >= b.duration ? a : b);
+        }
+    }
+
+    /**
+     * 执行一个续期批次
+     *
+     * @return 批次是否执行成功
+     */
+    private boolean renewBatch(List<String> tokens, List<Renewal> renewals) {
+        int width = KEY_FAMILIES.size();
+        List<byte[]> keys = new ArrayList<>(tokens.size() * width);
+        for (String token : tokens) {
+            for (String family : KEY_FAMILIES) {
+                keys.add(bytes(keyGenerator.generate(CacheKeyGenerator.Module.USER, family, token)));
+            }
+        }
+
+        StringRedisTemplate template = redisService.getStringRedisTemplate();
+        List<Object> ttls;
+        try {
+            ttls = template.executePipelined((RedisCallback<Object>) connection -> {
+                for (byte[] key : keys) {
+                    connection.keyCommands().ttl(key);
+                }
+                return null;
+            });
+        } catch (Exception e) {
+            log.warn("读取会话剩余时间失败: batchSize={}", tokens.size(), e);
+            return false;
+        }
+        if (ttls == null || ttls.size() < keys.size()) {
+            return false;
+        }
+
+        Map<String, Long> renewedTokens = new HashMap<>();
+        Map<byte[], Long> expirations = new LinkedHashMap<>();
+        for (int i = 0; i < tokens.size(); i++) {
+            Renewal renewal = renewals.get(i);
+            long sessionTtl = toLong(ttls.get(i * width));
+            if (sessionTtl <= 0 || sessionTtl >= renewal.threshold) {
+                continue;
+            }
+            for (int j = 0; j < width; j++) {
+                long keyTtl = toLong(ttls.get(i * width + j));
+                if (keyTtl > 0 && keyTtl < renewal.duration) {
+                    expirations.put(keys.get(i * width + j), renewal.duration);
+                }
+            }
+            renewedTokens.put(tokens.get(i), renewal.duration);
+        }
+
+        if (!expirations.isEmpty()) {
+            try {
+                template.executePipelined((RedisCallback<Object>) connection -> {
+                    expirations.forEach((key, duration) -> connection.keyCommands().expire(key, duration));
+                    return null;
+                });
+            } catch (Exception e) {
+                log.warn("会话续期失败: batchSize={}", tokens.size(), e);
+                return false;
+            }
+        }
+        batches.incrementAndGet();
+        if (renewedTokens.isEmpty()) {
+            return true;
+        }
+        renewed.addAndGet(renewedTokens.size());
+        for (BiConsumer<String, Long> listener : renewalListeners) {
+            renewedTokens.forEach((token, duration) -> {
+                try {
+                    listener.accept(token, duration);
+                } catch (Exception e) {
+                    log.warn("会话续期回调执行失败: token={}", token, e);
+                }
+            });
+        }
+        if (sessionIndex != null) {
+            try {
+                sessionIndex.touchAll(renewedTokens);
+            } catch (Exception e) {
+                log.warn("更新在线会话索引失败: renewed={}", renewedTokens.size(), e);
+            }
+        }
+        log.debug("会话批量续期完成: renewed={}, batchSize={}", renewedTokens.size(), tokens.size());
+        return true;
+    }
+
+    private void flushQuietly() {
+        try {
+            flush();
+        } catch (Exception e) {
+            log.warn("会话续期批次执行失败", e);
+        }
+    }
+
+    private static long toLong(Object value) {
+        return value instanceof Number number ? number.longValue() : -2;
+    }
+
+    private static byte[] bytes(String value) {
+        return value.getBytes(StandardCharsets.UTF_8);
+    }
+
+    /**
+     * 续期参数
+     */
+    private record Renewal(long threshold, long duration) {
+    }
+}
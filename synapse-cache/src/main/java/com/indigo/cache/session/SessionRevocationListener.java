@@ -0,0 +1,23 @@
+package com.indigo.cache.session;
+
+import java.util.Collection;
+
+/**
+ * 用户会话吊销监听器
+ * 强制下线时回调，用于吊销不依赖服务端会话的凭证（如本地验签的签名 Token）
+ *
+ * <p>回调发生在删除服务端会话之前，且与用户当前是否有在线会话无关；回调抛出异常时强制下线视为失败。
+ *
+ * @author 史偕成
+ * @date 2025/12/19
+ */
+@FunctionalInterface
+public interface SessionRevocationListener {
+
+    /**
+     * 吊销这些用户的全部会话
+     *
+     * @param userIds 用户ID
+     */
+    void onUserSessionsRevoked(Collection<String> userIds);
+}
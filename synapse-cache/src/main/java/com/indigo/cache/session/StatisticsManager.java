@@ -85,6 +85,17 @@ public interface StatisticsManager {
      */
     List<UserContext> getActiveUsers(int minutes);
 
+    /**
+     * 获取指定时间范围内的去重活跃用户数
+     * 默认实现基于 {@link #getActiveUsers(int)}，实现类可使用近似统计替代
+     *
+     * @param minutes 时间范围（分钟）
+     * @return 活跃用户数
+     */
+    default long countActiveUsers(int minutes) {
+        return getActiveUsers(minutes).size();
+    }
+
     /**
      * 获取用户登录统计信息
      *
@@ -107,6 +118,22 @@ public interface StatisticsManager {
      */
     Map<String, Long> getAllUsersOnlineDuration();
     
+    /**
+     * 记录用户登录（默认不记录）
+     *
+     * @param userId 用户ID
+     */
+    default void recordLogin(String userId) {
+    }
+
+    /**
+     * 记录用户访问（默认不记录）
+     *
+     * @param userId 用户ID
+     */
+    default void recordActivity(String userId) {
+    }
+
     // ========== 统计管理操作 ==========
     
     /**
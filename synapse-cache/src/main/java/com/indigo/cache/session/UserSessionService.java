@@ -20,13 +20,22 @@ public class UserSessionService {
     private final SessionManager sessionManager;
     private final CachePermissionManager permissionManager;
     private final StatisticsManager statisticsManager;
+    private final AuthSnapshotLoader authSnapshotLoader;
 
     public UserSessionService(SessionManager sessionManager,
                               CachePermissionManager permissionManager,
                               StatisticsManager statisticsManager) {
+        this(sessionManager, permissionManager, statisticsManager, null);
+    }
+
+    public UserSessionService(SessionManager sessionManager,
+                              CachePermissionManager permissionManager,
+                              StatisticsManager statisticsManager,
+                              AuthSnapshotLoader authSnapshotLoader) {
         this.sessionManager = sessionManager;
         this.permissionManager = permissionManager;
         this.statisticsManager = statisticsManager;
+        this.authSnapshotLoader = authSnapshotLoader;
     }
 
     // ========== 会话管理相关方法 ==========
@@ -40,6 +49,9 @@ public class UserSessionService {
      */
     public void storeUserSession(String token, UserContext userContext, long expiration) {
         sessionManager.storeUserSession(token, userContext, expiration);
+        if (userContext != null) {
+            statisticsManager.recordLogin(userContext.getUserId());
+        }
     }
 
     /**
@@ -49,7 +61,64 @@ public class UserSessionService {
      * @return 用户上下文
      */
     public UserContext getUserSession(String token) {
-        return sessionManager.getUserSession(token);
+        UserContext userContext = sessionManager.getUserSession(token);
+        if (userContext != null) {
+            statisticsManager.recordActivity(userContext.getUserId());
+        }
+        return userContext;
+    }
+
+    /**
+     * 获取认证快照（会话、权限、角色与剩余时间），使用默认滑动过期策略
+     *
+     * @param token 访问令牌
+     * @return 认证快照，会话不存在时返回null
+     */
+    public AuthSnapshot getAuthSnapshot(String token) {
+        return getAuthSnapshot(token, AuthSnapshotLoader.DEFAULT_REFRESH_THRESHOLD,
+                AuthSnapshotLoader.DEFAULT_RENEWAL_DURATION);
+    }
+
+    /**
+     * 获取认证快照，并在剩余时间少于阈值时续期
+     * 配置了 {@link AuthSnapshotLoader} 时只需一次 Redis 往返
+     *
+     * @param token            访问令牌
+     * @param refreshThreshold 续期阈值（秒）
+     * @param renewalDuration  续期时长（秒），0 表示不续期
+     * @return 认证快照，会话不存在时返回null
+     */
+    public AuthSnapshot getAuthSnapshot(String token, long refreshThreshold, long renewalDuration) {
+        AuthSnapshot snapshot;
+        if (authSnapshotLoader != null) {
+            snapshot = authSnapshotLoader.load(token, refreshThreshold, renewalDuration);
+        } else {
+            snapshot = loadAuthSnapshot(token, refreshThreshold, renewalDuration);
+        }
+        if (snapshot != null) {
+            statisticsManager.recordActivity(snapshot.getUserContext().getUserId());
+        }
+        return snapshot;
+    }
+
+    /**
+     * 通过各管理器分别读取认证快照（未配置 AuthSnapshotLoader 时使用）
+     */
+    private AuthSnapshot loadAuthSnapshot(String token, long refreshThreshold, long renewalDuration) {
+        UserContext userContext = sessionManager.getUserSession(token);
+        if (userContext == null) {
+            return null;
+        }
+        long remainingTime = sessionManager.getTokenRemainingTime(token);
+        boolean refreshed = false;
+        if (renewalDuration > 0 && remainingTime > 0 && remainingTime < refreshThreshold) {
+            refreshed = sessionManager.renewToken(token, renewalDuration);
+            if (refreshed) {
+                remainingTime = renewalDuration;
+            }
+        }
+        return new AuthSnapshot(userContext, permissionManager.getUserPermissions(token),
+                permissionManager.getUserRoles(token), remainingTime, refreshed);
     }
 
     /**
@@ -474,6 +543,16 @@ public class UserSessionService {
         return statisticsManager.getUserSessionStats();
     }
 
+    /**
+     * 记录一次用户访问
+     * 只写入本地统计缓冲，不访问 Redis；供不经过 {@link #getAuthSnapshot(String)} 的加载路径使用
+     *
+     * @param userId 用户ID
+     */
+    public void recordActivity(String userId) {
+        statisticsManager.recordActivity(userId);
+    }
+
     /**
      * 获取指定时间范围内的活跃用户
      *
@@ -484,6 +563,16 @@ public class UserSessionService {
         return statisticsManager.getActiveUsers(minutes);
     }
 
+    /**
+     * 获取指定时间范围内的去重活跃用户数
+     *
+     * @param minutes 时间范围（分钟）
+     * @return 活跃用户数
+     */
+    public long countActiveUsers(int minutes) {
+        return statisticsManager.countActiveUsers(minutes);
+    }
+
     /**
      * 获取用户登录统计信息
      *
@@ -154,6 +154,52 @@ public class UserSessionServiceFactory {
             RedisService redisService,
             SessionManager sessionManager,
             CachePermissionManager permissionManager) {
-        return new DefaultStatisticsManager(cacheService, keyGenerator, redisService, sessionManager, permissionManager);
+        return createStatisticsManager(cacheService, keyGenerator, redisService, sessionManager, permissionManager, null);
+    }
+
+    /**
+     * 创建统计管理器（支持在线会话索引）
+     *
+     * @param cacheService      缓存服务
+     * @param keyGenerator      缓存键生成器
+     * @param redisService      Redis服务
+     * @param sessionManager    会话管理器
+     * @param permissionManager 权限管理器
+     * @param sessionIndex      在线会话索引（可选，为空时通过 SCAN 统计）
+     * @return 统计管理器实例
+     */
+    public static StatisticsManager createStatisticsManager(
+            CacheService cacheService,
+            CacheKeyGenerator keyGenerator,
+            RedisService redisService,
+            SessionManager sessionManager,
+            CachePermissionManager permissionManager,
+            SessionIndex sessionIndex) {
+        return createStatisticsManager(
+                cacheService, keyGenerator, redisService, sessionManager, permissionManager, sessionIndex, null);
+    }
+
+    /**
+     * 创建统计管理器（支持在线会话索引和活跃度统计）
+     *
+     * @param cacheService      缓存服务
+     * @param keyGenerator      缓存键生成器
+     * @param redisService      Redis服务
+     * @param sessionManager    会话管理器
+     * @param permissionManager 权限管理器
+     * @param sessionIndex      在线会话索引（可选，为空时通过 SCAN 统计）
+     * @param sessionAnalytics  活跃度统计（可选）
+     * @return 统计管理器实例
+     */
+    public static StatisticsManager createStatisticsManager(
+            CacheService cacheService,
+            CacheKeyGenerator keyGenerator,
+            RedisService redisService,
+            SessionManager sessionManager,
+            CachePermissionManager permissionManager,
+            SessionIndex sessionIndex,
+            SessionAnalytics sessionAnalytics) {
+        return new DefaultStatisticsManager(cacheService, keyGenerator, redisService, sessionManager,
+                permissionManager, sessionIndex, sessionAnalytics);
     }
 } 
\ No newline at end of file
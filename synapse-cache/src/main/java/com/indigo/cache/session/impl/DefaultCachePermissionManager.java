@@ -7,6 +7,9 @@ import com.indigo.cache.core.constants.SessionCacheConstants;
 import com.indigo.cache.infrastructure.CaffeineCacheManager;
 import com.indigo.cache.manager.CacheKeyGenerator;
 import com.indigo.cache.session.CachePermissionManager;
+import com.indigo.cache.session.PermissionDictionary;
+import com.indigo.cache.session.SessionIndex;
+import com.indigo.core.context.PermissionMatcher;
 import lombok.extern.slf4j.Slf4j;
 
 import java.util.List;
@@ -38,6 +41,8 @@ public class DefaultCachePermissionManager implements CachePermissionManager {
     private final CaffeineCacheManager caffeineCacheManager;
     private final CacheInvalidationService cacheInvalidationService;
     private final CacheInvalidationTracker invalidationTracker;
+    private final SessionIndex sessionIndex;
+    private final PermissionDictionary permissionDictionary;
 
     /**
      * 构造函数（兼容旧版本，CaffeineCacheManager 和 CacheInvalidationService 为可选）
@@ -48,6 +53,8 @@ public class DefaultCachePermissionManager implements CachePermissionManager {
         this.caffeineCacheManager = null;
         this.cacheInvalidationService = null;
         this.invalidationTracker = null;
+        this.sessionIndex = null;
+        this.permissionDictionary = null;
     }
 
     /**
@@ -77,11 +84,39 @@ public class DefaultCachePermissionManager implements CachePermissionManager {
                                         CaffeineCacheManager caffeineCacheManager,
                                         CacheInvalidationService cacheInvalidationService,
                                         CacheInvalidationTracker invalidationTracker) {
+        this(cacheService, keyGenerator, caffeineCacheManager, cacheInvalidationService, invalidationTracker, null);
+    }
+
+    /**
+     * 构造函数（支持 Caffeine 缓存、失效通知、失效追踪和在线会话索引）
+     */
+    public DefaultCachePermissionManager(CacheService cacheService,
+                                        CacheKeyGenerator keyGenerator,
+                                        CaffeineCacheManager caffeineCacheManager,
+                                        CacheInvalidationService cacheInvalidationService,
+                                        CacheInvalidationTracker invalidationTracker,
+                                        SessionIndex sessionIndex) {
+        this(cacheService, keyGenerator, caffeineCacheManager, cacheInvalidationService, invalidationTracker,
+                sessionIndex, null);
+    }
+
+    /**
+     * 构造函数（支持 Caffeine 缓存、失效通知、失效追踪、在线会话索引和权限字典）
+     */
+    public DefaultCachePermissionManager(CacheService cacheService,
+                                        CacheKeyGenerator keyGenerator,
+                                        CaffeineCacheManager caffeineCacheManager,
+                                        CacheInvalidationService cacheInvalidationService,
+                                        CacheInvalidationTracker invalidationTracker,
+                                        SessionIndex sessionIndex,
+                                        PermissionDictionary permissionDictionary) {
         this.cacheService = cacheService;
         this.keyGenerator = keyGenerator;
         this.caffeineCacheManager = caffeineCacheManager;
         this.cacheInvalidationService = cacheInvalidationService;
         this.invalidationTracker = invalidationTracker;
+        this.sessionIndex = sessionIndex;
+        this.permissionDictionary = permissionDictionary;
     }
 
     @Override
@@ -132,6 +167,15 @@ public class DefaultCachePermissionManager implements CachePermissionManager {
         if (cacheInvalidationService != null) {
             cacheInvalidationService.publishInvalidation(SessionCacheConstants.CACHE_TYPE_USER_ROLES, token);
         }
+
+        // 4. 登记角色索引
+        if (sessionIndex != null) {
+            try {
+                sessionIndex.setRoles(token, roles);
+            } catch (Exception e) {
+                log.warn("Failed to index user roles: token={}", token, e);
+            }
+        }
         
         log.info("Stored user roles for token: {}", token);
     }
@@ -249,13 +293,30 @@ public class DefaultCachePermissionManager implements CachePermissionManager {
     @Override
     public boolean hasPermission(String token, String permission) {
         List<String> permissions = getUserPermissions(token);
-        return permissions != null && permissions.contains(permission);
+        if (permissions == null) {
+            return false;
+        }
+        if (permissionDictionary != null) {
+            // 编译时已驻留用户的全部权限码，未驻留的编码一定不在其中
+            if (permissionDictionary.permissionsOf(token, permissions).contains(permissionDictionary.idOf(permission))) {
+                return true;
+            }
+            PermissionMatcher matcher = permissionDictionary.matcherOf(token, permissions);
+            return matcher.hasWildcards() && matcher.matches(permission);
+        }
+        return permissions.contains(permission) || PermissionMatcher.of(permissions).matches(permission);
     }
 
     @Override
     public boolean hasRole(String token, String role) {
         List<String> roles = getUserRoles(token);
-        return roles != null && roles.contains(role);
+        if (roles == null) {
+            return false;
+        }
+        if (permissionDictionary != null) {
+            return permissionDictionary.rolesOf(token, roles).contains(permissionDictionary.idOf(role));
+        }
+        return roles.contains(role);
     }
 
     @Override
@@ -283,6 +344,20 @@ public class DefaultCachePermissionManager implements CachePermissionManager {
             cacheInvalidationService.publishInvalidation(SessionCacheConstants.CACHE_TYPE_USER_PERMISSIONS, token);
             cacheInvalidationService.publishInvalidation(SessionCacheConstants.CACHE_TYPE_USER_ROLES, token);
         }
+
+        // 4. 移除编译后的权限位图
+        if (permissionDictionary != null) {
+            permissionDictionary.evict(token);
+        }
+
+        // 5. 移除角色索引
+        if (sessionIndex != null) {
+            try {
+                sessionIndex.removeRoles(token);
+            } catch (Exception e) {
+                log.warn("Failed to remove user roles index: token={}", token, e);
+            }
+        }
         
         log.info("Removed user permissions and roles for token: {}", token);
     }
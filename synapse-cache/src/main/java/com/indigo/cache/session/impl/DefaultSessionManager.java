@@ -6,7 +6,9 @@ import com.indigo.cache.core.CacheService;
 import com.indigo.cache.infrastructure.CaffeineCacheManager;
 import com.indigo.cache.manager.CacheKeyGenerator;
 import com.indigo.cache.core.constants.SessionCacheConstants;
+import com.indigo.cache.session.SessionIndex;
 import com.indigo.cache.session.SessionManager;
+import com.indigo.cache.session.SessionRenewalQueue;
 import com.indigo.core.context.UserContext;
 import lombok.extern.slf4j.Slf4j;
 
@@ -28,11 +30,23 @@ public class DefaultSessionManager implements SessionManager {
      */
     private static final int LOCAL_CACHE_EXPIRE_SECONDS = 300; // 5分钟
 
+    /**
+     * 滑动过期阈值（秒）：剩余时间少于 30 分钟时续期
+     */
+    private static final long SESSION_REFRESH_THRESHOLD = 1800;
+
+    /**
+     * 滑动过期续期时长（秒）：延长到 1 小时
+     */
+    private static final long SESSION_RENEWAL_DURATION = 3600;
+
     private final CacheService cacheService;
     private final CacheKeyGenerator keyGenerator;
     private final CaffeineCacheManager caffeineCacheManager;
     private final CacheInvalidationService cacheInvalidationService;
     private final CacheInvalidationTracker invalidationTracker;
+    private final SessionIndex sessionIndex;
+    private final SessionRenewalQueue renewalQueue;
 
     /**
      * 构造函数（兼容旧版本，CaffeineCacheManager 和 CacheInvalidationService 为可选）
@@ -43,6 +57,8 @@ public class DefaultSessionManager implements SessionManager {
         this.caffeineCacheManager = null;
         this.cacheInvalidationService = null;
         this.invalidationTracker = null;
+        this.sessionIndex = null;
+        this.renewalQueue = null;
     }
 
     /**
@@ -72,11 +88,39 @@ public class DefaultSessionManager implements SessionManager {
                                  CaffeineCacheManager caffeineCacheManager,
                                  CacheInvalidationService cacheInvalidationService,
                                  CacheInvalidationTracker invalidationTracker) {
+        this(cacheService, keyGenerator, caffeineCacheManager, cacheInvalidationService, invalidationTracker, null);
+    }
+
+    /**
+     * 构造函数（支持 Caffeine 缓存、失效通知、失效追踪和在线会话索引）
+     */
+    public DefaultSessionManager(CacheService cacheService,
+                                 CacheKeyGenerator keyGenerator,
+                                 CaffeineCacheManager caffeineCacheManager,
+                                 CacheInvalidationService cacheInvalidationService,
+                                 CacheInvalidationTracker invalidationTracker,
+                                 SessionIndex sessionIndex) {
+        this(cacheService, keyGenerator, caffeineCacheManager, cacheInvalidationService, invalidationTracker,
+                sessionIndex, null);
+    }
+
+    /**
+     * 构造函数（支持 Caffeine 缓存、失效通知、失效追踪、在线会话索引和后台续期队列）
+     */
+    public DefaultSessionManager(CacheService cacheService,
+                                 CacheKeyGenerator keyGenerator,
+                                 CaffeineCacheManager caffeineCacheManager,
+                                 CacheInvalidationService cacheInvalidationService,
+                                 CacheInvalidationTracker invalidationTracker,
+                                 SessionIndex sessionIndex,
+                                 SessionRenewalQueue renewalQueue) {
         this.cacheService = cacheService;
         this.keyGenerator = keyGenerator;
         this.caffeineCacheManager = caffeineCacheManager;
         this.cacheInvalidationService = cacheInvalidationService;
         this.invalidationTracker = invalidationTracker;
+        this.sessionIndex = sessionIndex;
+        this.renewalQueue = renewalQueue;
     }
 
     // ========== 用户会话管理 ==========
@@ -103,6 +147,15 @@ public class DefaultSessionManager implements SessionManager {
         if (cacheInvalidationService != null) {
             cacheInvalidationService.publishInvalidation(SessionCacheConstants.CACHE_TYPE_USER_SESSION, token);
         }
+
+        // 4. 登记在线会话索引
+        if (sessionIndex != null && userContext != null) {
+            try {
+                sessionIndex.addSession(token, userContext.getUserId(), expiration);
+            } catch (Exception e) {
+                log.warn("Failed to index user session: token={}", token, e);
+            }
+        }
         
         log.debug("Stored user session for token: {}, expiration: {} seconds", token, expiration);
     }
@@ -194,6 +247,15 @@ public class DefaultSessionManager implements SessionManager {
         if (cacheInvalidationService != null) {
             cacheInvalidationService.publishInvalidation(SessionCacheConstants.CACHE_TYPE_USER_SESSION, token);
         }
+
+        // 4. 移除在线会话索引
+        if (sessionIndex != null) {
+            try {
+                sessionIndex.removeSession(token);
+            } catch (Exception e) {
+                log.warn("Failed to remove user session index: token={}", token, e);
+            }
+        }
         
         log.debug("Removed user session for token: {}", token);
     }
@@ -205,6 +267,7 @@ public class DefaultSessionManager implements SessionManager {
         if (cacheService.exists(sessionKey)) {
             // 1. 更新 Redis 中的会话过期时间
             cacheService.resetExpiry(sessionKey, expiration);
+            touchIndex(token, expiration);
             
             // 2. 同步更新本地缓存（如果存在）
             // 延长过期时间时，本地缓存的过期时间应该和 Redis 保持一致，确保数据同步
@@ -245,6 +308,7 @@ public class DefaultSessionManager implements SessionManager {
             if (userContext != null) {
                 // 1. 重新存储会话到 Redis，使用新的过期时间
                 cacheService.setObject(sessionKey, userContext, duration);
+                touchIndex(token, duration);
                 
                 // 2. 同时刷新 token 的过期时间（如果存在）
                 String tokenKey = keyGenerator.generate(CacheKeyGenerator.Module.USER, "token", token);
@@ -525,6 +589,23 @@ public class DefaultSessionManager implements SessionManager {
         return (int) Math.max(localExpire, 60);
     }
 
+    /**
+     * 同步在线会话索引中的过期时间
+     *
+     * @param token      访问令牌
+     * @param expiration 新的过期时间（秒）
+     */
+    private void touchIndex(String token, long expiration) {
+        if (sessionIndex == null) {
+            return;
+        }
+        try {
+            sessionIndex.touch(token, expiration);
+        } catch (Exception e) {
+            log.warn("Failed to update user session index: token={}", token, e);
+        }
+    }
+
     /**
      * 刷新会话过期时间（滑动过期）
      * 当用户访问时，自动延长会话过期时间
@@ -534,19 +615,25 @@ public class DefaultSessionManager implements SessionManager {
      *   <li>如果剩余时间少于 30 分钟（1800 秒），则延长到 1 小时（3600 秒）</li>
      *   <li>这样可以确保活跃用户的会话不会过期，同时避免长期不活跃的会话占用资源</li>
      * </ul>
+     * 配置了续期队列时只做一次入队，TTL 检查与续期由后台批量完成。
      *
      * @param sessionKey 会话键
      * @param token      访问令牌
      */
     private void refreshSessionExpiry(String sessionKey, String token) {
+        if (renewalQueue != null) {
+            renewalQueue.submit(token, SESSION_REFRESH_THRESHOLD, SESSION_RENEWAL_DURATION);
+            return;
+        }
         try {
             // 获取当前剩余过期时间
             long remainingTime = cacheService.getTimeToLive(sessionKey);
             
             // 如果剩余时间少于 30 分钟，则延长到 1 小时（滑动过期）
-            if (remainingTime > 0 && remainingTime < 1800) { // 30 分钟 = 1800 秒
-                long newExpiration = 3600; // 延长到 1 小时
+            if (remainingTime > 0 && remainingTime < SESSION_REFRESH_THRESHOLD) {
+                long newExpiration = SESSION_RENEWAL_DURATION;
                 cacheService.resetExpiry(sessionKey, newExpiration);
+                touchIndex(token, newExpiration);
                 
                 // 同时更新本地缓存
                 // 刷新时，本地缓存的过期时间应该和 Redis 保持一致，确保数据同步
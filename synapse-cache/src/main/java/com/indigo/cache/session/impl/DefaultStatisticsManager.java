@@ -4,13 +4,19 @@ import com.indigo.cache.core.CacheService;
 import com.indigo.cache.manager.CacheKeyGenerator;
 import com.indigo.cache.infrastructure.RedisService;
 import com.indigo.cache.session.CachePermissionManager;
+import com.indigo.cache.session.SessionAnalytics;
+import com.indigo.cache.session.SessionBulkOperations;
+import com.indigo.cache.session.SessionIndex;
 import com.indigo.cache.session.SessionManager;
+import com.indigo.cache.session.SessionRevocationListener;
 import com.indigo.cache.session.StatisticsManager;
 import com.indigo.core.context.UserContext;
 import lombok.Getter;
 import lombok.extern.slf4j.Slf4j;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
@@ -21,6 +27,13 @@ import java.util.stream.Collectors;
  * 默认统计管理器实现
  * 基于缓存服务的统计管理
  *
+ * <p>配置了 {@link SessionIndex} 时，在线人数、按用户/角色查询和强制下线均通过索引完成（O(1)/O(k)），
+ * 不再 SCAN 整个会话键空间；未配置时退化为 SCAN。
+ * 配置了 {@link SessionAnalytics} 时，活跃用户数与登录统计基于按时间分桶的 HyperLogLog/计数器。
+ * 配置了 {@link SessionBulkOperations} 时，批量强制下线按批次并行执行。
+ * 强制下线前会通知 {@link SessionRevocationListener}，吊销不依赖服务端会话的凭证（如签名 Token）。
+ * 可选组件较多，推荐通过 {@link #builder} 创建。
+ *
  * @author 史偕成
  * @date 2024/12/19
  */
@@ -40,21 +53,81 @@ public class DefaultStatisticsManager implements StatisticsManager {
     private final RedisService redisService;
     private final SessionManager sessionManager;
     private final CachePermissionManager permissionManager;
+    private final SessionIndex sessionIndex;
+    private final SessionAnalytics sessionAnalytics;
+    private final SessionBulkOperations sessionBulkOperations;
+    private final List<SessionRevocationListener> revocationListeners;
 
     public DefaultStatisticsManager(CacheService cacheService,
                                     CacheKeyGenerator keyGenerator,
                                     RedisService redisService,
                                     SessionManager sessionManager,
                                     CachePermissionManager permissionManager) {
-        this.cacheService = cacheService;
-        this.keyGenerator = keyGenerator;
-        this.redisService = redisService;
-        this.sessionManager = sessionManager;
-        this.permissionManager = permissionManager;
+        this(cacheService, keyGenerator, redisService, sessionManager, permissionManager, null);
+    }
+
+    public DefaultStatisticsManager(CacheService cacheService,
+                                    CacheKeyGenerator keyGenerator,
+                                    RedisService redisService,
+                                    SessionManager sessionManager,
+                                    CachePermissionManager permissionManager,
+                                    SessionIndex sessionIndex) {
+        this(cacheService, keyGenerator, redisService, sessionManager, permissionManager, sessionIndex, null);
+    }
+
+    public DefaultStatisticsManager(CacheService cacheService,
+                                    CacheKeyGenerator keyGenerator,
+                                    RedisService redisService,
+                                    SessionManager sessionManager,
+                                    CachePermissionManager permissionManager,
+                                    SessionIndex sessionIndex,
+                                    SessionAnalytics sessionAnalytics) {
+        this(builder(cacheService, keyGenerator, redisService, sessionManager, permissionManager)
+                .sessionIndex(sessionIndex)
+                .sessionAnalytics(sessionAnalytics));
+    }
+
+    private DefaultStatisticsManager(Builder builder) {
+        this.cacheService = builder.cacheService;
+        this.keyGenerator = builder.keyGenerator;
+        this.redisService = builder.redisService;
+        this.sessionManager = builder.sessionManager;
+        this.permissionManager = builder.permissionManager;
+        this.sessionIndex = builder.sessionIndex;
+        this.sessionAnalytics = builder.sessionAnalytics;
+        this.sessionBulkOperations = builder.sessionBulkOperations;
+        this.revocationListeners = builder.revocationListeners != null
+                ? List.copyOf(builder.revocationListeners) : List.of();
+    }
+
+    /**
+     * 创建构建器
+     *
+     * @param cacheService      缓存服务
+     * @param keyGenerator      缓存键生成器
+     * @param redisService      Redis服务
+     * @param sessionManager    会话管理器
+     * @param permissionManager 权限管理器
+     * @return 构建器，可选组件通过链式方法设置
+     */
+    public static Builder builder(CacheService cacheService,
+                                  CacheKeyGenerator keyGenerator,
+                                  RedisService redisService,
+                                  SessionManager sessionManager,
+                                  CachePermissionManager permissionManager) {
+        return new Builder(cacheService, keyGenerator, redisService, sessionManager, permissionManager);
     }
 
     @Override
     public List<UserContext> getOnlineUsers() {
+        if (sessionIndex != null) {
+            try {
+                return getUsersByTokens(sessionIndex.getOnlineTokens().keySet());
+            } catch (Exception e) {
+                log.error("通过索引查询在线用户失败", e);
+                return List.of();
+            }
+        }
         String pattern = keyGenerator.generate(CacheKeyGenerator.Module.USER, "session", "*");
         return getUsersByPattern(pattern);
     }
@@ -82,6 +155,15 @@ public class DefaultStatisticsManager implements StatisticsManager {
         if (role == null || role.isEmpty()) {
             return List.of();
         }
+
+        if (sessionIndex != null) {
+            try {
+                return getUsersByTokens(sessionIndex.getRoleTokens(role));
+            } catch (Exception e) {
+                log.error("按角色查询在线用户失败: role={}", role, e);
+                return List.of();
+            }
+        }
         
         String pattern = keyGenerator.generate(CacheKeyGenerator.Module.USER, "session", "*");
         
@@ -119,6 +201,14 @@ public class DefaultStatisticsManager implements StatisticsManager {
 
     @Override
     public long getOnlineUserCount() {
+        if (sessionIndex != null) {
+            try {
+                return sessionIndex.countOnline();
+            } catch (Exception e) {
+                log.error("通过索引统计在线用户数失败", e);
+                return 0;
+            }
+        }
         String pattern = keyGenerator.generate(CacheKeyGenerator.Module.USER, "session", "*");
         return getUsersByPattern(pattern).size();
     }
@@ -128,8 +218,15 @@ public class DefaultStatisticsManager implements StatisticsManager {
         if (userId == null) {
             return false;
         }
-        String pattern = keyGenerator.generate(CacheKeyGenerator.Module.USER, "session", "*");
-        List<UserContext> allUsers = getUsersByPattern(pattern);
+        if (sessionIndex != null) {
+            try {
+                return sessionIndex.isUserOnline(String.valueOf(userId));
+            } catch (Exception e) {
+                log.error("查询用户在线状态失败: userId={}", userId, e);
+                return false;
+            }
+        }
+        List<UserContext> allUsers = getOnlineUsers();
         // UserContext.getUserId() 返回 String，需要转换比较
         String userIdStr = String.valueOf(userId);
         return allUsers.stream()
@@ -141,6 +238,17 @@ public class DefaultStatisticsManager implements StatisticsManager {
         if (userId == null) {
             return false;
         }
+        // 先吊销不依赖服务端会话的凭证：签名 Token 在本地验签，仅删除会话无法使其失效
+        boolean revoked;
+        try {
+            revoked = notifyRevoked(userId);
+        } catch (Exception e) {
+            log.error("强制用户下线失败，吊销用户凭证异常: userId={}", userId, e);
+            return false;
+        }
+        if (sessionIndex != null) {
+            return forceUserOfflineByIndex(userId) || revoked;
+        }
         String pattern = keyGenerator.generate(CacheKeyGenerator.Module.USER, "session", "*");
         String userIdStr = String.valueOf(userId);
         
@@ -164,11 +272,70 @@ public class DefaultStatisticsManager implements StatisticsManager {
         } catch (Exception e) {
             log.error("强制用户下线失败: userId={}", userId, e);
         }
-        return false;
+        return revoked;
+    }
+
+    /**
+     * 通知会话吊销监听器
+     *
+     * @param userId 用户ID
+     * @return 是否有监听器吊销了该用户的凭证
+     */
+    private boolean notifyRevoked(Long userId) {
+        if (revocationListeners.isEmpty()) {
+            return false;
+        }
+        List<String> userIds = List.of(String.valueOf(userId));
+        for (SessionRevocationListener listener : revocationListeners) {
+            listener.onUserSessionsRevoked(userIds);
+        }
+        return true;
+    }
+
+    /**
+     * 通过索引强制用户下线（移除该用户的所有在线会话）
+     *
+     * @param userId 用户ID
+     * @return 是否有会话被移除
+     */
+    private boolean forceUserOfflineByIndex(Long userId) {
+        try {
+            List<String> tokens = sessionIndex.getUserTokens(String.valueOf(userId));
+            for (String token : tokens) {
+                sessionManager.removeUserSession(token);
+                permissionManager.removeUserPermissions(token);
+                log.info("强制用户下线: userId={}, token={}", userId, token);
+            }
+            return !tokens.isEmpty();
+        } catch (Exception e) {
+            log.error("强制用户下线失败: userId={}", userId, e);
+            return false;
+        }
     }
 
     @Override
     public int forceUsersOffline(List<Long> userIds) {
+        if (userIds == null || userIds.isEmpty()) {
+            return 0;
+        }
+        if (sessionBulkOperations != null) {
+            try {
+                List<String> ids = userIds.stream().filter(Objects::nonNull).map(String::valueOf).toList();
+                SessionBulkOperations.BulkResult result = sessionBulkOperations.forceOffline(ids, null);
+                int count = result.onlineUsers() - result.failedUsers().size();
+                if (!result.failedUsers().isEmpty()) {
+                    log.warn("部分批次强制下线失败，逐个重试: failedUsers={}", result.failedUsers().size());
+                    for (String userId : result.failedUsers()) {
+                        if (forceUserOffline(Long.valueOf(userId))) {
+                            count++;
+                        }
+                    }
+                }
+                return count;
+            } catch (Exception e) {
+                log.error("批量强制下线失败，回退为逐个下线: count={}", userIds.size(), e);
+            }
+        }
         int count = 0;
         for (Long userId : userIds) {
             if (forceUserOffline(userId)) {
@@ -180,30 +347,17 @@ public class DefaultStatisticsManager implements StatisticsManager {
 
     @Override
     public UserSessionStats getUserSessionStats() {
-        String pattern = keyGenerator.generate(CacheKeyGenerator.Module.USER, "session", "*");
-        List<UserContext> allUsers = getUsersByPattern(pattern);
+        long totalUsers = getOnlineUserCount();
 
-        long totalUsers = allUsers.size();
-        
-        // 注意：UserContext 中没有 lastAccessTime 和 loginTime 字段
-        // 这里使用 session 的剩余过期时间来判断活跃性
-        // 如果 session 剩余时间较长（> 30 分钟），认为是活跃用户
-        long activeUsers = allUsers.stream()
-                .filter(user -> {
-                    // 通过 session key 获取剩余过期时间来判断活跃性
-                    // 由于无法直接从 UserContext 获取 token，这里简化处理：
-                    // 所有在线用户都认为是活跃用户（因为如果 session 存在，说明最近有访问）
-                    return true;
-                })
-                .count();
+        // 未启用活跃度统计时，所有在线用户都认为是活跃用户（因为如果 session 存在，说明最近有访问）
+        long activeUsers = sessionAnalytics != null ? sessionAnalytics.countActiveUsers(30) : totalUsers;
 
         return new UserSessionStats(totalUsers, activeUsers);
     }
 
     @Override
     public List<UserContext> getActiveUsers(int minutes) {
-        String pattern = keyGenerator.generate(CacheKeyGenerator.Module.USER, "session", "*");
-        List<UserContext> allUsers = getUsersByPattern(pattern);
+        List<UserContext> allUsers = getOnlineUsers();
         
         // 注意：UserContext 中没有 lastAccessTime 和 loginTime 字段
         // 这里通过检查 session 的剩余过期时间来判断活跃性
@@ -221,10 +375,36 @@ public class DefaultStatisticsManager implements StatisticsManager {
                 .toList();
     }
 
+    @Override
+    public long countActiveUsers(int minutes) {
+        if (sessionAnalytics != null) {
+            return sessionAnalytics.countActiveUsers(minutes);
+        }
+        return getActiveUsers(minutes).size();
+    }
+
+    @Override
+    public void recordLogin(String userId) {
+        if (sessionAnalytics != null) {
+            sessionAnalytics.recordLogin(userId);
+        }
+    }
+
+    @Override
+    public void recordActivity(String userId) {
+        if (sessionAnalytics != null) {
+            sessionAnalytics.recordActivity(userId);
+        }
+    }
+
     @Override
     public LoginStats getLoginStats() {
-        String pattern = keyGenerator.generate(CacheKeyGenerator.Module.USER, "session", "*");
-        List<UserContext> allUsers = getUsersByPattern(pattern);
+        if (sessionAnalytics != null) {
+            return new LoginStats(sessionAnalytics.countLogins(60), sessionAnalytics.countLogins(1440),
+                    getOnlineUserCount());
+        }
+
+        List<UserContext> allUsers = getOnlineUsers();
 
         // 注意：UserContext 中没有 loginTime 字段
         // 这里无法准确统计登录时间，返回当前在线用户数作为近似值
@@ -253,6 +433,22 @@ public class DefaultStatisticsManager implements StatisticsManager {
         if (userId == null) {
             return 0L;
         }
+
+        if (sessionIndex != null) {
+            try {
+                long maxDuration = 0L;
+                for (String token : sessionIndex.getUserTokens(String.valueOf(userId))) {
+                    Long duration = calculateDurationByToken(token, userId);
+                    if (duration != null && duration > maxDuration) {
+                        maxDuration = duration;
+                    }
+                }
+                return maxDuration;
+            } catch (Exception e) {
+                log.error("查询用户在线时长失败: userId={}", userId, e);
+                return 0L;
+            }
+        }
         
         String pattern = keyGenerator.generate(CacheKeyGenerator.Module.USER, "session", "*");
         String userIdStr = String.valueOf(userId);
@@ -337,6 +533,9 @@ public class DefaultStatisticsManager implements StatisticsManager {
 
     @Override
     public Map<String, Long> getAllUsersOnlineDuration() {
+        if (sessionIndex != null) {
+            return getAllUsersOnlineDurationByIndex();
+        }
         String pattern = keyGenerator.generate(CacheKeyGenerator.Module.USER, "session", "*");
         
         try {
@@ -355,6 +554,30 @@ public class DefaultStatisticsManager implements StatisticsManager {
         }
     }
 
+    /**
+     * 通过索引统计所有用户在线时长（剩余时间取自索引分数，无需逐个查询会话）
+     *
+     * @return 用户ID → 在线时长（秒）
+     */
+    private Map<String, Long> getAllUsersOnlineDurationByIndex() {
+        try {
+            Map<String, Long> remainingByToken = sessionIndex.getOnlineTokens();
+            Map<String, String> owners = sessionIndex.getOwners(List.copyOf(remainingByToken.keySet()));
+            Map<String, Long> durations = new HashMap<>();
+            for (Map.Entry<String, String> entry : owners.entrySet()) {
+                long remainingTime = remainingByToken.get(entry.getKey());
+                if (remainingTime > 0) {
+                    // 如果有重复的 userId，保留第一个
+                    durations.putIfAbsent(entry.getValue(), estimateOnlineDuration(remainingTime));
+                }
+            }
+            return durations;
+        } catch (Exception e) {
+            log.error("查询所有用户在线时长失败", e);
+            return Map.of();
+        }
+    }
+
     /**
      * 从 session key 中提取用户在线时长信息
      *
@@ -443,6 +666,27 @@ public class DefaultStatisticsManager implements StatisticsManager {
         }
     }
 
+    /**
+     * 根据 token 列表获取用户会话
+     *
+     * @param tokens 访问令牌
+     * @return 用户列表（已过期的会话不包含在内）
+     */
+    private List<UserContext> getUsersByTokens(Collection<String> tokens) {
+        return tokens.stream()
+                .map(token -> {
+                    String key = keyGenerator.generate(CacheKeyGenerator.Module.USER, "session", token);
+                    try {
+                        return cacheService.getObject(key, UserContext.class);
+                    } catch (Exception e) {
+                        log.warn("获取用户会话数据失败: key={}", key, e);
+                        return null;
+                    }
+                })
+                .filter(Objects::nonNull)
+                .toList();
+    }
+
     /**
      * 从 session key 中提取 token
      * key 格式：user:session:{token}
@@ -470,4 +714,67 @@ public class DefaultStatisticsManager implements StatisticsManager {
         }
     }
 
-}
\ No newline at end of file
+
+    /**
+     * 统计管理器构建器
+     */
+    public static class Builder {
+        private final CacheService cacheService;
+        private final CacheKeyGenerator keyGenerator;
+        private final RedisService redisService;
+        private final SessionManager sessionManager;
+        private final CachePermissionManager permissionManager;
+        private SessionIndex sessionIndex;
+        private SessionAnalytics sessionAnalytics;
+        private SessionBulkOperations sessionBulkOperations;
+        private List<SessionRevocationListener> revocationListeners;
+
+        private Builder(CacheService cacheService,
+                        CacheKeyGenerator keyGenerator,
+                        RedisService redisService,
+                        SessionManager sessionManager,
+                        CachePermissionManager permissionManager) {
+            this.cacheService = cacheService;
+            this.keyGenerator = keyGenerator;
+            this.redisService = redisService;
+            this.sessionManager = sessionManager;
+            this.permissionManager = permissionManager;
+        }
+
+        /**
+         * 在线会话索引（可选，为空时通过 SCAN 统计）
+         */
+        public Builder sessionIndex(SessionIndex sessionIndex) {
+            this.sessionIndex = sessionIndex;
+            return this;
+        }
+
+        /**
+         * 活跃度统计（可选）
+         */
+        public Builder sessionAnalytics(SessionAnalytics sessionAnalytics) {
+            this.sessionAnalytics = sessionAnalytics;
+            return this;
+        }
+
+        /**
+         * 批量会话操作（可选，为空时批量下线逐个执行）
+         */
+        public Builder sessionBulkOperations(SessionBulkOperations sessionBulkOperations) {
+            this.sessionBulkOperations = sessionBulkOperations;
+            return this;
+        }
+
+        /**
+         * 会话吊销监听器（可选），强制下线时回调
+         */
+        public Builder revocationListeners(List<SessionRevocationListener> revocationListeners) {
+            this.revocationListeners = revocationListeners;
+            return this;
+        }
+
+        public DefaultStatisticsManager build() {
+            return new DefaultStatisticsManager(this);
+        }
+    }
+}
@@ -0,0 +1,134 @@
+package com.indigo.cache.extension.lock;
+
+import com.indigo.cache.config.DistributedDeadlockProperties;
+import com.indigo.cache.infrastructure.RedisService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.core.script.RedisScript;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ScheduledExecutorService;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * DistributedDeadlockDetector 增量积压上限与强制释放测试
+ *
+ * @author 史偕成
+ * @date 2025/12/19
+ */
+class DistributedDeadlockDetectorTest {
+
+    private RedisService redisService;
+    private DistributedDeadlockProperties properties;
+    private DistributedDeadlockDetector detector;
+    private final List<String[]> scriptCalls = new ArrayList<>();
+    private boolean redisAvailable = true;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        redisService = mock(RedisService.class);
+        properties = new DistributedDeadlockProperties();
+        properties.setMaxPendingDeltas(3);
+        // 脚本按返回类型区分：清理脚本返回清理边数，发布脚本返回Stream记录ID
+        when(redisService.executeScript(any(RedisScript.class), anyList(), any(String[].class))).thenAnswer(invocation -> {
+            if (!redisAvailable) {
+                return null;
+            }
+            RedisScript<?> script = invocation.getArgument(0);
+            Object[] arguments = invocation.getArguments();
+            scriptCalls.add(Arrays.copyOfRange(arguments, 2, arguments.length, String[].class));
+            return Long.class.equals(script.getResultType()) ? 0L : "1-0";
+        });
+        detector = new DistributedDeadlockDetector(mock(ScheduledExecutorService.class), redisService, properties);
+    }
+
+    @Test
+    void publishesPendingDeltasOnSync() {
+        detector.recordLockAcquired("t1", "lock:a");
+        detector.recordLockWaitStart("t1", "lock:b");
+
+        detector.syncLocalStateToGlobal();
+
+        assertEquals(1, scriptCalls.size());
+        assertEquals(2, metric("publishedDeltas"));
+        assertEquals(0, metric("pendingDeltas"));
+    }
+
+    @Test
+    void doesNotQueueDeltasWhileGlobalDetectionDisabled() {
+        detector.setGlobalDetectionEnabled(false);
+        detector.recordLockAcquired("t1", "lock:a");
+        detector.recordLockWaitStart("t2", "lock:a");
+
+        assertEquals(0, metric("pendingDeltas"));
+    }
+
+    @Test
+    void overflowDropsBacklogAndRepublishesLocalState() {
+        redisAvailable = false;
+        detector.recordLockAcquired("t1", "lock:a");
+        detector.recordLockWaitStart("t2", "lock:a");
+        detector.syncLocalStateToGlobal();
+        // Redis不可用时积压超过上限，后续增量被丢弃
+        detector.recordLockAcquired("t3", "lock:c");
+        detector.recordLockWaitStart("t3", "lock:a");
+        detector.recordLockReleased("t3", "lock:c");
+        assertTrue(metric("pendingDeltas") <= properties.getMaxPendingDeltas());
+
+        redisAvailable = true;
+        detector.syncLocalStateToGlobal();
+
+        // 先清理本节点全局状态，再按当前等待图重放：t1 持有 lock:a，t2、t3 等待 lock:a
+        assertEquals(2, scriptCalls.size());
+        String[] published = scriptCalls.get(1);
+        assertEquals(3, published.length - 2);
+        assertTrue(metric("droppedDeltas") > 0);
+        assertEquals(0, metric("pendingDeltas"));
+    }
+
+    @Test
+    void reenablingGlobalDetectionRepublishesLocalState() {
+        detector.setGlobalDetectionEnabled(false);
+        detector.recordLockAcquired("t1", "lock:a");
+        detector.setGlobalDetectionEnabled(true);
+
+        detector.syncLocalStateToGlobal();
+
+        assertEquals(2, scriptCalls.size());
+        assertEquals(1, metric("publishedDeltas"));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void forceReleaseRemovesWaitEdgesAndPublishesRemovals() {
+        properties.setMaxPendingDeltas(10);
+        detector.recordLockAcquired("t1", "lock:a");
+        detector.recordLockWaitStart("t1", "lock:b");
+        detector.recordLockWaitStart("t2", "lock:b");
+
+        detector.forceReleaseThreadLocks("t1");
+
+        Map<String, Object> status = detector.getStatus();
+        assertFalse(((Map<String, ?>) status.get("threadWaits")).containsKey("t1"));
+        assertFalse(((Map<String, ?>) status.get("threadTimeouts")).containsKey("t1"));
+        assertEquals(Map.of("lock:b", Set.of("t2")), status.get("lockWaiters"));
+
+        // 持有、两条等待、释放持有、移除 t1 的等待：共5条增量
+        detector.syncLocalStateToGlobal();
+        assertEquals(5, metric("publishedDeltas"));
+    }
+
+    @SuppressWarnings("unchecked")
+    private long metric(String name) {
+        Map<String, Object> metrics = (Map<String, Object>) detector.getGlobalStatus().get("metrics");
+        return ((Number) metrics.get(name)).longValue();
+    }
+}
@@ -0,0 +1,105 @@
+package com.indigo.cache.extension.lock;
+
+import com.indigo.cache.infrastructure.RedisService;
+import com.indigo.cache.manager.CacheKeyGenerator;
+import com.indigo.core.utils.ThreadUtils;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.core.script.RedisScript;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * DistributedLockService 防护令牌租约测试
+ *
+ * @author 史偕成
+ * @date 2025/12/19
+ */
+class DistributedLockServiceLeaseTest {
+
+    private RedisService redisService;
+    private DistributedLockService lockService;
+
+    @BeforeEach
+    void setUp() {
+        redisService = mock(RedisService.class);
+        ThreadUtils threadUtils = mock(ThreadUtils.class);
+        lockService = new DistributedLockService(redisService, new CacheKeyGenerator(), threadUtils);
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        lockService.destroy();
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void tryLeaseReturnsTokenFromScript() {
+        when(redisService.executeScript(any(RedisScript.class), anyList(), any(String[].class))).thenReturn(42L);
+
+        long before = System.currentTimeMillis();
+        FencingLease lease = lockService.tryLease("order", "1001", 10);
+
+        assertNotNull(lease);
+        assertEquals(42L, lease.getFencingToken());
+        assertEquals("order", lease.getLockName());
+        assertEquals("1001", lease.getKey());
+        assertTrue(lease.getLockValue().startsWith(lockService.getNodeId() + ":"));
+        assertTrue(lease.getExpireAt() >= before + TimeUnit.SECONDS.toMillis(10));
+        assertFalse(lease.isExpired());
+
+        // 锁键与令牌计数器键在同一次脚本调用中传入
+        String lockKey = new CacheKeyGenerator().generate(CacheKeyGenerator.Module.LOCK, "order", "1001");
+        verify(redisService).executeScript(any(RedisScript.class), eq(List.of(lockKey, lockKey + ":fence")),
+                any(String[].class));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void tryLeaseFailsWhenLockHeldOrScriptFails() {
+        when(redisService.executeScript(any(RedisScript.class), anyList(), any(String[].class)))
+                .thenReturn(0L)
+                .thenReturn(null);
+
+        assertNull(lockService.tryLease("order", "1001", 10));
+        assertNull(lockService.tryLease("order", "1001", 10));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void releaseLeaseOnlySucceedsForHolder() {
+        FencingLease lease = new FencingLease("order", "1001", "node:1:uuid", 7L, System.currentTimeMillis() + 1000);
+        when(redisService.executeScript(any(RedisScript.class), anyList(), eq("node:1:uuid")))
+                .thenReturn(1L)
+                .thenReturn(0L);
+
+        assertTrue(lockService.releaseLease(lease));
+        assertFalse(lockService.releaseLease(lease));
+        assertFalse(lockService.releaseLease(null));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void executeWithLeasePassesTokenAndReleases() {
+        when(redisService.executeScript(any(RedisScript.class), anyList(), any(String[].class)))
+                .thenReturn(9L)
+                .thenReturn(1L);
+
+        Long seen = lockService.executeWithLease("order", "1001", 10, token -> token);
+
+        assertEquals(9L, seen);
+        verify(redisService, times(2)).executeScript(any(RedisScript.class), anyList(), any(String[].class));
+    }
+
+    @Test
+    void expiredLeaseIsReportedByLocalClock() {
+        FencingLease lease = new FencingLease("order", "1001", "v", 1L, System.currentTimeMillis() - 1);
+        assertTrue(lease.isExpired());
+    }
+}
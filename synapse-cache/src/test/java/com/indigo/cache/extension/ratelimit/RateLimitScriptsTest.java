@@ -0,0 +1,68 @@
+package com.indigo.cache.extension.ratelimit;
+
+import com.indigo.cache.manager.CacheKeyGenerator;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * RateLimitScripts 分层配额参数与结果解析测试
+ *
+ * @author 史偕成
+ * @date 2025/12/19
+ */
+class RateLimitScriptsTest {
+
+    @Test
+    void quotaScriptIsDefined() {
+        assertNotNull(RateLimitScripts.QUOTA.getScriptAsString());
+        assertEquals(List.class, RateLimitScripts.QUOTA.getResultType());
+    }
+
+    @Test
+    void quotaKeysIncludeWindowAndLimit() {
+        CacheKeyGenerator keyGenerator = new CacheKeyGenerator();
+        List<String> keys = RateLimitScripts.quotaKeys(keyGenerator, List.of(
+                QuotaRule.of("USER", "1001", 1, 10),
+                QuotaRule.of("USER", "1001", 60, 100),
+                QuotaRule.of("USER", "1001", 60, 200)));
+
+        assertEquals(3, keys.size());
+        assertEquals(3, keys.stream().distinct().count(), "同名同键但窗口或上限不同的配额不能共用TAT: " + keys);
+        assertTrue(keys.get(1).endsWith(":USER:1001:60s:100"), keys.get(1));
+    }
+
+    @Test
+    void quotaArgsCarryIntervalAndCapacityPerLevel() {
+        String[] args = RateLimitScripts.quotaArgs(List.of(
+                QuotaRule.of("GLOBAL", "global", 1, 1000),
+                QuotaRule.of("IP", "10.0.0.1", 60, 30)), 2);
+
+        assertArrayEquals(new String[]{"2", "1000", "1000", "2000000", "30"}, args);
+    }
+
+    @Test
+    void quotaResultReportsFirstViolatedLevel() {
+        QuotaRule global = QuotaRule.of("GLOBAL", "global", 1, 1000);
+        QuotaRule ip = QuotaRule.of("IP", "10.0.0.1", 60, 30);
+
+        QuotaResult result = RateLimitScripts.toQuotaResult(List.of(0L, 2L, 1500L, 999L, 1L, 0L, 60000L), List.of(global, ip));
+
+        assertFalse(result.isAllowed());
+        assertSame(ip, result.getViolatedRule());
+        assertEquals(1500L, result.getRetryAfterMillis());
+        assertEquals(2, result.getUsages().size());
+        assertSame(ip, result.getTightest().getRule());
+        assertEquals("2", result.toHeaders().get("Retry-After"));
+        assertEquals("30", result.toHeaders().get("X-RateLimit-Limit"));
+    }
+
+    @Test
+    void missingQuotaResultPermits() {
+        QuotaResult result = RateLimitScripts.toQuotaResult(null, List.of(QuotaRule.of("GLOBAL", "global", 1, 10)));
+        assertTrue(result.isAllowed());
+        assertNull(result.getViolatedRule());
+    }
+}
@@ -0,0 +1,80 @@
+package com.indigo.cache.extension.ratelimit;
+
+import com.indigo.cache.config.CacheProperties;
+import com.indigo.cache.infrastructure.RedisService;
+import com.indigo.cache.manager.CacheKeyGenerator;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.core.script.RedisScript;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * RateLimitService 测试
+ * 覆盖脚本的执行方式与本地预取许可的隔离
+ *
+ * @author 史偕成
+ * @date 2025/12/19
+ */
+class RateLimitServiceTest {
+
+    private RedisService redisService;
+    private RateLimitService rateLimitService;
+
+    @BeforeEach
+    void setUp() {
+        redisService = mock(RedisService.class);
+        CacheProperties.RateLimiter config = new CacheProperties.RateLimiter();
+        config.setLocalPrefetchEnabled(true);
+        config.setLocalPrefetchSize(5);
+        rateLimitService = new RateLimitService(redisService, new CacheKeyGenerator(), config);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void windowAlgorithmsRunStaticScripts() {
+        when(redisService.executeScript(any(RedisScript.class), anyList(), any(String[].class))).thenReturn(1L);
+
+        assertTrue(rateLimitService.slidingWindowLimit("api", 60, 10));
+        assertTrue(rateLimitService.tokenBucketLimit("api", 10, 1.0));
+        assertTrue(rateLimitService.fixedWindowLimit("api", 60, 10));
+
+        verify(redisService, times(3)).executeScript(any(RedisScript.class), anyList(), any(String[].class));
+        verify(redisService, never()).executeScript(anyString(), anyString(), any(String[].class));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void prefetchedPermitsAreNotSharedAcrossLimits() {
+        when(redisService.executeScript(any(RedisScript.class), anyList(), any(String[].class)))
+                .thenReturn(List.of(1L, 0L, 0L));
+
+        // 第一次调用预取5个许可，后续4次在本地消费
+        for (int i = 0; i < 5; i++) {
+            assertTrue(rateLimitService.tryAcquire("api", 1, 60, 100));
+        }
+        verify(redisService, times(1)).executeScript(any(RedisScript.class), anyList(), any(String[].class));
+
+        // 同一个键但上限不同，不能消费上面预取的许可
+        assertTrue(rateLimitService.tryAcquire("api", 1, 60, 10));
+        verify(redisService, times(2)).executeScript(any(RedisScript.class), anyList(), any(String[].class));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void resetDropsPrefetchedPermitsOfAllLimits() {
+        when(redisService.executeScript(any(RedisScript.class), anyList(), any(String[].class)))
+                .thenReturn(List.of(1L, 0L, 0L));
+        rateLimitService.tryAcquire("api", 1, 60, 100);
+        rateLimitService.tryAcquire("api", 1, 1, 10);
+
+        rateLimitService.reset("api", "GCRA");
+        rateLimitService.tryAcquire("api", 1, 60, 100);
+
+        verify(redisService, times(3)).executeScript(any(RedisScript.class), anyList(), any(String[].class));
+    }
+}
@@ -0,0 +1,157 @@
+package com.indigo.cache.session;
+
+import com.indigo.cache.infrastructure.RedisService;
+import com.indigo.cache.manager.CacheKeyGenerator;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.connection.RedisConnection;
+import org.springframework.data.redis.connection.RedisKeyCommands;
+import org.springframework.data.redis.connection.RedisStringCommands;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * AuthSnapshotLoader 测试
+ * 覆盖快照键、单机脚本读取以及集群模式下的管道读取与续期
+ *
+ * @author 史偕成
+ * @date 2025/12/19
+ */
+class AuthSnapshotLoaderTest {
+
+    private static final String SESSION_JSON = "{\"userId\":\"1001\"}";
+
+    private final CacheKeyGenerator keyGenerator = new CacheKeyGenerator();
+
+    private RedisService redisService;
+    private StringRedisTemplate template;
+    private RedisConnection connection;
+    private RedisKeyCommands keyCommands;
+    private AuthSnapshotLoader loader;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        redisService = mock(RedisService.class);
+        template = mock(StringRedisTemplate.class);
+        connection = mock(RedisConnection.class);
+        keyCommands = mock(RedisKeyCommands.class);
+        when(redisService.getStringRedisTemplate()).thenReturn(template);
+        when(connection.stringCommands()).thenReturn(mock(RedisStringCommands.class));
+        when(connection.keyCommands()).thenReturn(keyCommands);
+        loader = new AuthSnapshotLoader(redisService, keyGenerator, null, null, null);
+    }
+
+    @Test
+    void snapshotKeysFollowKeyFamilies() {
+        List<String> keys = loader.snapshotKeys("t1");
+
+        // 脚本按位置读取会话、权限、角色
+        assertEquals(key("session"), keys.get(0));
+        assertEquals(key("permissions"), keys.get(1));
+        assertEquals(key("roles"), keys.get(2));
+        assertEquals(AuthSnapshotLoader.KEY_FAMILIES.size(), keys.size());
+        assertTrue(keys.contains(key("token")));
+        assertTrue(keys.contains(key("systemMenuTree")));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void standaloneUsesSingleScript() {
+        when(redisService.executeScript(any(RedisScript.class), anyList(), any(String[].class)))
+                .thenReturn(Arrays.asList(SESSION_JSON, "[\"user:read\"]", "", 600L, 0L));
+
+        AuthSnapshot snapshot = loader.load("t1", 1800, 3600);
+
+        assertEquals("1001", snapshot.getUserContext().getUserId());
+        assertEquals(List.of("user:read"), snapshot.getPermissions());
+        assertNull(snapshot.getRoles());
+        verify(redisService).executeScript(eq(AuthSnapshotLoader.SNAPSHOT_SCRIPT), eq(loader.snapshotKeys("t1")),
+                eq("1800"), eq("3600"));
+        verify(template, never()).executePipelined(any(RedisCallback.class));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void clusterModeReadsWithPipelineWithoutRenewal() {
+        when(redisService.isClusterMode()).thenReturn(true);
+        List<Object> values = pipelineValues(3000L);
+        when(template.executePipelined(any(RedisCallback.class))).thenAnswer(invocation -> {
+            ((RedisCallback<Object>) invocation.getArgument(0)).doInRedis(connection);
+            return values;
+        });
+
+        AuthSnapshot snapshot = loader.load("t1", 1800, 3600);
+
+        assertEquals("1001", snapshot.getUserContext().getUserId());
+        assertEquals(3000L, snapshot.getRemainingSeconds());
+        assertFalse(snapshot.isRefreshed());
+        verify(redisService, never()).executeScript(any(RedisScript.class), anyList(), any(String[].class));
+        verify(template, times(1)).executePipelined(any(RedisCallback.class));
+        verify(keyCommands, never()).expire(any(byte[].class), anyLong());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void clusterModeRenewsOnlyKeysExpiringBeforeRenewal() {
+        when(redisService.isClusterMode()).thenReturn(true);
+        List<Object> values = pipelineValues(600L);
+        // token 键剩余时间已长于续期时长，menus 键不存在
+        values.set(3 + AuthSnapshotLoader.KEY_FAMILIES.indexOf("token"), 7200L);
+        values.set(3 + AuthSnapshotLoader.KEY_FAMILIES.indexOf("menus"), -2L);
+        when(template.executePipelined(any(RedisCallback.class))).thenAnswer(invocation -> {
+            ((RedisCallback<Object>) invocation.getArgument(0)).doInRedis(connection);
+            return values;
+        });
+
+        AuthSnapshot snapshot = loader.load("t1", 1800, 3600);
+
+        assertTrue(snapshot.isRefreshed());
+        assertEquals(3600L, snapshot.getRemainingSeconds());
+        verify(keyCommands).expire(bytes(key("session")), 3600L);
+        verify(keyCommands).expire(bytes(key("permissions")), 3600L);
+        verify(keyCommands, never()).expire(eq(bytes(key("token"))), anyLong());
+        verify(keyCommands, never()).expire(eq(bytes(key("menus"))), anyLong());
+        verify(keyCommands, times(AuthSnapshotLoader.KEY_FAMILIES.size() - 2)).expire(any(byte[].class), eq(3600L));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void clusterModeReturnsNullWhenSessionMissing() {
+        when(redisService.isClusterMode()).thenReturn(true);
+        List<Object> values = pipelineValues(-2L);
+        values.set(0, null);
+        when(template.executePipelined(any(RedisCallback.class))).thenReturn(values);
+
+        assertNull(loader.load("t1", 1800, 3600));
+    }
+
+    /**
+     * 管道读取结果：会话、权限、角色，之后为各键的剩余时间
+     */
+    private List<Object> pipelineValues(long ttl) {
+        List<Object> values = new ArrayList<>(Arrays.asList(SESSION_JSON, null, null));
+        for (int i = 0; i < AuthSnapshotLoader.KEY_FAMILIES.size(); i++) {
+            values.add(ttl);
+        }
+        return values;
+    }
+
+    private String key(String family) {
+        return keyGenerator.generate(CacheKeyGenerator.Module.USER, family, "t1");
+    }
+
+    private static byte[] bytes(String value) {
+        return value.getBytes(StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,213 @@
+package com.indigo.cache.session;
+
+import com.indigo.cache.core.CacheService;
+import com.indigo.cache.infrastructure.RedisService;
+import com.indigo.cache.manager.CacheKeyGenerator;
+import com.indigo.cache.session.impl.DefaultStatisticsManager;
+import com.indigo.core.context.UserContext;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InOrder;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * DefaultStatisticsManager 测试
+ *
+ * @author 史偕成
+ * @date 2025/12/19
+ */
+class DefaultStatisticsManagerTest {
+
+    private final CacheKeyGenerator keyGenerator = new CacheKeyGenerator();
+
+    private CacheService cacheService;
+    private RedisService redisService;
+    private SessionManager sessionManager;
+    private CachePermissionManager permissionManager;
+    private SessionIndex sessionIndex;
+    private SessionRevocationListener revocationListener;
+    private DefaultStatisticsManager statisticsManager;
+
+    @BeforeEach
+    void setUp() {
+        cacheService = mock(CacheService.class);
+        redisService = mock(RedisService.class);
+        sessionManager = mock(SessionManager.class);
+        permissionManager = mock(CachePermissionManager.class);
+        sessionIndex = mock(SessionIndex.class);
+        revocationListener = mock(SessionRevocationListener.class);
+        statisticsManager = new DefaultStatisticsManager(cacheService, keyGenerator, redisService, sessionManager,
+                permissionManager, sessionIndex);
+    }
+
+    @Test
+    void onlineUsersAreLoadedFromIndexedTokens() {
+        Map<String, Long> tokens = new LinkedHashMap<>();
+        tokens.put("t1", 100L);
+        tokens.put("t2", 200L);
+        when(sessionIndex.getOnlineTokens()).thenReturn(tokens);
+        UserContext user = UserContext.builder().userId("1001").build();
+        when(cacheService.getObject(session("t1"), UserContext.class)).thenReturn(user);
+
+        // t2 的会话已过期，不包含在结果中
+        assertEquals(List.of(user), statisticsManager.getOnlineUsers());
+        verify(redisService, never()).scan(anyString());
+    }
+
+    @Test
+    void countAndOnlineStatusUseIndex() {
+        when(sessionIndex.countOnline()).thenReturn(5L);
+        when(sessionIndex.isUserOnline("1001")).thenReturn(true);
+
+        assertEquals(5, statisticsManager.getOnlineUserCount());
+        assertTrue(statisticsManager.isUserOnline(1001L));
+        assertFalse(statisticsManager.isUserOnline(1002L));
+    }
+
+    @Test
+    void forceUserOfflineRemovesEveryIndexedToken() {
+        when(sessionIndex.getUserTokens("1001")).thenReturn(List.of("t1", "t2"));
+
+        assertTrue(statisticsManager.forceUserOffline(1001L));
+
+        verify(sessionManager).removeUserSession("t1");
+        verify(sessionManager).removeUserSession("t2");
+        verify(permissionManager).removeUserPermissions("t1");
+        verify(permissionManager).removeUserPermissions("t2");
+    }
+
+    @Test
+    void forceUserOfflineReturnsFalseWithoutSessions() {
+        when(sessionIndex.getUserTokens("1002")).thenReturn(List.of());
+
+        assertFalse(statisticsManager.forceUserOffline(1002L));
+        verifyNoInteractions(sessionManager);
+    }
+
+    @Test
+    void onlineDurationsComeFromIndexScores() {
+        Map<String, Long> tokens = new LinkedHashMap<>();
+        tokens.put("t1", 600L);
+        tokens.put("t2", 0L);
+        when(sessionIndex.getOnlineTokens()).thenReturn(tokens);
+        when(sessionIndex.getOwners(List.of("t1", "t2"))).thenReturn(Map.of("t1", "1001", "t2", "1002"));
+
+        Map<String, Long> durations = statisticsManager.getAllUsersOnlineDuration();
+
+        assertEquals(1, durations.size());
+        assertTrue(durations.containsKey("1001"));
+        verifyNoInteractions(cacheService);
+    }
+
+    @Test
+    void forceUserOfflineRevokesBeforeRemovingSessions() {
+        DefaultStatisticsManager manager = withRevocationListener();
+        when(sessionIndex.getUserTokens("1001")).thenReturn(List.of("t1", "t2"));
+
+        assertTrue(manager.forceUserOffline(1001L));
+
+        InOrder inOrder = inOrder(revocationListener, sessionManager);
+        inOrder.verify(revocationListener).onUserSessionsRevoked(List.of("1001"));
+        inOrder.verify(sessionManager).removeUserSession("t1");
+        verify(sessionManager).removeUserSession("t2");
+        verify(permissionManager).removeUserPermissions("t2");
+    }
+
+    @Test
+    void forceUserOfflineRevokesUsersWithoutServerSessions() {
+        DefaultStatisticsManager manager = withRevocationListener();
+        when(sessionIndex.getUserTokens("1002")).thenReturn(List.of());
+
+        // 没有服务端会话的用户也可能持有签名 Token，吊销即视为成功
+        assertTrue(manager.forceUserOffline(1002L));
+        verify(revocationListener).onUserSessionsRevoked(List.of("1002"));
+    }
+
+    @Test
+    void revocationFailureReportsFailure() {
+        DefaultStatisticsManager manager = withRevocationListener();
+        doThrow(new IllegalStateException("redis down")).when(revocationListener).onUserSessionsRevoked(anyCollection());
+
+        assertFalse(manager.forceUserOffline(1001L));
+        verify(sessionIndex, never()).getUserTokens(anyString());
+        verifyNoInteractions(sessionManager);
+    }
+
+    @Test
+    void forceUsersOfflineWithoutBulkOperationsRevokesEachUser() {
+        DefaultStatisticsManager manager = withRevocationListener();
+        when(sessionIndex.getUserTokens(anyString())).thenReturn(List.of());
+
+        assertEquals(2, manager.forceUsersOffline(List.of(1001L, 1002L)));
+
+        verify(revocationListener).onUserSessionsRevoked(List.of("1001"));
+        verify(revocationListener).onUserSessionsRevoked(List.of("1002"));
+    }
+
+    @Test
+    void forceUsersOfflineUsesBulkOperations() {
+        SessionBulkOperations bulkOperations = mock(SessionBulkOperations.class);
+        when(bulkOperations.forceOffline(anyCollection(), isNull())).thenReturn(
+                new SessionBulkOperations.BulkResult(2, 2, 3, 3, 0, 10L, List.of()));
+        DefaultStatisticsManager manager = withBulkOperations(bulkOperations);
+
+        assertEquals(2, manager.forceUsersOffline(List.of(1001L, 1002L)));
+
+        verify(bulkOperations).forceOffline(List.of("1001", "1002"), null);
+        verifyNoInteractions(sessionManager, revocationListener);
+    }
+
+    @Test
+    void forceUsersOfflineRetriesUsersOfFailedBatches() {
+        SessionBulkOperations bulkOperations = mock(SessionBulkOperations.class);
+        when(bulkOperations.forceOffline(anyCollection(), isNull())).thenReturn(
+                new SessionBulkOperations.BulkResult(3, 3, 3, 2, 1, 10L, List.of("1003")));
+        when(sessionIndex.getUserTokens("1003")).thenReturn(List.of("t3"));
+        DefaultStatisticsManager manager = withBulkOperations(bulkOperations);
+
+        assertEquals(3, manager.forceUsersOffline(List.of(1001L, 1002L, 1003L)));
+
+        verify(revocationListener).onUserSessionsRevoked(List.of("1003"));
+        verify(sessionManager).removeUserSession("t3");
+    }
+
+    @Test
+    void forceUsersOfflineFallsBackWhenBulkOperationsFail() {
+        SessionBulkOperations bulkOperations = mock(SessionBulkOperations.class);
+        when(bulkOperations.forceOffline(anyCollection(), isNull())).thenThrow(new IllegalStateException("redis down"));
+        when(sessionIndex.getUserTokens("1001")).thenReturn(List.of("t1"));
+        DefaultStatisticsManager manager = withBulkOperations(bulkOperations);
+
+        assertEquals(1, manager.forceUsersOffline(List.of(1001L)));
+
+        verify(sessionManager).removeUserSession("t1");
+    }
+
+    private DefaultStatisticsManager withBulkOperations(SessionBulkOperations bulkOperations) {
+        return DefaultStatisticsManager.builder(cacheService, keyGenerator, redisService, sessionManager,
+                        permissionManager)
+                .sessionIndex(sessionIndex)
+                .sessionBulkOperations(bulkOperations)
+                .revocationListeners(List.of(revocationListener))
+                .build();
+    }
+
+    private DefaultStatisticsManager withRevocationListener() {
+        return DefaultStatisticsManager.builder(cacheService, keyGenerator, redisService, sessionManager,
+                        permissionManager)
+                .sessionIndex(sessionIndex)
+                .revocationListeners(List.of(revocationListener))
+                .build();
+    }
+
+    private String session(String token) {
+        return keyGenerator.generate(CacheKeyGenerator.Module.USER, "session", token);
+    }
+}
@@ -0,0 +1,97 @@
+package com.indigo.cache.session;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * PermissionDictionary 与 PermissionMask 测试
+ * 覆盖编码驻留、AND/OR 位运算以及按 token 缓存的编译结果
+ *
+ * @author 史偕成
+ * @date 2025/12/19
+ */
+class PermissionDictionaryTest {
+
+    private final PermissionDictionary dictionary = new PermissionDictionary();
+
+    @Test
+    void internAssignsStableDenseIds() {
+        int read = dictionary.intern("user:read");
+        int write = dictionary.intern("user:write");
+
+        assertEquals(read, dictionary.intern("user:read"));
+        assertNotEquals(read, write);
+        assertEquals(read, dictionary.idOf("user:read"));
+        assertEquals(-1, dictionary.idOf("user:delete"));
+        assertEquals(-1, dictionary.idOf(null));
+        assertEquals(2, dictionary.size());
+    }
+
+    @Test
+    void containsAllAndIntersectsMatchListSemantics() {
+        PermissionMask user = dictionary.compile("user:read", "user:write", "order:read");
+
+        assertTrue(user.containsAll(dictionary.compile("user:read", "order:read")));
+        assertFalse(user.containsAll(dictionary.compile("user:read", "user:delete")));
+        assertTrue(user.intersects(dictionary.compile("user:delete", "order:read")));
+        assertFalse(user.intersects(dictionary.compile("user:delete", "order:write")));
+        assertEquals(3, user.cardinality());
+    }
+
+    @Test
+    void masksSpanningSeveralWordsCompareWordWise() {
+        List<String> many = new ArrayList<>();
+        for (int i = 0; i < 130; i++) {
+            many.add("p" + i);
+        }
+        PermissionMask user = dictionary.compile(many);
+
+        // 第 130 个编码位于第三个 long 中
+        assertTrue(user.containsAll(dictionary.compile("p0", "p129")));
+        assertTrue(user.contains(dictionary.idOf("p129")));
+        // 用户位图比要求位图短时，高位视为缺失
+        assertFalse(dictionary.compile("p0").containsAll(dictionary.compile("p0", "p129")));
+        assertFalse(dictionary.compile("p0").intersects(dictionary.compile("p129")));
+    }
+
+    @Test
+    void emptyRequirementSemantics() {
+        PermissionMask user = dictionary.compile("user:read");
+
+        assertTrue(user.containsAll(PermissionMask.EMPTY));
+        assertFalse(user.intersects(PermissionMask.EMPTY));
+        assertTrue(PermissionMask.EMPTY.isEmpty());
+        assertSame(PermissionMask.EMPTY, dictionary.compile());
+        assertSame(PermissionMask.EMPTY, dictionary.permissionsOf("t1", List.of()));
+        assertFalse(user.contains(-1));
+    }
+
+    @Test
+    void compiledMaskIsReusedForSameListInstance() {
+        List<String> permissions = new ArrayList<>(List.of("user:read"));
+
+        PermissionMask first = dictionary.permissionsOf("t1", permissions);
+
+        assertSame(first, dictionary.permissionsOf("t1", permissions));
+        // 本地缓存重新加载后得到新的列表实例，重新编译
+        PermissionMask reloaded = dictionary.permissionsOf("t1", List.of("user:read", "user:write"));
+        assertNotSame(first, reloaded);
+        assertTrue(reloaded.contains(dictionary.idOf("user:write")));
+    }
+
+    @Test
+    void permissionAndRoleMasksAreCachedSeparately() {
+        List<String> codes = List.of("admin");
+
+        PermissionMask permissions = dictionary.permissionsOf("t1", codes);
+        PermissionMask roles = dictionary.rolesOf("t1", codes);
+        dictionary.evict("t1");
+
+        assertNotSame(permissions, dictionary.permissionsOf("t1", codes));
+        assertNotSame(roles, dictionary.rolesOf("t1", codes));
+    }
+}
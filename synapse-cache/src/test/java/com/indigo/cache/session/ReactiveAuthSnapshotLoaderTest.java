@@ -0,0 +1,84 @@
+package com.indigo.cache.session;
+
+import com.indigo.core.context.UserContext;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.core.ReactiveStringRedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
+import reactor.core.publisher.Flux;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * ReactiveAuthSnapshotLoader 测试
+ * 覆盖本地缓存命中、单机脚本读取以及集群下转为管道读取
+ *
+ * @author 史偕成
+ * @date 2025/12/19
+ */
+class ReactiveAuthSnapshotLoaderTest {
+
+    private ReactiveStringRedisTemplate redisTemplate;
+    private AuthSnapshotLoader snapshotLoader;
+    private ReactiveAuthSnapshotLoader loader;
+
+    @BeforeEach
+    void setUp() {
+        redisTemplate = mock(ReactiveStringRedisTemplate.class);
+        snapshotLoader = mock(AuthSnapshotLoader.class);
+        loader = new ReactiveAuthSnapshotLoader(redisTemplate, snapshotLoader);
+    }
+
+    @Test
+    void localHitDoesNotTouchRedis() {
+        AuthSnapshot local = snapshot(false);
+        when(snapshotLoader.loadLocal(eq("t1"), anyLong(), anyLong())).thenReturn(local);
+
+        assertSame(local, loader.load("t1").block());
+        verifyNoInteractions(redisTemplate);
+    }
+
+    @Test
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    void standaloneRunsSnapshotScript() {
+        List<String> keys = List.of("k1", "k2", "k3");
+        List<Object> result = List.of("{}", "", "", 3600L, 0L);
+        AuthSnapshot snapshot = snapshot(false);
+        when(snapshotLoader.snapshotKeys("t1")).thenReturn(keys);
+        when(redisTemplate.execute(any(RedisScript.class), eq(keys), anyList())).thenReturn(Flux.just(result));
+        when(snapshotLoader.fromScriptResult(eq("t1"), eq(result), anyLong())).thenReturn(snapshot);
+
+        assertSame(snapshot, loader.load("t1").block());
+        verify(snapshotLoader, never()).load(anyString(), anyLong(), anyLong());
+        verify(snapshotLoader, never()).touchIndex(anyString(), anyLong());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void clusterModeUsesPipelinedLoadOffTheEventLoop() {
+        AuthSnapshot snapshot = snapshot(true);
+        when(snapshotLoader.isClusterMode()).thenReturn(true);
+        when(snapshotLoader.load(eq("t1"), anyLong(), anyLong())).thenAnswer(invocation -> {
+            assertTrue(Thread.currentThread().getName().startsWith("boundedElastic"));
+            return snapshot;
+        });
+
+        assertSame(snapshot, loader.load("t1").block());
+        // 快照脚本的键跨槽位，集群下不能执行
+        verify(redisTemplate, never()).execute(any(RedisScript.class), anyList(), anyList());
+    }
+
+    @Test
+    void nullTokenIsEmpty() {
+        assertNull(loader.load(null).block());
+        verifyNoInteractions(snapshotLoader);
+    }
+
+    private static AuthSnapshot snapshot(boolean refreshed) {
+        return new AuthSnapshot(UserContext.builder().userId("1001").build(), null, null, 3600, refreshed);
+    }
+}
@@ -0,0 +1,139 @@
+package com.indigo.cache.session;
+
+import com.indigo.cache.config.CacheProperties;
+import com.indigo.cache.infrastructure.RedisService;
+import com.indigo.cache.manager.CacheKeyGenerator;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.connection.RedisConnection;
+import org.springframework.data.redis.connection.RedisHyperLogLogCommands;
+import org.springframework.data.redis.connection.RedisKeyCommands;
+import org.springframework.data.redis.connection.RedisStringCommands;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * SessionAnalytics 测试
+ * 覆盖日活 Bitmap 偏移量以及并发写入与刷新
+ *
+ * @author 史偕成
+ * @date 2025/12/19
+ */
+class SessionAnalyticsTest {
+
+    private RedisService redisService;
+    private StringRedisTemplate template;
+    private SessionAnalytics analytics;
+
+    @BeforeEach
+    void setUp() {
+        redisService = mock(RedisService.class);
+        template = mock(StringRedisTemplate.class);
+        when(redisService.getStringRedisTemplate()).thenReturn(template);
+        CacheProperties.SessionAnalytics config = new CacheProperties.SessionAnalytics();
+        config.setFlushIntervalMillis(60_000);
+        config.setMaxBitmapOffset(1000);
+        analytics = new SessionAnalytics(redisService, new CacheKeyGenerator(), config);
+    }
+
+    @AfterEach
+    void tearDown() {
+        analytics.shutdown();
+    }
+
+    @Test
+    void disabledByDefault() {
+        assertFalse(new CacheProperties.SessionAnalytics().isEnabled());
+    }
+
+    @Test
+    void offsetLimitedByMaxBitmapOffset() {
+        assertEquals(0, analytics.parseOffset("0"));
+        assertEquals(1000, analytics.parseOffset("1000"));
+        assertEquals(-1, analytics.parseOffset("1001"));
+        assertEquals(-1, analytics.parseOffset(String.valueOf(0xFFFFFFFFL)));
+        assertEquals(-1, analytics.parseOffset("-1"));
+        assertEquals(-1, analytics.parseOffset("alice"));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void largeAndNonNumericIdsGoToHyperLogLog() {
+        RedisConnection connection = mock(RedisConnection.class);
+        RedisStringCommands stringCommands = mock(RedisStringCommands.class);
+        RedisHyperLogLogCommands hllCommands = mock(RedisHyperLogLogCommands.class);
+        when(connection.stringCommands()).thenReturn(stringCommands);
+        when(connection.hyperLogLogCommands()).thenReturn(hllCommands);
+        when(connection.keyCommands()).thenReturn(mock(RedisKeyCommands.class));
+        when(template.executePipelined(any(RedisCallback.class))).thenAnswer(invocation -> {
+            ((RedisCallback<Object>) invocation.getArgument(0)).doInRedis(connection);
+            return null;
+        });
+
+        analytics.recordActivity("42");
+        analytics.recordActivity("4294967295");
+        analytics.recordActivity("alice");
+        analytics.flush();
+
+        verify(stringCommands).setBit(any(byte[].class), eq(42L), eq(true));
+        verify(stringCommands, never()).setBit(any(byte[].class), eq(4294967295L), anyBoolean());
+        // 超出范围和非数字的两个用户ID记入当日 HyperLogLog
+        verify(hllCommands).pfAdd(argThat(key -> new String(key, StandardCharsets.UTF_8).contains(":active:dh:")),
+                any(byte[].class), any(byte[].class));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void concurrentLoginsAreNotLostDuringFlush() throws Exception {
+        RedisConnection connection = mock(RedisConnection.class);
+        RedisStringCommands stringCommands = mock(RedisStringCommands.class);
+        when(connection.stringCommands()).thenReturn(stringCommands);
+        when(connection.hyperLogLogCommands()).thenReturn(mock(RedisHyperLogLogCommands.class));
+        when(connection.keyCommands()).thenReturn(mock(RedisKeyCommands.class));
+        AtomicLong flushedLogins = new AtomicLong();
+        when(stringCommands.incrBy(any(byte[].class), anyLong())).thenAnswer(invocation -> {
+            // 分钟与小时计数器各写一次，只统计分钟键
+            if (new String((byte[]) invocation.getArgument(0), StandardCharsets.UTF_8).contains(":login:m:")) {
+                flushedLogins.addAndGet(invocation.getArgument(1));
+            }
+            return null;
+        });
+        when(template.executePipelined(any(RedisCallback.class))).thenAnswer(invocation -> {
+            ((RedisCallback<Object>) invocation.getArgument(0)).doInRedis(connection);
+            return null;
+        });
+
+        int threads = 4;
+        int perThread = 5000;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CountDownLatch done = new CountDownLatch(threads);
+        for (int t = 0; t < threads; t++) {
+            executor.execute(() -> {
+                for (int i = 0; i < perThread; i++) {
+                    analytics.recordLogin("1");
+                }
+                done.countDown();
+            });
+        }
+        while (done.getCount() > 0) {
+            analytics.flush();
+        }
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(10, TimeUnit.SECONDS));
+        analytics.flush();
+
+        assertEquals((long) threads * perThread, flushedLogins.get());
+    }
+}
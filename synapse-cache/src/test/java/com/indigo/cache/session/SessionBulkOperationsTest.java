@@ -0,0 +1,188 @@
+package com.indigo.cache.session;
+
+import com.indigo.cache.config.CacheProperties;
+import com.indigo.cache.core.CacheInvalidationService;
+import com.indigo.cache.infrastructure.RedisService;
+import com.indigo.cache.manager.CacheKeyGenerator;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * SessionBulkOperations 测试
+ *
+ * @author 史偕成
+ * @date 2025/12/19
+ */
+class SessionBulkOperationsTest {
+
+    private RedisService redisService;
+    private StringRedisTemplate template;
+    private SessionIndex sessionIndex;
+    private CacheInvalidationService invalidationService;
+    private SessionRevocationListener revocationListener;
+    private CacheProperties.SessionBulk config;
+    private SessionBulkOperations bulkOperations;
+
+    @BeforeEach
+    void setUp() {
+        redisService = mock(RedisService.class);
+        template = mock(StringRedisTemplate.class);
+        when(redisService.getStringRedisTemplate()).thenReturn(template);
+        sessionIndex = mock(SessionIndex.class);
+        invalidationService = mock(CacheInvalidationService.class);
+        revocationListener = mock(SessionRevocationListener.class);
+        config = new CacheProperties.SessionBulk();
+        config.setBatchSize(2);
+        bulkOperations = build();
+    }
+
+    @AfterEach
+    void tearDown() {
+        bulkOperations.shutdown();
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void forceOfflineRevokesAllRequestedUsers() {
+        // 1002 没有服务端会话（仅持有签名 Token），同样需要吊销
+        when(sessionIndex.getUsersTokens(anyCollection())).thenReturn(Map.of("1001", List.of("t1")));
+
+        SessionBulkOperations.BulkResult result = bulkOperations.forceOffline(List.of("1001", "1002"), null);
+
+        verify(revocationListener).onUserSessionsRevoked(Set.of("1001", "1002"));
+        verify(template).executePipelined(any(RedisCallback.class));
+        verify(sessionIndex).removeSessions(List.of("t1"));
+        assertEquals(2, result.users());
+        assertEquals(1, result.onlineUsers());
+        assertEquals(0, result.failedBatches());
+    }
+
+    @Test
+    void revocationFailureAbortsForceOffline() {
+        doThrow(new IllegalStateException("redis down")).when(revocationListener).onUserSessionsRevoked(anyCollection());
+
+        assertThrows(IllegalStateException.class, () -> bulkOperations.forceOffline(List.of("1001"), null));
+        verify(sessionIndex, never()).getUsersTokens(anyCollection());
+    }
+
+    @Test
+    void forceOfflineReportsUsersOfFailedBatches() {
+        Map<String, List<String>> userTokens = new LinkedHashMap<>();
+        userTokens.put("1001", List.of("t1", "t2"));
+        userTokens.put("1002", List.of("t3"));
+        when(sessionIndex.getUsersTokens(anyCollection())).thenReturn(userTokens);
+        doThrow(new IllegalStateException("redis down")).when(sessionIndex).removeSessions(List.of("t3"));
+
+        SessionBulkOperations.BulkResult result = bulkOperations.forceOffline(List.of("1001", "1002"), null);
+
+        assertEquals(1, result.failedBatches());
+        assertEquals(List.of("1002"), result.failedUsers());
+        assertEquals(2, result.affected());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void updatePermissionsMergesInOneScriptCall() {
+        when(sessionIndex.getUsersTokens(anyCollection())).thenReturn(Map.of("1001", List.of("t1")));
+        when(template.execute(eq(SessionBulkOperations.UPDATE_LISTS_SCRIPT), anyList(), any(Object[].class)))
+                .thenReturn(List.of(1L, "[\"a\",\"b\"]"));
+        String key = new CacheKeyGenerator().generate(CacheKeyGenerator.Module.USER, "permissions", "t1");
+
+        SessionBulkOperations.BulkResult result = bulkOperations.updatePermissions(List.of("1001"),
+                List.of("b"), List.of("c"), null);
+
+        verify(template).execute(eq(SessionBulkOperations.UPDATE_LISTS_SCRIPT), eq(List.of(key)),
+                eq("1"), eq("b"), eq("c"));
+        verify(template, never()).executePipelined(any(RedisCallback.class));
+        assertEquals(1, result.affected());
+        assertEquals(0, result.failedBatches());
+    }
+
+    @Test
+    void updateRolesRefreshesRoleIndexWithMergedRoles() {
+        when(sessionIndex.getUsersTokens(anyCollection())).thenReturn(Map.of("1001", List.of("t1")));
+        when(template.execute(eq(SessionBulkOperations.UPDATE_LISTS_SCRIPT), anyList(), any(Object[].class)))
+                .thenReturn(List.of(1L, "[\"admin\",\"ops\"]"));
+
+        bulkOperations.updateRoles(List.of("1001"), List.of("ops"), null, null);
+
+        verify(sessionIndex).setRoles("t1", List.of("admin", "ops"));
+    }
+
+    @Test
+    void scriptFailureMarksBatchFailed() {
+        when(sessionIndex.getUsersTokens(anyCollection())).thenReturn(Map.of("1001", List.of("t1")));
+        when(template.execute(eq(SessionBulkOperations.UPDATE_LISTS_SCRIPT), anyList(), any(Object[].class)))
+                .thenThrow(new IllegalStateException("redis down"));
+
+        SessionBulkOperations.BulkResult result = bulkOperations.updatePermissions(List.of("1001"),
+                List.of("a"), null, null);
+
+        assertEquals(1, result.failedBatches());
+        assertEquals(List.of("1001"), result.failedUsers());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void clusterModeMergesEachKeyInOnePipeline() {
+        when(redisService.isClusterMode()).thenReturn(true);
+        when(sessionIndex.getUsersTokens(anyCollection())).thenReturn(Map.of("1001", List.of("t1", "t2")));
+        // t1 变更，t2 的键不存在或无需变更
+        when(template.executePipelined(any(RedisCallback.class)))
+                .thenReturn(List.of(List.of(1L, "[\"admin\",\"ops\"]"), List.of()));
+
+        SessionBulkOperations.BulkResult result = bulkOperations.updateRoles(List.of("1001"), List.of("ops"),
+                null, null);
+
+        // 集群下各 token 的键位于不同槽位，不能使用整批的多键脚本
+        verify(template, never()).execute(eq(SessionBulkOperations.UPDATE_LISTS_SCRIPT), anyList(), any(Object[].class));
+        verify(template).executePipelined(any(RedisCallback.class));
+        verify(sessionIndex).setRoles("t1", List.of("admin", "ops"));
+        verify(sessionIndex, never()).setRoles(eq("t2"), anyList());
+        assertEquals(1, result.affected());
+    }
+
+    @Test
+    void invalidationIsPublishedPerKeyByDefault() {
+        when(sessionIndex.getUsersTokens(anyCollection())).thenReturn(Map.of("1001", List.of("t1", "t2")));
+
+        bulkOperations.forceOffline(List.of("1001"), null);
+
+        // 默认逐键发布，滚动升级期间旧版本节点同样能收到
+        verify(invalidationService, atLeastOnce()).publishInvalidationBatch(anyString(), eq(Set.of("t1", "t2")));
+        verify(invalidationService, never()).publishMergedInvalidation(anyString(), anySet());
+    }
+
+    @Test
+    void mergedInvalidationIsOptIn() {
+        bulkOperations.shutdown();
+        config.setMergedInvalidation(true);
+        bulkOperations = build();
+        when(sessionIndex.getUsersTokens(anyCollection())).thenReturn(Map.of("1001", List.of("t1", "t2")));
+
+        bulkOperations.forceOffline(List.of("1001"), null);
+
+        verify(invalidationService, atLeastOnce()).publishMergedInvalidation(anyString(), eq(Set.of("t1", "t2")));
+        verify(invalidationService, never()).publishInvalidationBatch(anyString(), anySet());
+    }
+
+    private SessionBulkOperations build() {
+        return SessionBulkOperations.builder(redisService, new CacheKeyGenerator(), sessionIndex)
+                .invalidationService(invalidationService)
+                .config(config)
+                .revocationListeners(List.of(revocationListener))
+                .build();
+    }
+}
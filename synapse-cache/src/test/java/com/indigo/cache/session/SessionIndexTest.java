@@ -0,0 +1,176 @@
+package com.indigo.cache.session;
+
+import com.indigo.cache.infrastructure.RedisService;
+import com.indigo.cache.manager.CacheKeyGenerator;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.data.redis.connection.ClusterSlotHashUtil;
+import org.springframework.data.redis.connection.RedisConnection;
+import org.springframework.data.redis.connection.RedisHashCommands;
+import org.springframework.data.redis.connection.RedisSetCommands;
+import org.springframework.data.redis.connection.RedisZSetCommands;
+import org.springframework.data.redis.core.HashOperations;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.ZSetOperations;
+import org.springframework.data.redis.core.script.RedisScript;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * SessionIndex 测试
+ * 覆盖索引键、脚本参数、查询结果的解析以及集群下的批量移除
+ *
+ * @author 史偕成
+ * @date 2025/12/19
+ */
+class SessionIndexTest {
+
+    private static final String PREFIX = "synapse:user:{online}";
+
+    private RedisService redisService;
+    private StringRedisTemplate redisTemplate;
+    private SessionIndex sessionIndex;
+
+    @BeforeEach
+    void setUp() {
+        redisService = mock(RedisService.class);
+        redisTemplate = mock(StringRedisTemplate.class);
+        when(redisService.getStringRedisTemplate()).thenReturn(redisTemplate);
+        sessionIndex = new SessionIndex(redisService, new CacheKeyGenerator());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void addSessionPassesIndexKeysAndExpiry() {
+        long before = System.currentTimeMillis();
+        sessionIndex.addSession("t1", "u1", 60);
+
+        ArgumentCaptor<List<String>> keys = ArgumentCaptor.forClass(List.class);
+        ArgumentCaptor<String> args = ArgumentCaptor.forClass(String.class);
+        verify(redisService).executeScript(any(RedisScript.class), keys.capture(), args.capture());
+
+        // 所有键共享 {online} hash tag，集群下位于同一槽位
+        assertEquals(List.of(PREFIX, PREFIX + ":owner", PREFIX + ":roles"), keys.getValue());
+        List<String> values = args.getAllValues();
+        assertEquals(List.of("t1", PREFIX, "u1"), values.subList(0, 3));
+        assertTrue(Long.parseLong(values.get(3)) >= before + 60_000);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void setRolesSkipsBlankAndCommaRoles() {
+        sessionIndex.setRoles("t1", Arrays.asList("admin", null, "", "a,b", "user"));
+
+        ArgumentCaptor<String> args = ArgumentCaptor.forClass(String.class);
+        verify(redisService).executeScript(any(RedisScript.class), anyList(), args.capture());
+        assertEquals(List.of("t1", PREFIX, "admin", "user"), args.getAllValues());
+    }
+
+    @Test
+    void ignoresNullTokens() {
+        sessionIndex.addSession(null, "u1", 60);
+        sessionIndex.removeSession(null);
+        sessionIndex.setRoles(null, List.of("admin"));
+        sessionIndex.touch(null, 60);
+
+        verifyNoInteractions(redisService);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void userTokensAreFilteredByScript() {
+        when(redisService.executeScript(any(RedisScript.class), eq(List.of(PREFIX + ":user:u1", PREFIX)), anyString()))
+                .thenReturn(List.of("t1", "t2"));
+
+        assertEquals(List.of("t1", "t2"), sessionIndex.getUserTokens("u1"));
+        assertTrue(sessionIndex.isUserOnline("u1"));
+        assertFalse(sessionIndex.isUserOnline("u2"));
+        assertTrue(sessionIndex.getUserTokens(null).isEmpty());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void countOnlineCountsUnexpiredScores() {
+        ZSetOperations<String, String> zSet = mock(ZSetOperations.class);
+        when(redisTemplate.opsForZSet()).thenReturn(zSet);
+        when(zSet.count(eq(PREFIX), anyDouble(), eq(Double.POSITIVE_INFINITY))).thenReturn(3L);
+
+        assertEquals(3, sessionIndex.countOnline());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void ownersSkipTokensWithoutRecord() {
+        HashOperations<String, Object, Object> hash = mock(HashOperations.class);
+        when(redisTemplate.opsForHash()).thenReturn(hash);
+        when(hash.multiGet(PREFIX + ":owner", List.of("t1", "t2"))).thenReturn(Arrays.asList("u1", null));
+
+        assertEquals(Map.of("t1", "u1"), sessionIndex.getOwners(List.of("t1", "t2")));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void removeSessionsRunsOneScriptOnStandalone() {
+        sessionIndex.removeSessions(List.of("t1", "t2"));
+
+        verify(redisTemplate).execute(any(RedisScript.class), eq(List.of(PREFIX, PREFIX + ":owner", PREFIX + ":roles")),
+                eq(PREFIX), eq("t1"), eq("t2"));
+        verify(redisTemplate, never()).executePipelined(any(RedisCallback.class));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void removeSessionsUsesPipelineOnCluster() {
+        when(redisService.isClusterMode()).thenReturn(true);
+        HashOperations<String, Object, Object> hash = mock(HashOperations.class);
+        when(redisTemplate.opsForHash()).thenReturn(hash);
+        when(hash.multiGet(PREFIX + ":owner", List.of("t1", "t2"))).thenReturn(Arrays.asList("u1", null));
+        when(hash.multiGet(PREFIX + ":roles", List.of("t1", "t2"))).thenReturn(Arrays.asList("admin,ops", null));
+        RedisConnection connection = mock(RedisConnection.class);
+        RedisZSetCommands zSetCommands = mock(RedisZSetCommands.class);
+        RedisHashCommands hashCommands = mock(RedisHashCommands.class);
+        RedisSetCommands setCommands = mock(RedisSetCommands.class);
+        when(connection.zSetCommands()).thenReturn(zSetCommands);
+        when(connection.hashCommands()).thenReturn(hashCommands);
+        when(connection.setCommands()).thenReturn(setCommands);
+        when(redisTemplate.executePipelined(any(RedisCallback.class))).thenAnswer(invocation -> {
+            invocation.<RedisCallback<Object>>getArgument(0).doInRedis(connection);
+            return List.of();
+        });
+
+        sessionIndex.removeSessions(List.of("t1", "t2"));
+
+        verify(redisTemplate, never()).execute(any(RedisScript.class), anyList(), any(Object[].class));
+        verify(setCommands).sRem(aryEq(bytes(PREFIX + ":user:u1")), aryEq(bytes("t1")));
+        verify(setCommands).sRem(aryEq(bytes(PREFIX + ":role:admin")), aryEq(bytes("t1")));
+        verify(setCommands).sRem(aryEq(bytes(PREFIX + ":role:ops")), aryEq(bytes("t1")));
+        verifyNoMoreInteractions(setCommands);
+        // 集群下管道中的所有键共享 {online} hash tag，位于同一槽位
+        int slot = ClusterSlotHashUtil.calculateSlot(PREFIX);
+        assertEquals(slot, ClusterSlotHashUtil.calculateSlot(PREFIX + ":user:u1"));
+        assertEquals(slot, ClusterSlotHashUtil.calculateSlot(PREFIX + ":role:admin"));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void removeSessionsPropagatesFailures() {
+        when(redisTemplate.execute(any(RedisScript.class), anyList(), any(Object[].class)))
+                .thenThrow(new IllegalStateException("redis down"));
+
+        // 批量下线依赖异常把批次记为失败，不能像单个会话那样吞掉异常
+        assertThrows(IllegalStateException.class, () -> sessionIndex.removeSessions(List.of("t1")));
+    }
+
+    private static byte[] bytes(String value) {
+        return value.getBytes(StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,172 @@
+package com.indigo.cache.session;
+
+import com.indigo.cache.config.CacheProperties;
+import com.indigo.cache.infrastructure.RedisService;
+import com.indigo.cache.manager.CacheKeyGenerator;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.RedisConnectionFailureException;
+import org.springframework.data.redis.connection.RedisConnection;
+import org.springframework.data.redis.connection.RedisKeyCommands;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * SessionRenewalQueue 测试
+ * 覆盖管道续期、失败重试以及续期回调
+ *
+ * @author 史偕成
+ * @date 2025/12/19
+ */
+class SessionRenewalQueueTest {
+
+    private static final int WIDTH = AuthSnapshotLoader.KEY_FAMILIES.size();
+
+    private final CacheKeyGenerator keyGenerator = new CacheKeyGenerator();
+
+    private RedisService redisService;
+    private StringRedisTemplate template;
+    private RedisKeyCommands keyCommands;
+    private SessionRenewalQueue queue;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        redisService = mock(RedisService.class);
+        template = mock(StringRedisTemplate.class);
+        keyCommands = mock(RedisKeyCommands.class);
+        RedisConnection connection = mock(RedisConnection.class);
+        when(connection.keyCommands()).thenReturn(keyCommands);
+        when(redisService.getStringRedisTemplate()).thenReturn(template);
+        when(template.executePipelined(any(RedisCallback.class))).thenAnswer(invocation -> {
+            ((RedisCallback<Object>) invocation.getArgument(0)).doInRedis(connection);
+            return Collections.emptyList();
+        });
+        CacheProperties.SessionRenewal config = new CacheProperties.SessionRenewal();
+        config.setFlushIntervalMillis(60_000);
+        queue = new SessionRenewalQueue(redisService, keyGenerator, null, config);
+    }
+
+    @AfterEach
+    void tearDown() {
+        queue.shutdown();
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void renewsKeysWithPipelinesInsteadOfScript() {
+        // token 键剩余时间已长于续期时长，menus 键不存在
+        stubTtls(key -> key.equals(key("token")) ? 7200L : key.equals(key("menus")) ? -2L : 600L);
+
+        queue.submit("t1", 1800, 3600);
+        queue.flush();
+
+        verify(keyCommands, times(WIDTH)).ttl(any(byte[].class));
+        verify(keyCommands).expire(bytes(key("session")), 3600L);
+        verify(keyCommands, never()).expire(eq(bytes(key("token"))), anyLong());
+        verify(keyCommands, never()).expire(eq(bytes(key("menus"))), anyLong());
+        verify(keyCommands, times(WIDTH - 2)).expire(any(byte[].class), eq(3600L));
+        verify(redisService, never()).executeScript(any(RedisScript.class), anyList(), any(String[].class));
+        assertEquals(1L, queue.getStatus().get("renewed"));
+    }
+
+    @Test
+    void sessionAboveThresholdIsNotRenewed() {
+        stubTtls(key -> 3000L);
+
+        queue.submit("t1", 1800, 3600);
+        queue.flush();
+
+        verify(keyCommands, never()).expire(any(byte[].class), anyLong());
+        assertEquals(1L, queue.getStatus().get("batches"));
+        assertEquals(0L, queue.getStatus().get("renewed"));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void failedBatchIsRequeued() {
+        when(template.executePipelined(any(RedisCallback.class)))
+                .thenThrow(new RedisConnectionFailureException("down"));
+
+        assertTrue(queue.submit("t1", 1800, 3600));
+        queue.flush();
+
+        assertEquals(1, queue.getStatus().get("pending"));
+        assertEquals(1L, queue.getStatus().get("failedBatches"));
+        assertEquals(0L, queue.getStatus().get("batches"));
+
+        // Redis 恢复后重试成功
+        stubTtls(key -> 600L);
+        queue.flush();
+
+        assertEquals(0, queue.getStatus().get("pending"));
+        assertEquals(1L, queue.getStatus().get("renewed"));
+    }
+
+    @Test
+    void listenersReceiveRenewedTokensOnly() {
+        stubTtls(key -> key.endsWith(":t1") ? 600L : 3000L);
+        Map<String, Long> renewed = new HashMap<>();
+        queue.addRenewalListener(renewed::put);
+
+        queue.submit("t1", 1800, 3600);
+        queue.submit("t2", 1800, 3600);
+        queue.flush();
+
+        assertEquals(Map.of("t1", 3600L), renewed);
+    }
+
+    @Test
+    void snapshotLoaderRegistersRenewalListener() {
+        SessionRenewalQueue renewalQueue = mock(SessionRenewalQueue.class);
+
+        new AuthSnapshotLoader(redisService, keyGenerator, null, null, null, renewalQueue);
+
+        verify(renewalQueue).addRenewalListener(any());
+    }
+
+    /**
+     * 管道按执行的 TTL 命令依次返回各键的剩余时间，续期管道返回空结果
+     */
+    @SuppressWarnings("unchecked")
+    private void stubTtls(Function<String, Long> ttlOfKey) {
+        List<String> ttlKeys = new ArrayList<>();
+        when(keyCommands.ttl(any(byte[].class))).thenAnswer(invocation -> {
+            ttlKeys.add(new String((byte[]) invocation.getArgument(0), StandardCharsets.UTF_8));
+            return null;
+        });
+        RedisConnection connection = mock(RedisConnection.class);
+        when(connection.keyCommands()).thenReturn(keyCommands);
+        doAnswer(invocation -> {
+            ttlKeys.clear();
+            ((RedisCallback<Object>) invocation.getArgument(0)).doInRedis(connection);
+            List<Object> results = new ArrayList<>(ttlKeys.size());
+            for (String key : ttlKeys) {
+                results.add(ttlOfKey.apply(key));
+            }
+            return results;
+        }).when(template).executePipelined(any(RedisCallback.class));
+    }
+
+    private String key(String family) {
+        return keyGenerator.generate(CacheKeyGenerator.Module.USER, family, "t1");
+    }
+
+    private static byte[] bytes(String value) {
+        return value.getBytes(StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,265 @@
+package com.indigo.core.context;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 层级权限匹配器（预编译前缀树）
+ * 权限码按 {@code :} 分段（如 {@code system:user:edit}），授权中的 {@code *} 段表示通配：
+ * <ul>
+ *   <li>位于末尾时匹配剩余的一个或多个段：{@code system:user:*} 匹配 {@code system:user:edit}、{@code system:user:role:bind}</li>
+ *   <li>位于中间时匹配恰好一个段：{@code system:*:read} 匹配 {@code system:user:read}</li>
+ *   <li>单独的 {@code *} 匹配任意权限</li>
+ * </ul>
+ *
+ * <p>授权列表只编译一次（通常随会话缓存），匹配时直接在原字符串上按段查找子节点，
+ * 不截取子串、不分配对象，耗时与权限码段数成正比。编译后不可变，可被多线程共享。
+ * 没有随会话保存匹配器的调用方使用 {@link #of(List)}，按授权列表内容复用编译结果。
+ *
+ * @author 史偕成
+ * @date 2025/12/19
+ */
+public final class PermissionMatcher {
+
+    /**
+     * 段分隔符
+     */
+    public static final char SEPARATOR = ':';
+
+    /**
+     * 通配段
+     */
+    public static final String WILDCARD = "*";
+
+    /**
+     * 空授权（不匹配任何权限）
+     */
+    public static final PermissionMatcher EMPTY = new PermissionMatcher(new Node().freeze(), false);
+
+    /**
+     * 共享编译缓存的最大条目数，超过时整体清空
+     * 同一角色组合的用户授权列表相同，通常远小于此值
+     */
+    private static final int SHARED_CACHE_SIZE = 1024;
+
+    /**
+     * 授权列表（不可变副本） → 匹配器
+     */
+    private static final Map<List<String>, PermissionMatcher> SHARED = new ConcurrentHashMap<>();
+
+    private final Node root;
+    private final boolean wildcard;
+
+    private PermissionMatcher(Node root, boolean wildcard) {
+        this.root = root;
+        this.wildcard = wildcard;
+    }
+
+    /**
+     * 编译授权列表
+     *
+     * @param grants 授权的权限码（可包含通配段）
+     * @return 匹配器
+     */
+    public static PermissionMatcher compile(Collection<String> grants) {
+        if (grants == null || grants.isEmpty()) {
+            return EMPTY;
+        }
+        Node root = new Node();
+        boolean wildcard = false;
+        for (String grant : grants) {
+            if (grant == null || grant.isEmpty()) {
+                continue;
+            }
+            Node node = root;
+            int start = 0;
+            while (true) {
+                int end = grant.indexOf(SEPARATOR, start);
+                String segment = grant.substring(start, end < 0 ? grant.length() : end);
+                if (WILDCARD.equals(segment)) {
+                    wildcard = true;
+                }
+                node = node.child(segment);
+                if (end < 0) {
+                    break;
+                }
+                start = end + 1;
+            }
+            node.terminal = true;
+        }
+        return new PermissionMatcher(root.freeze(), wildcard);
+    }
+
+    /**
+     * 获取授权列表的匹配器，内容相同的授权列表只编译一次
+     * 查找按列表内容比较，不复制列表；首次编译时保存不可变副本作为缓存键
+     *
+     * @param grants 授权的权限码（可包含通配段）
+     * @return 匹配器
+     */
+    public static PermissionMatcher of(List<String> grants) {
+        if (grants == null || grants.isEmpty()) {
+            return EMPTY;
+        }
+        PermissionMatcher matcher = SHARED.get(grants);
+        if (matcher != null) {
+            return matcher;
+        }
+        matcher = compile(grants);
+        if (SHARED.size() >= SHARED_CACHE_SIZE) {
+            SHARED.clear();
+        }
+        SHARED.putIfAbsent(Collections.unmodifiableList(new ArrayList<>(grants)), matcher);
+        return matcher;
+    }
+
+    /**
+     * 授权中是否包含通配段
+     * 不含通配段时，匹配结果与精确比较一致
+     */
+    public boolean hasWildcards() {
+        return wildcard;
+    }
+
+    /**
+     * 是否匹配指定权限
+     *
+     * @param permission 权限码
+     * @return 是否被授权
+     */
+    public boolean matches(String permission) {
+        if (permission == null || permission.isEmpty()) {
+            return false;
+        }
+        return match(root, permission, 0);
+    }
+
+    /**
+     * 是否匹配任一权限
+     */
+    public boolean matchesAny(String... permissions) {
+        if (permissions == null) {
+            return false;
+        }
+        for (String permission : permissions) {
+            if (matches(permission)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * 是否匹配全部权限
+     */
+    public boolean matchesAll(String... permissions) {
+        if (permissions == null || permissions.length == 0) {
+            return false;
+        }
+        for (String permission : permissions) {
+            if (!matches(permission)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * 从 start 开始匹配剩余段
+     * 先走精确子节点，失败后再尝试通配子节点（最多两条分支，深度为段数）
+     */
+    private static boolean match(Node node, String permission, int start) {
+        int end = permission.indexOf(SEPARATOR, start);
+        int segmentEnd = end < 0 ? permission.length() : end;
+
+        Node exact = node.find(permission, start, segmentEnd);
+        if (exact != null && (end < 0 ? exact.terminal : match(exact, permission, end + 1))) {
+            return true;
+        }
+        Node any = node.wildcardChild;
+        if (any == null) {
+            return false;
+        }
+        // 末尾通配：匹配剩余全部段
+        if (any.terminal) {
+            return true;
+        }
+        return end >= 0 && match(any, permission, end + 1);
+    }
+
+    /**
+     * 前缀树节点
+     * 子节点在编译结束时冻结为开放寻址表，按段的哈希查找并用 regionMatches 校验
+     */
+    private static final class Node {
+
+        private boolean terminal;
+        private Node wildcardChild;
+
+        /**
+         * 编译阶段的子节点（冻结后清空）
+         */
+        private Map<String, Node> building = new HashMap<>();
+
+        private String[] keys;
+        private Node[] children;
+        private int mask;
+
+        private Node child(String segment) {
+            if (WILDCARD.equals(segment)) {
+                if (wildcardChild == null) {
+                    wildcardChild = new Node();
+                }
+                return wildcardChild;
+            }
+            return building.computeIfAbsent(segment, k -> new Node());
+        }
+
+        private Node freeze() {
+            int size = Integer.highestOneBit(Math.max(building.size(), 1) * 2 - 1) << 1;
+            keys = new String[size];
+            children = new Node[size];
+            mask = size - 1;
+            for (Map.Entry<String, Node> entry : building.entrySet()) {
+                String key = entry.getKey();
+                int slot = hash(key, 0, key.length()) & mask;
+                while (keys[slot] != null) {
+                    slot = (slot + 1) & mask;
+                }
+                keys[slot] = key;
+                children[slot] = entry.getValue().freeze();
+            }
+            if (wildcardChild != null) {
+                wildcardChild.freeze();
+            }
+            building = null;
+            return this;
+        }
+
+        private Node find(String permission, int start, int end) {
+            int length = end - start;
+            int slot = hash(permission, start, end) & mask;
+            String key;
+            while ((key = keys[slot]) != null) {
+                if (key.length() == length && permission.regionMatches(start, key, 0, length)) {
+                    return children[slot];
+                }
+                slot = (slot + 1) & mask;
+            }
+            return null;
+        }
+
+        private static int hash(String value, int start, int end) {
+            int h = 0;
+            for (int i = start; i < end; i++) {
+                h = 31 * h + value.charAt(i);
+            }
+            return h ^ (h >>> 16);
+        }
+    }
+}
@@ -209,8 +209,7 @@ public class UserContext implements Serializable {
         if (permission == null || permission.isEmpty()) {
             return false;
         }
-        List<String> permissions = getCurrentPermissions();
-        return permissions.contains(permission);
+        return PermissionMatcher.of(getCurrentPermissions()).matches(permission);
     }
 
     /**
@@ -236,8 +235,7 @@ public class UserContext implements Serializable {
         if (permissions == null || permissions.length == 0) {
             return false;
         }
-        List<String> userPermissions = getCurrentPermissions();
-        return java.util.Arrays.stream(permissions).anyMatch(userPermissions::contains);
+        return PermissionMatcher.of(getCurrentPermissions()).matchesAny(permissions);
     }
 
     /**
@@ -263,8 +261,7 @@ public class UserContext implements Serializable {
         if (permissions == null || permissions.length == 0) {
             return false;
         }
-        List<String> userPermissions = getCurrentPermissions();
-        return java.util.Arrays.stream(permissions).allMatch(userPermissions::contains);
+        return PermissionMatcher.of(getCurrentPermissions()).matchesAll(permissions);
     }
 
 }
\ No newline at end of file
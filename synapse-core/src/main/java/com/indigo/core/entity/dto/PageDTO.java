@@ -30,4 +30,15 @@ public class PageDTO<T> extends QueryDTO<T> {
      * 每页大小
      */
     private long pageSize = 10;
+
+    /**
+     * 是否使用游标分页（不使用 OFFSET，不查询总数，忽略 pageNo）
+     * 排序取自 orderByList，结果通过 {@code PageResult#getNextCursor()} 返回下一页游标
+     */
+    private Boolean keyset = false;
+
+    /**
+     * 游标分页的游标，取上一页结果的 nextCursor；为空时查询第一页，不为空时自动使用游标分页
+     */
+    private String cursor;
 }
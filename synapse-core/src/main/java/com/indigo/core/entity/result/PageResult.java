@@ -48,6 +48,11 @@ public class PageResult<T> {
      */
     private Boolean hasPrevious;
     
+    /**
+     * 下一页游标（游标分页时返回，没有下一页时为 null）
+     */
+    private String nextCursor;
+    
     public PageResult() {}
     
     public PageResult(List<T> records, Long total, Long current, Long size) {
@@ -74,6 +79,20 @@ public class PageResult<T> {
         return new PageResult<>(records, total, current, size);
     }
     
+    /**
+     * 创建游标分页结果
+     * 游标分页不查询总数，total、current 和 pages 为 null
+     */
+    public static <T> PageResult<T> ofKeyset(List<T> records, Long size, String nextCursor, boolean hasPrevious) {
+        PageResult<T> result = new PageResult<>();
+        result.records = records;
+        result.size = size;
+        result.nextCursor = nextCursor;
+        result.hasNext = nextCursor != null;
+        result.hasPrevious = hasPrevious;
+        return result;
+    }
+    
     /**
      * 从分页数据创建PageResult（使用Integer类型）
      */
@@ -0,0 +1,70 @@
+package com.indigo.core.permission;
+
+import java.util.Objects;
+
+/**
+ * 数据权限规则
+ * 描述“某张表的某一列必须落在当前用户的某个数据范围内”，只包含 SQL 形状，不包含具体取值。
+ * 同一组规则对所有用户编译出相同的 SQL，用户的范围值（部门ID、用户ID等）在执行时作为参数绑定
+ *
+ * <p>示例：{@code DataPermissionRule.in("sys_order", "dept_id", "deptIds")}
+ * 会在查询 sys_order 时追加 {@code o.dept_id IN (?, ?, ...)}，参数取自 {@link DataScope} 中键为 deptIds 的值
+ *
+ * @param table    表名（不区分大小写，不含反引号）
+ * @param column   列名
+ * @param operator 匹配方式
+ * @param scopeKey 范围值在 {@link DataScope#values()} 中的键
+ * @author 史偕成
+ * @date 2025/12/19
+ */
+public record DataPermissionRule(String table, String column, Operator operator, String scopeKey) {
+
+    public DataPermissionRule {
+        Objects.requireNonNull(table, "table");
+        Objects.requireNonNull(column, "column");
+        Objects.requireNonNull(operator, "operator");
+        Objects.requireNonNull(scopeKey, "scopeKey");
+        table = table.toLowerCase();
+    }
+
+    /**
+     * 列等于范围值：{@code column = ?}
+     */
+    public static DataPermissionRule eq(String table, String column, String scopeKey) {
+        return new DataPermissionRule(table, column, Operator.EQ, scopeKey);
+    }
+
+    /**
+     * 列属于范围值集合：{@code column IN (?, ...)}，集合为空时不返回任何行
+     */
+    public static DataPermissionRule in(String table, String column, String scopeKey) {
+        return new DataPermissionRule(table, column, Operator.IN, scopeKey);
+    }
+
+    /**
+     * 列以范围值开头：{@code column LIKE ?}，用于部门路径等层级数据
+     */
+    public static DataPermissionRule prefix(String table, String column, String scopeKey) {
+        return new DataPermissionRule(table, column, Operator.PREFIX, scopeKey);
+    }
+
+    /**
+     * 匹配方式
+     */
+    public enum Operator {
+        /**
+         * 等于
+         */
+        EQ,
+
+        /**
+         * 属于集合
+         */
+        IN,
+
+        /**
+         * 前缀匹配
+         */
+        PREFIX
+    }
+}
@@ -0,0 +1,33 @@
+package com.indigo.core.permission;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 当前用户在一次查询上的数据范围
+ * 规则决定 SQL 形状（参与缓存键），范围值只作为参数绑定
+ *
+ * @param rules  适用的数据权限规则
+ * @param values 范围值，键为 {@link DataPermissionRule#scopeKey()}，值为单个对象或集合
+ * @author 史偕成
+ * @date 2025/12/19
+ */
+public record DataScope(List<DataPermissionRule> rules, Map<String, Object> values) {
+
+    public DataScope {
+        rules = rules != null ? List.copyOf(rules) : Collections.emptyList();
+        values = values != null ? values : Collections.emptyMap();
+    }
+
+    public static DataScope of(List<DataPermissionRule> rules, Map<String, Object> values) {
+        return new DataScope(rules, values);
+    }
+
+    /**
+     * 是否没有任何规则（不过滤）
+     */
+    public boolean isEmpty() {
+        return rules.isEmpty();
+    }
+}
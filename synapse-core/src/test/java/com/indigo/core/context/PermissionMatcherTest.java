@@ -0,0 +1,121 @@
+package com.indigo.core.context;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * PermissionMatcher 前缀树匹配测试
+ *
+ * @author 史偕成
+ * @date 2025/12/19
+ */
+class PermissionMatcherTest {
+
+    @Test
+    void exactGrants() {
+        PermissionMatcher matcher = PermissionMatcher.compile(List.of("system:user:read", "system:user:edit"));
+
+        assertFalse(matcher.hasWildcards());
+        assertTrue(matcher.matches("system:user:read"));
+        assertTrue(matcher.matches("system:user:edit"));
+        assertFalse(matcher.matches("system:user"));
+        assertFalse(matcher.matches("system:user:read:all"));
+        assertFalse(matcher.matches("system:role:read"));
+        assertFalse(matcher.matches(""));
+        assertFalse(matcher.matches(null));
+    }
+
+    @Test
+    void trailingWildcardMatchesOneOrMoreSegments() {
+        PermissionMatcher matcher = PermissionMatcher.compile(List.of("system:user:*"));
+
+        assertTrue(matcher.hasWildcards());
+        assertTrue(matcher.matches("system:user:edit"));
+        assertTrue(matcher.matches("system:user:role:bind"));
+        assertFalse(matcher.matches("system:user"));
+        assertFalse(matcher.matches("system:role:edit"));
+    }
+
+    @Test
+    void middleWildcardMatchesExactlyOneSegment() {
+        PermissionMatcher matcher = PermissionMatcher.compile(List.of("system:*:read"));
+
+        assertTrue(matcher.matches("system:user:read"));
+        assertTrue(matcher.matches("system:role:read"));
+        assertFalse(matcher.matches("system:user:edit"));
+        assertFalse(matcher.matches("system:user:role:read"));
+        assertFalse(matcher.matches("system:read"));
+    }
+
+    @Test
+    void exactBranchFallsBackToWildcardBranch() {
+        // 精确分支 system:user 不匹配 delete 时，需回溯到通配分支
+        PermissionMatcher matcher = PermissionMatcher.compile(List.of("system:user:read", "system:*:delete"));
+
+        assertTrue(matcher.matches("system:user:delete"));
+        assertTrue(matcher.matches("system:user:read"));
+        assertFalse(matcher.matches("system:user:edit"));
+    }
+
+    @Test
+    void singleWildcardMatchesEverything() {
+        PermissionMatcher matcher = PermissionMatcher.compile(List.of("*"));
+
+        assertTrue(matcher.matches("system"));
+        assertTrue(matcher.matches("system:user:edit"));
+    }
+
+    @Test
+    void emptyGrantsMatchNothing() {
+        assertSame(PermissionMatcher.EMPTY, PermissionMatcher.compile(null));
+        assertSame(PermissionMatcher.EMPTY, PermissionMatcher.compile(List.of()));
+        assertSame(PermissionMatcher.EMPTY, PermissionMatcher.of(List.of()));
+        assertFalse(PermissionMatcher.EMPTY.matches("system:user:read"));
+    }
+
+    @Test
+    void matchesAnyAndAll() {
+        PermissionMatcher matcher = PermissionMatcher.compile(List.of("a:b", "c:*"));
+
+        assertTrue(matcher.matchesAny("x:y", "c:d"));
+        assertFalse(matcher.matchesAny("x:y", "a:c"));
+        assertTrue(matcher.matchesAll("a:b", "c:d:e"));
+        assertFalse(matcher.matchesAll("a:b", "x:y"));
+        assertFalse(matcher.matchesAll());
+    }
+
+    @Test
+    void manySiblingSegments() {
+        List<String> grants = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            grants.add("module:" + i + ":read");
+        }
+        PermissionMatcher matcher = PermissionMatcher.compile(grants);
+
+        for (int i = 0; i < 200; i++) {
+            assertTrue(matcher.matches("module:" + i + ":read"));
+            assertFalse(matcher.matches("module:" + i + ":edit"));
+        }
+        assertFalse(matcher.matches("module:200:read"));
+    }
+
+    @Test
+    void ofReusesMatcherForEqualGrants() {
+        List<String> grants = new ArrayList<>(List.of("system:user:*", "system:role:read"));
+
+        PermissionMatcher first = PermissionMatcher.of(grants);
+        PermissionMatcher second = PermissionMatcher.of(List.of("system:user:*", "system:role:read"));
+
+        assertSame(first, second);
+        assertTrue(second.matches("system:user:edit"));
+
+        // 缓存键是副本，修改原列表不影响已缓存的匹配器
+        grants.add("system:menu:read");
+        assertFalse(first.matches("system:menu:read"));
+        assertTrue(PermissionMatcher.of(grants).matches("system:menu:read"));
+    }
+}
@@ -15,10 +15,14 @@ import com.indigo.core.context.UserContext;
 import com.indigo.databases.dynamic.DynamicDataSourceContextHolder;
 import com.indigo.databases.enums.DatabaseType;
 import com.indigo.databases.interceptor.AutoDataSourceInterceptor;
+import com.indigo.databases.interceptor.DataPermissionInterceptor;
+import com.indigo.databases.permission.DataPermissionProvider;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.ibatis.reflection.MetaObject;
 import org.apache.ibatis.session.SqlSessionFactory;
 import org.mybatis.spring.annotation.MapperScan;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
@@ -43,11 +47,20 @@ public class MybatisPlusConfig {
 
     private final AutoDataSourceInterceptor autoDataSourceInterceptor;
     private final SynapseDataSourceProperties synapseDataSourceProperties;
+    private final ObjectProvider<DataPermissionProvider> dataPermissionProvider;
 
     public MybatisPlusConfig(AutoDataSourceInterceptor autoDataSourceInterceptor,
                              SynapseDataSourceProperties synapseDataSourceProperties) {
+        this(autoDataSourceInterceptor, synapseDataSourceProperties, null);
+    }
+
+    @Autowired
+    public MybatisPlusConfig(AutoDataSourceInterceptor autoDataSourceInterceptor,
+                             SynapseDataSourceProperties synapseDataSourceProperties,
+                             ObjectProvider<DataPermissionProvider> dataPermissionProvider) {
         this.autoDataSourceInterceptor = autoDataSourceInterceptor;
         this.synapseDataSourceProperties = synapseDataSourceProperties;
+        this.dataPermissionProvider = dataPermissionProvider;
         log.debug("MybatisPlusConfig 已加载");
     }
 
@@ -58,6 +71,12 @@ public class MybatisPlusConfig {
     public MybatisPlusInterceptor mybatisPlusInterceptor() {
         MybatisPlusInterceptor interceptor = new MybatisPlusInterceptor();
 
+        // 数据权限插件 - 存在 DataPermissionProvider 时启用，需在分页插件之前，COUNT 查询才会带上数据范围
+        DataPermissionProvider provider = dataPermissionProvider != null ? dataPermissionProvider.getIfAvailable() : null;
+        if (provider != null) {
+            interceptor.addInnerInterceptor(new DataPermissionInterceptor(provider));
+        }
+
         // 分页插件 - 使用动态数据库类型
         PaginationInnerInterceptor paginationInterceptor = new PaginationInnerInterceptor();
         paginationInterceptor.setDbType(getCurrentDbType());
@@ -49,6 +49,7 @@ public class ProxyFactoryBean<T> implements FactoryBean<T>, ApplicationContextAw
                 new Class<?>[]{targetClass},
                 sqlMethodInterceptor
             );
+            sqlMethodInterceptor.prepare(proxyObject);
             
             log.debug("ProxyFactoryBean created proxy for: {}", targetClass.getSimpleName());
         }
@@ -69,6 +70,7 @@ public class ProxyFactoryBean<T> implements FactoryBean<T>, ApplicationContextAw
                 new Class<?>[]{targetClass},
                 sqlMethodInterceptor
             );
+            sqlMethodInterceptor.prepare(proxyObject);
             log.debug("Proxy object for {} created on demand in getObject().", targetClass.getSimpleName());
         }
         log.debug("Returning proxy object for {}.", targetClass.getSimpleName());
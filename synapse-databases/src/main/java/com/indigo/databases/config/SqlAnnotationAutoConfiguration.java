@@ -116,12 +116,14 @@ public class SqlAnnotationAutoConfiguration {
             try {
                 String beanName = repositoryInterface.getSimpleName();
                 
-                // 创建代理对象
+                // 创建代理对象，并预先构建方法分派表
+                SqlMethodInterceptor interceptor = new SqlMethodInterceptor();
                 Object proxy = Proxy.newProxyInstance(
                     repositoryInterface.getClassLoader(),
                     new Class<?>[]{repositoryInterface},
-                    new SqlMethodInterceptor()
+                    interceptor
                 );
+                interceptor.prepare(proxy);
                 
                 // 注册为Spring Bean
                 if (!beanFactory.containsBean(beanName)) {
@@ -0,0 +1,603 @@
+package com.indigo.databases.interceptor;
+
+import com.baomidou.mybatisplus.core.toolkit.PluginUtils;
+import com.baomidou.mybatisplus.extension.plugins.inner.InnerInterceptor;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.indigo.core.permission.DataPermissionRule;
+import com.indigo.core.permission.DataScope;
+import com.indigo.databases.permission.DataPermissionProvider;
+import lombok.extern.slf4j.Slf4j;
+import net.sf.jsqlparser.JSQLParserException;
+import net.sf.jsqlparser.expression.AnyComparisonExpression;
+import net.sf.jsqlparser.expression.BinaryExpression;
+import net.sf.jsqlparser.expression.CaseExpression;
+import net.sf.jsqlparser.expression.CastExpression;
+import net.sf.jsqlparser.expression.Expression;
+import net.sf.jsqlparser.expression.Function;
+import net.sf.jsqlparser.expression.NotExpression;
+import net.sf.jsqlparser.expression.WhenClause;
+import net.sf.jsqlparser.expression.operators.relational.Between;
+import net.sf.jsqlparser.expression.operators.relational.ExistsExpression;
+import net.sf.jsqlparser.expression.operators.relational.ExpressionList;
+import net.sf.jsqlparser.expression.operators.relational.InExpression;
+import net.sf.jsqlparser.expression.operators.relational.IsNullExpression;
+import net.sf.jsqlparser.parser.CCJSqlParserUtil;
+import net.sf.jsqlparser.schema.Table;
+import net.sf.jsqlparser.statement.Statement;
+import net.sf.jsqlparser.statement.select.FromItem;
+import net.sf.jsqlparser.statement.select.Join;
+import net.sf.jsqlparser.statement.select.ParenthesedFromItem;
+import net.sf.jsqlparser.statement.select.ParenthesedSelect;
+import net.sf.jsqlparser.statement.select.PlainSelect;
+import net.sf.jsqlparser.statement.select.Select;
+import net.sf.jsqlparser.statement.select.SelectItem;
+import net.sf.jsqlparser.statement.select.SetOperationList;
+import net.sf.jsqlparser.statement.select.WithItem;
+import org.apache.ibatis.executor.Executor;
+import org.apache.ibatis.mapping.BoundSql;
+import org.apache.ibatis.mapping.MappedStatement;
+import org.apache.ibatis.mapping.ParameterMapping;
+import org.apache.ibatis.mapping.SqlCommandType;
+import org.apache.ibatis.session.Configuration;
+import org.apache.ibatis.session.ResultHandler;
+import org.apache.ibatis.session.RowBounds;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * 数据权限拦截器
+ * 按 {@link DataPermissionProvider} 返回的规则为查询追加数据范围条件
+ *
+ * <p><b>编译与缓存：</b>规则只决定 SQL 形状，按（语句ID、原始 SQL、规则集、各规则占位符数）编译一次，
+ * 结果缓存在本地。之后同形状的查询只替换 SQL 文本并插入参数映射，不再解析 SQL。
+ *
+ * <p><b>参数绑定：</b>用户的范围值全部作为 JDBC 参数绑定，不拼接进 SQL 文本，因此不同用户执行的是同一条 SQL，
+ * 预编译语句缓存和数据库执行计划缓存都能命中。IN 条件的占位符数向上取整到 2 的幂（多余位置重复最后一个值），
+ * 避免集合大小每变化一次就产生一种新 SQL。
+ *
+ * <p><b>改写范围：</b>
+ * <ul>
+ *   <li>只处理 SELECT；FROM 和 JOIN 中的表，WITH、FROM/JOIN、选择列表、WHERE/HAVING（IN、EXISTS、ANY/ALL、标量）
+ *       及 JOIN ON 中的子查询，UNION 各分支；存在未能遍历到的子查询时拒绝执行</li>
+ *   <li>带 ON 的 LEFT JOIN 右表条件追加到 ON，不改变外连接语义；其余（包括 FULL、RIGHT JOIN）追加到 WHERE，
+ *       只会多过滤，不会放行</li>
+ *   <li>前缀匹配使用 {@code LIKE ? ESCAPE '!'}，范围值中的 % 和 _ 按字面匹配</li>
+ *   <li>范围值缺失或集合为空时追加 {@code 1 = 0}，不返回任何行</li>
+ *   <li>SQL 无法解析时抛出异常而不是放行（权限校验失败即拒绝）</li>
+ * </ul>
+ * 改写在 willDoQuery 中完成，需放在分页插件之前，分页的 COUNT 查询才会带上数据范围。
+ *
+ * @author 史偕成
+ * @date 2025/12/19
+ */
+@Slf4j
+public class DataPermissionInterceptor implements InnerInterceptor {
+
+    /**
+     * 已改写标记（附加参数），避免 willDoQuery 和 beforeQuery 重复改写
+     */
+    private static final String APPLIED_KEY = "__synapse_dp_applied";
+
+    /**
+     * 范围值附加参数名前缀
+     */
+    private static final String PARAM_PREFIX = "__synapse_dp_";
+
+    /**
+     * 编译时使用的命名参数占位符前缀，生成最终 SQL 时替换为 ?
+     */
+    private static final String MARKER_PREFIX = "synapse_dp_";
+
+    /**
+     * 前缀匹配的 LIKE 转义字符（不使用反斜杠，各数据库对字符串中反斜杠的处理不一致）
+     */
+    private static final char LIKE_ESCAPE = '!';
+
+    private static final int MAX_CACHED_PLANS = 10_000;
+
+    private final DataPermissionProvider provider;
+    private final Cache<PlanKey, Plan> plans = Caffeine.newBuilder()
+            .maximumSize(MAX_CACHED_PLANS)
+            .build();
+
+    public DataPermissionInterceptor(DataPermissionProvider provider) {
+        this.provider = provider;
+    }
+
+    @Override
+    public boolean willDoQuery(Executor executor, MappedStatement ms, Object parameter, RowBounds rowBounds,
+                               ResultHandler resultHandler, BoundSql boundSql) {
+        apply(ms, boundSql);
+        return true;
+    }
+
+    @Override
+    public void beforeQuery(Executor executor, MappedStatement ms, Object parameter, RowBounds rowBounds,
+                            ResultHandler resultHandler, BoundSql boundSql) {
+        apply(ms, boundSql);
+    }
+
+    /**
+     * 已缓存的编译结果数量
+     */
+    public long cachedPlanCount() {
+        return plans.estimatedSize();
+    }
+
+    private void apply(MappedStatement ms, BoundSql boundSql) {
+        if (ms.getSqlCommandType() != SqlCommandType.SELECT || boundSql.hasAdditionalParameter(APPLIED_KEY)) {
+            return;
+        }
+        DataScope scope = provider.getDataScope(ms);
+        if (scope == null || scope.isEmpty()) {
+            return;
+        }
+
+        List<DataPermissionRule> rules = scope.rules();
+        List<List<Object>> values = new ArrayList<>(rules.size());
+        List<Integer> sizes = new ArrayList<>(rules.size());
+        for (DataPermissionRule rule : rules) {
+            List<Object> ruleValues = toList(scope.values().get(rule.scopeKey()));
+            values.add(ruleValues);
+            sizes.add(placeholderCount(rule.operator(), ruleValues.size()));
+        }
+
+        String sql = boundSql.getSql();
+        Plan plan = plans.get(new PlanKey(ms.getId(), sql, rules, sizes),
+                key -> compile(ms, sql, rules, sizes));
+        if (plan.sql() == null) {
+            return;
+        }
+
+        Object[] bound = new Object[plan.injected().size()];
+        int index = 0;
+        for (int i = 0; i < rules.size(); i++) {
+            List<Object> ruleValues = values.get(i);
+            for (int j = 0; j < sizes.get(i); j++) {
+                Object value = ruleValues.get(Math.min(j, ruleValues.size() - 1));
+                bound[index++] = rules.get(i).operator() == DataPermissionRule.Operator.PREFIX
+                        ? escapeLike(String.valueOf(value)) + "%" : value;
+            }
+        }
+
+        PluginUtils.MPBoundSql mpBoundSql = PluginUtils.mpBoundSql(boundSql);
+        List<ParameterMapping> original = mpBoundSql.parameterMappings();
+        List<ParameterMapping> mappings = new ArrayList<>(plan.slots().length);
+        int next = 0;
+        for (int slot : plan.slots()) {
+            if (slot < 0) {
+                mappings.add(original.get(next++));
+            } else {
+                boundSql.setAdditionalParameter(PARAM_PREFIX + slot, bound[slot]);
+                mappings.add(plan.injected().get(slot));
+            }
+        }
+        mpBoundSql.sql(plan.sql());
+        mpBoundSql.parameterMappings(mappings);
+        boundSql.setAdditionalParameter(APPLIED_KEY, Boolean.TRUE);
+    }
+
+    /**
+     * 编译规则集：解析 SQL、追加带命名占位符的条件，再把占位符换回 ? 并记录每个 ? 对应的参数来源
+     */
+    private Plan compile(MappedStatement ms, String sql, List<DataPermissionRule> rules, List<Integer> sizes) {
+        Statement statement;
+        try {
+            statement = CCJSqlParserUtil.parse(sql);
+        } catch (JSQLParserException e) {
+            throw new IllegalStateException("数据权限无法解析SQL，拒绝执行: " + ms.getId(), e);
+        }
+        if (!(statement instanceof Select select)) {
+            return Plan.NONE;
+        }
+
+        int[] offsets = new int[sizes.size()];
+        int total = 0;
+        for (int i = 0; i < sizes.size(); i++) {
+            offsets[i] = total;
+            total += sizes.get(i);
+        }
+        if (!new Rewriter(rules, sizes, offsets).rewrite(select)) {
+            return Plan.NONE;
+        }
+
+        String rewritten = statement.toString();
+        StringBuilder finalSql = new StringBuilder(rewritten.length());
+        List<Integer> slots = new ArrayList<>();
+        scanPlaceholders(rewritten, finalSql, slots);
+
+        long originalCount = slots.stream().filter(slot -> slot < 0).count();
+        List<Integer> originalSlots = new ArrayList<>();
+        scanPlaceholders(sql, new StringBuilder(sql.length()), originalSlots);
+        if (originalCount != originalSlots.size()) {
+            throw new IllegalStateException("数据权限改写后参数数量不一致，拒绝执行: " + ms.getId());
+        }
+
+        Configuration configuration = ms.getConfiguration();
+        List<ParameterMapping> injected = new ArrayList<>(total);
+        for (int i = 0; i < total; i++) {
+            injected.add(new ParameterMapping.Builder(configuration, PARAM_PREFIX + i, Object.class).build());
+        }
+        log.debug("数据权限规则已编译: statement={}, rules={}, sql={}", ms.getId(), rules.size(), finalSql);
+        return new Plan(finalSql.toString(), slots.stream().mapToInt(Integer::intValue).toArray(),
+                Collections.unmodifiableList(injected));
+    }
+
+    /**
+     * 扫描 SQL 中的占位符（跳过引号内的内容）
+     * 原始 ? 记为 -1，命名占位符记为其参数序号并替换为 ?
+     */
+    private static void scanPlaceholders(String sql, StringBuilder out, List<Integer> slots) {
+        int length = sql.length();
+        int i = 0;
+        while (i < length) {
+            char c = sql.charAt(i);
+            if (c == '\'' || c == '"' || c == '`') {
+                int end = sql.indexOf(c, i + 1);
+                end = end < 0 ? length : end + 1;
+                out.append(sql, i, end);
+                i = end;
+                continue;
+            }
+            if (c == '?') {
+                slots.add(-1);
+            } else if (c == ':' && sql.startsWith(MARKER_PREFIX, i + 1)) {
+                int start = i + 1 + MARKER_PREFIX.length();
+                int end = start;
+                while (end < length && Character.isDigit(sql.charAt(end))) {
+                    end++;
+                }
+                slots.add(Integer.parseInt(sql.substring(start, end)));
+                out.append('?');
+                i = end;
+                continue;
+            }
+            out.append(c);
+            i++;
+        }
+    }
+
+    /**
+     * 占位符数量：值缺失为 0（拒绝），IN 向上取整到 2 的幂
+     */
+    private static int placeholderCount(DataPermissionRule.Operator operator, int valueCount) {
+        if (valueCount == 0) {
+            return 0;
+        }
+        if (operator != DataPermissionRule.Operator.IN) {
+            return 1;
+        }
+        return valueCount == 1 ? 1 : Integer.highestOneBit(valueCount - 1) << 1;
+    }
+
+    /**
+     * 转义前缀值中的 LIKE 通配符，前缀中的 % 和 _ 按字面匹配
+     */
+    static String escapeLike(String value) {
+        StringBuilder escaped = new StringBuilder(value.length() + 8);
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '%' || c == '_' || c == LIKE_ESCAPE) {
+                escaped.append(LIKE_ESCAPE);
+            }
+            escaped.append(c);
+        }
+        return escaped.toString();
+    }
+
+    private static List<Object> toList(Object value) {
+        if (value == null) {
+            return Collections.emptyList();
+        }
+        if (value instanceof Collection<?> collection) {
+            List<Object> list = new ArrayList<>(collection.size());
+            for (Object item : collection) {
+                if (item != null) {
+                    list.add(item);
+                }
+            }
+            return list;
+        }
+        if (value instanceof Object[] array) {
+            return toList(List.of(array));
+        }
+        return List.of(value);
+    }
+
+    /**
+     * SQL 改写器（只在编译时使用）
+     * 遍历 WITH、FROM/JOIN、选择列表、WHERE、HAVING 和 JOIN ON 中的所有子查询；
+     * 遍历结束后核对 SELECT 数量，存在未覆盖的子查询时拒绝执行
+     */
+    private static final class Rewriter {
+
+        private final List<DataPermissionRule> rules;
+        private final List<Integer> sizes;
+        private final int[] offsets;
+        private int visited;
+
+        private Rewriter(List<DataPermissionRule> rules, List<Integer> sizes, int[] offsets) {
+            this.rules = rules;
+            this.sizes = sizes;
+            this.offsets = offsets;
+        }
+
+        boolean rewrite(Select select) {
+            int expected = countSelects(select.toString());
+            boolean changed = rewriteSelect(select);
+            if (visited < expected) {
+                throw new IllegalStateException("数据权限无法覆盖SQL中的全部子查询，拒绝执行: " + select);
+            }
+            return changed;
+        }
+
+        @SuppressWarnings("rawtypes")
+        private boolean rewriteSelect(Select select) {
+            boolean changed = false;
+            if (select.getWithItemsList() != null) {
+                for (WithItem withItem : select.getWithItemsList()) {
+                    changed |= rewriteSelect(withItem.getSelect());
+                }
+            }
+            if (select instanceof PlainSelect plainSelect) {
+                changed |= rewritePlainSelect(plainSelect);
+            } else if (select instanceof SetOperationList setOperationList) {
+                for (Select branch : setOperationList.getSelects()) {
+                    changed |= rewriteSelect(branch);
+                }
+            } else if (select instanceof ParenthesedSelect parenthesedSelect) {
+                changed |= rewriteSelect(parenthesedSelect.getSelect());
+            }
+            return changed;
+        }
+
+        private boolean rewritePlainSelect(PlainSelect plainSelect) {
+            visited++;
+            boolean changed = false;
+            if (plainSelect.getSelectItems() != null) {
+                for (SelectItem<?> item : plainSelect.getSelectItems()) {
+                    changed |= rewriteExpression(item.getExpression());
+                }
+            }
+            // 先改写 WHERE/HAVING 中已有的子查询，再追加本层条件（追加的条件不含子查询）
+            changed |= rewriteExpression(plainSelect.getWhere());
+            changed |= rewriteExpression(plainSelect.getHaving());
+            changed |= rewriteFromItem(plainSelect, plainSelect.getFromItem());
+            changed |= rewriteJoins(plainSelect, plainSelect.getJoins());
+            return changed;
+        }
+
+        /**
+         * 改写 FROM 项：表的条件追加到所属查询的 WHERE，子查询递归改写
+         */
+        private boolean rewriteFromItem(PlainSelect owner, FromItem fromItem) {
+            if (fromItem instanceof Table table) {
+                String condition = conditionFor(table);
+                if (condition == null) {
+                    return false;
+                }
+                owner.setWhere(and(owner.getWhere(), condition));
+                return true;
+            }
+            if (fromItem instanceof ParenthesedSelect subSelect) {
+                return rewriteSelect(subSelect);
+            }
+            if (fromItem instanceof ParenthesedFromItem parenthesed) {
+                return rewriteFromItem(owner, parenthesed.getFromItem()) | rewriteJoins(owner, parenthesed.getJoins());
+            }
+            return false;
+        }
+
+        /**
+         * 改写 JOIN：只有带 ON 的 LEFT JOIN 把右表条件追加到 ON（不改变外连接语义），
+         * 其余（INNER、RIGHT、FULL、CROSS 以及 USING/NATURAL）追加到 WHERE，宁可多过滤也不放行
+         */
+        private boolean rewriteJoins(PlainSelect owner, List<Join> joins) {
+            if (joins == null) {
+                return false;
+            }
+            boolean changed = false;
+            for (Join join : joins) {
+                Collection<Expression> onExpressions = join.getOnExpressions();
+                if (onExpressions != null) {
+                    for (Expression expression : onExpressions) {
+                        changed |= rewriteExpression(expression);
+                    }
+                }
+                FromItem rightItem = join.getRightItem();
+                if (!(rightItem instanceof Table table)) {
+                    changed |= rewriteFromItem(owner, rightItem);
+                    continue;
+                }
+                String condition = conditionFor(table);
+                if (condition == null) {
+                    continue;
+                }
+                if (join.isLeft() && !join.isFull() && onExpressions != null && !onExpressions.isEmpty()) {
+                    Expression on = null;
+                    for (Expression expression : onExpressions) {
+                        on = on == null ? expression : and(on, "(" + expression + ")");
+                    }
+                    join.setOnExpressions(List.of(and(on, condition)));
+                } else {
+                    owner.setWhere(and(owner.getWhere(), condition));
+                }
+                changed = true;
+            }
+            return changed;
+        }
+
+        /**
+         * 改写表达式中的子查询（IN、EXISTS、ANY/ALL、标量子查询，以及嵌套在运算、函数、CASE 中的子查询）
+         */
+        private boolean rewriteExpression(Expression expression) {
+            if (expression == null) {
+                return false;
+            }
+            if (expression instanceof Select select) {
+                return rewriteSelect(select);
+            }
+            if (expression instanceof BinaryExpression binary) {
+                return rewriteExpression(binary.getLeftExpression()) | rewriteExpression(binary.getRightExpression());
+            }
+            if (expression instanceof InExpression in) {
+                return rewriteExpression(in.getLeftExpression()) | rewriteExpression(in.getRightExpression());
+            }
+            if (expression instanceof ExistsExpression exists) {
+                return rewriteExpression(exists.getRightExpression());
+            }
+            if (expression instanceof NotExpression not) {
+                return rewriteExpression(not.getExpression());
+            }
+            if (expression instanceof AnyComparisonExpression any) {
+                return rewriteSelect(any.getSelect());
+            }
+            if (expression instanceof Between between) {
+                return rewriteExpression(between.getLeftExpression())
+                        | rewriteExpression(between.getBetweenExpressionStart())
+                        | rewriteExpression(between.getBetweenExpressionEnd());
+            }
+            if (expression instanceof IsNullExpression isNull) {
+                return rewriteExpression(isNull.getLeftExpression());
+            }
+            if (expression instanceof CastExpression cast) {
+                return rewriteExpression(cast.getLeftExpression());
+            }
+            if (expression instanceof Function function) {
+                return rewriteExpression(function.getParameters());
+            }
+            if (expression instanceof CaseExpression caseExpression) {
+                boolean changed = rewriteExpression(caseExpression.getSwitchExpression());
+                if (caseExpression.getWhenClauses() != null) {
+                    for (WhenClause whenClause : caseExpression.getWhenClauses()) {
+                        changed |= rewriteExpression(whenClause.getWhenExpression());
+                        changed |= rewriteExpression(whenClause.getThenExpression());
+                    }
+                }
+                return changed | rewriteExpression(caseExpression.getElseExpression());
+            }
+            if (expression instanceof ExpressionList<?> list) {
+                boolean changed = false;
+                for (Expression item : list) {
+                    changed |= rewriteExpression(item);
+                }
+                return changed;
+            }
+            return false;
+        }
+
+        /**
+         * 生成表上的数据范围条件，表不受任何规则约束时返回 null
+         */
+        private String conditionFor(Table table) {
+            String name = unquote(table.getName()).toLowerCase();
+            String qualifier = table.getAlias() != null ? table.getAlias().getName() : table.getFullyQualifiedName();
+            StringBuilder condition = null;
+            for (int i = 0; i < rules.size(); i++) {
+                DataPermissionRule rule = rules.get(i);
+                if (!rule.table().equals(name)) {
+                    continue;
+                }
+                condition = condition == null ? new StringBuilder() : condition.append(" AND ");
+                int size = sizes.get(i);
+                if (size == 0) {
+                    condition.append("1 = 0");
+                    continue;
+                }
+                String column = qualifier + "." + rule.column();
+                switch (rule.operator()) {
+                    case EQ -> condition.append(column).append(" = ").append(marker(offsets[i]));
+                    case PREFIX -> condition.append(column).append(" LIKE ").append(marker(offsets[i]))
+                            .append(" ESCAPE '").append(LIKE_ESCAPE).append('\'');
+                    case IN -> {
+                        condition.append(column).append(" IN (");
+                        for (int j = 0; j < size; j++) {
+                            if (j > 0) {
+                                condition.append(", ");
+                            }
+                            condition.append(marker(offsets[i] + j));
+                        }
+                        condition.append(')');
+                    }
+                }
+            }
+            return condition != null ? condition.toString() : null;
+        }
+
+        private static Expression and(Expression existing, String condition) {
+            String text = existing == null ? condition : "(" + existing + ") AND " + condition;
+            try {
+                return CCJSqlParserUtil.parseCondExpression(text);
+            } catch (JSQLParserException e) {
+                throw new IllegalStateException("数据权限条件生成失败: " + text, e);
+            }
+        }
+
+        /**
+         * 统计 SQL 中 SELECT 关键字的数量（跳过引号内的内容）
+         */
+        private static int countSelects(String sql) {
+            int count = 0;
+            int length = sql.length();
+            int i = 0;
+            while (i < length) {
+                char c = sql.charAt(i);
+                if (c == '\'' || c == '"' || c == '`') {
+                    int end = sql.indexOf(c, i + 1);
+                    i = end < 0 ? length : end + 1;
+                    continue;
+                }
+                if ((c == 'S' || c == 's') && sql.regionMatches(true, i, "SELECT", 0, 6)
+                        && (i == 0 || !isIdentifierPart(sql.charAt(i - 1)))
+                        && (i + 6 == length || !isIdentifierPart(sql.charAt(i + 6)))) {
+                    count++;
+                    i += 6;
+                    continue;
+                }
+                i++;
+            }
+            return count;
+        }
+
+        private static boolean isIdentifierPart(char c) {
+            return Character.isLetterOrDigit(c) || c == '_' || c == '$';
+        }
+
+        private static String marker(int index) {
+            return ":" + MARKER_PREFIX + index;
+        }
+
+        private static String unquote(String name) {
+            int length = name.length();
+            if (length > 1) {
+                char first = name.charAt(0);
+                if ((first == '`' || first == '"' || first == '[') && name.charAt(length - 1) == (first == '[' ? ']' : first)) {
+                    return name.substring(1, length - 1);
+                }
+            }
+            return name;
+        }
+    }
+
+    /**
+     * 编译缓存键
+     */
+    private record PlanKey(String statementId, String sql, List<DataPermissionRule> rules, List<Integer> sizes) {
+    }
+
+    /**
+     * 编译结果
+     *
+     * @param sql      改写后的 SQL，不需要改写时为 null
+     * @param slots    改写后 SQL 中每个 ? 的参数来源：-1 表示原始参数（按原顺序），否则为范围值序号
+     * @param injected 范围值参数映射，按序号索引
+     */
+    private record Plan(String sql, int[] slots, List<ParameterMapping> injected) {
+
+        static final Plan NONE = new Plan(null, new int[0], Collections.emptyList());
+    }
+}
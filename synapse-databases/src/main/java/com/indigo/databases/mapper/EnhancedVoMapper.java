@@ -1,7 +1,9 @@
 package com.indigo.databases.mapper;
 
+import com.baomidou.mybatisplus.core.conditions.Wrapper;
 import com.baomidou.mybatisplus.core.mapper.BaseMapper;
 import com.baomidou.mybatisplus.core.metadata.IPage;
+import com.baomidou.mybatisplus.core.toolkit.Constants;
 import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
 import com.indigo.core.entity.vo.BaseVO;
 import org.apache.ibatis.annotations.Param;
@@ -14,10 +16,29 @@ import java.util.Map;
  * 增强VO映射Mapper
  * 支持多表关联查询和直接VO映射
  *
+ * <p>{@code *WithWrapper} 方法的 sql 只包含条件占位符（{@code #{ew.paramNameValuePairs.xxx}}），
+ * 参数值由 MyBatis 从 wrapper 绑定为预编译参数；相同结构的查询共享同一条 SQL 文本，
+ * 可以命中 JDBC 语句缓存和数据库执行计划缓存。其余方法要求参数值已拼接在 sql 中。
+ *
  * @author 史偕成
  * @date 2025/12/19
  */
 public interface EnhancedVoMapper<T, V extends BaseVO<?>> extends BaseMapper<T> {
+
+    /**
+     * 分页查询 - 参数绑定（支持多表关联）
+     * 返回Map类型，需要手动映射
+     */
+    @Select("${sql}")
+    IPage<Map<String, Object>> selectPageWithWrapper(Page<Map<String, Object>> page, @Param("sql") String sql,
+                                                     @Param(Constants.WRAPPER) Wrapper<?> wrapper);
+
+    /**
+     * 列表查询 - 参数绑定（支持多表关联）
+     * 返回Map类型，用于动态VO映射
+     */
+    @Select("${sql}")
+    List<Map<String, Object>> selectListWithWrapper(@Param("sql") String sql, @Param(Constants.WRAPPER) Wrapper<?> wrapper);
     
     /**
      * 分页查询 - 直接映射到VO（支持多表关联）
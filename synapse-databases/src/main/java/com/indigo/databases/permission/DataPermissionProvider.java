@@ -0,0 +1,25 @@
+package com.indigo.databases.permission;
+
+import com.indigo.core.permission.DataScope;
+import org.apache.ibatis.mapping.MappedStatement;
+
+/**
+ * 数据权限提供者
+ * 由业务实现，按当前用户和语句返回适用的数据范围，注册为 Spring Bean 后自动启用
+ * {@link com.indigo.databases.interceptor.DataPermissionInterceptor}
+ *
+ * <p>每次查询都会调用，实现应只读取已缓存的数据（如用户上下文、本地缓存），不要在这里访问数据库
+ *
+ * @author 史偕成
+ * @date 2025/12/19
+ */
+public interface DataPermissionProvider {
+
+    /**
+     * 获取当前用户在该语句上的数据范围
+     *
+     * @param mappedStatement 即将执行的语句
+     * @return 数据范围，返回 null 或空范围表示不过滤
+     */
+    DataScope getDataScope(MappedStatement mappedStatement);
+}
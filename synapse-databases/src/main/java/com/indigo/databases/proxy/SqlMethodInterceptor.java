@@ -14,6 +14,7 @@ import com.indigo.core.entity.dto.page.PerformancePageDTO;
 import com.indigo.core.entity.vo.BaseVO;
 import com.indigo.core.utils.ReflectionUtils;
 import com.indigo.databases.repository.BaseRepository;
+import com.indigo.databases.utils.ClassMetadata;
 import com.indigo.databases.utils.EntityMapper;
 import com.indigo.databases.utils.EnhancedQueryBuilder;
 import com.indigo.databases.utils.QueryConditionBuilder;
@@ -23,12 +24,19 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.ApplicationContext;
 import org.springframework.stereotype.Component;
 
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
 import java.lang.reflect.Field;
 import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
 import java.lang.reflect.ParameterizedType;
 import java.util.Arrays;
-import java.util.Optional;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
 
 /**
  * SQL方法拦截器
@@ -47,6 +55,11 @@ public class SqlMethodInterceptor implements InvocationHandler {
     // 静态引用，用于在动态代理中访问ApplicationContext
     private static ApplicationContext staticApplicationContext;
 
+    /**
+     * 代理类 -> 绑定信息（含方法分派表）
+     */
+    private final Map<Class<?>, RepositoryBinding> bindings = new ConcurrentHashMap<>();
+
     @PostConstruct
     public void init() {
         // 立即初始化ApplicationContext，确保Bean注册时可用
@@ -62,54 +75,32 @@ public class SqlMethodInterceptor implements InvocationHandler {
         }
     }
 
+    /**
+     * 为代理对象预先构建方法分派表，在创建代理时调用
+     * Repository 接口的每个方法只解析一次，之后每次调用只做一次 Map 查找和一次 MethodHandle 调用。
+     * Mapper 实例在首次调用时才从容器获取，创建代理时 Mapper Bean 可能尚未注册
+     *
+     * @param proxy Repository 代理对象
+     */
+    public void prepare(Object proxy) {
+        RepositoryBinding binding = getBinding(proxy);
+        for (Method method : binding.repositoryInterface.getMethods()) {
+            if (!Modifier.isStatic(method.getModifiers())) {
+                getInvoker(binding, method);
+            }
+        }
+        log.debug("Prepared dispatch table for {}: {} methods",
+                binding.repositoryInterface.getSimpleName(), binding.invokers.size());
+    }
+
     @Override
     public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+        // 检查是否是Object的方法
+        if (method.getDeclaringClass() == Object.class) {
+            return method.invoke(this, args);
+        }
         try {
-            // 检查是否是Object的方法
-            if (method.getDeclaringClass() == Object.class) {
-                return method.invoke(this, args);
-            }
-            
-            // ⚠️ 关键：在 Debug 模式下，IDE 可能会检查 default 方法，导致 JVM 断言失败
-            // 必须在最早的地方拦截非 BaseRepository 的 default 方法
-            if (method.isDefault()) {
-                // 检查是否是 BaseRepository 中定义的 default 方法
-                Class<?> declaringClass = method.getDeclaringClass();
-                boolean isBaseRepositoryMethod = false;
-                try {
-                    BaseRepository.class.getMethod(method.getName(), method.getParameterTypes());
-                    isBaseRepositoryMethod = true;
-                } catch (NoSuchMethodException e) {
-                    // 方法不在 BaseRepository 中定义
-                }
-                
-                // 如果不是 BaseRepository 的方法，立即抛出异常，避免任何可能触发 JVM 断言的操作
-                if (!isBaseRepositoryMethod && !BaseRepository.class.equals(declaringClass)) {
-                    throw new UnsupportedOperationException(
-                        String.format("不支持在 Repository 接口中定义 default 方法 %s(%s)。" +
-                            "\n推荐方式：在 Mapper 接口中定义方法，然后通过 getMapper() 调用。" +
-                            "\n示例：在 Mapper 中定义 %s(%s) 方法，然后使用 repository.getMapper().%s(...) 调用",
-                            method.getName(),
-                            java.util.Arrays.toString(method.getParameterTypes()),
-                            method.getName(),
-                            java.util.Arrays.toString(method.getParameterTypes()),
-                            method.getName()));
-                }
-            }
-            
-            // 检查是否是BaseRepository的方法
-            if (isBaseRepositoryMethod(method)) {
-                return handleBaseRepositoryMethod(proxy, method, args);
-            }
-            // 检查是否是Mapper的方法
-            if (isMapperMethod(method)) {
-                return callMapperMethod(method, args);
-            }
-            // 如果既没有SQL注解也不是默认方法，抛出异常
-            throw new UnsupportedOperationException(
-                    "Method " + method.getName() + " has no default implementation. " +
-                    "Please define the method in Mapper interface and call it via getMapper()."
-            );
+            return getInvoker(getBinding(proxy), method).invoke(args);
         } catch (UnsupportedOperationException e) {
             // 重新抛出 UnsupportedOperationException，不包装
             throw e;
@@ -119,19 +110,7 @@ public class SqlMethodInterceptor implements InvocationHandler {
             if (method.isDefault()) {
                 log.error("JVM 断言失败：检测到 default 方法调用 {}。这通常发生在 Debug 模式下。" +
                     "请确保 Repository 接口中没有定义 default 方法。", method.getName());
-                throw new UnsupportedOperationException(
-                    String.format("""
-                                    不支持在 Repository 接口中定义 default 方法 %s(%s)。\
-                                    
-                                    推荐方式：在 Mapper 接口中定义方法，然后通过 getMapper() 调用。\
-                                    
-                                    示例：在 Mapper 中定义 %s(%s) 方法，然后使用 repository.getMapper().%s(...) 调用""",
-                        method.getName(),
-                        Arrays.toString(method.getParameterTypes()),
-                        method.getName(),
-                        Arrays.toString(method.getParameterTypes()),
-                        method.getName()),
-                    e);
+                throw new UnsupportedOperationException(unsupportedDefaultMethodMessage(method, "Mapper"), e);
             }
             // 如果不是 default 方法导致的断言失败，重新抛出
             throw e;
@@ -143,10 +122,114 @@ public class SqlMethodInterceptor implements InvocationHandler {
     }
 
     /**
-     * 调用mapper方法
+     * 获取代理类对应的绑定信息（代理类 -> Repository 接口、实体类、Mapper类、方法分派表）
+     */
+    private RepositoryBinding getBinding(Object proxy) {
+        Class<?> proxyClass = proxy.getClass();
+        RepositoryBinding binding = bindings.get(proxyClass);
+        return binding != null ? binding : bindings.computeIfAbsent(proxyClass, RepositoryBinding::new);
+    }
+
+    /**
+     * 获取方法的调用器，首次调用时解析
+     */
+    private MethodInvoker getInvoker(RepositoryBinding binding, Method method) {
+        MethodInvoker invoker = binding.invokers.get(method);
+        return invoker != null ? invoker : binding.invokers.computeIfAbsent(method, m -> compile(binding, m));
+    }
+
+    /**
+     * 把 Repository 方法解析为调用器，解析规则与原先每次调用时的判断顺序一致：
+     * <ol>
+     *   <li>getBaseMapper / getMapper：直接返回 Mapper 实例</li>
+     *   <li>ServiceImpl 已实现的接口方法（IService 等）：绑定为 ServiceImpl 上的 MethodHandle</li>
+     *   <li>Repository 接口中自定义的 default 方法：不支持，调用时抛出异常</li>
+     *   <li>BaseRepository 的 default 方法：交给 {@link #executeDefaultMethod} 按方法名分派</li>
+     *   <li>其他 Repository 方法：按签名匹配 ServiceImpl 方法，匹配不到时按实参类型查找</li>
+     *   <li>Mapper 方法：绑定为 Mapper 上的 MethodHandle</li>
+     * </ol>
+     */
+    private MethodInvoker compile(RepositoryBinding binding, Method method) {
+        String methodName = method.getName();
+
+        // 特殊处理getBaseMapper和getMapper方法
+        if (method.getParameterCount() == 0 && ("getBaseMapper".equals(methodName) || "getMapper".equals(methodName))) {
+            return args -> binding.getMapper();
+        }
+
+        // ServiceImpl 实现的接口方法（IService 及其父接口）直接调用 ServiceImpl
+        if (method.getDeclaringClass().isAssignableFrom(ServiceImpl.class)) {
+            return bind(method, () -> getService(binding));
+        }
+
+        // ⚠️ 关键：在 Debug 模式下，IDE 可能会检查 default 方法，导致 JVM 断言失败
+        // 非 BaseRepository 的 default 方法在解析阶段就确定为不支持，调用时不会触达该方法
+        if (method.isDefault() && !BaseRepository.class.equals(method.getDeclaringClass())
+                && !isDeclaredByBaseRepository(method)) {
+            String message = unsupportedDefaultMethodMessage(method, "Mapper");
+            return args -> {
+                throw new UnsupportedOperationException(message);
+            };
+        }
+
+        // 检查是否是BaseRepository的方法
+        if (isBaseRepositoryMethod(method)) {
+            if (method.isDefault()) {
+                return args -> executeDefaultMethod(binding, method, args);
+            }
+            // 对于非default方法，签名与 ServiceImpl 方法一致时直接绑定，否则按实参类型查找
+            try {
+                return bind(ServiceImpl.class.getMethod(methodName, method.getParameterTypes()), () -> getService(binding));
+            } catch (NoSuchMethodException e) {
+                return args -> callIServiceMethod(binding, methodName, args);
+            }
+        }
+
+        // 检查是否是Mapper的方法
+        if (isMapperMethod(method)) {
+            if (binding.mapperClass != null && method.getDeclaringClass().isAssignableFrom(binding.mapperClass)) {
+                return bind(method, binding::getMapper);
+            }
+            return args -> callMapperMethod(binding, method, args);
+        }
+
+        // 如果既没有SQL注解也不是默认方法，抛出异常
+        String message = "Method " + methodName + " has no default implementation. " +
+                "Please define the method in Mapper interface and call it via getMapper().";
+        return args -> {
+            throw new UnsupportedOperationException(message);
+        };
+    }
+
+    /**
+     * 把目标方法绑定为固定签名 (Object, Object[]) -> Object 的 MethodHandle，
+     * 调用时不再做方法查找和参数数组拷贝；无法访问时回退到反射调用
      */
-    private Object callMapperMethod(Method method, Object[] args) throws Exception {
-        var mapper = getMapperInstance(method);
+    private static MethodInvoker bind(Method target, Supplier<Object> receiver) {
+        MethodHandle handle;
+        try {
+            handle = MethodHandles.publicLookup().unreflect(target).asFixedArity();
+        } catch (IllegalAccessException e) {
+            log.debug("Falling back to reflective invocation for {}: {}", target, e.getMessage());
+            return args -> {
+                try {
+                    return target.invoke(receiver.get(), args);
+                } catch (InvocationTargetException ex) {
+                    throw ex.getCause();
+                }
+            };
+        }
+        int parameterCount = target.getParameterCount();
+        MethodHandle spreader = handle.asType(MethodType.genericMethodType(parameterCount + 1))
+                .asSpreader(1, Object[].class, parameterCount);
+        return args -> (Object) spreader.invokeExact(receiver.get(), args);
+    }
+
+    /**
+     * 调用mapper方法（方法未声明在 Mapper 接口上时按名称查找）
+     */
+    private Object callMapperMethod(RepositoryBinding binding, Method method, Object[] args) throws Exception {
+        var mapper = binding.getMapper();
 
         // 尝试在mapper上调用相同的方法
         try {
@@ -160,6 +243,33 @@ public class SqlMethodInterceptor implements InvocationHandler {
         }
     }
 
+    /**
+     * 检查方法是否在 BaseRepository 中定义（含继承的 IService 方法）
+     */
+    private boolean isDeclaredByBaseRepository(Method method) {
+        try {
+            BaseRepository.class.getMethod(method.getName(), method.getParameterTypes());
+            return true;
+        } catch (NoSuchMethodException e) {
+            // 方法不在 BaseRepository 中定义
+            return false;
+        }
+    }
+
+    /**
+     * 不支持 Repository 接口自定义 default 方法时的提示信息
+     */
+    private static String unsupportedDefaultMethodMessage(Method method, String mapperName) {
+        String parameterTypes = Arrays.toString(method.getParameterTypes());
+        return String.format("""
+                        不支持在 Repository 接口中定义 default 方法 %s(%s)。\
+                        
+                        推荐方式：在 Mapper 接口中定义方法，然后通过 getMapper() 调用。\
+                        
+                        示例：在 %s 中定义 %s(%s) 方法，然后使用 repository.getMapper().%s(...) 调用""",
+                method.getName(), parameterTypes, mapperName, method.getName(), parameterTypes, method.getName());
+    }
+
     /**
      * 检查是否是BaseRepository的方法
      */
@@ -177,12 +287,13 @@ public class SqlMethodInterceptor implements InvocationHandler {
     private boolean isMapperMethod(Method method) {
         var declaringClass = method.getDeclaringClass();
         // 检查是否是BaseMapper或其子接口的方法
-        return com.baomidou.mybatisplus.core.mapper.BaseMapper.class.isAssignableFrom(declaringClass) ||
+        return BaseMapper.class.isAssignableFrom(declaringClass) ||
                 declaringClass.getName().contains("Mapper");
     }
 
     /**
      * 使用Spring BeanFactory创建ServiceImpl实例（最终方案）
+     * 会执行完整的 Bean 初始化流程，只应通过 {@link #getService} 为每个 Repository 调用一次
      */
     private Object createServiceImplWithReflection(Class<?> entityClass, Class<?> mapperClass, Object mapper) {
         try {
@@ -252,755 +363,605 @@ public class SqlMethodInterceptor implements InvocationHandler {
     }
 
     /**
-     * 获取Mapper实例，使用Optional优化空值处理
+     * 获取 Repository 对应的 ServiceImpl 实例
+     * 每个 Repository 只在首次使用时创建并初始化一次（双重检查），之后的查询直接复用，不再经过 BeanFactory
      */
-    private Optional<Object> getMapperInstanceOptional(Method method) {
-        var repositoryInterface = method.getDeclaringClass();
-        var genericInterfaces = repositoryInterface.getGenericInterfaces();
-
-        for (var genericInterface : genericInterfaces) {
-            if (genericInterface instanceof ParameterizedType pt &&
-                    pt.getRawType().getTypeName().equals(BaseRepository.class.getName())) {
-
-                var mapperClass = (Class<?>) pt.getActualTypeArguments()[1];
-                try {
-                    var mapper = staticApplicationContext.getBean(mapperClass);
-                    return Optional.ofNullable(mapper);
-                } catch (Exception e) {
-                    log.error("Failed to get mapper instance for class: {}", mapperClass.getSimpleName(), e);
+    private Object getService(RepositoryBinding binding) {
+        Object service = binding.service;
+        if (service == null) {
+            synchronized (binding) {
+                service = binding.service;
+                if (service == null) {
+                    service = createServiceImplWithReflection(binding.entityClass, binding.mapperClass, binding.getMapper());
+                    binding.service = service;
                 }
             }
         }
-        return Optional.empty();
-    }
-
-    /**
-     * 获取Mapper实例（保持向后兼容）
-     */
-    private Object getMapperInstance(Method method) throws Exception {
-        return getMapperInstanceOptional(method)
-                .orElseThrow(() -> new RuntimeException("Cannot resolve Mapper for method: " + method.getName()));
+        return service;
     }
 
     /**
-     * 创建 Service 实例并执行 EnhancedQueryBuilder 方法（辅助方法，消除重复代码）
+     * 获取复用的 Service 实例并执行 EnhancedQueryBuilder 方法（辅助方法，消除重复代码）
      * 
-     * @param proxy 代理对象
-     * @param mapper Mapper 实例
+     * @param binding Repository 绑定信息
      * @param queryDTO 查询DTO
      * @param voClass VO类型
      * @param queryExecutor 查询执行器（接收 service 和 voClass，返回查询结果）
      * @return 查询结果
      */
     @SuppressWarnings("unchecked")
-    private Object executeEnhancedQuery(Object proxy, Object mapper, Object queryDTO, Class<?> voClass, 
+    private Object executeEnhancedQuery(RepositoryBinding binding, Object queryDTO, Class<?> voClass,
                                         java.util.function.BiFunction<IService<?>, Class<? extends BaseVO>, Object> queryExecutor) {
-        var service = createServiceImplWithReflection(getEntityClass(proxy), getMapperClass(proxy), mapper);
+        var service = getService(binding);
         return queryExecutor.apply((IService<?>) service, (Class<? extends BaseVO>) voClass);
     }
 
     /**
-     * 处理BaseRepository的方法
+     * 执行default方法的实现逻辑
      */
-    private Object handleBaseRepositoryMethod(Object proxy, Method method, Object[] args) throws Exception {
-        log.info("Handling BaseRepository method: {}", method.getName());
-        log.info("Method isDefault: {}, declaringClass: {}", method.isDefault(), method.getDeclaringClass().getName());
-
-        // 特殊处理getBaseMapper和getMapper方法
-        if ("getBaseMapper".equals(method.getName())) {
-            return handleGetBaseMapper(proxy);
-        }
-        
-        // 特殊处理getMapper方法（BaseRepository中定义的方法）
-        if ("getMapper".equals(method.getName())) {
-            return handleGetMapper(proxy);
+    private Object executeDefaultMethod(RepositoryBinding binding, Method method, Object[] args) throws Exception {
+        var methodName = method.getName();
+        if (binding.mapperClass == null) {
+            throw new UnsupportedOperationException("Default method not implemented: " + methodName);
         }
 
-        // 处理default方法
-        if (method.isDefault()) {
-            // 检查是否是 BaseRepository 中定义的 default 方法
-            Class<?> declaringClass = method.getDeclaringClass();
-            boolean isBaseRepositoryMethod = false;
-            try {
-                BaseRepository.class.getMethod(method.getName(), method.getParameterTypes());
-                isBaseRepositoryMethod = true;
-            } catch (NoSuchMethodException e) {
-                // 方法不在 BaseRepository 中定义
-            }
-            
-            // 如果是 BaseRepository 中定义的 default 方法，正常处理
-            if (isBaseRepositoryMethod || BaseRepository.class.equals(declaringClass)) {
-                log.info("Calling BaseRepository default method: {} with args: {}", method.getName(), args);
-                return executeDefaultMethod(proxy, method, args);
-            }
-            
-            // 如果是 Repository 接口中自定义的 default 方法，直接抛出异常，避免 JVM 断言失败
-            log.warn("检测到 Repository 接口中自定义的 default 方法: {}，不再支持", method.getName());
-            throw new UnsupportedOperationException(
-                String.format("""
-                                不支持在 Repository 接口中定义 default 方法 %s(%s)。\
-                                
-                                推荐方式：在 Mapper 接口中定义方法，然后通过 getMapper() 调用。\
-                                
-                                示例：在 Mapper 中定义 %s(%s) 方法，然后使用 repository.getMapper().%s(...) 调用""",
-                    method.getName(),
-                    java.util.Arrays.toString(method.getParameterTypes()),
-                    method.getName(),
-                    java.util.Arrays.toString(method.getParameterTypes()),
-                    method.getName()));
-        }
+        // 使用现代switch表达式处理不同的方法
+            return switch (methodName) {
+                // IService 方法处理
+                case "save", "getById", "updateById", "removeById", "list", "page", "count", "getOne",
+                     "saveBatch", "saveOrUpdateBatch", "updateBatchById", "removeBatchByIds", 
+                     "listByIds", "remove", "removeByMap", "update", "updateByMap", "exists" ->
+                        callIServiceMethod(binding, methodName, args);
+
+                // BaseRepository default 方法处理
+                case "pageWithCondition" -> {
+                    if (args.length == 1 && args[0] instanceof PageDTO<?> queryDTO) {
+                        var service = getService(binding);
+                        yield EnhancedQueryBuilder.pageWithCondition((IService<?>) service, queryDTO);
+                    } else if (args.length == 2 && args[0] instanceof PageDTO<?> queryDTO && args[1] instanceof Class<?> voClass) {
+                        yield executeEnhancedQuery(binding, queryDTO, voClass, 
+                            (service, vo) -> EnhancedQueryBuilder.pageWithCondition(service, (PageDTO<?>) queryDTO, vo));
+                    }
+                    throw new UnsupportedOperationException("Invalid arguments for pageWithCondition");
+                }
 
-        // 对于非default方法（如IService的方法），直接调用IService实现
-        log.info("Calling IService method: {} with args: {}", method.getName(), args);
-        return callIServiceMethod(proxy, method.getName(), args);
-    }
+                case "listWithCondition", "listWithDTO" -> {
+                    if (args.length == 1) {
+                        var wrapper = QueryConditionBuilder.buildQueryWrapper(args[0]);
+                        yield callIServiceMethod(binding, "list", new Object[]{wrapper});
+                    } else if (args.length == 2 && args[1] instanceof Class<?> voClass) {
+                        yield executeEnhancedQuery(binding, args[0], voClass, 
+                            (service, vo) -> EnhancedQueryBuilder.listWithCondition(service, (QueryDTO<?>) args[0], vo));
+                    }
+                    throw new UnsupportedOperationException("Invalid arguments for " + methodName);
+                }
 
-    /**
-     * 执行default方法的实现逻辑
-     */
-    private Object executeDefaultMethod(Object proxy, Method method, Object[] args) throws Exception {
-        var methodName = method.getName();
+                case "getOneWithCondition", "getOneWithDTO" -> {
+                    if (args.length == 1) {
+                        var wrapper = QueryConditionBuilder.buildQueryWrapper(args[0]);
+                        yield callIServiceMethod(binding, "getOne", new Object[]{wrapper});
+                    } else if (args.length == 2 && args[1] instanceof Class<?> voClass) {
+                        yield executeEnhancedQuery(binding, args[0], voClass, 
+                            (service, vo) -> EnhancedQueryBuilder.getOneWithCondition(service, (QueryDTO<?>) args[0], vo));
+                    }
+                    throw new UnsupportedOperationException("Invalid arguments for " + methodName);
+                }
 
-        // 获取Repository接口的泛型参数
-        var repositoryInterface = proxy.getClass().getInterfaces()[0];
-        var genericInterfaces = repositoryInterface.getGenericInterfaces();
-        for (var genericInterface : genericInterfaces) {
-            if (genericInterface instanceof ParameterizedType pt) {
-                if (pt.getRawType().getTypeName().equals(BaseRepository.class.getName())) {
-                    var mapperClass = (Class<?>) pt.getActualTypeArguments()[1];
-
-                    // 获取Mapper实例
-                    if (staticApplicationContext == null) {
-                        throw new RuntimeException("ApplicationContext not initialized");
+                case "countWithCondition", "countWithDTO" -> {
+                    if (args.length == 1) {
+                        var wrapper = QueryConditionBuilder.buildQueryWrapper(args[0]);
+                        yield callIServiceMethod(binding, "count", new Object[]{wrapper});
                     }
-                    var mapper = staticApplicationContext.getBean(mapperClass);
-
-                    // 使用现代switch表达式处理不同的方法
-                    return switch (methodName) {
-                        // IService 方法处理
-                        case "save", "getById", "updateById", "removeById", "list", "page", "count", "getOne",
-                             "saveBatch", "saveOrUpdateBatch", "updateBatchById", "removeBatchByIds", 
-                             "listByIds", "remove", "removeByMap", "update", "updateByMap", "exists" ->
-                                callIServiceMethod(proxy, methodName, args);
-
-                        // BaseRepository default 方法处理
-                        case "pageWithCondition" -> {
-                            if (args.length == 1 && args[0] instanceof PageDTO<?> queryDTO) {
-                                var service = createServiceImplWithReflection(getEntityClass(proxy), getMapperClass(proxy), mapper);
-                                yield EnhancedQueryBuilder.pageWithCondition((IService<?>) service, queryDTO);
-                            } else if (args.length == 2 && args[0] instanceof PageDTO<?> queryDTO && args[1] instanceof Class<?> voClass) {
-                                yield executeEnhancedQuery(proxy, mapper, queryDTO, voClass, 
-                                    (service, vo) -> EnhancedQueryBuilder.pageWithCondition(service, (PageDTO<?>) queryDTO, vo));
-                            }
-                            throw new UnsupportedOperationException("Invalid arguments for pageWithCondition");
-                        }
+                    throw new UnsupportedOperationException("Invalid arguments for " + methodName);
+                }
 
-                        case "listWithCondition", "listWithDTO" -> {
-                            if (args.length == 1) {
-                                var wrapper = QueryConditionBuilder.buildQueryWrapper(args[0]);
-                                yield callIServiceMethod(proxy, "list", new Object[]{wrapper});
-                            } else if (args.length == 2 && args[1] instanceof Class<?> voClass) {
-                                yield executeEnhancedQuery(proxy, mapper, args[0], voClass, 
-                                    (service, vo) -> EnhancedQueryBuilder.listWithCondition(service, (QueryDTO<?>) args[0], vo));
-                            }
-                            throw new UnsupportedOperationException("Invalid arguments for " + methodName);
-                        }
+                // 增强查询方法
+                case "pageWithAggregation" -> {
+                    if (args.length == 2 && args[0] instanceof AggregationPageDTO<?> queryDTO && args[1] instanceof Class<?> voClass) {
+                        yield executeEnhancedQuery(binding, queryDTO, voClass, 
+                            (service, vo) -> EnhancedQueryBuilder.pageWithAggregation(service, (AggregationPageDTO<?>) queryDTO, vo));
+                    }
+                    throw new UnsupportedOperationException("Invalid arguments for pageWithAggregation - requires AggregationPageDTO and VO class");
+                }
 
-                        case "getOneWithCondition", "getOneWithDTO" -> {
-                            if (args.length == 1) {
-                                var wrapper = QueryConditionBuilder.buildQueryWrapper(args[0]);
-                                yield callIServiceMethod(proxy, "getOne", new Object[]{wrapper});
-                            } else if (args.length == 2 && args[1] instanceof Class<?> voClass) {
-                                yield executeEnhancedQuery(proxy, mapper, args[0], voClass, 
-                                    (service, vo) -> EnhancedQueryBuilder.getOneWithCondition(service, (QueryDTO<?>) args[0], vo));
-                            }
-                            throw new UnsupportedOperationException("Invalid arguments for " + methodName);
-                        }
+                case "pageWithGroupBy" -> {
+                    if (args.length == 2 && args[0] instanceof AggregationPageDTO<?> queryDTO && args[1] instanceof Class<?> voClass) {
+                        yield executeEnhancedQuery(binding, queryDTO, voClass, 
+                            (service, vo) -> EnhancedQueryBuilder.pageWithGroupBy(service, (AggregationPageDTO<?>) queryDTO, vo));
+                    }
+                    throw new UnsupportedOperationException("Invalid arguments for pageWithGroupBy - requires AggregationPageDTO and VO class");
+                }
 
-                        case "countWithCondition", "countWithDTO" -> {
-                            if (args.length == 1) {
-                                var wrapper = QueryConditionBuilder.buildQueryWrapper(args[0]);
-                                yield callIServiceMethod(proxy, "count", new Object[]{wrapper});
-                            }
-                            throw new UnsupportedOperationException("Invalid arguments for " + methodName);
-                        }
+                case "pageWithPerformance" -> {
+                    if (args.length == 2 && args[0] instanceof PerformancePageDTO<?> queryDTO && args[1] instanceof Class<?> voClass) {
+                        yield executeEnhancedQuery(binding, queryDTO, voClass, 
+                            (service, vo) -> EnhancedQueryBuilder.pageWithPerformance(service, (PerformancePageDTO<?>) queryDTO, vo));
+                    }
+                    throw new UnsupportedOperationException("Invalid arguments for pageWithPerformance - requires PerformancePageDTO and VO class");
+                }
 
-                        // 增强查询方法
-                        case "pageWithAggregation" -> {
-                            if (args.length == 2 && args[0] instanceof AggregationPageDTO<?> queryDTO && args[1] instanceof Class<?> voClass) {
-                                yield executeEnhancedQuery(proxy, mapper, queryDTO, voClass, 
-                                    (service, vo) -> EnhancedQueryBuilder.pageWithAggregation(service, (AggregationPageDTO<?>) queryDTO, vo));
-                            }
-                            throw new UnsupportedOperationException("Invalid arguments for pageWithAggregation - requires AggregationPageDTO and VO class");
-                        }
+                case "pageWithSelectFields" -> {
+                    if (args.length == 2 && args[0] instanceof PerformancePageDTO<?> queryDTO && args[1] instanceof Class<?> voClass) {
+                        yield executeEnhancedQuery(binding, queryDTO, voClass, 
+                            (service, vo) -> EnhancedQueryBuilder.pageWithSelectFields(service, (PerformancePageDTO<?>) queryDTO, vo));
+                    }
+                    throw new UnsupportedOperationException("Invalid arguments for pageWithSelectFields - requires PerformancePageDTO and VO class");
+                }
 
-                        case "pageWithGroupBy" -> {
-                            if (args.length == 2 && args[0] instanceof AggregationPageDTO<?> queryDTO && args[1] instanceof Class<?> voClass) {
-                                yield executeEnhancedQuery(proxy, mapper, queryDTO, voClass, 
-                                    (service, vo) -> EnhancedQueryBuilder.pageWithGroupBy(service, (AggregationPageDTO<?>) queryDTO, vo));
-                            }
-                            throw new UnsupportedOperationException("Invalid arguments for pageWithGroupBy - requires AggregationPageDTO and VO class");
-                        }
+                case "pageWithVoMapping" -> {
+                    if (args.length == 2 && args[0] instanceof PageDTO<?> queryDTO && args[1] instanceof Class<?> voClass) {
+                        yield executeEnhancedQuery(binding, queryDTO, voClass, 
+                            (service, vo) -> EnhancedQueryBuilder.pageWithCondition(service, (PageDTO<?>) queryDTO, vo));
+                    }
+                    throw new UnsupportedOperationException("Invalid arguments for pageWithVoMapping");
+                }
 
-                        case "pageWithPerformance" -> {
-                            if (args.length == 2 && args[0] instanceof PerformancePageDTO<?> queryDTO && args[1] instanceof Class<?> voClass) {
-                                yield executeEnhancedQuery(proxy, mapper, queryDTO, voClass, 
-                                    (service, vo) -> EnhancedQueryBuilder.pageWithPerformance(service, (PerformancePageDTO<?>) queryDTO, vo));
-                            }
-                            throw new UnsupportedOperationException("Invalid arguments for pageWithPerformance - requires PerformancePageDTO and VO class");
-                        }
+                case "listWithVoMapping" -> {
+                    if (args.length == 2 && args[0] instanceof QueryDTO<?> queryDTO && args[1] instanceof Class<?> voClass) {
+                        yield executeEnhancedQuery(binding, queryDTO, voClass, 
+                            (service, vo) -> EnhancedQueryBuilder.listWithCondition(service, (QueryDTO<?>) queryDTO, vo));
+                    }
+                    throw new UnsupportedOperationException("Invalid arguments for listWithVoMapping");
+                }
 
-                        case "pageWithSelectFields" -> {
-                            if (args.length == 2 && args[0] instanceof PerformancePageDTO<?> queryDTO && args[1] instanceof Class<?> voClass) {
-                                yield executeEnhancedQuery(proxy, mapper, queryDTO, voClass, 
-                                    (service, vo) -> EnhancedQueryBuilder.pageWithSelectFields(service, (PerformancePageDTO<?>) queryDTO, vo));
-                            }
-                            throw new UnsupportedOperationException("Invalid arguments for pageWithSelectFields - requires PerformancePageDTO and VO class");
-                        }
+                case "getOneWithVoMapping" -> {
+                    if (args.length == 2 && args[0] instanceof QueryDTO<?> queryDTO && args[1] instanceof Class<?> voClass) {
+                        yield executeEnhancedQuery(binding, queryDTO, voClass, 
+                            (service, vo) -> EnhancedQueryBuilder.getOneWithCondition(service, (QueryDTO<?>) queryDTO, vo));
+                    }
+                    throw new UnsupportedOperationException("Invalid arguments for getOneWithVoMapping");
+                }
 
-                        case "pageWithVoMapping" -> {
-                            if (args.length == 2 && args[0] instanceof PageDTO<?> queryDTO && args[1] instanceof Class<?> voClass) {
-                                yield executeEnhancedQuery(proxy, mapper, queryDTO, voClass, 
-                                    (service, vo) -> EnhancedQueryBuilder.pageWithCondition(service, (PageDTO<?>) queryDTO, vo));
-                            }
-                            throw new UnsupportedOperationException("Invalid arguments for pageWithVoMapping");
-                        }
+                case "pageWithComplexQuery" -> {
+                    if (args.length == 2 && args[0] instanceof ComplexPageDTO<?> queryDTO && args[1] instanceof Class<?> voClass) {
+                        yield executeEnhancedQuery(binding, queryDTO, voClass, 
+                            (service, vo) -> EnhancedQueryBuilder.pageWithComplexQuery(service, (ComplexPageDTO<?>) queryDTO, vo));
+                    }
+                    throw new UnsupportedOperationException("Invalid arguments for pageWithComplexQuery - requires ComplexPageDTO and VO class");
+                }
 
-                        case "listWithVoMapping" -> {
-                            if (args.length == 2 && args[0] instanceof QueryDTO<?> queryDTO && args[1] instanceof Class<?> voClass) {
-                                yield executeEnhancedQuery(proxy, mapper, queryDTO, voClass, 
-                                    (service, vo) -> EnhancedQueryBuilder.listWithCondition(service, (QueryDTO<?>) queryDTO, vo));
-                            }
-                            throw new UnsupportedOperationException("Invalid arguments for listWithVoMapping");
-                        }
+                case "pageWithEnhanced" -> {
+                    if (args.length == 2 && args[0] instanceof EnhancedPageDTO<?> queryDTO && args[1] instanceof Class<?> voClass) {
+                        yield executeEnhancedQuery(binding, queryDTO, voClass, 
+                            (service, vo) -> EnhancedQueryBuilder.pageWithEnhanced(service, (EnhancedPageDTO<?>) queryDTO, vo));
+                    }
+                    throw new UnsupportedOperationException("Invalid arguments for pageWithEnhanced - requires EnhancedPageDTO and VO class");
+                }
 
-                        case "getOneWithVoMapping" -> {
-                            if (args.length == 2 && args[0] instanceof QueryDTO<?> queryDTO && args[1] instanceof Class<?> voClass) {
-                                yield executeEnhancedQuery(proxy, mapper, queryDTO, voClass, 
-                                    (service, vo) -> EnhancedQueryBuilder.getOneWithCondition(service, (QueryDTO<?>) queryDTO, vo));
-                            }
-                            throw new UnsupportedOperationException("Invalid arguments for getOneWithVoMapping");
-                        }
+                // 便捷查询方法
+                case "quickPage" -> {
+                    if (args.length == 2 && args[0] instanceof PageDTO<?> pageDTO && args[1] instanceof Class<?> voClass) {
+                        yield executeEnhancedQuery(binding, pageDTO, voClass, 
+                            (service, vo) -> EnhancedQueryBuilder.quickPage(service, (PageDTO<?>) pageDTO, vo));
+                    }
+                    throw new UnsupportedOperationException("Invalid arguments for quickPage");
+                }
 
-                        case "pageWithComplexQuery" -> {
-                            if (args.length == 2 && args[0] instanceof ComplexPageDTO<?> queryDTO && args[1] instanceof Class<?> voClass) {
-                                yield executeEnhancedQuery(proxy, mapper, queryDTO, voClass, 
-                                    (service, vo) -> EnhancedQueryBuilder.pageWithComplexQuery(service, (ComplexPageDTO<?>) queryDTO, vo));
-                            }
-                            throw new UnsupportedOperationException("Invalid arguments for pageWithComplexQuery - requires ComplexPageDTO and VO class");
-                        }
+                case "quickList" -> {
+                    if (args.length == 2 && args[0] instanceof QueryDTO<?> queryDTO && args[1] instanceof Class<?> voClass) {
+                        yield executeEnhancedQuery(binding, queryDTO, voClass, 
+                            (service, vo) -> EnhancedQueryBuilder.quickList(service, (QueryDTO<?>) queryDTO, vo));
+                    }
+                    throw new UnsupportedOperationException("Invalid arguments for quickList");
+                }
 
-                        case "pageWithEnhanced" -> {
-                            if (args.length == 2 && args[0] instanceof EnhancedPageDTO<?> queryDTO && args[1] instanceof Class<?> voClass) {
-                                yield executeEnhancedQuery(proxy, mapper, queryDTO, voClass, 
-                                    (service, vo) -> EnhancedQueryBuilder.pageWithEnhanced(service, (EnhancedPageDTO<?>) queryDTO, vo));
-                            }
-                            throw new UnsupportedOperationException("Invalid arguments for pageWithEnhanced - requires EnhancedPageDTO and VO class");
-                        }
+                case "quickGetOne" -> {
+                    if (args.length == 2 && args[0] instanceof QueryDTO<?> queryDTO && args[1] instanceof Class<?> voClass) {
+                        yield executeEnhancedQuery(binding, queryDTO, voClass, 
+                            (service, vo) -> EnhancedQueryBuilder.quickGetOne(service, (QueryDTO<?>) queryDTO, vo));
+                    }
+                    throw new UnsupportedOperationException("Invalid arguments for quickGetOne");
+                }
 
-                        // 便捷查询方法
-                        case "quickPage" -> {
-                            if (args.length == 2 && args[0] instanceof PageDTO<?> pageDTO && args[1] instanceof Class<?> voClass) {
-                                yield executeEnhancedQuery(proxy, mapper, pageDTO, voClass, 
-                                    (service, vo) -> EnhancedQueryBuilder.quickPage(service, (PageDTO<?>) pageDTO, vo));
-                            }
-                            throw new UnsupportedOperationException("Invalid arguments for quickPage");
-                        }
+                // 异步查询方法
+                case "pageWithConditionAsync" -> {
+                    if (args.length == 2 && args[0] instanceof PageDTO<?> pageDTO && args[1] instanceof Class<?> voClass) {
+                        yield executeEnhancedQuery(binding, pageDTO, voClass, 
+                            (service, vo) -> EnhancedQueryBuilder.pageWithConditionAsync(service, (PageDTO<?>) pageDTO, vo));
+                    }
+                    throw new UnsupportedOperationException("Invalid arguments for pageWithConditionAsync");
+                }
 
-                        case "quickList" -> {
-                            if (args.length == 2 && args[0] instanceof QueryDTO<?> queryDTO && args[1] instanceof Class<?> voClass) {
-                                yield executeEnhancedQuery(proxy, mapper, queryDTO, voClass, 
-                                    (service, vo) -> EnhancedQueryBuilder.quickList(service, (QueryDTO<?>) queryDTO, vo));
-                            }
-                            throw new UnsupportedOperationException("Invalid arguments for quickList");
-                        }
+                case "listWithConditionAsync" -> {
+                    if (args.length == 2 && args[0] instanceof QueryDTO<?> queryDTO && args[1] instanceof Class<?> voClass) {
+                        yield executeEnhancedQuery(binding, queryDTO, voClass, 
+                            (service, vo) -> EnhancedQueryBuilder.listWithConditionAsync(service, (QueryDTO<?>) queryDTO, vo));
+                    }
+                    throw new UnsupportedOperationException("Invalid arguments for listWithConditionAsync");
+                }
 
-                        case "quickGetOne" -> {
-                            if (args.length == 2 && args[0] instanceof QueryDTO<?> queryDTO && args[1] instanceof Class<?> voClass) {
-                                yield executeEnhancedQuery(proxy, mapper, queryDTO, voClass, 
-                                    (service, vo) -> EnhancedQueryBuilder.quickGetOne(service, (QueryDTO<?>) queryDTO, vo));
-                            }
-                            throw new UnsupportedOperationException("Invalid arguments for quickGetOne");
-                        }
+                case "getOneWithConditionAsync" -> {
+                    if (args.length == 2 && args[0] instanceof QueryDTO<?> queryDTO && args[1] instanceof Class<?> voClass) {
+                        yield executeEnhancedQuery(binding, queryDTO, voClass, 
+                            (service, vo) -> EnhancedQueryBuilder.getOneWithConditionAsync(service, (QueryDTO<?>) queryDTO, vo));
+                    }
+                    throw new UnsupportedOperationException("Invalid arguments for getOneWithConditionAsync");
+                }
 
-                        // 异步查询方法
-                        case "pageWithConditionAsync" -> {
-                            if (args.length == 2 && args[0] instanceof PageDTO<?> pageDTO && args[1] instanceof Class<?> voClass) {
-                                yield executeEnhancedQuery(proxy, mapper, pageDTO, voClass, 
-                                    (service, vo) -> EnhancedQueryBuilder.pageWithConditionAsync(service, (PageDTO<?>) pageDTO, vo));
-                            }
-                            throw new UnsupportedOperationException("Invalid arguments for pageWithConditionAsync");
-                        }
+                case "pageWithPerformanceAsync" -> {
+                    if (args.length == 2 && args[0] instanceof PerformancePageDTO<?> pageDTO && args[1] instanceof Class<?> voClass) {
+                        yield executeEnhancedQuery(binding, pageDTO, voClass, 
+                            (service, vo) -> EnhancedQueryBuilder.pageWithPerformanceAsync(service, (PerformancePageDTO<?>) pageDTO, vo));
+                    }
+                    throw new UnsupportedOperationException("Invalid arguments for pageWithPerformanceAsync");
+                }
 
-                        case "listWithConditionAsync" -> {
-                            if (args.length == 2 && args[0] instanceof QueryDTO<?> queryDTO && args[1] instanceof Class<?> voClass) {
-                                yield executeEnhancedQuery(proxy, mapper, queryDTO, voClass, 
-                                    (service, vo) -> EnhancedQueryBuilder.listWithConditionAsync(service, (QueryDTO<?>) queryDTO, vo));
-                            }
-                            throw new UnsupportedOperationException("Invalid arguments for listWithConditionAsync");
-                        }
+                case "pageWithAggregationAsync" -> {
+                    if (args.length == 2 && args[0] instanceof AggregationPageDTO<?> pageDTO && args[1] instanceof Class<?> voClass) {
+                        yield executeEnhancedQuery(binding, pageDTO, voClass, 
+                            (service, vo) -> EnhancedQueryBuilder.pageWithAggregationAsync(service, (AggregationPageDTO<?>) pageDTO, vo));
+                    }
+                    throw new UnsupportedOperationException("Invalid arguments for pageWithAggregationAsync");
+                }
 
-                        case "getOneWithConditionAsync" -> {
-                            if (args.length == 2 && args[0] instanceof QueryDTO<?> queryDTO && args[1] instanceof Class<?> voClass) {
-                                yield executeEnhancedQuery(proxy, mapper, queryDTO, voClass, 
-                                    (service, vo) -> EnhancedQueryBuilder.getOneWithConditionAsync(service, (QueryDTO<?>) queryDTO, vo));
-                            }
-                            throw new UnsupportedOperationException("Invalid arguments for getOneWithConditionAsync");
-                        }
+                case "pageWithEnhancedAsync" -> {
+                    if (args.length == 2 && args[0] instanceof EnhancedPageDTO<?> pageDTO && args[1] instanceof Class<?> voClass) {
+                        yield executeEnhancedQuery(binding, pageDTO, voClass, 
+                            (service, vo) -> EnhancedQueryBuilder.pageWithEnhancedAsync(service, (EnhancedPageDTO<?>) pageDTO, vo));
+                    }
+                    throw new UnsupportedOperationException("Invalid arguments for pageWithEnhancedAsync");
+                }
 
-                        case "pageWithPerformanceAsync" -> {
-                            if (args.length == 2 && args[0] instanceof PerformancePageDTO<?> pageDTO && args[1] instanceof Class<?> voClass) {
-                                yield executeEnhancedQuery(proxy, mapper, pageDTO, voClass, 
-                                    (service, vo) -> EnhancedQueryBuilder.pageWithPerformanceAsync(service, (PerformancePageDTO<?>) pageDTO, vo));
-                            }
-                            throw new UnsupportedOperationException("Invalid arguments for pageWithPerformanceAsync");
-                        }
+                case "countWithConditionAsync" -> {
+                    if (args.length == 2 && args[0] instanceof QueryDTO<?> queryDTO && args[1] instanceof Class<?> voClass) {
+                        yield executeEnhancedQuery(binding, queryDTO, voClass, 
+                            (service, vo) -> EnhancedQueryBuilder.countWithConditionAsync(service, (QueryDTO<?>) queryDTO, vo));
+                    }
+                    throw new UnsupportedOperationException("Invalid arguments for countWithConditionAsync");
+                }
 
-                        case "pageWithAggregationAsync" -> {
-                            if (args.length == 2 && args[0] instanceof AggregationPageDTO<?> pageDTO && args[1] instanceof Class<?> voClass) {
-                                yield executeEnhancedQuery(proxy, mapper, pageDTO, voClass, 
-                                    (service, vo) -> EnhancedQueryBuilder.pageWithAggregationAsync(service, (AggregationPageDTO<?>) pageDTO, vo));
-                            }
-                            throw new UnsupportedOperationException("Invalid arguments for pageWithAggregationAsync");
-                        }
+                case "existsWithConditionAsync" -> {
+                    if (args.length == 2 && args[0] instanceof QueryDTO<?> queryDTO && args[1] instanceof Class<?> voClass) {
+                        yield executeEnhancedQuery(binding, queryDTO, voClass, 
+                            (service, vo) -> EnhancedQueryBuilder.existsWithConditionAsync(service, (QueryDTO<?>) queryDTO, vo));
+                    }
+                    throw new UnsupportedOperationException("Invalid arguments for existsWithConditionAsync");
+                }
 
-                        case "pageWithEnhancedAsync" -> {
-                            if (args.length == 2 && args[0] instanceof EnhancedPageDTO<?> pageDTO && args[1] instanceof Class<?> voClass) {
-                                yield executeEnhancedQuery(proxy, mapper, pageDTO, voClass, 
-                                    (service, vo) -> EnhancedQueryBuilder.pageWithEnhancedAsync(service, (EnhancedPageDTO<?>) pageDTO, vo));
-                            }
-                            throw new UnsupportedOperationException("Invalid arguments for pageWithEnhancedAsync");
-                        }
+                case "quickPageAsync" -> {
+                    if (args.length == 2 && args[0] instanceof PageDTO<?> pageDTO && args[1] instanceof Class<?> voClass) {
+                        yield executeEnhancedQuery(binding, pageDTO, voClass, 
+                            (service, vo) -> EnhancedQueryBuilder.pageWithConditionAsync(service, (PageDTO<?>) pageDTO, vo));
+                    }
+                    throw new UnsupportedOperationException("Invalid arguments for quickPageAsync");
+                }
 
-                        case "countWithConditionAsync" -> {
-                            if (args.length == 2 && args[0] instanceof QueryDTO<?> queryDTO && args[1] instanceof Class<?> voClass) {
-                                yield executeEnhancedQuery(proxy, mapper, queryDTO, voClass, 
-                                    (service, vo) -> EnhancedQueryBuilder.countWithConditionAsync(service, (QueryDTO<?>) queryDTO, vo));
-                            }
-                            throw new UnsupportedOperationException("Invalid arguments for countWithConditionAsync");
-                        }
+                case "quickListAsync" -> {
+                    if (args.length == 2 && args[0] instanceof QueryDTO<?> queryDTO && args[1] instanceof Class<?> voClass) {
+                        yield executeEnhancedQuery(binding, queryDTO, voClass, 
+                            (service, vo) -> EnhancedQueryBuilder.listWithConditionAsync(service, (QueryDTO<?>) queryDTO, vo));
+                    }
+                    throw new UnsupportedOperationException("Invalid arguments for quickListAsync");
+                }
 
-                        case "existsWithConditionAsync" -> {
-                            if (args.length == 2 && args[0] instanceof QueryDTO<?> queryDTO && args[1] instanceof Class<?> voClass) {
-                                yield executeEnhancedQuery(proxy, mapper, queryDTO, voClass, 
-                                    (service, vo) -> EnhancedQueryBuilder.existsWithConditionAsync(service, (QueryDTO<?>) queryDTO, vo));
-                            }
-                            throw new UnsupportedOperationException("Invalid arguments for existsWithConditionAsync");
-                        }
+                case "quickGetOneAsync" -> {
+                    if (args.length == 2 && args[0] instanceof QueryDTO<?> queryDTO && args[1] instanceof Class<?> voClass) {
+                        yield executeEnhancedQuery(binding, queryDTO, voClass, 
+                            (service, vo) -> EnhancedQueryBuilder.getOneWithConditionAsync(service, (QueryDTO<?>) queryDTO, vo));
+                    }
+                    throw new UnsupportedOperationException("Invalid arguments for quickGetOneAsync");
+                }
 
-                        case "quickPageAsync" -> {
-                            if (args.length == 2 && args[0] instanceof PageDTO<?> pageDTO && args[1] instanceof Class<?> voClass) {
-                                yield executeEnhancedQuery(proxy, mapper, pageDTO, voClass, 
-                                    (service, vo) -> EnhancedQueryBuilder.pageWithConditionAsync(service, (PageDTO<?>) pageDTO, vo));
-                            }
-                            throw new UnsupportedOperationException("Invalid arguments for quickPageAsync");
+                // 唯一性检查方法
+                case "checkKeyUniqueness" -> {
+                    if (args.length >= 1) {
+                        // 先调试原始参数
+                        log.debug("checkKeyUniqueness - args.length: {}", args.length);
+                        for (int i = 0; i < args.length; i++) {
+                            log.debug("args[{}]: type={}, value={}", i,
+                                    args[i] != null ? args[i].getClass().getName() : "null",
+                                    args[i]);
                         }
 
-                        case "quickListAsync" -> {
-                            if (args.length == 2 && args[0] instanceof QueryDTO<?> queryDTO && args[1] instanceof Class<?> voClass) {
-                                yield executeEnhancedQuery(proxy, mapper, queryDTO, voClass, 
-                                    (service, vo) -> EnhancedQueryBuilder.listWithConditionAsync(service, (QueryDTO<?>) queryDTO, vo));
+                        // 调试copyOfRange结果
+                        Object[] rangeArgs = Arrays.copyOfRange(args, 1, args.length);
+                        log.debug("rangeArgs (from 1 to {}): {}", args.length, Arrays.toString(rangeArgs));
+                        
+                        // 智能处理剩余参数：可能已经是String[]，也可能需要转换
+                        java.util.List<String> keyFieldsList = new java.util.ArrayList<>();
+                        for (Object arg : rangeArgs) {
+                            log.debug("Processing arg: type={}, value={}", 
+                                     arg != null ? arg.getClass().getName() : "null", arg);
+                            
+                            if (arg instanceof String[] stringArray) {
+                                // 如果参数本身就是String[]，直接添加
+                                log.debug("Arg is String[], adding {} elements", stringArray.length);
+                                keyFieldsList.addAll(java.util.Arrays.asList(stringArray));
+                            } else {
+                                // 如果是单个对象，转换为String
+                                String stringValue = String.valueOf(arg);
+                                log.debug("Converting arg '{}' to String '{}'", arg, stringValue);
+                                keyFieldsList.add(stringValue);
                             }
-                            throw new UnsupportedOperationException("Invalid arguments for quickListAsync");
                         }
-
-                        case "quickGetOneAsync" -> {
-                            if (args.length == 2 && args[0] instanceof QueryDTO<?> queryDTO && args[1] instanceof Class<?> voClass) {
-                                yield executeEnhancedQuery(proxy, mapper, queryDTO, voClass, 
-                                    (service, vo) -> EnhancedQueryBuilder.getOneWithConditionAsync(service, (QueryDTO<?>) queryDTO, vo));
-                            }
-                            throw new UnsupportedOperationException("Invalid arguments for quickGetOneAsync");
+                        
+                        String[] keyFields = keyFieldsList.toArray(new String[0]);
+
+                        // 添加调试日志
+                        log.debug("checkKeyUniqueness - keyFields: {}", Arrays.toString(keyFields));
+                        // 额外调试每个keyField的类型
+                        for (int i = 0; i < keyFields.length; i++) {
+                            log.debug("keyFields[{}]: type={}, value={}", i, keyFields[i].getClass().getName(), keyFields[i]);
                         }
 
-                        // 唯一性检查方法
-                        case "checkKeyUniqueness" -> {
-                            if (args.length >= 1) {
-                                // 先调试原始参数
-                                log.debug("checkKeyUniqueness - args.length: {}", args.length);
-                                for (int i = 0; i < args.length; i++) {
-                                    log.debug("args[{}]: type={}, value={}", i,
-                                            args[i] != null ? args[i].getClass().getName() : "null",
-                                            args[i]);
-                                }
-
-                                // 调试copyOfRange结果
-                                Object[] rangeArgs = Arrays.copyOfRange(args, 1, args.length);
-                                log.debug("rangeArgs (from 1 to {}): {}", args.length, Arrays.toString(rangeArgs));
-                                
-                                // 智能处理剩余参数：可能已经是String[]，也可能需要转换
-                                java.util.List<String> keyFieldsList = new java.util.ArrayList<>();
-                                for (Object arg : rangeArgs) {
-                                    log.debug("Processing arg: type={}, value={}", 
-                                             arg != null ? arg.getClass().getName() : "null", arg);
-                                    
-                                    if (arg instanceof String[] stringArray) {
-                                        // 如果参数本身就是String[]，直接添加
-                                        log.debug("Arg is String[], adding {} elements", stringArray.length);
-                                        keyFieldsList.addAll(java.util.Arrays.asList(stringArray));
-                                    } else {
-                                        // 如果是单个对象，转换为String
-                                        String stringValue = String.valueOf(arg);
-                                        log.debug("Converting arg '{}' to String '{}'", arg, stringValue);
-                                        keyFieldsList.add(stringValue);
-                                    }
-                                }
-                                
-                                String[] keyFields = keyFieldsList.toArray(new String[0]);
-
-                                // 添加调试日志
-                                log.debug("checkKeyUniqueness - keyFields: {}", Arrays.toString(keyFields));
-                                // 额外调试每个keyField的类型
-                                for (int i = 0; i < keyFields.length; i++) {
-                                    log.debug("keyFields[{}]: type={}, value={}", i, keyFields[i].getClass().getName(), keyFields[i]);
-                                }
-
-                                // 直接实现 checkKeyUniqueness 的核心逻辑
-                                Object firstArg = args[0];
-
-                                // 特殊处理BaseDTO - 使用最保守的方法
-                                if (firstArg instanceof BaseDTO<?> baseDTO) {
-                                    log.debug("Processing BaseDTO checkKeyUniqueness - trying conservative approach");
-
-                                    // 使用策略2：深层调试 + 智能恢复
-                                    QueryWrapper<Object> wrapper = new QueryWrapper<>();
-
-                                    // 智能处理keyFields中的每个元素
-                                    for (String fieldNameParam : keyFields) {
-                                        log.debug("Processing fieldNameParam: class={}, toString={}",
-                                                fieldNameParam != null ? fieldNameParam.getClass().getName() : "null",
-                                                fieldNameParam);
-
-                                        // 解析出真正的字段名数组
-                                        String[] fieldNames = parseFieldNames(fieldNameParam);
-                                        log.debug("Parsed fieldNames: {}", Arrays.toString(fieldNames));
-
-                                        // 处理每个字段名
-                                        for (Object fieldItem : fieldNames) {
-                                            log.debug("Processing field item: type={}, value={}", 
-                                                     fieldItem != null ? fieldItem.getClass().getName() : "null",
-                                                     fieldItem);
-                                            
-                                            // 最终的安全检查：确保fieldItem是String
-                                            String actualFieldName;
-                                            if (fieldItem instanceof String) {
-                                                actualFieldName = (String) fieldItem;
-                                            } else if (fieldItem instanceof String[] array) {
-                                                // 如果fieldItem是String[]，取第一个元素
-                                                actualFieldName = array.length > 0 ? array[0] : "";
-                                                log.warn("Field item was String[], extracting first element: '{}'", actualFieldName);
-                                            } else {
-                                                // 最后一个兜底：转换为String
-                                                actualFieldName = String.valueOf(fieldItem);
-                                                log.warn("Field item was unexpected type {}, converted to String: '{}'", 
-                                                        fieldItem.getClass().getName(), actualFieldName);
-                                            }
-                                            
-                                            log.debug("Final actualFieldName: '{}'", actualFieldName);
-
-                                            try {
-                                                Field field = baseDTO.getClass().getDeclaredField(actualFieldName);
-                                                field.setAccessible(true);
-                                                Object fieldValue = field.get(baseDTO);
-                                                
-                                                log.debug("Field '{}' value: {}", actualFieldName, fieldValue);
-
-                                                if (fieldValue != null) {
-                                                    wrapper.eq(actualFieldName, fieldValue);
-                                                } else {
-                                                    wrapper.isNull(actualFieldName);
-                                                }
-                                            } catch (Exception e) {
-                                                log.error("Error accessing field '{}' in BaseDTO", actualFieldName, e);
-                                                throw new RuntimeException("Failed to access field " + actualFieldName, e);
-                                            }
-                                        }
-                                    }
+                        // 直接实现 checkKeyUniqueness 的核心逻辑
+                        Object firstArg = args[0];
 
-                                    // 根据ID排除当前记录
-                                    Object id = baseDTO.getId();
-                                    if (id != null) {
-                                        wrapper.ne("id", id);
-                                    }
+                        // 特殊处理BaseDTO - 使用最保守的方法
+                        if (firstArg instanceof BaseDTO<?> baseDTO) {
+                            log.debug("Processing BaseDTO checkKeyUniqueness - trying conservative approach");
 
-                                    // 执行查询
-                                    var serviceObj = createServiceImplWithReflection(getEntityClass(proxy), getMapperClass(proxy), mapper);
-                                    IService<Object> service = (IService<Object>) serviceObj;
-                                    yield service.count(wrapper) > 0;
-                                }
+                            // 使用策略2：深层调试 + 智能恢复
+                            QueryWrapper<Object> wrapper = new QueryWrapper<>();
 
-                                if (firstArg == null || keyFields.length == 0) {
-                                    yield false;
-                                } else {
-                                    // 创建ServiceImpl来执行查询操作
-                                    var serviceObj = createServiceImplWithReflection(getEntityClass(proxy), getMapperClass(proxy), mapper);
-                                    IService<?> service = (IService<?>) serviceObj;
-
-                                    // 构建查询条件 - 使用强制转换避免类型问题
-                                    @SuppressWarnings("unchecked")
-                                    QueryWrapper<Object> queryWrapper = (QueryWrapper<Object>) buildUniquenessWrapper(getEntityClass(proxy), firstArg, keyFields);
-
-                                    // 根据ID排除当前记录（如果是更新场景）
-                                    Object id = getIdFromObject(firstArg);
-                                    if (id != null) {
-                                        queryWrapper.ne("id", id);
-                                    }
+                            // 智能处理keyFields中的每个元素
+                            for (String fieldNameParam : keyFields) {
+                                log.debug("Processing fieldNameParam: class={}, toString={}",
+                                        fieldNameParam != null ? fieldNameParam.getClass().getName() : "null",
+                                        fieldNameParam);
 
-                                    // 执行查询，如果存在记录则说明有重复 - 强制转换为IService<Object>
-                                    IService<Object> objectService = (IService<Object>) service;
-                                    yield objectService.count(queryWrapper) > 0;
-                                }
-                            }
-                            throw new UnsupportedOperationException("Invalid arguments for checkKeyUniqueness");
-                        }
+                                // 解析出真正的字段名数组
+                                String[] fieldNames = parseFieldNames(fieldNameParam);
+                                log.debug("Parsed fieldNames: {}", Arrays.toString(fieldNames));
 
-                        // DTO 操作方法
-                        case "saveOrUpdateFromDTO" -> {
-                            if (args.length == 2 && args[0] instanceof BaseDTO<?> dto && args[1] instanceof Class<?> entityClass) {
-                                // 判断是新增还是更新
-                                if (dto.getId() == null || String.valueOf(dto.getId()).trim().isEmpty()) {
-                                    // 新增场景：使用传入的 Class 创建实体实例
-                                    var serviceObj = createServiceImplWithReflection(getEntityClass(proxy), getMapperClass(proxy), mapper);
-                                    IService<Object> service = (IService<Object>) serviceObj;
-                                    
-                                    // 创建实体实例
-                                    Object entity = ReflectionUtils.createEntityInstance((Class<?>) entityClass);
+                                // 处理每个字段名
+                                for (Object fieldItem : fieldNames) {
+                                    log.debug("Processing field item: type={}, value={}", 
+                                             fieldItem != null ? fieldItem.getClass().getName() : "null",
+                                             fieldItem);
                                     
-                                    // 从 DTO 复制属性到实体（新增模式）
-                                    EntityMapper.copyFromDTO(dto, entity, EntityMapper.CopyMode.INSERT);
-                                    
-                                    // 使用 MyBatis-Plus 的 save 方法
-                                    yield service.save((Object) entity);
-                                } else {
-                                    // 更新场景：自动查询实体并更新
-                                    var serviceObj = createServiceImplWithReflection(getEntityClass(proxy), getMapperClass(proxy), mapper);
-                                    IService<Object> service = (IService<Object>) serviceObj;
-                                    
-                                    // 查询实体
-                                    Object entity = service.getById((java.io.Serializable) dto.getId());
-                                    if (entity == null) {
-                                        throw new IllegalArgumentException("Entity not found with id: " + dto.getId());
+                                    // 最终的安全检查：确保fieldItem是String
+                                    String actualFieldName;
+                                    if (fieldItem instanceof String) {
+                                        actualFieldName = (String) fieldItem;
+                                    } else if (fieldItem instanceof String[] array) {
+                                        // 如果fieldItem是String[]，取第一个元素
+                                        actualFieldName = array.length > 0 ? array[0] : "";
+                                        log.warn("Field item was String[], extracting first element: '{}'", actualFieldName);
+                                    } else {
+                                        // 最后一个兜底：转换为String
+                                        actualFieldName = String.valueOf(fieldItem);
+                                        log.warn("Field item was unexpected type {}, converted to String: '{}'", 
+                                                fieldItem.getClass().getName(), actualFieldName);
                                     }
                                     
-                                    // 从 DTO 复制属性到实体（更新模式）
-                                    EntityMapper.copyFromDTOForUpdate(dto, entity);
-                                    
-                                    // 使用 MyBatis-Plus 的 updateById 方法
-                                    yield service.updateById((Object) entity);
+                                    log.debug("Final actualFieldName: '{}'", actualFieldName);
+
+                                    try {
+                                        ClassMetadata.Accessor accessor = ClassMetadata.of(baseDTO.getClass()).getField(actualFieldName);
+                                        if (accessor == null) {
+                                            throw new NoSuchFieldException(actualFieldName);
+                                        }
+                                        Object fieldValue = accessor.get(baseDTO);
+                                        
+                                        log.debug("Field '{}' value: {}", actualFieldName, fieldValue);
+
+                                        if (fieldValue != null) {
+                                            wrapper.eq(actualFieldName, fieldValue);
+                                        } else {
+                                            wrapper.isNull(actualFieldName);
+                                        }
+                                    } catch (Exception e) {
+                                        log.error("Error accessing field '{}' in BaseDTO", actualFieldName, e);
+                                        throw new RuntimeException("Failed to access field " + actualFieldName, e);
+                                    }
                                 }
                             }
-                            throw new UnsupportedOperationException("Invalid arguments for saveOrUpdateFromDTO - requires BaseDTO and Class");
-                        }
 
-                        case "saveFromDTO" -> {
-                            if (args.length == 2 && args[0] instanceof BaseDTO<?> dto && args[1] instanceof Class<?> entityClass) {
-                                // 创建实体实例
-                                var serviceObj = createServiceImplWithReflection(getEntityClass(proxy), getMapperClass(proxy), mapper);
-                                IService<Object> service = (IService<Object>) serviceObj;
-                                
-                                Object entity = ReflectionUtils.createEntityInstance((Class<?>) entityClass);
-                                
-                                // 从 DTO 复制属性到实体（新增模式）
-                                EntityMapper.copyFromDTO(dto, entity, EntityMapper.CopyMode.INSERT);
-                                
-                                // 使用 MyBatis-Plus 的 save 方法
-                                yield service.save((Object) entity);
-                            } else if (args.length == 2 && args[0] instanceof BaseDTO<?> dto && args[1] != null) {
-                                // 使用传入的实体实例
-                                var serviceObj = createServiceImplWithReflection(getEntityClass(proxy), getMapperClass(proxy), mapper);
-                                IService<Object> service = (IService<Object>) serviceObj;
-                                
-                                Object entity = args[1];
-                                
-                                // 从 DTO 复制属性到实体（新增模式）
-                                EntityMapper.copyFromDTO(dto, entity, EntityMapper.CopyMode.INSERT);
-                                
-                                // 使用 MyBatis-Plus 的 save 方法
-                                yield service.save((Object) entity);
+                            // 根据ID排除当前记录
+                            Object id = baseDTO.getId();
+                            if (id != null) {
+                                wrapper.ne("id", id);
                             }
-                            throw new UnsupportedOperationException("Invalid arguments for saveFromDTO - requires BaseDTO and Class or Entity instance");
+
+                            // 执行查询
+                            var serviceObj = getService(binding);
+                            IService<Object> service = (IService<Object>) serviceObj;
+                            yield service.count(wrapper) > 0;
                         }
 
-                        case "updateFromDTO" -> {
-                            if (args.length == 1 && args[0] instanceof BaseDTO<?> dto) {
-                                if (dto.getId() == null) {
-                                    throw new IllegalArgumentException("DTO id cannot be null for update operation");
-                                }
-                                
-                                var serviceObj = createServiceImplWithReflection(getEntityClass(proxy), getMapperClass(proxy), mapper);
-                                IService<Object> service = (IService<Object>) serviceObj;
-                                
-                                // 查询实体
-                                Object entity = service.getById((java.io.Serializable) dto.getId());
-                                if (entity == null) {
-                                    throw new IllegalArgumentException("Entity not found with id: " + dto.getId());
-                                }
-                                
-                                // 从 DTO 复制属性到实体（更新模式）
-                                EntityMapper.copyFromDTOForUpdate(dto, entity);
-                                
-                                // 使用 MyBatis-Plus 的 updateById 方法
-                                yield service.updateById((Object) entity);
+                        if (firstArg == null || keyFields.length == 0) {
+                            yield false;
+                        } else {
+                            // 使用复用的ServiceImpl执行查询操作
+                            var serviceObj = getService(binding);
+                            IService<?> service = (IService<?>) serviceObj;
+
+                            // 构建查询条件 - 使用强制转换避免类型问题
+                            @SuppressWarnings("unchecked")
+                            QueryWrapper<Object> queryWrapper = (QueryWrapper<Object>) buildUniquenessWrapper(binding.entityClass, firstArg, keyFields);
+
+                            // 根据ID排除当前记录（如果是更新场景）
+                            Object id = getIdFromObject(firstArg);
+                            if (id != null) {
+                                queryWrapper.ne("id", id);
                             }
-                            throw new UnsupportedOperationException("Invalid arguments for updateFromDTO - requires BaseDTO with id");
+
+                            // 执行查询，如果存在记录则说明有重复 - 强制转换为IService<Object>
+                            IService<Object> objectService = (IService<Object>) service;
+                            yield objectService.count(queryWrapper) > 0;
                         }
+                    }
+                    throw new UnsupportedOperationException("Invalid arguments for checkKeyUniqueness");
+                }
 
-                        default -> {
-                            // 检查方法是否在 Repository 接口中定义（而不是在 BaseRepository 中）
-                            // 如果是 Repository 接口中自定义的 default 方法，直接调用其默认实现
-                            Class<?> declaringClass = method.getDeclaringClass();
+                // DTO 操作方法
+                case "saveOrUpdateFromDTO" -> {
+                    if (args.length == 2 && args[0] instanceof BaseDTO<?> dto && args[1] instanceof Class<?> entityClass) {
+                        // 判断是新增还是更新
+                        if (dto.getId() == null || String.valueOf(dto.getId()).trim().isEmpty()) {
+                            // 新增场景：使用传入的 Class 创建实体实例
+                            var serviceObj = getService(binding);
+                            IService<Object> service = (IService<Object>) serviceObj;
                             
-                            // 检查方法是否在 BaseRepository 中定义
-                            boolean isInBaseRepository = false;
-                            try {
-                                BaseRepository.class.getMethod(methodName, method.getParameterTypes());
-                                isInBaseRepository = true;
-                            } catch (NoSuchMethodException e) {
-                                // 方法不在 BaseRepository 中定义
-                            }
+                            // 创建实体实例
+                            Object entity = ReflectionUtils.createEntityInstance((Class<?>) entityClass);
+                            
+                            // 从 DTO 复制属性到实体（新增模式）
+                            EntityMapper.copyFromDTO(dto, entity, EntityMapper.CopyMode.INSERT);
                             
-                            // 如果方法不在 BaseRepository 中定义，且声明类是接口
-                            // 说明是 Repository 接口中自定义的方法
-                            if (!isInBaseRepository && declaringClass.isInterface() && 
-                                !BaseRepository.class.equals(declaringClass)) {
-                                // 不再支持 default 方法，避免 JVM 断言失败
-                                // 推荐方式：在 Mapper 中定义方法，通过 getMapper() 调用
-                                throw new UnsupportedOperationException(
-                                    String.format("""
-                                                    不支持在 Repository 接口中定义 default 方法 %s(%s)。\
-                                                    
-                                                    推荐方式：在 Mapper 接口中定义方法，然后通过 getMapper() 调用。\
-                                                    
-                                                    示例：在 %s 中定义 %s(%s) 方法，然后使用 repository.getMapper().%s(...) 调用""",
-                                        methodName,
-                                        java.util.Arrays.toString(method.getParameterTypes()),
-                                            mapper.getClass().getSimpleName(),
-                                        methodName,
-                                        java.util.Arrays.toString(method.getParameterTypes()),
-                                        methodName));
+                            // 使用 MyBatis-Plus 的 save 方法
+                            yield service.save((Object) entity);
+                        } else {
+                            // 更新场景：自动查询实体并更新
+                            var serviceObj = getService(binding);
+                            IService<Object> service = (IService<Object>) serviceObj;
+                            
+                            // 查询实体
+                            Object entity = service.getById((java.io.Serializable) dto.getId());
+                            if (entity == null) {
+                                throw new IllegalArgumentException("Entity not found with id: " + dto.getId());
                             }
-                            // 如果是在 BaseRepository 中定义但未实现的方法，抛出异常
-                            throw new UnsupportedOperationException("Default method not implemented: " + methodName);
+                            
+                            // 从 DTO 复制属性到实体（更新模式）
+                            EntityMapper.copyFromDTOForUpdate(dto, entity);
+                            
+                            // 使用 MyBatis-Plus 的 updateById 方法
+                            yield service.updateById((Object) entity);
                         }
-                    };
+                    }
+                    throw new UnsupportedOperationException("Invalid arguments for saveOrUpdateFromDTO - requires BaseDTO and Class");
                 }
-            }
-        }
-
-        // 不再支持 default 方法，避免 JVM 断言失败
-        // 如果方法不在 BaseRepository 的泛型接口中，且是 default 方法，抛出异常
-        Class<?> declaringClass = method.getDeclaringClass();
-        if (declaringClass.isInterface() && method.isDefault()) {
-            throw new UnsupportedOperationException(
-                String.format("""
-                                不支持在 Repository 接口中定义 default 方法 %s(%s)。\
-                                
-                                推荐方式：在 Mapper 接口中定义方法，然后通过 getMapper() 调用。\
-                                
-                                示例：在 Mapper 中定义 %s(%s) 方法，然后使用 repository.getMapper().%s(...) 调用""",
-                    methodName,
-                    Arrays.toString(method.getParameterTypes()),
-                    methodName,
-                    Arrays.toString(method.getParameterTypes()),
-                    methodName));
-        }
 
-        throw new UnsupportedOperationException("Default method not implemented: " + methodName);
-    }
-
-    /**
-     * 调用IService方法
-     */
-    private Object callIServiceMethod(Object proxy, String methodName, Object[] args) throws Exception {
-        // 获取Repository接口的泛型参数
-        var repositoryInterface = proxy.getClass().getInterfaces()[0];
-        var genericInterfaces = repositoryInterface.getGenericInterfaces();
-        for (var genericInterface : genericInterfaces) {
-            if (genericInterface instanceof ParameterizedType pt) {
-                if (pt.getRawType().getTypeName().equals(BaseRepository.class.getName())) {
-                    var entityClass = (Class<?>) pt.getActualTypeArguments()[0];
-                    var mapperClass = (Class<?>) pt.getActualTypeArguments()[1];
-
-                    // 获取Mapper实例
-                    if (staticApplicationContext == null) {
-                        throw new RuntimeException("ApplicationContext not initialized");
+                case "saveFromDTO" -> {
+                    if (args.length == 2 && args[0] instanceof BaseDTO<?> dto && args[1] instanceof Class<?> entityClass) {
+                        // 创建实体实例
+                        var serviceObj = getService(binding);
+                        IService<Object> service = (IService<Object>) serviceObj;
+                        
+                        Object entity = ReflectionUtils.createEntityInstance((Class<?>) entityClass);
+                        
+                        // 从 DTO 复制属性到实体（新增模式）
+                        EntityMapper.copyFromDTO(dto, entity, EntityMapper.CopyMode.INSERT);
+                        
+                        // 使用 MyBatis-Plus 的 save 方法
+                        yield service.save((Object) entity);
+                    } else if (args.length == 2 && args[0] instanceof BaseDTO<?> dto && args[1] != null) {
+                        // 使用传入的实体实例
+                        var serviceObj = getService(binding);
+                        IService<Object> service = (IService<Object>) serviceObj;
+                        
+                        Object entity = args[1];
+                        
+                        // 从 DTO 复制属性到实体（新增模式）
+                        EntityMapper.copyFromDTO(dto, entity, EntityMapper.CopyMode.INSERT);
+                        
+                        // 使用 MyBatis-Plus 的 save 方法
+                        yield service.save((Object) entity);
                     }
-                    var mapper = staticApplicationContext.getBean(mapperClass);
-
-                    // 创建ServiceImpl实例
-                    var serviceImpl = createServiceImplWithReflection(entityClass, mapperClass, mapper);
+                    throw new UnsupportedOperationException("Invalid arguments for saveFromDTO - requires BaseDTO and Class or Entity instance");
+                }
 
-                    // 调用IService方法
-                    var serviceMethod = findCompatibleMethod(serviceImpl.getClass(), methodName, args);
-                    if (serviceMethod != null) {
-                        return serviceMethod.invoke(serviceImpl, args);
+                case "updateFromDTO" -> {
+                    if (args.length == 1 && args[0] instanceof BaseDTO<?> dto) {
+                        if (dto.getId() == null) {
+                            throw new IllegalArgumentException("DTO id cannot be null for update operation");
+                        }
+                        
+                        var serviceObj = getService(binding);
+                        IService<Object> service = (IService<Object>) serviceObj;
+                        
+                        // 查询实体
+                        Object entity = service.getById((java.io.Serializable) dto.getId());
+                        if (entity == null) {
+                            throw new IllegalArgumentException("Entity not found with id: " + dto.getId());
+                        }
+                        
+                        // 从 DTO 复制属性到实体（更新模式）
+                        EntityMapper.copyFromDTOForUpdate(dto, entity);
+                        
+                        // 使用 MyBatis-Plus 的 updateById 方法
+                        yield service.updateById((Object) entity);
                     }
+                    throw new UnsupportedOperationException("Invalid arguments for updateFromDTO - requires BaseDTO with id");
                 }
-            }
-        }
 
-        throw new UnsupportedOperationException("IService method not found: " + methodName);
+                default -> {
+                    // Repository 接口中自定义的 default 方法不再支持，避免 JVM 断言失败
+                    // 推荐方式：在 Mapper 中定义方法，通过 getMapper() 调用
+                    if (!isDeclaredByBaseRepository(method) && !BaseRepository.class.equals(method.getDeclaringClass())) {
+                        throw new UnsupportedOperationException(
+                                unsupportedDefaultMethodMessage(method, binding.mapperClass.getSimpleName()));
+                    }
+                    // 如果是在 BaseRepository 中定义但未实现的方法，抛出异常
+                    throw new UnsupportedOperationException("Default method not implemented: " + methodName);
+                }
+            };
     }
 
     /**
-     * 处理getBaseMapper方法
+     * 调用IService方法（按方法名和实参类型查找 ServiceImpl 方法）
      */
-    private Object handleGetBaseMapper(Object proxy) throws Exception {
-        // 获取Repository接口的泛型参数
-        var repositoryInterface = proxy.getClass().getInterfaces()[0];
-        var genericInterfaces = repositoryInterface.getGenericInterfaces();
-        for (var genericInterface : genericInterfaces) {
-            if (genericInterface instanceof ParameterizedType pt) {
-                if (pt.getRawType().getTypeName().equals(BaseRepository.class.getName())) {
-                    var mapperClass = (Class<?>) pt.getActualTypeArguments()[1];
-
-                    if (staticApplicationContext == null) {
-                        throw new RuntimeException("ApplicationContext not initialized");
-                    }
-                    return staticApplicationContext.getBean(mapperClass);
-                }
-            }
+    private Object callIServiceMethod(RepositoryBinding binding, String methodName, Object[] args) throws Exception {
+        if (binding.mapperClass == null) {
+            throw new UnsupportedOperationException("IService method not found: " + methodName);
         }
-        throw new RuntimeException("Cannot resolve Mapper for getBaseMapper method");
+        // 复用ServiceImpl实例
+        var serviceImpl = getService(binding);
+
+        // 调用IService方法
+        var serviceMethod = findCompatibleMethod(serviceImpl.getClass(), methodName, args);
+        if (serviceMethod != null) {
+            return serviceMethod.invoke(serviceImpl, args);
+        }
+        throw new UnsupportedOperationException("IService method not found: " + methodName);
     }
-    
+
     /**
-     * 处理getMapper方法（BaseRepository中定义的方法）
+     * Repository 方法调用器
      */
-    private Object handleGetMapper(Object proxy) throws Exception {
-        // getMapper 和 getBaseMapper 逻辑相同，都是返回 Mapper 实例
-        return handleGetBaseMapper(proxy);
+    @FunctionalInterface
+    private interface MethodInvoker {
+
+        Object invoke(Object[] args) throws Throwable;
     }
 
     /**
-     * 获取Repository接口的泛型参数中的实体类
+     * 代理类的绑定信息：Repository 接口、泛型参数中的实体类和 Mapper 类、复用的 ServiceImpl，以及方法分派表
      */
-    private Class<?> getEntityClass(Object proxy) {
-        var repositoryInterface = proxy.getClass().getInterfaces()[0];
-        var genericInterfaces = repositoryInterface.getGenericInterfaces();
-        for (var genericInterface : genericInterfaces) {
-            if (genericInterface instanceof ParameterizedType pt) {
-                if (pt.getRawType().getTypeName().equals(BaseRepository.class.getName())) {
-                    return (Class<?>) pt.getActualTypeArguments()[0];
+    private static final class RepositoryBinding {
+
+        private final Class<?> repositoryInterface;
+        private final Class<?> entityClass;
+        private final Class<?> mapperClass;
+        private final Map<Method, MethodInvoker> invokers = new ConcurrentHashMap<>();
+        private volatile Object mapper;
+        private volatile Object service;
+
+        RepositoryBinding(Class<?> proxyClass) {
+            this.repositoryInterface = proxyClass.getInterfaces()[0];
+            Class<?> entity = null;
+            Class<?> mapperType = null;
+            // 获取Repository接口的泛型参数
+            for (var genericInterface : repositoryInterface.getGenericInterfaces()) {
+                if (genericInterface instanceof ParameterizedType pt
+                        && pt.getRawType().getTypeName().equals(BaseRepository.class.getName())) {
+                    entity = (Class<?>) pt.getActualTypeArguments()[0];
+                    mapperType = (Class<?>) pt.getActualTypeArguments()[1];
+                    break;
                 }
             }
+            this.entityClass = entity;
+            this.mapperClass = mapperType;
         }
-        throw new RuntimeException("Cannot resolve entity class for proxy: " + proxy.getClass().getName());
-    }
 
-    /**
-     * 获取Repository接口的泛型参数中的Mapper类
-     */
-    private Class<?> getMapperClass(Object proxy) {
-        var repositoryInterface = proxy.getClass().getInterfaces()[0];
-        var genericInterfaces = repositoryInterface.getGenericInterfaces();
-        for (var genericInterface : genericInterfaces) {
-            if (genericInterface instanceof ParameterizedType pt) {
-                if (pt.getRawType().getTypeName().equals(BaseRepository.class.getName())) {
-                    return (Class<?>) pt.getActualTypeArguments()[1];
+        /**
+         * 获取Mapper实例（首次调用时从容器获取）
+         */
+        Object getMapper() {
+            Object instance = mapper;
+            if (instance == null) {
+                if (mapperClass == null) {
+                    throw new RuntimeException("Cannot resolve Mapper for repository: " + repositoryInterface.getName());
                 }
+                if (staticApplicationContext == null) {
+                    throw new RuntimeException("ApplicationContext not initialized");
+                }
+                instance = staticApplicationContext.getBean(mapperClass);
+                mapper = instance;
             }
+            return instance;
         }
-        throw new RuntimeException("Cannot resolve mapper class for proxy: " + proxy.getClass().getName());
     }
 
     /**
@@ -1038,24 +999,13 @@ public class SqlMethodInterceptor implements InvocationHandler {
      * 提取字段值（支持getter方法和直接字段访问）
      */
     private Object extractFieldValue(Object object, String fieldName) throws Exception {
-        // 添加调试日志，检查fieldName的类型
-        log.debug("extractFieldValue - object class: {}, fieldName type: {}, fieldName: {}",
-                object.getClass().getName(), fieldName.getClass().getName(), fieldName);
-
-        String getterMethodName = "get" + Character.toUpperCase(fieldName.charAt(0)) + fieldName.substring(1);
-
-        // 首先尝试使用getter方法
-        try {
-            java.lang.reflect.Method getter = object.getClass().getMethod(getterMethodName);
-            return getter.invoke(object);
-        } catch (NoSuchMethodException getterEx) {
-            // 如果getter方法不存在，尝试直接访问字段
-            log.debug("Getter method {} not found, trying direct field access", getterMethodName);
-
-            Field javaField = object.getClass().getDeclaredField(fieldName);
-            javaField.setAccessible(true);
-            return javaField.get(object);
+        log.debug("extractFieldValue - object class: {}, fieldName: {}", object.getClass().getName(), fieldName);
+        // getter 方法优先，不存在时直接访问字段；读取器按类缓存
+        ClassMetadata.Accessor accessor = ClassMetadata.of(object.getClass()).getProperty(fieldName);
+        if (accessor == null) {
+            throw new NoSuchFieldException(fieldName);
         }
+        return accessor.get(object);
     }
 
     /**
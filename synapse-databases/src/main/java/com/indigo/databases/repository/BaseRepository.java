@@ -13,11 +13,11 @@ import com.indigo.core.entity.result.PageResult;
 import com.indigo.core.entity.result.PerformancePageResult;
 import com.indigo.core.entity.vo.BaseVO;
 import com.indigo.core.utils.ReflectionUtils;
+import com.indigo.databases.utils.ClassMetadata;
 import com.indigo.databases.utils.EntityMapper;
 import com.indigo.databases.utils.EnhancedQueryBuilder;
 import com.indigo.databases.utils.QueryConditionBuilder;
 
-import java.lang.reflect.Field;
 import java.util.List;
 import java.util.concurrent.CompletableFuture;
 
@@ -469,20 +469,18 @@ public interface BaseRepository<T, M extends BaseMapper<T>> extends IService<T>
      * @param dbFieldName 数据库字段名
      */
     private void addFieldCondition(QueryWrapper<T> wrapper, Object object, String fieldName, String dbFieldName) {
-        try {
-            // 使用反射获取字段值
-            Field field = object.getClass().getDeclaredField(fieldName);
-            field.setAccessible(true);
-            Object fieldValue = field.get(object);
-            
-            if (fieldValue != null) {
-                wrapper.eq(dbFieldName, fieldValue);
-            } else {
-                // 如果字段值为null，检查数据库中该字段为null的记录
-                wrapper.isNull(dbFieldName);
-            }
-        } catch (NoSuchFieldException | IllegalAccessException e) {
+        // 字段读取器按类缓存，包括父类字段
+        ClassMetadata.Accessor accessor = ClassMetadata.of(object.getClass()).getField(fieldName);
+        if (accessor == null) {
             // 如果字段不存在或无法访问，跳过该字段
+            return;
+        }
+        Object fieldValue = accessor.get(object);
+        if (fieldValue != null) {
+            wrapper.eq(dbFieldName, fieldValue);
+        } else {
+            // 如果字段值为null，检查数据库中该字段为null的记录
+            wrapper.isNull(dbFieldName);
         }
     }
     
@@ -493,14 +491,9 @@ public interface BaseRepository<T, M extends BaseMapper<T>> extends IService<T>
      * @return ID值
      */
     private Object getEntityId(T entity) {
-        try {
-            Field idField = entity.getClass().getDeclaredField("id");
-            idField.setAccessible(true);
-            return idField.get(entity);
-        } catch (NoSuchFieldException | IllegalAccessException e) {
-            // 如果ID字段不存在，返回null
-            return null;
-        }
+        ClassMetadata.Accessor idAccessor = ClassMetadata.of(entity.getClass()).getId();
+        // 如果ID字段不存在，返回null
+        return idAccessor != null ? idAccessor.get(entity) : null;
     }
 
     /**
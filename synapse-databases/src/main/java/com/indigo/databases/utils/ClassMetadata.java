@@ -0,0 +1,208 @@
+package com.indigo.databases.utils;
+
+import com.baomidou.mybatisplus.core.toolkit.StringUtils;
+import com.indigo.core.annotation.QueryCondition;
+import lombok.extern.slf4j.Slf4j;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 类元数据
+ * 每个类只解析一次：带 {@link QueryCondition} 注解的字段及其列名、按字段名索引的字段读取器和 id 读取器，
+ * 构建查询条件和唯一性检查时不再遍历字段、读取注解或调用 {@code setAccessible}
+ *
+ * <p>字段按继承链解析（包括父类字段），子类与父类同名时以子类字段为准。
+ *
+ * @author 史偕成
+ * @date 2025/12/19
+ */
+@Slf4j
+public final class ClassMetadata {
+
+    private static final MethodType GETTER_TYPE = MethodType.methodType(Object.class, Object.class);
+
+    private static final ClassValue<ClassMetadata> METADATA = new ClassValue<>() {
+        @Override
+        protected ClassMetadata computeValue(Class<?> type) {
+            return new ClassMetadata(type);
+        }
+    };
+
+    /**
+     * 属性不存在时的占位符（ConcurrentHashMap 不能保存 null）
+     */
+    private static final Accessor MISSING = new Accessor("", null);
+
+    private final Class<?> type;
+    private final List<Condition> conditions;
+    private final Map<String, Accessor> fields;
+    private final Map<String, Accessor> properties = new ConcurrentHashMap<>();
+
+    private ClassMetadata(Class<?> type) {
+        this.type = type;
+        MethodHandles.Lookup lookup = MethodHandles.lookup();
+        List<Condition> conditions = new ArrayList<>();
+        Map<String, Accessor> fields = new HashMap<>();
+        // 遍历整个继承链，子类字段优先
+        Class<?> currentClass = type;
+        while (currentClass != null && currentClass != Object.class) {
+            for (Field field : currentClass.getDeclaredFields()) {
+                if (Modifier.isStatic(field.getModifiers())) {
+                    continue;
+                }
+                QueryCondition annotation = field.getAnnotation(QueryCondition.class);
+                boolean shadowed = fields.containsKey(field.getName());
+                if (annotation == null && shadowed) {
+                    continue;
+                }
+                Accessor accessor = accessor(lookup, field);
+                if (accessor == null) {
+                    continue;
+                }
+                if (!shadowed) {
+                    fields.put(field.getName(), accessor);
+                }
+                if (annotation != null) {
+                    conditions.add(new Condition(accessor, annotation, resolveColumn(field, annotation)));
+                }
+            }
+            currentClass = currentClass.getSuperclass();
+        }
+        this.conditions = Collections.unmodifiableList(conditions);
+        this.fields = Collections.unmodifiableMap(fields);
+        log.debug("Resolved class metadata for {}: {} fields, {} query conditions",
+                type.getSimpleName(), fields.size(), conditions.size());
+    }
+
+    /**
+     * 获取类的元数据（首次调用时解析并缓存）
+     */
+    public static ClassMetadata of(Class<?> type) {
+        return METADATA.get(type);
+    }
+
+    /**
+     * 带 {@link QueryCondition} 注解的字段（包括父类字段），按声明顺序排列
+     */
+    public List<Condition> getConditions() {
+        return conditions;
+    }
+
+    /**
+     * 按字段名获取字段读取器
+     *
+     * @param name 字段名
+     * @return 字段读取器，字段不存在或不可读时返回 null
+     */
+    public Accessor getField(String name) {
+        return fields.get(name);
+    }
+
+    /**
+     * id 字段读取器，不存在时返回 null
+     */
+    public Accessor getId() {
+        return fields.get("id");
+    }
+
+    /**
+     * 按属性名获取读取器：优先使用公共 getter 方法，不存在时回退到字段
+     *
+     * @param name 属性名
+     * @return 属性读取器，getter 和字段都不存在时返回 null
+     */
+    public Accessor getProperty(String name) {
+        Accessor accessor = properties.computeIfAbsent(name, this::resolveProperty);
+        return accessor == MISSING ? null : accessor;
+    }
+
+    private Accessor resolveProperty(String name) {
+        if (!name.isEmpty()) {
+            String getterName = "get" + Character.toUpperCase(name.charAt(0)) + name.substring(1);
+            try {
+                Method getter = type.getMethod(getterName);
+                getter.setAccessible(true);
+                return new Accessor(name, MethodHandles.lookup().unreflect(getter).asType(GETTER_TYPE));
+            } catch (NoSuchMethodException e) {
+                log.debug("Getter method {} not found on {}, using field access", getterName, type.getName());
+            } catch (IllegalAccessException | RuntimeException e) {
+                log.debug("Getter method {} on {} is not accessible: {}", getterName, type.getName(), e.getMessage());
+            }
+        }
+        Accessor field = fields.get(name);
+        return field != null ? field : MISSING;
+    }
+
+    private static Accessor accessor(MethodHandles.Lookup lookup, Field field) {
+        try {
+            field.setAccessible(true);
+            return new Accessor(field.getName(), lookup.unreflectGetter(field).asType(GETTER_TYPE));
+        } catch (IllegalAccessException | RuntimeException e) {
+            log.warn("字段 {}.{} 不可读，已跳过: {}",
+                    field.getDeclaringClass().getSimpleName(), field.getName(), e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * 解析查询条件对应的列名
+     * 注解指定了 field 时使用注解值，否则使用字段名；
+     * 已经包含表别名（如 u.account）的不进行转换，其余驼峰转下划线
+     */
+    private static String resolveColumn(Field field, QueryCondition annotation) {
+        String fieldName = StringUtils.isNotBlank(annotation.field()) ? annotation.field() : field.getName();
+        return fieldName.contains(".") ? fieldName : StringUtils.camelToUnderline(fieldName);
+    }
+
+    /**
+     * 字段或属性读取器
+     */
+    public static final class Accessor {
+
+        private final String name;
+        private final MethodHandle getter;
+
+        private Accessor(String name, MethodHandle getter) {
+            this.name = name;
+            this.getter = getter;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        /**
+         * 读取目标对象的值
+         */
+        public Object get(Object target) {
+            try {
+                return (Object) getter.invokeExact(target);
+            } catch (RuntimeException | Error e) {
+                throw e;
+            } catch (Throwable e) {
+                throw new IllegalStateException("读取属性失败: " + name, e);
+            }
+        }
+    }
+
+    /**
+     * 查询条件描述：字段读取器、注解和解析后的列名
+     *
+     * @param accessor   字段读取器
+     * @param annotation 查询条件注解
+     * @param column     列名
+     */
+    public record Condition(Accessor accessor, QueryCondition annotation, String column) {
+    }
+}
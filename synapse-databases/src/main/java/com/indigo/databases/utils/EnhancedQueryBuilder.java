@@ -5,6 +5,8 @@ import com.baomidou.mybatisplus.core.mapper.BaseMapper;
 import com.baomidou.mybatisplus.core.metadata.IPage;
 import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
 import com.baomidou.mybatisplus.extension.service.IService;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
 import com.indigo.core.entity.dto.PageDTO;
 import com.indigo.core.entity.dto.QueryDTO;
 import com.indigo.core.entity.dto.page.*;
@@ -13,13 +15,10 @@ import com.indigo.core.entity.result.EnhancedPageResult;
 import com.indigo.core.entity.result.PageResult;
 import com.indigo.core.entity.result.PerformancePageResult;
 import com.baomidou.mybatisplus.core.toolkit.StringUtils;
-import com.indigo.core.annotation.FieldMapping;
-import com.indigo.core.annotation.VoMapping;
 import com.indigo.core.entity.vo.BaseVO;
 import com.indigo.databases.mapper.EnhancedVoMapper;
 import lombok.extern.slf4j.Slf4j;
 
-import java.lang.reflect.Field;
 import java.util.*;
 import java.util.Map;
 import java.util.concurrent.CompletableFuture;
@@ -63,6 +62,11 @@ import java.util.concurrent.TimeUnit;
  * PageResult<ProductVO> result = EnhancedQueryBuilder.quickPage(
  *     productService, pageDTO, ProductVO.class);
  * 
+ * // 游标分页（不查询总数，下一页传入 nextCursor）
+ * pageDTO.setKeyset(true);
+ * PageResult<ProductVO> first = EnhancedQueryBuilder.pageWithCondition(productService, pageDTO, ProductVO.class);
+ * pageDTO.setCursor(first.getNextCursor());
+ * 
  * // 异步查询（实验性功能）
  * CompletableFuture<PageResult<ProductVO>> future = EnhancedQueryBuilder.pageWithConditionAsync(
  *     productService, pageDTO, ProductVO.class);
@@ -95,6 +99,13 @@ import java.util.concurrent.TimeUnit;
 @SuppressWarnings({"rawtypes", "unchecked"})
 public class EnhancedQueryBuilder {
 
+    /**
+     * SQL 模板缓存：（VO类、表名、查询字段、条件结构）-> 不含参数值的 SQL
+     */
+    private static final Cache<SqlTemplateKey, String> SQL_TEMPLATES = Caffeine.newBuilder()
+            .maximumSize(1024)
+            .build();
+
     // ==================== 基础分页查询 ====================
     
     /**
@@ -106,6 +117,12 @@ public class EnhancedQueryBuilder {
             // 构建基础查询条件
             QueryWrapper<T> wrapper = QueryConditionBuilder.buildQueryWrapper(pageDTO);
             
+            // 游标分页：不使用 OFFSET，不查询总数
+            if (KeysetPagination.isKeyset(pageDTO)) {
+                KeysetPagination keyset = KeysetPagination.apply(wrapper, pageDTO, service.getEntityClass());
+                return keyset.toResult(service.page(keyset.<T>page(), wrapper).getRecords());
+            }
+            
             // 使用 IService 的分页方法，确保所有功能正常工作
             Page<T> page = createEntityPage(pageDTO);
             Page<T> result = service.page(page, wrapper);
@@ -170,8 +187,8 @@ public class EnhancedQueryBuilder {
      */
     @Deprecated
     private static <T, V extends BaseVO<?>> PageResult<V> pageWithMultiTableQuery(IService<T> service, PageDTO pageDTO, Class<V> voClass) {
-        // 构建多表查询SQL
-        String sql = MultiTableQueryBuilder.buildMultiTableSql(pageDTO, voClass);
+        // 构建多表查询SQL（参数以占位符形式保留在 SQL 中，随 wrapper 绑定）
+        MultiTableQueryBuilder.MultiTableQuery query = MultiTableQueryBuilder.buildMultiTableQuery(pageDTO, voClass);
         
         // 创建分页对象
         Page<Map<String, Object>> page = createMapPage(pageDTO);
@@ -183,7 +200,7 @@ public class EnhancedQueryBuilder {
             log.warn("Mapper {} 没有实现EnhancedVoMapper，多表查询可能无法正常工作", service.getBaseMapper().getClass().getSimpleName());
             throw new UnsupportedOperationException("多表查询需要Mapper实现EnhancedVoMapper接口");
         }
-        IPage<Map<String, Object>> result = mapper.selectPageAsVo(page, sql);
+        IPage<Map<String, Object>> result = mapper.selectPageWithWrapper(page, query.sql(), query.wrapper());
         
         // 手动映射Map到VO
         List<V> voList = mapMapToVoList(result.getRecords(), voClass);
@@ -256,8 +273,8 @@ public class EnhancedQueryBuilder {
      */
     @Deprecated
     private static <T, V extends BaseVO<?>> List<V> listWithMultiTableQuery(IService<T> service, QueryDTO queryDTO, Class<V> voClass) {
-        // 构建多表查询SQL
-        String sql = MultiTableQueryBuilder.buildMultiTableSql(queryDTO, voClass);
+        // 构建多表查询SQL（参数以占位符形式保留在 SQL 中，随 wrapper 绑定）
+        MultiTableQueryBuilder.MultiTableQuery query = MultiTableQueryBuilder.buildMultiTableQuery(queryDTO, voClass);
         
         // 执行查询
         EnhancedVoMapper<T, V> mapper = getEnhancedVoMapper(service, voClass);
@@ -268,7 +285,7 @@ public class EnhancedQueryBuilder {
         }
         
         // 使用列表查询方法，避免分页操作
-        List<Map<String, Object>> mapList = mapper.selectListAsMap(sql);
+        List<Map<String, Object>> mapList = mapper.selectListWithWrapper(query.sql(), query.wrapper());
         
         // 手动映射Map到VO
         return mapMapToVoList(mapList, voClass);
@@ -323,7 +340,8 @@ public class EnhancedQueryBuilder {
      */
     private static <T, V extends BaseVO<?>> V getOneWithMultiTableQuery(IService<T> service, QueryDTO queryDTO, Class<V> voClass) {
         // 构建多表查询SQL，添加 LIMIT 1
-        String sql = MultiTableQueryBuilder.buildMultiTableSql(queryDTO, voClass);
+        MultiTableQueryBuilder.MultiTableQuery query = MultiTableQueryBuilder.buildMultiTableQuery(queryDTO, voClass);
+        String sql = query.sql();
         // 如果SQL中没有LIMIT，添加LIMIT 1
         if (!sql.toUpperCase().contains("LIMIT")) {
             sql = sql + " LIMIT 1";
@@ -338,7 +356,7 @@ public class EnhancedQueryBuilder {
         }
         
         // 使用列表查询方法，只取第一条
-        List<Map<String, Object>> mapList = mapper.selectListAsMap(sql);
+        List<Map<String, Object>> mapList = mapper.selectListWithWrapper(sql, query.wrapper());
         
         // 手动映射Map到VO
         if (mapList == null || mapList.isEmpty()) {
@@ -355,6 +373,7 @@ public class EnhancedQueryBuilder {
      * 使用 IService 的 list 方法
      */
     public static <T, V extends BaseVO<?>> AggregationPageResult<V> pageWithAggregation(IService<T> service, AggregationPageDTO pageDTO, Class<V> voClass) {
+        rejectKeyset(pageDTO, "聚合查询");
         try {
             // 构建基础查询条件
             QueryWrapper<T> wrapper = QueryConditionBuilder.buildQueryWrapper(pageDTO);
@@ -390,7 +409,7 @@ public class EnhancedQueryBuilder {
                 wrapper.select(selectFields);
                 
                 // 构建SQL查询
-                String fullSql = buildSelectSqlWithWhere(service, wrapper, selectFields);
+                String fullSql = buildSelectSqlWithWhere(service, wrapper, selectFields, voClass);
                 
                 // 创建分页对象
                 Page<Map<String, Object>> page = createMapPage(pageDTO);
@@ -406,7 +425,7 @@ public class EnhancedQueryBuilder {
                     return new AggregationPageResult<>(voList, entityResult.getTotal(), 
                                                      entityResult.getCurrent(), entityResult.getSize());
                 }
-                IPage<Map<String, Object>> result = mapper.selectPageAsVo(page, fullSql);
+                IPage<Map<String, Object>> result = mapper.selectPageWithWrapper(page, fullSql, wrapper);
                 
                 // 手动映射Map到VO
                 List<V> voList = mapMapToVoList(result.getRecords(), voClass);
@@ -425,6 +444,7 @@ public class EnhancedQueryBuilder {
      * 使用 IService 的 list 方法
      */
     public static <T, V extends BaseVO<?>> AggregationPageResult<V> pageWithGroupBy(IService<T> service, AggregationPageDTO pageDTO, Class<V> voClass) {
+        rejectKeyset(pageDTO, "分组查询");
         try {
             // 构建基础查询条件
             QueryWrapper<T> wrapper = QueryConditionBuilder.buildQueryWrapper(pageDTO);
@@ -516,6 +536,7 @@ public class EnhancedQueryBuilder {
      */
     @Deprecated(since = "1.0.0", forRemoval = true)
     public static <T, V extends BaseVO<?>> PageResult<V> pageWithJoin(IService<T> service, JoinPageDTO pageDTO, Class<V> voClass) {
+        rejectKeyset(pageDTO, "多表关联查询");
         try {
             // 构建基础查询条件
             QueryWrapper<T> wrapper = QueryConditionBuilder.buildQueryWrapper(pageDTO);
@@ -542,7 +563,7 @@ public class EnhancedQueryBuilder {
             wrapper.select(selectFields);
             
             // 构建SQL查询
-            String fullSql = buildSelectSqlWithWhere(service, wrapper, selectFields);
+            String fullSql = buildSelectSqlWithWhere(service, wrapper, selectFields, voClass);
             
             // 创建分页对象
             Page<Map<String, Object>> page = createMapPage(pageDTO);
@@ -559,7 +580,7 @@ public class EnhancedQueryBuilder {
                                              entityResult.getCurrent(), entityResult.getSize());
                 return pageResult;
             }
-            IPage<Map<String, Object>> result = mapper.selectPageAsVo(page, fullSql);
+            IPage<Map<String, Object>> result = mapper.selectPageWithWrapper(page, fullSql, wrapper);
             
             // 手动映射Map到VO
             List<V> voList = mapMapToVoList(result.getRecords(), voClass);
@@ -576,6 +597,7 @@ public class EnhancedQueryBuilder {
      * 支持自定义SQL查询
      */
     public static <T, V extends BaseVO<?>> PageResult<V> pageWithComplexQuery(IService<T> service, ComplexPageDTO pageDTO, Class<V> voClass) {
+        rejectKeyset(pageDTO, "复杂查询");
         try {
             // 构建基础查询条件
             QueryWrapper<T> wrapper = QueryConditionBuilder.buildQueryWrapper(pageDTO);
@@ -590,7 +612,7 @@ public class EnhancedQueryBuilder {
             wrapper.select(selectFields);
             
             // 构建SQL查询
-            String fullSql = buildSelectSqlWithWhere(service, wrapper, selectFields);
+            String fullSql = buildSelectSqlWithWhere(service, wrapper, selectFields, voClass);
             
             // 创建分页对象
             Page<Map<String, Object>> page = createMapPage(pageDTO);
@@ -607,7 +629,7 @@ public class EnhancedQueryBuilder {
                                              entityResult.getCurrent(), entityResult.getSize());
                 return pageResult;
             }
-            IPage<Map<String, Object>> result = mapper.selectPageAsVo(page, fullSql);
+            IPage<Map<String, Object>> result = mapper.selectPageWithWrapper(page, fullSql, wrapper);
             
             // 手动映射Map到VO
             List<V> voList = mapMapToVoList(result.getRecords(), voClass);
@@ -625,6 +647,7 @@ public class EnhancedQueryBuilder {
      * 增强查询（组合聚合和性能优化）- 支持VO映射
      */
     public static <T, V extends BaseVO<?>> EnhancedPageResult<V> pageWithEnhanced(IService<T> service, EnhancedPageDTO pageDTO, Class<V> voClass) {
+        rejectKeyset(pageDTO, "增强查询");
         try {
             long startTime = System.currentTimeMillis();
             
@@ -658,7 +681,7 @@ public class EnhancedQueryBuilder {
             
             // 执行查询 - 使用智能映射
             String[] selectFields = new String[]{"*"};
-            String fullSql = buildSelectSqlWithWhere(service, wrapper, selectFields);
+            String fullSql = buildSelectSqlWithWhere(service, wrapper, selectFields, voClass);
             
             // 创建分页对象
             Page<Map<String, Object>> page = createMapPage(pageDTO);
@@ -680,7 +703,7 @@ public class EnhancedQueryBuilder {
                 current = entityResult.getCurrent();
                 size = entityResult.getSize();
             } else {
-                IPage<Map<String, Object>> result = mapper.selectPageAsVo(page, fullSql);
+                IPage<Map<String, Object>> result = mapper.selectPageWithWrapper(page, fullSql, wrapper);
                 voList = mapMapToVoList(result.getRecords(), voClass);
                 total = result.getTotal();
                 current = result.getCurrent();
@@ -797,13 +820,23 @@ public class EnhancedQueryBuilder {
             long endTime = System.currentTimeMillis();
             long queryTime = endTime - startTime;
             
-            // 构建性能结果
-            PerformancePageResult<V> performanceResult = new PerformancePageResult<>(
-                pageResult.getRecords(), 
-                pageResult.getTotal(), 
-                pageResult.getCurrent(), 
-                pageResult.getSize()
-            );
+            // 构建性能结果（游标分页没有总数和页码，保留游标信息）
+            PerformancePageResult<V> performanceResult;
+            if (KeysetPagination.isKeyset(pageDTO)) {
+                performanceResult = new PerformancePageResult<>();
+                performanceResult.setRecords(pageResult.getRecords());
+                performanceResult.setSize(pageResult.getSize());
+                performanceResult.setNextCursor(pageResult.getNextCursor());
+                performanceResult.setHasNext(pageResult.getHasNext());
+                performanceResult.setHasPrevious(pageResult.getHasPrevious());
+            } else {
+                performanceResult = new PerformancePageResult<>(
+                    pageResult.getRecords(), 
+                    pageResult.getTotal(), 
+                    pageResult.getCurrent(), 
+                    pageResult.getSize()
+                );
+            }
             
             // 设置性能数据
             String executionPlan = getExecutionPlan(wrapper);
@@ -820,6 +853,15 @@ public class EnhancedQueryBuilder {
         }
     }
     
+    /**
+     * 不支持游标分页的查询方法在收到游标分页请求时直接拒绝，避免静默退回 OFFSET 分页
+     */
+    private static void rejectKeyset(PageDTO pageDTO, String operation) {
+        if (KeysetPagination.isKeyset(pageDTO)) {
+            throw new IllegalArgumentException(operation + "不支持游标分页，请使用 pageWithCondition 或 pageWithPerformance");
+        }
+    }
+    
     /**
      * 统一的查询执行方法
      * 处理Mapper获取和查询执行逻辑
@@ -832,10 +874,17 @@ public class EnhancedQueryBuilder {
         
         // 获取Mapper
         EnhancedVoMapper<T, V> mapper = getEnhancedVoMapper(service, voClass);
+        // 游标分页：追加游标条件，只取一页且不查询总数
+        KeysetPagination keyset = KeysetPagination.isKeyset(pageDTO)
+                ? KeysetPagination.apply(wrapper, pageDTO, service.getEntityClass()) : null;
         
         if (mapper == null) {
             // 基础查询
             log.warn("Mapper {} 没有实现EnhancedVoMapper，使用基础查询", service.getBaseMapper().getClass().getSimpleName());
+            if (keyset != null) {
+                List<T> records = service.page(keyset.<T>page(), wrapper).getRecords();
+                return keyset.toResult(VoMapper.mapToVoList(records, voClass));
+            }
             Page<T> entityPage = createEntityPage(pageDTO);
             IPage<T> entityResult = service.page(entityPage, wrapper);
             List<V> voList = VoMapper.mapToVoList(entityResult.getRecords(), voClass);
@@ -844,13 +893,16 @@ public class EnhancedQueryBuilder {
             // 增强查询
             String[] selectFields = VoFieldSelector.getSelectFields(voClass);
             wrapper.select(selectFields);
-            String fullSql = buildSelectSql(service, wrapper, selectFields);
+            String fullSql = buildSelectSql(service, wrapper, selectFields, voClass);
             
-            Page<Map<String, Object>> page = createMapPage(pageDTO);
-            IPage<Map<String, Object>> result = mapper.selectPageAsVo(page, fullSql);
+            Page<Map<String, Object>> page = keyset != null ? keyset.page() : createMapPage(pageDTO);
+            IPage<Map<String, Object>> result = mapper.selectPageWithWrapper(page, fullSql, wrapper);
             
             // 手动映射Map到VO
             List<V> voList = mapMapToVoList(result.getRecords(), voClass);
+            if (keyset != null) {
+                return keyset.toResult(voList);
+            }
             return PageResult.of(voList, result.getTotal(), result.getCurrent(), result.getSize());
         }
     }
@@ -866,259 +918,63 @@ public class EnhancedQueryBuilder {
      * 将Map列表映射为VO列表
      * 支持父类字段映射
      * 支持@VoMapping.Field注解和@FieldMapping注解
+     * 字段、列名和类型转换按 VO 类预先编译为 {@link VoMappingPlan}，逐行映射时不再使用反射查找
      */
     private static <V extends BaseVO<?>> List<V> mapMapToVoList(List<Map<String, Object>> mapList, Class<V> voClass) {
-        List<V> voList = new ArrayList<>();
-        
-        // 检查是否有@VoMapping注解
-        VoMapping voMapping = voClass.getAnnotation(VoMapping.class);
-        Map<String, String> fieldMappingMap = null;
-        if (voMapping != null && voMapping.fields().length > 0) {
-            // 构建字段映射表：target -> source
-            fieldMappingMap = new HashMap<>();
-            for (VoMapping.Field field : voMapping.fields()) {
-                if (StringUtils.isNotBlank(field.target())) {
-                    // 使用target作为Map的key（因为SQL中使用了AS target）
-                    fieldMappingMap.put(field.target(), field.target());
-                }
-            }
-        }
-        
+        VoMappingPlan<V> plan = VoMappingPlan.of(voClass);
+        List<V> voList = new ArrayList<>(mapList.size());
         for (Map<String, Object> map : mapList) {
             try {
-                V vo = voClass.getDeclaredConstructor().newInstance();
-                
-                // 处理字段映射注解（包括父类字段）
-                Field[] allFields = getAllFields(voClass);
-                for (Field field : allFields) {
-                    // 跳过静态字段
-                    if (java.lang.reflect.Modifier.isStatic(field.getModifiers())) {
-                        continue;
-                    }
-                    
-                    // 跳过特殊字段
-                    if (isSpecialField(field.getName())) {
-                        continue;
-                    }
-                    
-                    field.setAccessible(true);
-                    Object value = null;
-                    String mapKey = null;
-                    
-                    // 优先处理@VoMapping.Field注解
-                    if (voMapping != null && voMapping.fields().length > 0) {
-                        // 查找对应的@VoMapping.Field配置
-                        for (VoMapping.Field voField : voMapping.fields()) {
-                            if (field.getName().equals(voField.target())) {
-                                // 使用target作为Map的key（因为SQL中使用了AS target）
-                                mapKey = voField.target();
-                                break;
-                            }
-                        }
-                    }
-                    
-                    // 如果没找到@VoMapping.Field，尝试@FieldMapping注解
-                    if (mapKey == null) {
-                        FieldMapping mapping = field.getAnnotation(FieldMapping.class);
-                        if (mapping != null && !mapping.ignore()) {
-                            mapKey = mapping.value();
-                        }
-                    }
-                    
-                    // 如果还是没找到，使用字段名转换
-                    if (mapKey == null) {
-                        mapKey = FieldConversionUtils.convertFieldToColumn(field.getName());
-                    }
-                    
-                    // 从Map中获取值
-                    if (mapKey != null && map.containsKey(mapKey)) {
-                        value = map.get(mapKey);
-                        // 类型转换：将数据库值转换为目标字段类型
-                        Object convertedValue = convertValue(value, field.getType());
-                        field.set(vo, convertedValue);
-                    }
-                }
-                
-                voList.add(vo);
+                voList.add(plan.map(map));
             } catch (Exception e) {
                 log.error("Map映射到VO失败: {}", e.getMessage(), e);
             }
         }
-        
         return voList;
     }
     
     /**
-     * 类型转换：将数据库值转换为目标字段类型
-     * 支持常见的类型转换，特别是 tinyint (Integer 0/1) -> Boolean
+     * 构建带 WHERE 条件的 SELECT SQL 模板
+     * 统一处理 SQL 构建，避免 WHERE 后面没有条件或包含 ORDER BY 的问题。
+     * 条件值保留为 {@code #{ew.paramNameValuePairs.xxx}} 占位符，执行时随 wrapper 一起交给 MyBatis 绑定，
+     * 同一 VO 和相同条件结构的查询生成相同的 SQL 文本，模板按此缓存
      */
-    private static Object convertValue(Object value, Class<?> targetType) {
-        if (value == null) {
-            // 如果目标类型是基本类型，返回默认值
-            if (targetType.isPrimitive()) {
-                if (targetType == boolean.class) return false;
-                if (targetType == int.class) return 0;
-                if (targetType == long.class) return 0L;
-                if (targetType == double.class) return 0.0;
-                if (targetType == float.class) return 0.0f;
-                if (targetType == byte.class) return (byte) 0;
-                if (targetType == short.class) return (short) 0;
-                if (targetType == char.class) return '\u0000';
-            }
-            return null;
-        }
-        
-        // 如果类型已经匹配，直接返回
-        if (targetType.isAssignableFrom(value.getClass())) {
-            return value;
-        }
-        
-        // Boolean/boolean 类型转换（支持 Integer 0/1 -> Boolean）
-        if (targetType == Boolean.class || targetType == boolean.class) {
-            if (value instanceof Integer) {
-                return ((Integer) value) != 0;
-            }
-            if (value instanceof Long) {
-                return ((Long) value) != 0L;
-            }
-            if (value instanceof Byte) {
-                return ((Byte) value) != 0;
-            }
-            if (value instanceof Short) {
-                return ((Short) value) != 0;
-            }
-            if (value instanceof String) {
-                String str = ((String) value).trim().toLowerCase();
-                return "1".equals(str) || "true".equals(str) || "yes".equals(str) || "on".equals(str);
-            }
-        }
-        
-        // Integer/int 类型转换
-        if (targetType == Integer.class || targetType == int.class) {
-            if (value instanceof Number) {
-                return ((Number) value).intValue();
-            }
-            if (value instanceof String) {
-                try {
-                    return Integer.parseInt((String) value);
-                } catch (NumberFormatException e) {
-                    log.warn("无法将字符串 '{}' 转换为 Integer", value);
-                    return 0;
-                }
-            }
-        }
-        
-        // Long/long 类型转换
-        if (targetType == Long.class || targetType == long.class) {
-            if (value instanceof Number) {
-                return ((Number) value).longValue();
-            }
-            if (value instanceof String) {
-                try {
-                    return Long.parseLong((String) value);
-                } catch (NumberFormatException e) {
-                    log.warn("无法将字符串 '{}' 转换为 Long", value);
-                    return 0L;
-                }
-            }
-        }
-        
-        // Double/double 类型转换
-        if (targetType == Double.class || targetType == double.class) {
-            if (value instanceof Number) {
-                return ((Number) value).doubleValue();
-            }
-            if (value instanceof String) {
-                try {
-                    return Double.parseDouble((String) value);
-                } catch (NumberFormatException e) {
-                    log.warn("无法将字符串 '{}' 转换为 Double", value);
-                    return 0.0;
-                }
-            }
-        }
-        
-        // Float/float 类型转换
-        if (targetType == Float.class || targetType == float.class) {
-            if (value instanceof Number) {
-                return ((Number) value).floatValue();
-            }
-            if (value instanceof String) {
-                try {
-                    return Float.parseFloat((String) value);
-                } catch (NumberFormatException e) {
-                    log.warn("无法将字符串 '{}' 转换为 Float", value);
-                    return 0.0f;
-                }
-            }
-        }
-        
-        // String 类型转换
-        if (targetType == String.class) {
-            return value.toString();
-        }
-        
-        // 如果无法转换，记录警告并返回原值
-        log.warn("无法将类型 {} 转换为 {}，返回原值", value.getClass().getName(), targetType.getName());
-        return value;
+    private static <T> String buildSelectSqlWithWhere(IService<T> service, QueryWrapper<T> wrapper, String[] selectFields, Class<?> voClass) {
+        return getSqlTemplate(voClass, getTableName(service), selectFields, wrapper);
     }
-    
+
     /**
-     * 获取类及其所有父类的字段
+     * 构建 SELECT SQL 模板（表名取自实体类），占位符与缓存规则同 {@link #buildSelectSqlWithWhere}
      */
-    private static Field[] getAllFields(Class<?> clazz) {
-        List<Field> allFields = new ArrayList<>();
-        
-        // 遍历整个继承链
-        Class<?> currentClass = clazz;
-        while (currentClass != null && currentClass != Object.class) {
-            Field[] declaredFields = currentClass.getDeclaredFields();
-            for (Field field : declaredFields) {
-                allFields.add(field);
-            }
-            currentClass = currentClass.getSuperclass();
-        }
-        
-        return allFields.toArray(new Field[0]);
+    private static <T> String buildSelectSql(IService<T> service, QueryWrapper<T> wrapper, String[] selectFields, Class<?> voClass) {
+        return getSqlTemplate(voClass, getTableNameFromEntity(service), selectFields, wrapper);
     }
-    
+
     /**
-     * 判断是否为特殊字段
+     * 按（VO类、表名、查询字段、条件结构）获取 SQL 模板
+     * 条件结构即 wrapper 的 SQL 片段，参数名按条件顺序生成，不含参数值
      */
-    private static boolean isSpecialField(String fieldName) {
-        // 常见的特殊字段
-        return "serialVersionUID".equals(fieldName) ||
-               "class".equals(fieldName) ||
-               fieldName.startsWith("$");
+    private static <T> String getSqlTemplate(Class<?> voClass, String tableName, String[] selectFields, QueryWrapper<T> wrapper) {
+        SqlTemplateKey key = new SqlTemplateKey(voClass, tableName, Arrays.asList(selectFields), wrapper.getSqlSegment());
+        return SQL_TEMPLATES.get(key, EnhancedQueryBuilder::composeSelectSql);
     }
-    
-    
-    /**
-     * SQL构建器 - 统一SQL构建逻辑
-     * 构建完整的SQL，避免参数绑定问题
-     */
-    /**
-     * 构建完整的SELECT SQL
-     * 使用更简单的方法，直接使用MyBatis-Plus的内置方法
-     */
+
     /**
-     * 构建带 WHERE 条件的 SELECT SQL
-     * 统一处理 SQL 构建，避免 WHERE 后面没有条件或包含 ORDER BY 的问题
+     * 组装 SELECT SQL 模板
      */
-    private static <T> String buildSelectSqlWithWhere(IService<T> service, QueryWrapper<T> wrapper, String[] selectFields) {
-        String tableName = getTableName(service);
+    private static String composeSelectSql(SqlTemplateKey key) {
         StringBuilder sql = new StringBuilder();
-        sql.append("SELECT ").append(String.join(", ", selectFields));
-        sql.append(" FROM ").append(tableName);
+        sql.append("SELECT ").append(String.join(", ", key.selectFields()));
+        sql.append(" FROM ").append(key.tableName());
         
         // 获取 WHERE 条件（不包含 ORDER BY）
-        String whereClause = getWhereClauseWithoutParams(wrapper);
-        if (whereClause != null && !whereClause.trim().isEmpty()) {
+        String whereClause = getWhereClause(key.sqlSegment());
+        if (whereClause != null) {
             sql.append(" WHERE ").append(whereClause);
         }
         
         // 获取 ORDER BY 子句
-        String orderByClause = getOrderByClause(wrapper);
+        String orderByClause = getOrderByClause(key.sqlSegment());
         if (orderByClause != null && !orderByClause.trim().isEmpty()) {
             sql.append(" ").append(orderByClause);
         }
@@ -1127,149 +983,54 @@ public class EnhancedQueryBuilder {
     }
     
     /**
-     * 从 QueryWrapper 中提取 ORDER BY 子句
+     * 从 SQL 片段中提取 ORDER BY 子句
      */
-    private static <T> String getOrderByClause(QueryWrapper<T> wrapper) {
-        String sqlSegment = wrapper.getSqlSegment();
+    private static String getOrderByClause(String sqlSegment) {
         if (sqlSegment == null || sqlSegment.trim().isEmpty()) {
             return null;
         }
         
-        // 替换参数占位符为实际值
-        String result = replaceParameterPlaceholders(sqlSegment, wrapper);
-        
         // 提取 ORDER BY 子句
-        if (result != null) {
-            int orderByIndex = result.toUpperCase().indexOf(" ORDER BY ");
-            if (orderByIndex >= 0) {
-                String orderByClause = result.substring(orderByIndex).trim();
-                // 移除可能存在的 WHERE 关键字（如果 ORDER BY 前面有 WHERE）
-                if (orderByClause.toUpperCase().startsWith("WHERE")) {
-                    int whereIndex = orderByClause.toUpperCase().indexOf(" ORDER BY ");
-                    if (whereIndex > 0) {
-                        orderByClause = orderByClause.substring(whereIndex).trim();
-                    }
+        int orderByIndex = sqlSegment.toUpperCase().indexOf(" ORDER BY ");
+        if (orderByIndex >= 0) {
+            String orderByClause = sqlSegment.substring(orderByIndex).trim();
+            // 移除可能存在的 WHERE 关键字（如果 ORDER BY 前面有 WHERE）
+            if (orderByClause.toUpperCase().startsWith("WHERE")) {
+                int whereIndex = orderByClause.toUpperCase().indexOf(" ORDER BY ");
+                if (whereIndex > 0) {
+                    orderByClause = orderByClause.substring(whereIndex).trim();
                 }
-                return orderByClause;
             }
+            return orderByClause;
         }
         
         return null;
     }
     
-    private static <T> String buildSelectSql(IService<T> service, QueryWrapper<T> wrapper, String[] selectFields) {
-        // 获取实体类对应的表名
-        String tableName = getTableNameFromEntity(service);
-        
-        // 构建完整的SQL
-        StringBuilder sql = new StringBuilder();
-        sql.append("SELECT ").append(String.join(", ", selectFields));
-        sql.append(" FROM ").append(tableName);
-        
-        // 使用MyBatis-Plus的内置方法获取WHERE条件
-        // 注意：这里我们需要获取不带参数占位符的SQL片段
-        String whereClause = getWhereClauseWithoutParams(wrapper);
-        if (whereClause != null && !whereClause.trim().isEmpty()) {
-            // 移除可能存在的 WHERE 关键字（如果 sqlSegment 已经包含）
-            String normalizedWhere = whereClause.trim();
-            if (normalizedWhere.toUpperCase().startsWith("WHERE")) {
-                normalizedWhere = normalizedWhere.substring(5).trim();
-            }
-            // 只有当有实际条件时才添加 WHERE
-            if (!normalizedWhere.isEmpty()) {
-                sql.append(" WHERE ").append(normalizedWhere);
-            }
-        }
-        
-        // 获取 ORDER BY 子句
-        String orderByClause = getOrderByClause(wrapper);
-        if (orderByClause != null && !orderByClause.trim().isEmpty()) {
-            sql.append(" ").append(orderByClause);
-        }
-        
-        return sql.toString();
-    }
-    
     /**
-     * 获取不带参数占位符的WHERE条件
-     * 这是一个简化的实现，直接使用QueryWrapper的toString方法
-     * 注意：返回的SQL片段不包含 WHERE 关键字，也不包含 ORDER BY
+     * 从 SQL 片段中提取 WHERE 条件
+     * 注意：返回的SQL片段不包含 WHERE 关键字，也不包含 ORDER BY，参数仍为占位符
      */
-    private static <T> String getWhereClauseWithoutParams(QueryWrapper<T> wrapper) {
-        // 获取QueryWrapper的SQL片段
-        String sqlSegment = wrapper.getSqlSegment();
-        
+    private static String getWhereClause(String sqlSegment) {
         if (sqlSegment == null || sqlSegment.trim().isEmpty()) {
             return null;
         }
         
-        // 替换参数占位符为实际值
-        String result = replaceParameterPlaceholders(sqlSegment, wrapper);
-        
         // 移除 ORDER BY 子句（在 WHERE 条件中不应该包含 ORDER BY）
-        if (result != null) {
-            int orderByIndex = result.toUpperCase().indexOf(" ORDER BY ");
-            if (orderByIndex >= 0) {
-                result = result.substring(0, orderByIndex).trim();
-            }
+        String result = sqlSegment;
+        int orderByIndex = result.toUpperCase().indexOf(" ORDER BY ");
+        if (orderByIndex >= 0) {
+            result = result.substring(0, orderByIndex).trim();
         }
         
         // 移除可能存在的 WHERE 关键字
-        if (result != null && result.toUpperCase().startsWith("WHERE")) {
+        result = result.trim();
+        if (result.toUpperCase().startsWith("WHERE")) {
             result = result.substring(5).trim();
         }
         
         // 如果结果为空，返回 null
-        if (result == null || result.trim().isEmpty()) {
-            return null;
-        }
-        
-        return result;
-    }
-    
-    /**
-     * 替换参数占位符为实际值
-     */
-    private static <T> String replaceParameterPlaceholders(String sqlSegment, QueryWrapper<T> wrapper) {
-        // 获取QueryWrapper的参数映射
-        Map<String, Object> paramNameValuePairs = wrapper.getParamNameValuePairs();
-        
-        String result = sqlSegment;
-        for (Map.Entry<String, Object> entry : paramNameValuePairs.entrySet()) {
-            String paramName = entry.getKey();
-            Object paramValue = entry.getValue();
-            
-            // 替换 #{ew.paramNameValuePairs.paramName} 为实际值
-            String placeholder = "#{ew.paramNameValuePairs." + paramName + "}";
-            String value = formatSqlValue(paramValue);
-            result = result.replace(placeholder, value);
-        }
-        
-        return result;
-    }
-    
-    /**
-     * 格式化SQL值
-     */
-    private static String formatSqlValue(Object value) {
-        if (value == null) {
-            return "NULL";
-        }
-        
-        if (value instanceof String) {
-            return "'" + value.toString().replace("'", "''") + "'";
-        }
-        
-        if (value instanceof Number) {
-            return value.toString();
-        }
-        
-        if (value instanceof Boolean) {
-            return value.toString();
-        }
-        
-        // 其他类型转换为字符串
-        return "'" + value.toString().replace("'", "''") + "'";
+        return result.isEmpty() ? null : result;
     }
     
     /**
@@ -1669,4 +1430,15 @@ public class EnhancedQueryBuilder {
     public static <T> CompletableFuture<T> withTimeout(CompletableFuture<T> future, long timeout, TimeUnit unit) {
         return future.orTimeout(timeout, unit);
     }
-}
\ No newline at end of file
+
+    /**
+     * SQL 模板缓存键
+     *
+     * @param voClass      VO类
+     * @param tableName    表名
+     * @param selectFields 查询字段
+     * @param sqlSegment   条件结构（wrapper 的 SQL 片段，参数为占位符）
+     */
+    private record SqlTemplateKey(Class<?> voClass, String tableName, List<String> selectFields, String sqlSegment) {
+    }
+}
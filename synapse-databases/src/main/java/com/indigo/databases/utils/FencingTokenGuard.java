@@ -0,0 +1,142 @@
+package com.indigo.databases.utils;
+
+import com.baomidou.mybatisplus.core.conditions.update.LambdaUpdateWrapper;
+import com.baomidou.mybatisplus.core.conditions.update.UpdateWrapper;
+import com.baomidou.mybatisplus.core.mapper.BaseMapper;
+import com.baomidou.mybatisplus.core.toolkit.support.SFunction;
+import com.indigo.core.constants.StandardErrorCode;
+import com.indigo.core.exception.Ex;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * 防护令牌（Fencing Token）条件更新工具类
+ * 配合 LockManager#tryLease 返回的单调递增令牌使用，在数据库侧拒绝过期锁持有者的写入
+ *
+ * <p>原理：表中增加一个令牌列（如 {@code fence_token BIGINT}），每次写入时：
+ * <pre>
+ * UPDATE t SET ..., fence_token = #{token}
+ *  WHERE ... AND (fence_token IS NULL OR fence_token &lt;= #{token})
+ * </pre>
+ * 旧持有者的令牌小于已写入的令牌，更新行数为0，无需再回查锁状态。
+ * 同一持有者在租约内多次写入（令牌相等）不受影响。
+ *
+ * <h3>使用示例：</h3>
+ * <pre>{@code
+ * lockManager.executeWithLease("order", orderId, 10, token -> {
+ *     UpdateWrapper<Order> wrapper = new UpdateWrapper<Order>()
+ *             .eq("id", orderId)
+ *             .set("status", "PAID");
+ *     FencingTokenGuard.updateOrThrow(orderRepository.getMapper(), wrapper, "fence_token", token);
+ *     return null;
+ * });
+ * }</pre>
+ *
+ * @author 史偕成
+ * @date 2025/12/19
+ */
+@Slf4j
+public class FencingTokenGuard {
+
+    private FencingTokenGuard() {
+    }
+
+    /**
+     * 为更新条件附加防护令牌守卫
+     *
+     * @param wrapper     更新条件
+     * @param fenceColumn 令牌列名（数据库字段名）
+     * @param token       防护令牌
+     * @return 原更新条件（便于链式调用）
+     */
+    public static <T> UpdateWrapper<T> guard(UpdateWrapper<T> wrapper, String fenceColumn, long token) {
+        wrapper.set(fenceColumn, token)
+                .and(w -> w.isNull(fenceColumn).or().le(fenceColumn, token));
+        return wrapper;
+    }
+
+    /**
+     * 为Lambda更新条件附加防护令牌守卫
+     *
+     * @param wrapper     更新条件
+     * @param fenceColumn 令牌列
+     * @param token       防护令牌
+     * @return 原更新条件（便于链式调用）
+     */
+    public static <T> LambdaUpdateWrapper<T> guard(LambdaUpdateWrapper<T> wrapper, SFunction<T, ?> fenceColumn, long token) {
+        wrapper.set(fenceColumn, token)
+                .and(w -> w.isNull(fenceColumn).or().le(fenceColumn, token));
+        return wrapper;
+    }
+
+    /**
+     * 执行带防护令牌守卫的更新
+     *
+     * @param mapper      Mapper实例（可通过 repository.getMapper() 获取）
+     * @param wrapper     更新条件
+     * @param fenceColumn 令牌列名
+     * @param token       防护令牌
+     * @return 受影响行数，0表示令牌已过期或记录不存在
+     */
+    public static <T> int update(BaseMapper<T> mapper, UpdateWrapper<T> wrapper, String fenceColumn, long token) {
+        return mapper.update(null, guard(wrapper, fenceColumn, token));
+    }
+
+    /**
+     * 执行带防护令牌守卫的更新（Lambda形式）
+     *
+     * @param mapper      Mapper实例
+     * @param wrapper     更新条件
+     * @param fenceColumn 令牌列
+     * @param token       防护令牌
+     * @return 受影响行数，0表示令牌已过期或记录不存在
+     */
+    public static <T> int update(BaseMapper<T> mapper, LambdaUpdateWrapper<T> wrapper, SFunction<T, ?> fenceColumn, long token) {
+        return mapper.update(null, guard(wrapper, fenceColumn, token));
+    }
+
+    /**
+     * 执行带防护令牌守卫的更新，未更新任何行时抛出冲突异常
+     *
+     * @param mapper      Mapper实例
+     * @param wrapper     更新条件
+     * @param fenceColumn 令牌列名
+     * @param token       防护令牌
+     * @return 受影响行数
+     * @throws com.indigo.core.exception.SynapseException 令牌已过期（OPERATION_CONFLICT）
+     */
+    public static <T> int updateOrThrow(BaseMapper<T> mapper, UpdateWrapper<T> wrapper, String fenceColumn, long token) {
+        int rows = update(mapper, wrapper, fenceColumn, token);
+        assertApplied(rows, token);
+        return rows;
+    }
+
+    /**
+     * 执行带防护令牌守卫的更新（Lambda形式），未更新任何行时抛出冲突异常
+     *
+     * @param mapper      Mapper实例
+     * @param wrapper     更新条件
+     * @param fenceColumn 令牌列
+     * @param token       防护令牌
+     * @return 受影响行数
+     * @throws com.indigo.core.exception.SynapseException 令牌已过期（OPERATION_CONFLICT）
+     */
+    public static <T> int updateOrThrow(BaseMapper<T> mapper, LambdaUpdateWrapper<T> wrapper, SFunction<T, ?> fenceColumn, long token) {
+        int rows = update(mapper, wrapper, fenceColumn, token);
+        assertApplied(rows, token);
+        return rows;
+    }
+
+    /**
+     * 校验守卫更新是否生效
+     *
+     * @param affectedRows 受影响行数
+     * @param token        防护令牌
+     * @throws com.indigo.core.exception.SynapseException 未更新任何行（OPERATION_CONFLICT）
+     */
+    public static void assertApplied(int affectedRows, long token) {
+        if (affectedRows <= 0) {
+            log.warn("防护令牌守卫拒绝写入，令牌可能已过期: token={}", token);
+            Ex.throwEx(StandardErrorCode.OPERATION_CONFLICT, "防护令牌已过期，写入被拒绝: " + token);
+        }
+    }
+}
@@ -0,0 +1,348 @@
+package com.indigo.databases.utils;
+
+import com.baomidou.mybatisplus.core.conditions.query.QueryWrapper;
+import com.baomidou.mybatisplus.core.metadata.TableInfo;
+import com.baomidou.mybatisplus.core.metadata.TableInfoHelper;
+import com.baomidou.mybatisplus.core.toolkit.StringUtils;
+import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
+import com.indigo.core.entity.dto.PageDTO;
+import com.indigo.core.entity.dto.QueryDTO;
+import com.indigo.core.entity.result.PageResult;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.time.DateTimeException;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Date;
+import java.util.List;
+import java.util.UUID;
+import java.util.regex.Pattern;
+
+/**
+ * 游标（Keyset）分页
+ * 不使用 OFFSET，也不执行 COUNT：根据排序字段生成 {@code WHERE (k1, k2) > (?, ?)} 条件，
+ * 从上一页最后一条记录之后继续读取，深分页与第一页的代价相同，可以直接利用排序字段上的索引
+ *
+ * <p>规则：
+ * <ul>
+ *   <li>排序字段取自 {@link QueryDTO#getOrderByList()}，未包含主键时自动追加主键作为唯一的末位排序键；
+ *       主键取自实体的 {@link TableInfo}（{@code @TableId}），实体未注册或没有主键时使用 id</li>
+ *   <li>各排序方向一致时使用行值比较 {@code (k1, k2) > (?, ?)}；方向混合时展开为
+ *       {@code k1 > ? OR (k1 = ? AND k2 < ?)}</li>
+ *   <li>多查询一条记录判断是否有下一页，游标由本页最后一条记录的排序字段值编码而成，对调用方不透明</li>
+ *   <li>排序字段必须出现在返回的实体或 VO 中，且值不能为 null</li>
+ *   <li>排序字段值按原类型编码，支持整数、浮点数、BigDecimal/BigInteger、字符串、布尔、UUID 和常用日期时间类型；
+ *       枚举等其他类型无法保证与数据库中的比较语义一致，直接拒绝</li>
+ *   <li>游标与排序字段绑定，排序变化后旧游标会被拒绝</li>
+ * </ul>
+ *
+ * @author 史偕成
+ * @date 2025/12/19
+ */
+final class KeysetPagination {
+
+    private static final byte VERSION = 1;
+    private static final String ID_FIELD = "id";
+    private static final Pattern COLUMN_PATTERN = Pattern.compile("[A-Za-z_][A-Za-z0-9_.]*");
+
+    private final List<SortKey> keys;
+    private final String signature;
+    private final long pageSize;
+    private final boolean hasPrevious;
+
+    private KeysetPagination(List<SortKey> keys, long pageSize, boolean hasPrevious) {
+        this.keys = keys;
+        this.signature = signatureOf(keys);
+        this.pageSize = pageSize;
+        this.hasPrevious = hasPrevious;
+    }
+
+    /**
+     * 是否使用游标分页：显式开启，或者携带了游标
+     */
+    static boolean isKeyset(PageDTO pageDTO) {
+        return pageDTO != null && (Boolean.TRUE.equals(pageDTO.getKeyset()) || StringUtils.isNotBlank(pageDTO.getCursor()));
+    }
+
+    /**
+     * 在查询条件上追加末位排序键和游标条件
+     * 调用前 wrapper 应已由 {@link QueryConditionBuilder} 添加查询条件和排序
+     *
+     * @param entityClass 实体类，用于确定末位排序键（主键）
+     */
+    static <T> KeysetPagination apply(QueryWrapper<T> wrapper, PageDTO pageDTO, Class<?> entityClass) {
+        List<SortKey> keys = resolveKeys(pageDTO.getOrderByList(), primaryKey(entityClass));
+        SortKey last = keys.get(keys.size() - 1);
+        if (last.tiebreaker()) {
+            wrapper.orderBy(true, !last.desc(), last.column());
+        }
+
+        KeysetPagination keyset = new KeysetPagination(keys, Math.max(pageDTO.getPageSize(), 1),
+                StringUtils.isNotBlank(pageDTO.getCursor()));
+        if (keyset.hasPrevious) {
+            Object[] values = keyset.decode(pageDTO.getCursor());
+            keyset.appendPredicate(wrapper, values);
+        }
+        return keyset;
+    }
+
+    /**
+     * 本次查询使用的分页对象：只取第一页，多取一条用于判断是否有下一页，不执行 COUNT
+     */
+    <R> Page<R> page() {
+        return new Page<>(1, pageSize + 1, false);
+    }
+
+    /**
+     * 根据查询结果构建分页结果，total 和 pages 为 null
+     */
+    <R> PageResult<R> toResult(List<R> records) {
+        boolean hasNext = records.size() > pageSize;
+        List<R> pageRecords = hasNext ? new ArrayList<>(records.subList(0, (int) pageSize)) : records;
+        String nextCursor = hasNext ? encode(pageRecords.get(pageRecords.size() - 1)) : null;
+        return PageResult.ofKeyset(pageRecords, pageSize, nextCursor, hasPrevious);
+    }
+
+    /**
+     * 实体的主键字段和列名，作为末位排序键
+     * 实体未注册到 MyBatis-Plus 或没有声明主键时回退到 id
+     */
+    private static SortKey primaryKey(Class<?> entityClass) {
+        TableInfo tableInfo = entityClass != null ? TableInfoHelper.getTableInfo(entityClass) : null;
+        if (tableInfo != null && tableInfo.havePK()) {
+            return new SortKey(tableInfo.getKeyProperty(), tableInfo.getKeyColumn(), false, true);
+        }
+        return new SortKey(ID_FIELD, ID_FIELD, false, true);
+    }
+
+    private static List<SortKey> resolveKeys(List<QueryDTO.OrderBy> orderByList, SortKey primaryKey) {
+        List<SortKey> keys = new ArrayList<>();
+        boolean hasPrimaryKey = false;
+        if (orderByList != null) {
+            for (QueryDTO.OrderBy orderBy : orderByList) {
+                if (orderBy == null || StringUtils.isBlank(orderBy.getField())) {
+                    continue;
+                }
+                String field = orderBy.getField();
+                // 与 QueryConditionBuilder 的排序列名转换保持一致
+                String column = StringUtils.camelToUnderline(field);
+                if (!COLUMN_PATTERN.matcher(column).matches()) {
+                    throw new IllegalArgumentException("非法的排序字段: " + field);
+                }
+                keys.add(new SortKey(field, column, "DESC".equalsIgnoreCase(orderBy.getDirection()), false));
+                hasPrimaryKey |= primaryKey.field().equals(field) || primaryKey.column().equals(column);
+            }
+        }
+        if (!hasPrimaryKey) {
+            // 追加主键保证排序唯一，方向与最后一个排序字段相同
+            boolean desc = !keys.isEmpty() && keys.get(keys.size() - 1).desc();
+            keys.add(new SortKey(primaryKey.field(), primaryKey.column(), desc, true));
+        }
+        return keys;
+    }
+
+    /**
+     * 追加“位于游标之后”的条件，参数通过 {@code {n}} 占位符绑定
+     */
+    private void appendPredicate(QueryWrapper<?> wrapper, Object[] values) {
+        boolean uniform = keys.stream().allMatch(key -> key.desc() == keys.get(0).desc());
+        if (uniform) {
+            StringBuilder columns = new StringBuilder("(");
+            StringBuilder params = new StringBuilder("(");
+            for (int i = 0; i < keys.size(); i++) {
+                if (i > 0) {
+                    columns.append(", ");
+                    params.append(", ");
+                }
+                columns.append(keys.get(i).column());
+                params.append('{').append(i).append('}');
+            }
+            String operator = keys.get(0).desc() ? " < " : " > ";
+            wrapper.apply(columns.append(')').append(operator).append(params).append(')').toString(), values);
+            return;
+        }
+
+        // 方向混合：k1 > ? OR (k1 = ? AND k2 < ?) OR ...
+        StringBuilder sql = new StringBuilder("(");
+        List<Object> params = new ArrayList<>();
+        for (int i = 0; i < keys.size(); i++) {
+            if (i > 0) {
+                sql.append(" OR ");
+            }
+            sql.append('(');
+            for (int j = 0; j < i; j++) {
+                sql.append(keys.get(j).column()).append(" = {").append(params.size()).append("} AND ");
+                params.add(values[j]);
+            }
+            SortKey key = keys.get(i);
+            sql.append(key.column()).append(key.desc() ? " < {" : " > {").append(params.size()).append("})");
+            params.add(values[i]);
+        }
+        wrapper.apply(sql.append(')').toString(), params.toArray());
+    }
+
+    /**
+     * 将记录的排序字段值编码为游标
+     */
+    private String encode(Object record) {
+        ClassMetadata metadata = ClassMetadata.of(record.getClass());
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeByte(VERSION);
+            out.writeUTF(signature);
+            out.writeShort(keys.size());
+            for (SortKey key : keys) {
+                ClassMetadata.Accessor accessor = metadata.getProperty(key.field());
+                if (accessor == null) {
+                    throw new IllegalArgumentException("游标分页的排序字段不在返回结果中: "
+                            + record.getClass().getSimpleName() + "." + key.field());
+                }
+                Object value = accessor.get(record);
+                if (value == null) {
+                    throw new IllegalArgumentException("游标分页的排序字段值不能为 null: " + key.field());
+                }
+                writeValue(out, value);
+            }
+        } catch (IOException e) {
+            throw new IllegalStateException("生成分页游标失败", e);
+        }
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(bytes.toByteArray());
+    }
+
+    /**
+     * 解码游标，校验版本和排序字段
+     */
+    private Object[] decode(String cursor) {
+        try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(Base64.getUrlDecoder().decode(cursor)))) {
+            if (in.readByte() != VERSION || !signature.equals(in.readUTF())) {
+                throw new IllegalArgumentException("分页游标与当前排序不匹配");
+            }
+            int size = in.readShort();
+            if (size != keys.size()) {
+                throw new IllegalArgumentException("分页游标与当前排序不匹配");
+            }
+            Object[] values = new Object[size];
+            for (int i = 0; i < size; i++) {
+                values[i] = readValue(in);
+            }
+            return values;
+        } catch (IOException | IllegalArgumentException | DateTimeException e) {
+            throw new IllegalArgumentException("无效的分页游标: " + e.getMessage(), e);
+        }
+    }
+
+    private static void writeValue(DataOutputStream out, Object value) throws IOException {
+        if (value instanceof Long number) {
+            out.writeByte('L');
+            out.writeLong(number);
+        } else if (value instanceof Integer number) {
+            out.writeByte('I');
+            out.writeInt(number);
+        } else if (value instanceof Short number) {
+            out.writeByte('s');
+            out.writeShort(number);
+        } else if (value instanceof Byte number) {
+            out.writeByte('b');
+            out.writeByte(number);
+        } else if (value instanceof Double number) {
+            out.writeByte('F');
+            out.writeDouble(number);
+        } else if (value instanceof Float number) {
+            out.writeByte('f');
+            out.writeFloat(number);
+        } else if (value instanceof BigDecimal decimal) {
+            out.writeByte('D');
+            out.writeUTF(decimal.toString());
+        } else if (value instanceof BigInteger integer) {
+            out.writeByte('N');
+            out.writeUTF(integer.toString());
+        } else if (value instanceof LocalDateTime dateTime) {
+            out.writeByte('T');
+            out.writeUTF(dateTime.toString());
+        } else if (value instanceof LocalDate date) {
+            out.writeByte('d');
+            out.writeUTF(date.toString());
+        } else if (value instanceof LocalTime time) {
+            out.writeByte('t');
+            out.writeUTF(time.toString());
+        } else if (value instanceof OffsetDateTime dateTime) {
+            out.writeByte('O');
+            out.writeUTF(dateTime.toString());
+        } else if (value instanceof Instant instant) {
+            out.writeByte('i');
+            out.writeUTF(instant.toString());
+        } else if (value instanceof Date date) {
+            out.writeByte('U');
+            out.writeLong(date.getTime());
+        } else if (value instanceof Boolean bool) {
+            out.writeByte('B');
+            out.writeBoolean(bool);
+        } else if (value instanceof UUID uuid) {
+            out.writeByte('u');
+            out.writeUTF(uuid.toString());
+        } else if (value instanceof CharSequence || value instanceof Character) {
+            out.writeByte('S');
+            out.writeUTF(value.toString());
+        } else {
+            // 枚举等类型的字符串形式与数据库中的存储值不一定一致，按字符串比较会跳过或重复记录
+            throw new IllegalArgumentException("游标分页不支持的排序字段类型: " + value.getClass().getName());
+        }
+    }
+
+    private static Object readValue(DataInputStream in) throws IOException {
+        byte tag = in.readByte();
+        return switch (tag) {
+            case 'L' -> in.readLong();
+            case 'I' -> in.readInt();
+            case 's' -> in.readShort();
+            case 'b' -> in.readByte();
+            case 'F' -> in.readDouble();
+            case 'f' -> in.readFloat();
+            case 'D' -> new BigDecimal(in.readUTF());
+            case 'N' -> new BigInteger(in.readUTF());
+            case 'T' -> LocalDateTime.parse(in.readUTF());
+            case 'd' -> LocalDate.parse(in.readUTF());
+            case 't' -> LocalTime.parse(in.readUTF());
+            case 'O' -> OffsetDateTime.parse(in.readUTF());
+            case 'i' -> Instant.parse(in.readUTF());
+            case 'U' -> new Date(in.readLong());
+            case 'B' -> in.readBoolean();
+            case 'u' -> UUID.fromString(in.readUTF());
+            case 'S' -> in.readUTF();
+            default -> throw new IOException("未知的游标值类型: " + tag);
+        };
+    }
+
+    private static String signatureOf(List<SortKey> keys) {
+        StringBuilder signature = new StringBuilder();
+        for (SortKey key : keys) {
+            if (!signature.isEmpty()) {
+                signature.append(',');
+            }
+            signature.append(key.field()).append(key.desc() ? ":D" : ":A");
+        }
+        return signature.toString();
+    }
+
+    /**
+     * 排序键
+     *
+     * @param field      实体/VO 字段名
+     * @param column     列名
+     * @param desc       是否降序
+     * @param tiebreaker 是否为自动追加的主键
+     */
+    private record SortKey(String field, String column, boolean desc, boolean tiebreaker) {
+    }
+}
@@ -2,6 +2,8 @@ package com.indigo.databases.utils;
 
 import com.baomidou.mybatisplus.core.conditions.query.QueryWrapper;
 import com.baomidou.mybatisplus.core.toolkit.StringUtils;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
 import com.indigo.core.entity.dto.QueryDTO;
 import com.indigo.core.entity.vo.BaseVO;
 import lombok.extern.slf4j.Slf4j;
@@ -29,9 +31,48 @@ import java.util.Map;
 public class MultiTableQueryBuilder {
     
     /**
-     * 构建多表查询SQL
+     * SQL 模板缓存：（VO类、条件结构、排序）-> 不含参数值的 SQL
      */
+    private static final Cache<TemplateKey, String> SQL_TEMPLATES = Caffeine.newBuilder()
+            .maximumSize(512)
+            .build();
+
+    /**
+     * 构建多表查询（参数绑定）
+     * 返回的 SQL 中条件值保留为 {@code #{ew.paramNameValuePairs.xxx}} 占位符，
+     * 需与 wrapper 一起交给 {@code EnhancedVoMapper#selectPageWithWrapper} 等方法执行；
+     * 同一 VO 和相同条件结构的查询复用缓存的 SQL 模板，只重新绑定参数值
+     */
+    public static <V extends BaseVO> MultiTableQuery buildMultiTableQuery(QueryDTO queryDTO, Class<V> voClass) {
+        QueryWrapper<?> wrapper;
+        try {
+            // 使用QueryConditionBuilder构建WHERE条件
+            wrapper = QueryConditionBuilder.buildQueryWrapper(queryDTO);
+        } catch (Exception e) {
+            log.error("构建WHERE条件失败", e);
+            wrapper = new QueryWrapper<>();
+        }
+        String orderByClause = buildOrderByClause(queryDTO, voClass);
+        TemplateKey key = new TemplateKey(voClass, wrapper.getSqlSegment(), orderByClause);
+        return new MultiTableQuery(SQL_TEMPLATES.get(key, MultiTableQueryBuilder::composeSql), wrapper);
+    }
+
+    /**
+     * 构建多表查询SQL（参数值直接拼接在 SQL 中）
+     *
+     * @deprecated 每个不同的参数值都会产生不同的 SQL 文本，请使用 {@link #buildMultiTableQuery}
+     */
+    @Deprecated
     public static <V extends BaseVO> String buildMultiTableSql(QueryDTO queryDTO, Class<V> voClass) {
+        MultiTableQuery query = buildMultiTableQuery(queryDTO, voClass);
+        return replaceParameterPlaceholders(query.sql(), query.wrapper());
+    }
+
+    /**
+     * 组装多表查询SQL模板
+     */
+    private static String composeSql(TemplateKey key) {
+        Class<?> voClass = key.voClass();
         StringBuilder sql = new StringBuilder();
         
         // 1. 构建SELECT字段
@@ -55,15 +96,14 @@ public class MultiTableQueryBuilder {
         }
         
         // 4. 构建WHERE条件
-        String whereClause = buildWhereClause(queryDTO, voClass);
+        String whereClause = buildWhereClause(key.sqlSegment(), mainAlias);
         if (StringUtils.isNotBlank(whereClause)) {
             sql.append(" WHERE ").append(whereClause);
         }
         
         // 5. 构建ORDER BY
-        String orderByClause = buildOrderByClause(queryDTO, voClass);
-        if (StringUtils.isNotBlank(orderByClause)) {
-            sql.append(" ORDER BY ").append(orderByClause);
+        if (StringUtils.isNotBlank(key.orderBy())) {
+            sql.append(" ORDER BY ").append(key.orderBy());
         }
         
         return sql.toString();
@@ -72,62 +112,33 @@ public class MultiTableQueryBuilder {
     /**
      * 构建WHERE条件
      * 注意：多表查询时，需要将字段名转换为带表别名的形式（如：account -> u.account）
-     * 同时需要将参数占位符替换为实际值，因为使用 ${sql} 时不会自动绑定参数
+     * 参数占位符保持不变，由 MyBatis 在执行时绑定
      */
-    private static <V extends BaseVO> String buildWhereClause(QueryDTO queryDTO, Class<V> voClass) {
-        try {
-            // 使用QueryConditionBuilder构建WHERE条件
-            QueryWrapper<?> wrapper = QueryConditionBuilder.buildQueryWrapper(queryDTO);
-            String whereSql = wrapper.getSqlSegment();
-            
-            if (StringUtils.isNotBlank(whereSql)) {
-                // 多表查询时，需要将字段名转换为带表别名的形式
-                String mainAlias = EnhancedVoFieldSelector.getMainTableAlias(voClass);
-                whereSql = addTableAliasToWhereClause(whereSql, mainAlias);
-                
-                // 将参数占位符替换为实际值（因为使用 ${sql} 时不会自动绑定参数）
-                whereSql = replaceParameterPlaceholders(whereSql, wrapper);
-                
-                return whereSql;
-            }
-            
-        } catch (Exception e) {
-            log.error("构建WHERE条件失败", e);
+    private static String buildWhereClause(String whereSql, String mainAlias) {
+        if (StringUtils.isBlank(whereSql)) {
+            return "";
         }
-        
-        return "";
+        // 多表查询时，需要将字段名转换为带表别名的形式
+        return addTableAliasToWhereClause(whereSql, mainAlias);
     }
     
     /**
-     * 替换参数占位符为实际值
-     * 因为使用 ${sql} 动态SQL时，MyBatis不会自动绑定QueryWrapper的参数
+     * 替换参数占位符为实际值（仅供已废弃的 {@link #buildMultiTableSql} 使用）
      */
     private static String replaceParameterPlaceholders(String sqlSegment, QueryWrapper<?> wrapper) {
         // 获取QueryWrapper的参数映射
         Map<String, Object> paramNameValuePairs = wrapper.getParamNameValuePairs();
         
         if (paramNameValuePairs == null || paramNameValuePairs.isEmpty()) {
-            log.debug("QueryWrapper参数映射为空，SQL: {}", sqlSegment);
             return sqlSegment;
         }
         
-        log.debug("QueryWrapper参数映射: {}", paramNameValuePairs);
-        log.debug("原始SQL片段: {}", sqlSegment);
-        
         String result = sqlSegment;
         for (Map.Entry<String, Object> entry : paramNameValuePairs.entrySet()) {
-            String paramName = entry.getKey();
-            Object paramValue = entry.getValue();
-            
             // MyBatis-Plus 的参数占位符格式：#{ew.paramNameValuePairs.paramName}
-            String placeholder = "#{ew.paramNameValuePairs." + paramName + "}";
-            String value = formatSqlValue(paramValue);
-            
-            log.debug("替换参数: {} = {} -> {}", placeholder, paramValue, value);
-            result = result.replace(placeholder, value);
+            String placeholder = "#{ew.paramNameValuePairs." + entry.getKey() + "}";
+            result = result.replace(placeholder, formatSqlValue(entry.getValue()));
         }
-        
-        log.debug("替换后的SQL片段: {}", result);
         return result;
     }
     
@@ -227,4 +238,19 @@ public class MultiTableQueryBuilder {
     private static String convertFieldToColumn(String fieldName) {
         return StringUtils.camelToUnderline(fieldName);
     }
-}
+
+    /**
+     * 多表查询：SQL 模板和绑定参数的 wrapper
+     *
+     * @param sql     含参数占位符的 SQL
+     * @param wrapper 提供参数值的查询条件
+     */
+    public record MultiTableQuery(String sql, QueryWrapper<?> wrapper) {
+    }
+
+    /**
+     * SQL 模板缓存键
+     */
+    private record TemplateKey(Class<?> voClass, String sqlSegment, String orderBy) {
+    }
+}
\ No newline at end of file
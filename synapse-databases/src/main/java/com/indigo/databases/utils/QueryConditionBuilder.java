@@ -8,8 +8,6 @@ import com.indigo.core.entity.dto.QueryDTO;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Component;
 
-import java.lang.reflect.Field;
-import java.util.ArrayList;
 import java.util.Collection;
 import java.util.List;
 import java.util.Map;
@@ -102,71 +100,20 @@ public class QueryConditionBuilder {
 
     /**
      * 添加实体类字段的查询条件
-     * 支持处理父类字段（包括继承的字段）
+     * 支持处理父类字段（包括继承的字段），字段、注解和列名由 {@link ClassMetadata} 按类缓存
      */
     private static <T> void addEntityConditions(QueryWrapper<T> wrapper, Object entity) {
         try {
-            Class<?> entityClass = entity.getClass();
-            // 获取所有字段（包括父类字段）
-            List<Field> allFields = getAllFields(entityClass);
-            
-            for (Field field : allFields) {
-                QueryCondition annotation = field.getAnnotation(QueryCondition.class);
-                if (annotation != null) {
-                    field.setAccessible(true);
-                    Object value = field.get(entity);
-                    
-                    if (shouldIncludeValue(value, annotation)) {
-                        addCondition(wrapper, field, value, annotation, entityClass);
-                    }
+            for (ClassMetadata.Condition condition : ClassMetadata.of(entity.getClass()).getConditions()) {
+                Object value = condition.accessor().get(entity);
+                if (shouldIncludeValue(value, condition.annotation())) {
+                    addCondition(wrapper, condition, value);
                 }
             }
         } catch (Exception e) {
             log.error("构建实体查询条件失败", e);
         }
     }
-    
-    /**
-     * 获取类及其所有父类的字段（包括继承的字段）
-     * 
-     * @param clazz 类
-     * @return 所有字段列表
-     */
-    private static List<Field> getAllFields(Class<?> clazz) {
-        List<Field> fields = new ArrayList<>();
-        Class<?> currentClass = clazz;
-        
-        // 递归获取所有父类的字段
-        while (currentClass != null && currentClass != Object.class) {
-            Field[] declaredFields = currentClass.getDeclaredFields();
-            for (Field field : declaredFields) {
-                // 避免重复添加（虽然理论上不会重复，但为了安全）
-                if (!containsField(fields, field)) {
-                    fields.add(field);
-                }
-            }
-            currentClass = currentClass.getSuperclass();
-        }
-        
-        return fields;
-    }
-    
-    /**
-     * 检查字段列表中是否已包含指定字段
-     * 
-     * @param fields 字段列表
-     * @param field 要检查的字段
-     * @return 是否已包含
-     */
-    private static boolean containsField(List<Field> fields, Field field) {
-        for (Field f : fields) {
-            if (f.getName().equals(field.getName()) && 
-                f.getDeclaringClass().equals(field.getDeclaringClass())) {
-                return true;
-            }
-        }
-        return false;
-    }
 
     /**
      * 添加排序条件
@@ -239,13 +186,11 @@ public class QueryConditionBuilder {
     /**
      * 添加单个查询条件
      */
-    private static <T> void addCondition(QueryWrapper<T> wrapper, Field field, Object value, QueryCondition annotation, Class<?> entityClass) {
+    private static <T> void addCondition(QueryWrapper<T> wrapper, ClassMetadata.Condition condition, Object value) {
         try {
-            String fieldName = StringUtils.isNotBlank(annotation.field()) ? annotation.field() : field.getName();
-            // 如果字段名已经包含表别名（如 u.account），则不进行转换
-            String columnName = fieldName.contains(".") ? fieldName : convertFieldToColumn(fieldName);
+            String columnName = condition.column();
             
-            switch (annotation.type()) {
+            switch (condition.annotation().type()) {
                 case EQ:
                     wrapper.eq(columnName, value);
                     break;
@@ -298,7 +243,7 @@ public class QueryConditionBuilder {
                     break;
             }
         } catch (Exception e) {
-            log.error("添加查询条件失败: field={}, value={}", field.getName(), value, e);
+            log.error("添加查询条件失败: field={}, value={}", condition.accessor().getName(), value, e);
         }
     }
 
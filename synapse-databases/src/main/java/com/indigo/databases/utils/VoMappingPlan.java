@@ -0,0 +1,269 @@
+package com.indigo.databases.utils;
+
+import com.indigo.core.annotation.FieldMapping;
+import com.indigo.core.annotation.VoMapping;
+import lombok.extern.slf4j.Slf4j;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * VO 映射计划
+ * 每个 VO 类只解析一次：字段对应的结果列名、字段 setter 的 MethodHandle 和类型转换器，
+ * 映射每一行时不再遍历字段、读取注解或转换字段名
+ *
+ * <p>列名解析规则（按优先级）：
+ * <ol>
+ *   <li>{@code @VoMapping.Field} 的 target（SQL 中使用了 AS target）</li>
+ *   <li>{@code @FieldMapping} 的 value（ignore 为 false 时）</li>
+ *   <li>字段名按 {@link FieldConversionUtils} 转换后的列名</li>
+ * </ol>
+ *
+ * @author 史偕成
+ * @date 2025/12/19
+ */
+@Slf4j
+final class VoMappingPlan<V> {
+
+    private static final MethodType SETTER_TYPE = MethodType.methodType(void.class, Object.class, Object.class);
+    private static final MethodType CONSTRUCTOR_TYPE = MethodType.methodType(Object.class);
+
+    private static final ClassValue<VoMappingPlan<?>> PLANS = new ClassValue<>() {
+        @Override
+        protected VoMappingPlan<?> computeValue(Class<?> type) {
+            return compile(type);
+        }
+    };
+
+    private final Class<V> voClass;
+    private final MethodHandle constructor;
+    private final Property[] properties;
+
+    private VoMappingPlan(Class<V> voClass, MethodHandle constructor, Property[] properties) {
+        this.voClass = voClass;
+        this.constructor = constructor;
+        this.properties = properties;
+    }
+
+    /**
+     * 获取 VO 类的映射计划（首次调用时编译并缓存）
+     */
+    @SuppressWarnings("unchecked")
+    static <V> VoMappingPlan<V> of(Class<V> voClass) {
+        return (VoMappingPlan<V>) PLANS.get(voClass);
+    }
+
+    /**
+     * 把一行查询结果映射为 VO
+     * 构造方法抛出的受检异常包装为 {@link IllegalStateException}，Error 原样抛出
+     */
+    @SuppressWarnings("unchecked")
+    V map(Map<String, Object> row) {
+        if (constructor == null) {
+            throw new IllegalStateException("VO 类缺少无参构造方法: " + voClass.getName());
+        }
+        try {
+            V vo = (V) (Object) constructor.invokeExact();
+            for (Property property : properties) {
+                Object value = row.get(property.key);
+                if (value != null || row.containsKey(property.key)) {
+                    property.setter.invokeExact((Object) vo, property.converter.apply(value));
+                }
+            }
+            return vo;
+        } catch (RuntimeException | Error e) {
+            throw e;
+        } catch (Throwable e) {
+            throw new IllegalStateException("VO 映射失败: " + voClass.getName(), e);
+        }
+    }
+
+    private static <V> VoMappingPlan<V> compile(Class<V> voClass) {
+        MethodHandles.Lookup lookup = MethodHandles.lookup();
+        MethodHandle constructor = null;
+        try {
+            Constructor<V> declared = voClass.getDeclaredConstructor();
+            declared.setAccessible(true);
+            constructor = lookup.unreflectConstructor(declared).asType(CONSTRUCTOR_TYPE);
+        } catch (NoSuchMethodException | IllegalAccessException | RuntimeException e) {
+            log.warn("VO 类 {} 无法通过无参构造方法创建: {}", voClass.getName(), e.getMessage());
+        }
+
+        VoMapping voMapping = voClass.getAnnotation(VoMapping.class);
+        List<Property> properties = new ArrayList<>();
+        // 处理字段映射注解（包括父类字段）
+        for (Field field : getAllFields(voClass)) {
+            // 跳过静态字段和特殊字段
+            if (Modifier.isStatic(field.getModifiers()) || isSpecialField(field.getName())) {
+                continue;
+            }
+            MethodHandle setter;
+            try {
+                field.setAccessible(true);
+                setter = lookup.unreflectSetter(field).asType(SETTER_TYPE);
+            } catch (IllegalAccessException | RuntimeException e) {
+                log.warn("VO 字段 {}.{} 不可写，映射时跳过: {}", voClass.getSimpleName(), field.getName(), e.getMessage());
+                continue;
+            }
+            properties.add(new Property(resolveKey(field, voMapping), setter, converterFor(field.getType())));
+        }
+        log.debug("Compiled VO mapping plan for {}: {} properties", voClass.getSimpleName(), properties.size());
+        return new VoMappingPlan<>(voClass, constructor, properties.toArray(new Property[0]));
+    }
+
+    /**
+     * 解析字段对应的结果列名
+     */
+    private static String resolveKey(Field field, VoMapping voMapping) {
+        // 优先处理@VoMapping.Field注解
+        if (voMapping != null) {
+            for (VoMapping.Field voField : voMapping.fields()) {
+                if (field.getName().equals(voField.target())) {
+                    return voField.target();
+                }
+            }
+        }
+        // 如果没找到@VoMapping.Field，尝试@FieldMapping注解
+        FieldMapping mapping = field.getAnnotation(FieldMapping.class);
+        if (mapping != null && !mapping.ignore()) {
+            return mapping.value();
+        }
+        // 如果还是没找到，使用字段名转换
+        return FieldConversionUtils.convertFieldToColumn(field.getName());
+    }
+
+    /**
+     * 为字段类型选择类型转换器：将数据库值转换为目标字段类型
+     * 支持常见的类型转换，特别是 tinyint (Integer 0/1) -> Boolean
+     */
+    private static Function<Object, Object> converterFor(Class<?> targetType) {
+        Object defaultValue = defaultValue(targetType);
+        Class<?> boxedType = MethodType.methodType(targetType).wrap().returnType();
+        Function<Object, Object> conversion = conversionFor(targetType);
+        return value -> {
+            if (value == null) {
+                return defaultValue;
+            }
+            // 如果类型已经匹配（基本类型按包装类型判断），直接返回
+            if (boxedType.isInstance(value)) {
+                return value;
+            }
+            return conversion.apply(value);
+        };
+    }
+
+    private static Function<Object, Object> conversionFor(Class<?> targetType) {
+        // Boolean/boolean 类型转换（支持 Integer 0/1 -> Boolean）
+        if (targetType == Boolean.class || targetType == boolean.class) {
+            return value -> {
+                if (value instanceof Integer || value instanceof Long || value instanceof Byte || value instanceof Short) {
+                    return ((Number) value).longValue() != 0L;
+                }
+                if (value instanceof String str) {
+                    String normalized = str.trim().toLowerCase();
+                    return "1".equals(normalized) || "true".equals(normalized)
+                            || "yes".equals(normalized) || "on".equals(normalized);
+                }
+                return unconvertible(value, targetType);
+            };
+        }
+        if (targetType == Integer.class || targetType == int.class) {
+            return numeric(targetType, Number::intValue, Integer::parseInt, 0);
+        }
+        if (targetType == Long.class || targetType == long.class) {
+            return numeric(targetType, Number::longValue, Long::parseLong, 0L);
+        }
+        if (targetType == Double.class || targetType == double.class) {
+            return numeric(targetType, Number::doubleValue, Double::parseDouble, 0.0);
+        }
+        if (targetType == Float.class || targetType == float.class) {
+            return numeric(targetType, Number::floatValue, Float::parseFloat, 0.0f);
+        }
+        // String 类型转换
+        if (targetType == String.class) {
+            return Object::toString;
+        }
+        return value -> unconvertible(value, targetType);
+    }
+
+    private static Function<Object, Object> numeric(Class<?> targetType, Function<Number, Object> fromNumber,
+                                                    Function<String, Object> parser, Object fallback) {
+        String typeName = MethodType.methodType(targetType).wrap().returnType().getSimpleName();
+        return value -> {
+            if (value instanceof Number number) {
+                return fromNumber.apply(number);
+            }
+            if (value instanceof String str) {
+                try {
+                    return parser.apply(str);
+                } catch (NumberFormatException e) {
+                    log.warn("无法将字符串 '{}' 转换为 {}", value, typeName);
+                    return fallback;
+                }
+            }
+            return unconvertible(value, targetType);
+        };
+    }
+
+    private static Object unconvertible(Object value, Class<?> targetType) {
+        // 如果无法转换，记录警告并返回原值
+        log.warn("无法将类型 {} 转换为 {}，返回原值", value.getClass().getName(), targetType.getName());
+        return value;
+    }
+
+    /**
+     * 基本类型字段在值为 null 时使用的默认值
+     */
+    private static Object defaultValue(Class<?> targetType) {
+        if (!targetType.isPrimitive()) {
+            return null;
+        }
+        if (targetType == boolean.class) return false;
+        if (targetType == int.class) return 0;
+        if (targetType == long.class) return 0L;
+        if (targetType == double.class) return 0.0;
+        if (targetType == float.class) return 0.0f;
+        if (targetType == byte.class) return (byte) 0;
+        if (targetType == short.class) return (short) 0;
+        if (targetType == char.class) return '\u0000';
+        return null;
+    }
+
+    /**
+     * 获取类及其所有父类的字段
+     */
+    private static List<Field> getAllFields(Class<?> clazz) {
+        List<Field> allFields = new ArrayList<>();
+        // 遍历整个继承链
+        Class<?> currentClass = clazz;
+        while (currentClass != null && currentClass != Object.class) {
+            allFields.addAll(List.of(currentClass.getDeclaredFields()));
+            currentClass = currentClass.getSuperclass();
+        }
+        return allFields;
+    }
+
+    /**
+     * 判断是否为特殊字段
+     */
+    private static boolean isSpecialField(String fieldName) {
+        // 常见的特殊字段
+        return "serialVersionUID".equals(fieldName) ||
+               "class".equals(fieldName) ||
+               fieldName.startsWith("$");
+    }
+
+    /**
+     * 字段映射：结果列名、setter 和类型转换器
+     */
+    private record Property(String key, MethodHandle setter, Function<Object, Object> converter) {
+    }
+}
@@ -0,0 +1,186 @@
+package com.indigo.databases.interceptor;
+
+import com.indigo.core.permission.DataPermissionRule;
+import com.indigo.core.permission.DataScope;
+import org.apache.ibatis.builder.StaticSqlSource;
+import org.apache.ibatis.mapping.BoundSql;
+import org.apache.ibatis.mapping.MappedStatement;
+import org.apache.ibatis.mapping.ParameterMapping;
+import org.apache.ibatis.mapping.SqlCommandType;
+import org.apache.ibatis.session.Configuration;
+import org.apache.ibatis.session.RowBounds;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * DataPermissionInterceptor 测试
+ * 覆盖各类 JOIN 的条件位置、各类子查询的改写以及前缀匹配的转义
+ *
+ * @author 史偕成
+ * @date 2025/12/19
+ */
+class DataPermissionInterceptorTest {
+
+    private static final String USER_SCOPE = "u.dept_id IN (?, ?)";
+
+    private final Configuration configuration = new Configuration();
+
+    private final DataPermissionInterceptor interceptor = new DataPermissionInterceptor(ms -> DataScope.of(
+            List.of(DataPermissionRule.in("sys_user", "dept_id", "deptIds")),
+            Map.of("deptIds", List.of(1L, 2L))));
+
+    @Test
+    void fromTableConditionGoesToWhere() {
+        String sql = rewrite("SELECT u.id FROM sys_user u WHERE u.status = ?");
+        assertTrue(sql.contains("WHERE (u.status = ?) AND " + USER_SCOPE), sql);
+    }
+
+    @Test
+    void innerJoinConditionGoesToWhere() {
+        String sql = rewrite("SELECT o.id FROM sys_order o INNER JOIN sys_user u ON o.user_id = u.id");
+        assertTrue(sql.endsWith("WHERE " + USER_SCOPE), sql);
+    }
+
+    @Test
+    void leftJoinConditionGoesToOn() {
+        String sql = rewrite("SELECT o.id FROM sys_order o LEFT JOIN sys_user u ON o.user_id = u.id");
+        assertTrue(sql.contains("ON (o.user_id = u.id) AND " + USER_SCOPE), sql);
+        assertFalse(sql.contains("WHERE"), sql);
+    }
+
+    @Test
+    void rightJoinConditionGoesToWhere() {
+        String sql = rewrite("SELECT o.id FROM sys_order o RIGHT JOIN sys_user u ON o.user_id = u.id");
+        assertTrue(sql.endsWith("WHERE " + USER_SCOPE), sql);
+    }
+
+    @Test
+    void fullJoinConditionGoesToWhere() {
+        String sql = rewrite("SELECT o.id FROM sys_order o FULL JOIN sys_user u ON o.user_id = u.id");
+        assertTrue(sql.endsWith("WHERE " + USER_SCOPE), sql);
+        assertFalse(sql.contains("ON (o.user_id = u.id) AND"), sql);
+    }
+
+    @Test
+    void commaAndCrossJoinConditionsGoToWhere() {
+        assertTrue(rewrite("SELECT o.id FROM sys_order o, sys_user u WHERE o.user_id = u.id")
+                .endsWith("WHERE (o.user_id = u.id) AND " + USER_SCOPE));
+        assertTrue(rewrite("SELECT o.id FROM sys_order o CROSS JOIN sys_user u").endsWith("WHERE " + USER_SCOPE));
+    }
+
+    @Test
+    void leftJoinWithoutOnConditionGoesToWhere() {
+        String sql = rewrite("SELECT o.id FROM sys_order o LEFT JOIN sys_user u USING (user_id)");
+        assertTrue(sql.endsWith("WHERE " + USER_SCOPE), sql);
+    }
+
+    @Test
+    void rewritesInSubquery() {
+        String sql = rewrite("SELECT o.id FROM sys_order o WHERE o.user_id IN (SELECT u.id FROM sys_user u)");
+        assertTrue(sql.contains("FROM sys_user u WHERE " + USER_SCOPE + ")"), sql);
+    }
+
+    @Test
+    void rewritesExistsAndNotExistsSubqueries() {
+        String exists = rewrite("SELECT o.id FROM sys_order o WHERE EXISTS (SELECT 1 FROM sys_user u WHERE u.id = o.user_id)");
+        assertTrue(exists.contains("WHERE (u.id = o.user_id) AND " + USER_SCOPE + ")"), exists);
+
+        String notExists = rewrite("SELECT o.id FROM sys_order o WHERE o.status = ? "
+                + "AND NOT EXISTS (SELECT 1 FROM sys_user u WHERE u.id = o.user_id)");
+        assertTrue(notExists.contains("WHERE (u.id = o.user_id) AND " + USER_SCOPE + ")"), notExists);
+    }
+
+    @Test
+    void rewritesScalarSubqueryInSelectList() {
+        String sql = rewrite("SELECT o.id, (SELECT u.name FROM sys_user u WHERE u.id = o.user_id) AS user_name "
+                + "FROM sys_order o");
+        assertTrue(sql.contains("WHERE (u.id = o.user_id) AND " + USER_SCOPE + ")"), sql);
+    }
+
+    @Test
+    void rewritesComparisonAndHavingSubqueries() {
+        String comparison = rewrite("SELECT o.id FROM sys_order o WHERE o.amount > (SELECT max(u.quota) FROM sys_user u)");
+        assertTrue(comparison.contains("FROM sys_user u WHERE " + USER_SCOPE + ")"), comparison);
+
+        String having = rewrite("SELECT o.user_id FROM sys_order o GROUP BY o.user_id "
+                + "HAVING count(*) > (SELECT count(*) FROM sys_user u)");
+        assertTrue(having.contains("FROM sys_user u WHERE " + USER_SCOPE + ")"), having);
+    }
+
+    @Test
+    void rewritesDerivedTableAndUnionBranches() {
+        String derived = rewrite("SELECT t.id FROM (SELECT u.id FROM sys_user u) t");
+        assertTrue(derived.contains("FROM sys_user u WHERE " + USER_SCOPE + ")"), derived);
+
+        String union = rewrite("SELECT u.id FROM sys_user u WHERE u.status = 1 UNION SELECT u.id FROM sys_user u");
+        assertEquals(2, count(union, USER_SCOPE), union);
+    }
+
+    @Test
+    void rewritesWithItems() {
+        String sql = rewrite("WITH active AS (SELECT u.id FROM sys_user u WHERE u.status = 1) "
+                + "SELECT o.id FROM sys_order o JOIN active a ON o.user_id = a.id");
+        assertTrue(sql.contains("WHERE (u.status = 1) AND " + USER_SCOPE + ")"), sql);
+    }
+
+    @Test
+    void rejectsSubqueriesItCannotReach() {
+        assertThrows(IllegalStateException.class,
+                () -> rewrite("SELECT o.id FROM sys_order o ORDER BY (SELECT max(u.id) FROM sys_user u)"));
+    }
+
+    @Test
+    void keepsOriginalParametersInOrder() {
+        List<ParameterMapping> mappings = new ArrayList<>();
+        mappings.add(new ParameterMapping.Builder(configuration, "status", Object.class).build());
+        mappings.add(new ParameterMapping.Builder(configuration, "amount", Object.class).build());
+        BoundSql boundSql = boundSql("SELECT o.id FROM sys_order o LEFT JOIN sys_user u ON o.user_id = u.id AND u.status = ? "
+                + "WHERE o.amount > ?", mappings);
+
+        assertEquals(List.of("status", "__synapse_dp_0", "__synapse_dp_1", "amount"),
+                boundSql.getParameterMappings().stream().map(ParameterMapping::getProperty).toList());
+        assertEquals(1L, boundSql.getAdditionalParameter("__synapse_dp_0"));
+        assertEquals(2L, boundSql.getAdditionalParameter("__synapse_dp_1"));
+    }
+
+    @Test
+    void prefixEscapesWildcards() {
+        DataPermissionInterceptor prefixInterceptor = new DataPermissionInterceptor(ms -> DataScope.of(
+                List.of(DataPermissionRule.prefix("sys_dept", "path", "deptPath")),
+                Map.of("deptPath", "/1_2%!/")));
+        BoundSql boundSql = boundSql(prefixInterceptor, "SELECT d.id FROM sys_dept d", new ArrayList<>());
+
+        assertTrue(boundSql.getSql().endsWith("WHERE d.path LIKE ? ESCAPE '!'"), boundSql.getSql());
+        assertEquals("/1!_2!%!!/%", boundSql.getAdditionalParameter("__synapse_dp_0"));
+        assertEquals("abc", DataPermissionInterceptor.escapeLike("abc"));
+    }
+
+    private String rewrite(String sql) {
+        return boundSql(sql, new ArrayList<>()).getSql();
+    }
+
+    private BoundSql boundSql(String sql, List<ParameterMapping> mappings) {
+        return boundSql(interceptor, sql, mappings);
+    }
+
+    private BoundSql boundSql(DataPermissionInterceptor target, String sql, List<ParameterMapping> mappings) {
+        MappedStatement ms = new MappedStatement.Builder(configuration, "test.select",
+                new StaticSqlSource(configuration, sql), SqlCommandType.SELECT).build();
+        BoundSql boundSql = new BoundSql(configuration, sql, mappings, null);
+        target.beforeQuery(null, ms, null, RowBounds.DEFAULT, null, boundSql);
+        return boundSql;
+    }
+
+    private static int count(String text, String fragment) {
+        int count = 0;
+        for (int i = text.indexOf(fragment); i >= 0; i = text.indexOf(fragment, i + 1)) {
+            count++;
+        }
+        return count;
+    }
+}
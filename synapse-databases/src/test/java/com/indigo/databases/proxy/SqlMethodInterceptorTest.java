@@ -0,0 +1,202 @@
+package com.indigo.databases.proxy;
+
+import com.baomidou.mybatisplus.core.conditions.query.QueryWrapper;
+import com.baomidou.mybatisplus.core.mapper.BaseMapper;
+import com.indigo.databases.repository.BaseRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.beans.factory.config.AutowireCapableBeanFactory;
+import org.springframework.context.ApplicationContext;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.lang.reflect.Modifier;
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * SqlMethodInterceptor 测试
+ * 覆盖方法分派表的预构建，Mapper、IService 和自定义 default 方法的分派，ServiceImpl 的复用以及唯一性检查
+ *
+ * @author 史偕成
+ * @date 2025/12/19
+ */
+class SqlMethodInterceptorTest {
+
+    private ApplicationContext applicationContext;
+    private AutowireCapableBeanFactory beanFactory;
+    private UserMapper mapper;
+    private SqlMethodInterceptor interceptor;
+    private UserRepository repository;
+
+    @BeforeEach
+    void setUp() {
+        applicationContext = mock(ApplicationContext.class);
+        mapper = mock(UserMapper.class);
+        when(applicationContext.getBean(UserMapper.class)).thenReturn(mapper);
+        beanFactory = mock(AutowireCapableBeanFactory.class);
+        when(applicationContext.getAutowireCapableBeanFactory()).thenReturn(beanFactory);
+        interceptor = new SqlMethodInterceptor();
+        ReflectionTestUtils.setField(interceptor, "applicationContext", applicationContext);
+        interceptor.init();
+        repository = (UserRepository) Proxy.newProxyInstance(getClass().getClassLoader(),
+                new Class<?>[]{UserRepository.class}, interceptor);
+    }
+
+    @Test
+    void prepareResolvesEveryRepositoryMethodOnce() {
+        interceptor.prepare(repository);
+
+        long methods = Arrays.stream(UserRepository.class.getMethods())
+                .filter(method -> !Modifier.isStatic(method.getModifiers()))
+                .count();
+        assertEquals(methods, invokers().size());
+
+        repository.getBaseMapper();
+        repository.getById(1L);
+        // 调用时只查表，不会再新增条目
+        assertEquals(methods, invokers().size());
+    }
+
+    @Test
+    void getBaseMapperReturnsMapperBean() {
+        assertSame(mapper, repository.getBaseMapper());
+        assertSame(mapper, repository.getBaseMapper());
+
+        // Mapper 实例只从容器获取一次
+        verify(applicationContext, times(1)).getBean(UserMapper.class);
+    }
+
+    @Test
+    void serviceMethodsDelegateToMapper() {
+        User user = new User();
+        when(mapper.selectById(1L)).thenReturn(user);
+
+        assertSame(user, repository.getById(1L));
+        verify(mapper).selectById(1L);
+    }
+
+    @Test
+    void mapperExceptionsAreNotWrapped() {
+        when(mapper.selectById(any())).thenThrow(new IllegalStateException("db down"));
+
+        IllegalStateException e = assertThrows(IllegalStateException.class, () -> repository.getById(1L));
+        assertEquals("db down", e.getMessage());
+    }
+
+    @Test
+    void customDefaultMethodsAreRejected() {
+        UnsupportedOperationException e = assertThrows(UnsupportedOperationException.class,
+                () -> repository.findByName("admin"));
+
+        assertTrue(e.getMessage().contains("findByName"), e.getMessage());
+        verifyNoInteractions(mapper);
+    }
+
+    @Test
+    void prepareDoesNotResolveMapper() {
+        interceptor.prepare(repository);
+
+        // 创建代理时 Mapper Bean 可能尚未注册，只能在首次调用时获取
+        verify(applicationContext, never()).getBean(UserMapper.class);
+        verifyNoInteractions(beanFactory);
+    }
+
+    @Test
+    void serviceImplIsCreatedOncePerRepository() {
+        repository.getById(1L);
+        repository.getById(2L);
+        repository.count();
+
+        verify(beanFactory, times(1)).initializeBean(any(), anyString());
+        verify(mapper).selectById(2L);
+    }
+
+    @Test
+    void concurrentFirstCallsShareOneServiceImpl() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            CountDownLatch start = new CountDownLatch(1);
+            List<Future<?>> futures = new ArrayList<>();
+            for (int i = 0; i < 8; i++) {
+                long id = i;
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    return repository.getById(id);
+                }));
+            }
+            start.countDown();
+            for (Future<?> future : futures) {
+                future.get(5, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        verify(beanFactory, times(1)).initializeBean(any(), anyString());
+    }
+
+    @Test
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    void checkKeyUniquenessReadsInheritedIdAndFieldsWithoutGetter() {
+        User user = new User();
+        user.setId(5L);
+        user.name = "alice";
+        when(mapper.selectCount(any())).thenReturn(1L);
+
+        assertTrue(repository.checkKeyUniqueness(user, "name"));
+
+        ArgumentCaptor<QueryWrapper> wrapper = ArgumentCaptor.forClass(QueryWrapper.class);
+        verify(mapper).selectCount(wrapper.capture());
+        String segment = wrapper.getValue().getSqlSegment();
+        assertTrue(segment.contains("name ="), segment);
+        // 更新场景排除当前记录，id 声明在父类上
+        assertTrue(segment.contains("id <>"), segment);
+        assertTrue(wrapper.getValue().getParamNameValuePairs().values().containsAll(List.of("alice", 5L)));
+    }
+
+    private Map<?, ?> invokers() {
+        Map<?, ?> bindings = (Map<?, ?>) ReflectionTestUtils.getField(interceptor, "bindings");
+        assertNotNull(bindings);
+        assertEquals(1, bindings.size());
+        return (Map<?, ?>) ReflectionTestUtils.getField(bindings.values().iterator().next(), "invokers");
+    }
+
+    static class BaseEntity {
+        private Long id;
+
+        public Long getId() {
+            return id;
+        }
+
+        public void setId(Long id) {
+            this.id = id;
+        }
+    }
+
+    static class User extends BaseEntity {
+        private String name;
+    }
+
+    interface UserMapper extends BaseMapper<User> {
+    }
+
+    interface UserRepository extends BaseRepository<User, UserMapper> {
+
+        default User findByName(String name) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,106 @@
+package com.indigo.databases.utils;
+
+import com.indigo.core.annotation.QueryCondition;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * ClassMetadata 测试
+ * 覆盖查询条件字段的解析、继承字段和同名字段的读取以及 getter 优先的属性读取
+ *
+ * @author 史偕成
+ * @date 2025/12/19
+ */
+class ClassMetadataTest {
+
+    @Test
+    void conditionsIncludeInheritedFieldsWithResolvedColumns() {
+        List<ClassMetadata.Condition> conditions = ClassMetadata.of(UserQuery.class).getConditions();
+
+        Map<String, String> columns = conditions.stream().collect(Collectors.toMap(
+                condition -> condition.accessor().getName(), ClassMetadata.Condition::column));
+        // 注解指定的列名、带表别名的列名原样保留，其余驼峰转下划线
+        assertEquals(Map.of("userName", "user_name", "account", "u.account", "deptId", "department_id",
+                "id", "id"), columns);
+        // 子类字段在前，父类字段在后
+        assertEquals("id", conditions.get(conditions.size() - 1).accessor().getName());
+    }
+
+    @Test
+    void fieldsAndIdAreReadFromTheWholeHierarchy() {
+        UserQuery query = new UserQuery();
+        query.id = 9L;
+        query.userName = "alice";
+
+        ClassMetadata metadata = ClassMetadata.of(UserQuery.class);
+
+        assertEquals(9L, metadata.getId().get(query));
+        assertEquals("alice", metadata.getField("userName").get(query));
+        assertNull(metadata.getField("missing"));
+    }
+
+    @Test
+    void shadowedFieldsResolveToTheSubclass() {
+        Child child = new Child();
+        child.name = "child";
+        ((Parent) child).name = "parent";
+
+        assertEquals("child", ClassMetadata.of(Child.class).getField("name").get(child));
+    }
+
+    @Test
+    void propertiesPreferGettersAndFallBackToFields() {
+        UserQuery query = new UserQuery();
+        query.account = "alice";
+        query.deptId = 3L;
+
+        ClassMetadata metadata = ClassMetadata.of(UserQuery.class);
+
+        assertEquals("ALICE", metadata.getProperty("account").get(query));
+        assertEquals(3L, metadata.getProperty("deptId").get(query));
+        assertNull(metadata.getProperty("missing"));
+        assertSame(metadata.getProperty("account"), metadata.getProperty("account"));
+    }
+
+    @Test
+    void metadataIsResolvedOncePerClass() {
+        assertSame(ClassMetadata.of(UserQuery.class), ClassMetadata.of(UserQuery.class));
+    }
+
+    static class BaseQuery {
+
+        @QueryCondition
+        Long id;
+    }
+
+    static class UserQuery extends BaseQuery {
+
+        @QueryCondition(type = QueryCondition.QueryType.LIKE)
+        String userName;
+
+        @QueryCondition(field = "u.account")
+        String account;
+
+        @QueryCondition(field = "departmentId")
+        Long deptId;
+
+        public String getAccount() {
+            return account == null ? null : account.toUpperCase();
+        }
+    }
+
+    static class Parent {
+
+        String name;
+    }
+
+    static class Child extends Parent {
+
+        String name;
+    }
+}
@@ -0,0 +1,186 @@
+package com.indigo.databases.utils;
+
+import com.baomidou.mybatisplus.annotation.TableName;
+import com.baomidou.mybatisplus.core.conditions.Wrapper;
+import com.baomidou.mybatisplus.core.conditions.query.QueryWrapper;
+import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
+import com.baomidou.mybatisplus.extension.service.IService;
+import com.indigo.core.annotation.QueryCondition;
+import com.indigo.core.entity.dto.PageDTO;
+import com.indigo.core.entity.dto.QueryDTO;
+import com.indigo.core.entity.result.PageResult;
+import com.indigo.core.entity.vo.BaseVO;
+import com.indigo.databases.mapper.EnhancedVoMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * EnhancedQueryBuilder 测试
+ * 覆盖单表 VO 分页生成的 SQL 模板、参数绑定、结果到 VO 的映射以及游标分页
+ *
+ * @author 史偕成
+ * @date 2025/12/19
+ */
+class EnhancedQueryBuilderTest {
+
+    private IService<User> service;
+    private UserMapper mapper;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        service = mock(IService.class);
+        mapper = mock(UserMapper.class);
+        when(service.getBaseMapper()).thenReturn(mapper);
+        when(service.getEntityClass()).thenReturn(User.class);
+        when(mapper.selectPageWithWrapper(any(), anyString(), any())).thenAnswer(invocation -> {
+            Page<Map<String, Object>> page = invocation.getArgument(0);
+            return page.setRecords(List.of()).setTotal(0);
+        });
+    }
+
+    @Test
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    void conditionValuesAreBoundInsteadOfInlined() {
+        EnhancedQueryBuilder.pageWithCondition(service, query("alice", 1), UserVO.class);
+
+        ArgumentCaptor<String> sql = ArgumentCaptor.forClass(String.class);
+        ArgumentCaptor<Wrapper> wrapper = ArgumentCaptor.forClass(Wrapper.class);
+        verify(mapper).selectPageWithWrapper(any(), sql.capture(), wrapper.capture());
+
+        String text = sql.getValue();
+        assertTrue(text.startsWith("SELECT "), text);
+        assertTrue(text.contains(" FROM sys_user WHERE "), text);
+        assertTrue(text.contains("user_name"), text);
+        assertTrue(text.contains("#{ew.paramNameValuePairs."), text);
+        assertTrue(text.endsWith("ORDER BY user_name DESC"), text);
+        // 参数值只存在于 wrapper 中，由 MyBatis 作为预编译参数绑定
+        assertFalse(text.contains("alice"), text);
+        Map<String, Object> params = ((QueryWrapper<?>) wrapper.getValue()).getParamNameValuePairs();
+        assertTrue(params.containsValue(1), params.toString());
+        assertTrue(params.values().stream().anyMatch(value -> String.valueOf(value).contains("alice")), params.toString());
+    }
+
+    @Test
+    void sameConditionStructureSharesOneSqlText() {
+        EnhancedQueryBuilder.pageWithCondition(service, query("alice", 1), UserVO.class);
+        EnhancedQueryBuilder.pageWithCondition(service, query("bob", 2), UserVO.class);
+
+        ArgumentCaptor<String> sql = ArgumentCaptor.forClass(String.class);
+        verify(mapper, times(2)).selectPageWithWrapper(any(), sql.capture(), any());
+        List<String> texts = sql.getAllValues();
+        // 值不同但条件结构相同，复用缓存中的同一条 SQL 模板
+        assertSame(texts.get(0), texts.get(1));
+
+        EnhancedQueryBuilder.pageWithCondition(service, query(null, 1), UserVO.class);
+        verify(mapper, times(3)).selectPageWithWrapper(any(), sql.capture(), any());
+        assertNotEquals(texts.get(0), sql.getValue());
+    }
+
+    @Test
+    void resultRowsAreMappedToVo() {
+        when(mapper.selectPageWithWrapper(any(), anyString(), any())).thenAnswer(invocation -> {
+            Page<Map<String, Object>> page = invocation.getArgument(0);
+            return page.setRecords(List.of(
+                    Map.of("id", 1L, "user_name", "alice", "status", 1),
+                    Map.of("id", 2L, "user_name", "bob"))).setTotal(12);
+        });
+
+        PageResult<UserVO> result = EnhancedQueryBuilder.pageWithCondition(service, query("a", 1), UserVO.class);
+
+        assertEquals(12L, result.getTotal());
+        assertEquals(2, result.getRecords().size());
+        UserVO first = result.getRecords().get(0);
+        assertEquals(1L, first.getId());
+        assertEquals("alice", first.getUserName());
+        assertEquals(1, first.getStatus());
+        UserVO second = result.getRecords().get(1);
+        assertEquals("bob", second.getUserName());
+        assertNull(second.getStatus());
+    }
+
+    @Test
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    void keysetPagesSkipCountAndAppendPrimaryKeyOrder() {
+        when(mapper.selectPageWithWrapper(any(), anyString(), any())).thenAnswer(invocation -> {
+            Page<Map<String, Object>> page = invocation.getArgument(0);
+            return page.setRecords(List.of(
+                    Map.of("id", 3L, "user_name", "carol"),
+                    Map.of("id", 2L, "user_name", "bob")));
+        });
+        UserQuery query = query(null, null);
+        query.setKeyset(true);
+        query.setPageSize(1);
+
+        PageResult<UserVO> result = EnhancedQueryBuilder.pageWithCondition(service, query, UserVO.class);
+
+        ArgumentCaptor<Page> page = ArgumentCaptor.forClass(Page.class);
+        ArgumentCaptor<String> sql = ArgumentCaptor.forClass(String.class);
+        verify(mapper).selectPageWithWrapper(page.capture(), sql.capture(), any());
+        // 多取一条判断是否有下一页，不执行 COUNT
+        assertEquals(2, page.getValue().getSize());
+        assertFalse(page.getValue().searchCount());
+        // 实体没有注册表信息，末位排序键回退到 id
+        assertTrue(sql.getValue().contains("id DESC"), sql.getValue());
+        assertEquals(1, result.getRecords().size());
+        assertEquals("carol", result.getRecords().get(0).getUserName());
+        assertTrue(result.getHasNext());
+        assertNotNull(result.getNextCursor());
+        assertNull(result.getTotal());
+    }
+
+    private static UserQuery query(String userName, Integer status) {
+        UserQuery query = new UserQuery();
+        query.setUserName(userName);
+        query.setStatus(status);
+        query.setOrderByList(List.of(new QueryDTO.OrderBy("userName", "DESC")));
+        return query;
+    }
+
+    @TableName("sys_user")
+    static class User {
+    }
+
+    interface UserMapper extends EnhancedVoMapper<User, UserVO> {
+    }
+
+    static class UserQuery extends PageDTO<Long> {
+
+        @QueryCondition(type = QueryCondition.QueryType.LIKE)
+        private String userName;
+
+        @QueryCondition
+        private Integer status;
+
+        public void setUserName(String userName) {
+            this.userName = userName;
+        }
+
+        public void setStatus(Integer status) {
+            this.status = status;
+        }
+    }
+
+    public static class UserVO extends BaseVO<Long> {
+
+        private String userName;
+
+        private Integer status;
+
+        public String getUserName() {
+            return userName;
+        }
+
+        public Integer getStatus() {
+            return status;
+        }
+    }
+}
@@ -0,0 +1,34 @@
+package com.indigo.databases.utils;
+
+import com.baomidou.mybatisplus.core.conditions.update.UpdateWrapper;
+import com.indigo.core.exception.SynapseException;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * FencingTokenGuard 测试
+ *
+ * @author 史偕成
+ * @date 2025/12/19
+ */
+class FencingTokenGuardTest {
+
+    @Test
+    void guardSetsTokenAndRejectsOlderWriters() {
+        UpdateWrapper<Object> wrapper = new UpdateWrapper<>().eq("id", 1L).set("status", "PAID");
+
+        FencingTokenGuard.guard(wrapper, "fence_token", 7L);
+
+        assertTrue(wrapper.getSqlSet().contains("fence_token="), wrapper.getSqlSet());
+        String where = wrapper.getSqlSegment();
+        assertTrue(where.contains("fence_token IS NULL OR fence_token <="), where);
+        assertTrue(wrapper.getParamNameValuePairs().containsValue(7L));
+    }
+
+    @Test
+    void assertAppliedThrowsWhenNoRowUpdated() {
+        assertDoesNotThrow(() -> FencingTokenGuard.assertApplied(1, 7L));
+        assertThrows(SynapseException.class, () -> FencingTokenGuard.assertApplied(0, 7L));
+    }
+}
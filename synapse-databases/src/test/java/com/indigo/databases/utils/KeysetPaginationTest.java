@@ -0,0 +1,242 @@
+package com.indigo.databases.utils;
+
+import com.baomidou.mybatisplus.annotation.TableId;
+import com.baomidou.mybatisplus.annotation.TableName;
+import com.baomidou.mybatisplus.core.MybatisConfiguration;
+import com.baomidou.mybatisplus.core.conditions.query.QueryWrapper;
+import com.baomidou.mybatisplus.core.metadata.TableInfoHelper;
+import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
+import com.indigo.core.entity.dto.PageDTO;
+import com.indigo.core.entity.dto.QueryDTO;
+import com.indigo.core.entity.result.PageResult;
+import org.apache.ibatis.builder.MapperBuilderAssistant;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * KeysetPagination 测试
+ * 覆盖分页对象、下一页游标、游标条件的生成、末位主键排序键以及排序字段值的编解码
+ *
+ * @author 史偕成
+ * @date 2025/12/19
+ */
+class KeysetPaginationTest {
+
+    @BeforeAll
+    static void registerTableInfo() {
+        // 模拟 MyBatis-Plus 启动时为实体解析的表信息
+        TableInfoHelper.initTableInfo(new MapperBuilderAssistant(new MybatisConfiguration(), ""), Account.class);
+    }
+
+    @Test
+    void pageFetchesOneExtraRowWithoutCount() {
+        KeysetPagination keyset = KeysetPagination.apply(new QueryWrapper<>(),
+                pageDTO(2, null, order("createTime", "ASC")), Row.class);
+
+        Page<Row> page = keyset.page();
+        assertEquals(1, page.getCurrent());
+        assertEquals(3, page.getSize());
+        assertFalse(page.searchCount());
+    }
+
+    @Test
+    void isKeysetWhenEnabledOrCursorPresent() {
+        assertFalse(KeysetPagination.isKeyset(null));
+        assertFalse(KeysetPagination.isKeyset(new PageDTO<>()));
+        assertTrue(KeysetPagination.isKeyset(new PageDTO<>().setKeyset(true)));
+        assertTrue(KeysetPagination.isKeyset(new PageDTO<>().setCursor("abc")));
+    }
+
+    @Test
+    void lastPageHasNoCursor() {
+        KeysetPagination keyset = KeysetPagination.apply(new QueryWrapper<>(), pageDTO(2, null), Row.class);
+
+        PageResult<Row> result = keyset.toResult(List.of(new Row(1L, 1L), new Row(2L, 2L)));
+        assertEquals(2, result.getRecords().size());
+        assertFalse(result.getHasNext());
+        assertFalse(result.getHasPrevious());
+        assertNull(result.getNextCursor());
+        assertNull(result.getTotal());
+    }
+
+    @Test
+    void cursorRoundTripAppendsRowValuePredicate() {
+        PageDTO<?> first = pageDTO(2, null, order("createTime", "DESC"));
+        QueryWrapper<Row> firstWrapper = new QueryWrapper<>();
+        KeysetPagination keyset = KeysetPagination.apply(firstWrapper, first, Row.class);
+        assertTrue(firstWrapper.getSqlSegment().contains("id DESC"), firstWrapper.getSqlSegment());
+
+        PageResult<Row> result = keyset.toResult(List.of(new Row(9L, 30L), new Row(8L, 20L), new Row(7L, 10L)));
+        assertEquals(2, result.getRecords().size());
+        assertTrue(result.getHasNext());
+        assertNotNull(result.getNextCursor());
+
+        QueryWrapper<Row> next = new QueryWrapper<>();
+        KeysetPagination.apply(next, pageDTO(2, result.getNextCursor(), order("createTime", "DESC")), Row.class);
+        String sql = next.getSqlSegment();
+        assertTrue(sql.contains("(create_time, id) < ("), sql);
+        assertTrue(next.getParamNameValuePairs().containsValue(20L));
+        assertTrue(next.getParamNameValuePairs().containsValue(8L));
+    }
+
+    @Test
+    void mixedDirectionsExpandToOrConditions() {
+        String cursor = cursorOf(new Row(5L, 50L), order("createTime", "DESC"), order("id", "ASC"));
+
+        QueryWrapper<Row> wrapper = new QueryWrapper<>();
+        KeysetPagination.apply(wrapper, pageDTO(1, cursor, order("createTime", "DESC"), order("id", "ASC")), Row.class);
+        String sql = wrapper.getSqlSegment();
+        assertTrue(sql.contains("(create_time < "), sql);
+        assertTrue(sql.contains(" OR (create_time = "), sql);
+        assertTrue(sql.contains(" AND id > "), sql);
+    }
+
+    @Test
+    void rejectsCursorFromDifferentSort() {
+        String cursor = cursorOf(new Row(5L, 50L), order("createTime", "DESC"));
+
+        assertThrows(IllegalArgumentException.class, () -> KeysetPagination.apply(new QueryWrapper<>(),
+                pageDTO(1, cursor, order("createTime", "ASC")), Row.class));
+    }
+
+    @Test
+    void rejectsTamperedCursor() {
+        String cursor = cursorOf(new Row(5L, 50L), order("createTime", "DESC"));
+        String tampered = cursor.substring(0, cursor.length() - 4);
+
+        assertThrows(IllegalArgumentException.class, () -> KeysetPagination.apply(new QueryWrapper<>(),
+                pageDTO(1, tampered, order("createTime", "DESC")), Row.class));
+        assertThrows(IllegalArgumentException.class, () -> KeysetPagination.apply(new QueryWrapper<>(),
+                pageDTO(1, "not a cursor", order("createTime", "DESC")), Row.class));
+    }
+
+    @Test
+    void supportedValueTypesRoundTrip() {
+        List<Object> values = List.of(
+                1L, 2, (short) 3, (byte) 4, 5.5d, 6.5f,
+                new BigDecimal("7.70"), new BigInteger("123456789012345678901234567890"),
+                LocalDateTime.of(2025, 12, 19, 8, 30, 15, 123_000_000), LocalDate.of(2025, 12, 19),
+                LocalTime.of(8, 30), OffsetDateTime.of(2025, 12, 19, 8, 30, 0, 0, ZoneOffset.ofHours(8)),
+                Instant.parse("2025-12-19T00:30:00Z"), new Date(1_766_000_000_000L), true,
+                UUID.fromString("123e4567-e89b-12d3-a456-426614174000"), "abc", 'x');
+
+        for (Object value : values) {
+            String cursor = cursorOf(new Row(1L, value), order("createTime", "ASC"));
+            QueryWrapper<Row> wrapper = new QueryWrapper<>();
+            KeysetPagination.apply(wrapper, pageDTO(1, cursor, order("createTime", "ASC")), Row.class);
+
+            Object expected = value instanceof Character ? value.toString() : value;
+            assertTrue(wrapper.getParamNameValuePairs().containsValue(expected), value.getClass().getName());
+        }
+    }
+
+    @Test
+    void rejectsUnsupportedValueTypes() {
+        KeysetPagination keyset = KeysetPagination.apply(new QueryWrapper<>(),
+                pageDTO(1, null, order("createTime", "ASC")), Row.class);
+        List<Row> records = List.of(new Row(1L, Status.ACTIVE), new Row(2L, Status.DISABLED));
+
+        assertThrows(IllegalArgumentException.class, () -> keyset.toResult(records));
+    }
+
+    @Test
+    void rejectsNullSortValue() {
+        KeysetPagination keyset = KeysetPagination.apply(new QueryWrapper<>(),
+                pageDTO(1, null, order("createTime", "ASC")), Row.class);
+        List<Row> records = List.of(new Row(1L, null), new Row(2L, null));
+
+        assertThrows(IllegalArgumentException.class, () -> keyset.toResult(records));
+    }
+
+    @Test
+    void tiebreakerIsTheMappedPrimaryKey() {
+        QueryWrapper<Account> wrapper = new QueryWrapper<>();
+        KeysetPagination keyset = KeysetPagination.apply(wrapper, pageDTO(1, null, order("createTime", "DESC")),
+                Account.class);
+        assertTrue(wrapper.getSqlSegment().endsWith("account_no DESC"), wrapper.getSqlSegment());
+
+        // 游标中的主键值从实体的主键属性读取
+        String cursor = keyset.toResult(List.of(new Account(42L, 20L), new Account(41L, 10L))).getNextCursor();
+        QueryWrapper<Account> next = new QueryWrapper<>();
+        KeysetPagination.apply(next, pageDTO(1, cursor, order("createTime", "DESC")), Account.class);
+        String sql = next.getSqlSegment();
+        assertTrue(sql.contains("(create_time, account_no) < ("), sql);
+        assertFalse(sql.contains(" id"), sql);
+        assertTrue(next.getParamNameValuePairs().containsValue(42L));
+    }
+
+    @Test
+    void explicitPrimaryKeyOrderIsNotDuplicated() {
+        QueryWrapper<Account> wrapper = new QueryWrapper<>();
+        KeysetPagination keyset = KeysetPagination.apply(wrapper, pageDTO(1, null, order("accountNo", "ASC")),
+                Account.class);
+        // 已按主键排序时不再追加末位排序键
+        assertEquals("", wrapper.getSqlSegment());
+
+        String cursor = keyset.toResult(List.of(new Account(1L, 10L), new Account(2L, 20L))).getNextCursor();
+        QueryWrapper<Account> next = new QueryWrapper<>();
+        KeysetPagination.apply(next, pageDTO(1, cursor, order("accountNo", "ASC")), Account.class);
+        assertTrue(next.getSqlSegment().contains("(account_no) > ("), next.getSqlSegment());
+    }
+
+    private static String cursorOf(Row last, QueryDTO.OrderBy... orders) {
+        KeysetPagination keyset = KeysetPagination.apply(new QueryWrapper<>(), pageDTO(1, null, orders), Row.class);
+        return keyset.toResult(List.of(last, new Row(0L, last.createTime))).getNextCursor();
+    }
+
+    private static PageDTO<?> pageDTO(long pageSize, String cursor, QueryDTO.OrderBy... orders) {
+        PageDTO<?> pageDTO = new PageDTO<>();
+        pageDTO.setKeyset(true);
+        pageDTO.setCursor(cursor);
+        pageDTO.setPageSize(pageSize);
+        pageDTO.setOrderByList(new ArrayList<>(List.of(orders)));
+        return pageDTO;
+    }
+
+    private static QueryDTO.OrderBy order(String field, String direction) {
+        return new QueryDTO.OrderBy(field, direction);
+    }
+
+    @TableName("account")
+    static class Account {
+
+        @TableId("account_no")
+        private Long accountNo;
+        private Long createTime;
+
+        Account(Long accountNo, Long createTime) {
+            this.accountNo = accountNo;
+            this.createTime = createTime;
+        }
+    }
+
+    private enum Status {
+        ACTIVE, DISABLED
+    }
+
+    private static class Row {
+
+        private final Long id;
+        private final Object createTime;
+
+        Row(Long id, Object createTime) {
+            this.id = id;
+            this.createTime = createTime;
+        }
+    }
+}
@@ -0,0 +1,75 @@
+package com.indigo.databases.utils;
+
+import com.baomidou.mybatisplus.core.conditions.query.QueryWrapper;
+import com.indigo.core.annotation.QueryCondition;
+import com.indigo.core.entity.dto.QueryDTO;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * QueryConditionBuilder 测试
+ * 覆盖注解字段（包括父类字段）生成的条件、空值跳过以及排序条件
+ *
+ * @author 史偕成
+ * @date 2025/12/19
+ */
+class QueryConditionBuilderTest {
+
+    @Test
+    void annotatedFieldsBecomeBoundConditions() {
+        UserQuery query = new UserQuery();
+        query.setId(7L);
+        query.status = 1;
+        query.deptIds = List.of(10L, 20L);
+        query.setOrderByList(List.of(new QueryDTO.OrderBy("createTime", "DESC")));
+
+        QueryWrapper<Object> wrapper = QueryConditionBuilder.buildQueryWrapper(query);
+
+        String segment = wrapper.getSqlSegment();
+        assertTrue(segment.contains("status ="), segment);
+        assertTrue(segment.contains("dept_id IN"), segment);
+        // 父类 QueryDTO 上的 id 条件同样生效
+        assertTrue(segment.contains("id ="), segment);
+        assertTrue(segment.endsWith("ORDER BY create_time DESC"), segment);
+        Map<String, Object> params = wrapper.getParamNameValuePairs();
+        assertTrue(params.values().containsAll(List.of(7L, 1, 10L, 20L)), params.toString());
+    }
+
+    @Test
+    void nullAndBlankValuesAreSkipped() {
+        UserQuery query = new UserQuery();
+        query.userName = " ";
+
+        QueryWrapper<Object> wrapper = QueryConditionBuilder.buildQueryWrapper(query);
+
+        assertEquals("", wrapper.getSqlSegment());
+        assertTrue(wrapper.getParamNameValuePairs().isEmpty());
+    }
+
+    @Test
+    void likeConditionsUseTheAnnotatedColumn() {
+        UserQuery query = new UserQuery();
+        query.userName = "ali";
+
+        QueryWrapper<Object> wrapper = QueryConditionBuilder.buildQueryWrapper(query);
+
+        assertTrue(wrapper.getSqlSegment().contains("u.user_name LIKE"), wrapper.getSqlSegment());
+        assertTrue(wrapper.getParamNameValuePairs().containsValue("%ali%"), wrapper.getParamNameValuePairs().toString());
+    }
+
+    static class UserQuery extends QueryDTO<Long> {
+
+        @QueryCondition(type = QueryCondition.QueryType.LIKE, field = "u.user_name")
+        String userName;
+
+        @QueryCondition
+        Integer status;
+
+        @QueryCondition(type = QueryCondition.QueryType.IN)
+        List<Long> deptIds;
+    }
+}
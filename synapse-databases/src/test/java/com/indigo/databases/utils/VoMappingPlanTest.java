@@ -0,0 +1,138 @@
+package com.indigo.databases.utils;
+
+import com.indigo.core.annotation.FieldMapping;
+import com.indigo.core.annotation.VoMapping;
+import com.indigo.core.entity.vo.BaseVO;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * VoMappingPlan 测试
+ * 覆盖列名解析、类型转换、计划缓存以及构造失败时的异常处理
+ *
+ * @author 史偕成
+ * @date 2025/12/19
+ */
+class VoMappingPlanTest {
+
+    @Test
+    void keysFollowAnnotationsThenFieldConversion() {
+        Map<String, Object> row = new HashMap<>();
+        row.put("id", 7L);
+        row.put("create_user", 3L);
+        row.put("dept", "研发部");
+        row.put("login_name", "alice");
+        row.put("nick_name", "Alice");
+
+        OrderVO vo = VoMappingPlan.of(OrderVO.class).map(row);
+
+        // 父类字段同样按列名映射
+        assertEquals(7L, vo.getId());
+        assertEquals(3L, vo.getCreateUser());
+        // @VoMapping.Field 的 target 优先于字段名转换
+        assertEquals("研发部", vo.dept);
+        // @FieldMapping 指定的列名
+        assertEquals("alice", vo.account);
+        assertEquals("Alice", vo.nickName);
+    }
+
+    @Test
+    void valuesAreConvertedToFieldTypes() {
+        Map<String, Object> row = new HashMap<>();
+        row.put("enabled", 1);
+        row.put("amount", "42");
+        row.put("quantity", 5L);
+        row.put("remark", 12);
+
+        OrderVO vo = VoMappingPlan.of(OrderVO.class).map(row);
+
+        assertTrue(vo.enabled);
+        assertEquals(42L, vo.amount);
+        assertEquals(5, vo.quantity);
+        assertEquals("12", vo.remark);
+    }
+
+    @Test
+    void nullValuesUseDefaultsAndMissingColumnsAreSkipped() {
+        Map<String, Object> row = new HashMap<>();
+        row.put("quantity", null);
+        row.put("remark", null);
+
+        OrderVO vo = VoMappingPlan.of(OrderVO.class).map(row);
+
+        // 基本类型字段取默认值，缺少的列保持字段初始值
+        assertEquals(0, vo.quantity);
+        assertNull(vo.remark);
+        assertEquals("unset", vo.nickName);
+        assertFalse(vo.enabled);
+    }
+
+    @Test
+    void planIsCompiledOncePerClass() {
+        assertSame(VoMappingPlan.of(OrderVO.class), VoMappingPlan.of(OrderVO.class));
+        assertNotSame(VoMappingPlan.of(OrderVO.class), VoMappingPlan.of(FailingVO.class));
+    }
+
+    @Test
+    void constructorFailuresAreReported() {
+        VoMappingPlan<FailingVO> plan = VoMappingPlan.of(FailingVO.class);
+
+        FailingVO.failure = new StackOverflowError();
+        assertThrows(StackOverflowError.class, () -> plan.map(Map.of()));
+
+        FailingVO.failure = new IllegalArgumentException("bad");
+        assertThrows(IllegalArgumentException.class, () -> plan.map(Map.of()));
+
+        FailingVO.failure = new Exception("checked");
+        IllegalStateException e = assertThrows(IllegalStateException.class, () -> plan.map(Map.of()));
+        assertEquals("checked", e.getCause().getMessage());
+    }
+
+    @Test
+    void classesWithoutNoArgConstructorCannotBeMapped() {
+        VoMappingPlan<NoDefaultConstructorVO> plan = VoMappingPlan.of(NoDefaultConstructorVO.class);
+
+        assertThrows(IllegalStateException.class, () -> plan.map(Map.of("name", "x")));
+    }
+
+    @VoMapping(fields = @VoMapping.Field(source = "d.name", target = "dept"))
+    static class OrderVO extends BaseVO<Long> {
+
+        private String dept;
+
+        @FieldMapping("login_name")
+        private String account;
+
+        private String nickName = "unset";
+
+        private boolean enabled;
+
+        private Long amount;
+
+        private int quantity = -1;
+
+        private String remark;
+    }
+
+    static class FailingVO extends BaseVO<Long> {
+
+        static Throwable failure;
+
+        FailingVO() throws Throwable {
+            throw failure;
+        }
+    }
+
+    static class NoDefaultConstructorVO extends BaseVO<Long> {
+
+        private String name;
+
+        NoDefaultConstructorVO(String name) {
+            this.name = name;
+        }
+    }
+}
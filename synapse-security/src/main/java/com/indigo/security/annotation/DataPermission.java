@@ -10,7 +10,7 @@ package com.indigo.security.annotation;
  */
 // TODO: 待业务完整后恢复数据权限注解
 /*
-import com.indigo.security.model.DataPermissionRule;
+import com.indigo.core.permission.DataPermissionRule;
 
 import java.lang.annotation.*;
 
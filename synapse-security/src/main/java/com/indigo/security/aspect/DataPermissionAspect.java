@@ -12,7 +12,7 @@ package com.indigo.security.aspect;
 /*
 import com.indigo.core.context.UserContext;
 import com.indigo.security.annotation.DataPermission;
-import com.indigo.security.model.DataPermissionRule;
+import com.indigo.core.permission.DataPermissionRule;
 import com.indigo.security.service.DataPermissionService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
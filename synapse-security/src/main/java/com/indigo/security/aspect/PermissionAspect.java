@@ -5,6 +5,7 @@ import com.indigo.security.annotation.RequireLogin;
 import com.indigo.security.annotation.RequirePermission;
 import com.indigo.security.annotation.RequireRole;
 import com.indigo.security.config.SecurityProperties;
+import com.indigo.security.core.PermissionRequirement;
 import com.indigo.security.core.PermissionService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -12,12 +13,16 @@ import org.aspectj.lang.JoinPoint;
 import org.aspectj.lang.annotation.Aspect;
 import org.aspectj.lang.annotation.Before;
 import org.aspectj.lang.reflect.MethodSignature;
+import org.springframework.context.expression.MethodClassKey;
 import org.springframework.core.annotation.AnnotationUtils;
 import org.springframework.core.annotation.Order;
 
 import java.lang.annotation.Annotation;
 import java.lang.reflect.Method;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * 权限检查切面
@@ -61,6 +66,11 @@ public class PermissionAspect {
     private final PermissionService permissionService;
     private final SecurityProperties securityProperties;
 
+    /**
+     * 已编译的权限要求：(方法, 目标类) → 权限要求
+     */
+    private final Map<MethodClassKey, Optional<PermissionRequirement>> permissionRequirements = new ConcurrentHashMap<>();
+
     /**
      * 拦截 @RequireLogin 注解
      */
@@ -114,14 +124,35 @@ public class PermissionAspect {
             return;
         }
         
-        RequirePermission annotation = getAnnotation(joinPoint, RequirePermission.class);
-        if (annotation != null) {
-            String[] permissions = annotation.value();
-            Logical logical = annotation.logical();
-            log.debug("检查权限: method={}, permissions={}, logical={}", 
-                    joinPoint.getSignature().getName(), List.of(permissions), logical);
-            permissionService.checkPermission(permissions, logical);
+        PermissionRequirement requirement = getPermissionRequirement(joinPoint);
+        if (requirement != null) {
+            if (log.isDebugEnabled()) {
+                log.debug("检查权限: method={}, permissions={}, logical={}", 
+                        joinPoint.getSignature().getName(), requirement.getCodes(), requirement.getLogical());
+            }
+            permissionService.checkPermission(requirement);
+        }
+    }
+
+    /**
+     * 获取方法的权限要求（按方法和目标类缓存，注解只解析和编译一次）
+     * 
+     * @param joinPoint 连接点
+     * @return 权限要求，如果没有 {@link RequirePermission} 注解则返回 null
+     */
+    private PermissionRequirement getPermissionRequirement(JoinPoint joinPoint) {
+        if (!(joinPoint.getSignature() instanceof MethodSignature methodSignature)) {
+            RequirePermission annotation = getAnnotation(joinPoint, RequirePermission.class);
+            return annotation != null
+                    ? permissionService.compileRequirement(annotation.value(), annotation.logical())
+                    : null;
         }
+        MethodClassKey key = new MethodClassKey(methodSignature.getMethod(), joinPoint.getTarget().getClass());
+        return permissionRequirements.computeIfAbsent(key, k -> {
+            RequirePermission annotation = getAnnotation(joinPoint, RequirePermission.class);
+            return Optional.ofNullable(annotation)
+                    .map(a -> permissionService.compileRequirement(a.value(), a.logical()));
+        }).orElse(null);
     }
 
     /**
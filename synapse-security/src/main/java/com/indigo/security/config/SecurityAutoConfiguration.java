@@ -1,14 +1,27 @@
 package com.indigo.security.config;
 
+import com.indigo.cache.core.CacheInvalidationService;
+import com.indigo.cache.infrastructure.RedisService;
+import com.indigo.cache.manager.CacheKeyGenerator;
+import com.indigo.cache.session.PermissionDictionary;
 import com.indigo.cache.session.UserSessionService;
 import com.indigo.security.aspect.PermissionAspect;
 import com.indigo.security.core.AuthenticationService;
+import com.indigo.security.core.PasswordHashingService;
 import com.indigo.security.core.PermissionService;
+import com.indigo.security.core.SignedTokenService;
 import com.indigo.security.core.TokenManager;
+import com.indigo.security.core.TokenRevocationRegistry;
 import com.indigo.security.core.TokenService;
+import com.indigo.security.interceptor.UserContextThreadLocalAccessor;
 import com.indigo.security.service.DefaultAuthenticationService;
+import com.indigo.security.service.LoginSecurityService;
+import com.indigo.security.utils.UserContextCodec;
+import io.micrometer.context.ContextRegistry;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.InitializingBean;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.boot.autoconfigure.AutoConfiguration;
 import org.springframework.boot.autoconfigure.condition.*;
 import org.springframework.boot.context.properties.EnableConfigurationProperties;
@@ -18,6 +31,7 @@ import org.springframework.context.annotation.Configuration;
 import org.springframework.context.annotation.Primary;
 import org.springframework.http.codec.ServerCodecConfigurer;
 import org.springframework.web.reactive.config.WebFluxConfigurer;
+import reactor.core.publisher.Hooks;
 
 /**
  * 安全配置自动装配类
@@ -41,6 +55,51 @@ import org.springframework.web.reactive.config.WebFluxConfigurer;
 })
 public class SecurityAutoConfiguration {
 
+    /**
+     * 应用用户上下文请求头的编码格式（默认旧版 JSON 格式，兼容尚未升级的下游服务）
+     */
+    public SecurityAutoConfiguration(SecurityProperties securityProperties) {
+        UserContextCodec.setDefaultFormat(securityProperties.getGatewaySignature().getContextFormat());
+    }
+
+    /**
+     * 签名 Token 吊销登记表（启用签名 Token 时创建）
+     * 在本地维护吊销列表和用户会话版本，通过缓存失效通知同步
+     */
+    @Bean
+    @ConditionalOnMissingBean
+    @ConditionalOnProperty(prefix = "synapse.security.signed-token", name = "enabled", havingValue = "true")
+    public TokenRevocationRegistry tokenRevocationRegistry(
+            RedisService redisService,
+            @Qualifier("synapseCacheKeyGenerator") CacheKeyGenerator cacheKeyGenerator,
+            @Autowired(required = false) CacheInvalidationService cacheInvalidationService,
+            SecurityProperties securityProperties) {
+        log.info("初始化签名Token吊销登记表");
+        return new TokenRevocationRegistry(redisService, cacheKeyGenerator, cacheInvalidationService,
+                securityProperties.getSignedToken());
+    }
+
+    /**
+     * 签名 Token 服务（启用签名 Token 时创建）
+     */
+    @Bean
+    @ConditionalOnMissingBean
+    @ConditionalOnProperty(prefix = "synapse.security.signed-token", name = "enabled", havingValue = "true")
+    public SignedTokenService signedTokenService(TokenRevocationRegistry tokenRevocationRegistry,
+                                                 SecurityProperties securityProperties) {
+        log.info("初始化签名Token服务");
+        return new SignedTokenService(securityProperties.getSignedToken(), tokenRevocationRegistry);
+    }
+
+    /**
+     * 密码哈希服务
+     * 在独立的有界线程池中执行 BCrypt 计算，队列已满时快速拒绝
+     */
+    @Bean
+    @ConditionalOnMissingBean
+    public PasswordHashingService passwordHashingService(SecurityProperties securityProperties) {
+        return new PasswordHashingService(securityProperties.getPassword());
+    }
 
     /**
      * Token服务（依赖 UserSessionService）
@@ -49,9 +108,10 @@ public class SecurityAutoConfiguration {
     @Bean
     @ConditionalOnMissingBean
     @ConditionalOnBean(UserSessionService.class)
-    public TokenService tokenService(UserSessionService userSessionService) {
-        log.info("初始化Token服务");
-        return new TokenService(userSessionService);
+    public TokenService tokenService(UserSessionService userSessionService,
+                                     @Autowired(required = false) SignedTokenService signedTokenService) {
+        log.info("初始化Token服务: signedToken={}", signedTokenService != null ? "已启用" : "未启用");
+        return new TokenService(userSessionService, signedTokenService);
     }
 
     /**
@@ -63,9 +123,12 @@ public class SecurityAutoConfiguration {
      */
     @Bean
     @ConditionalOnMissingBean
-    public PermissionService permissionService(@Autowired(required = false) UserSessionService userSessionService) {
-        log.debug("初始化权限检查服务: userSessionService={}", userSessionService != null ? "已注入" : "未注入");
-        return new PermissionService(userSessionService);
+    public PermissionService permissionService(@Autowired(required = false) UserSessionService userSessionService,
+                                               @Autowired(required = false) PermissionDictionary permissionDictionary) {
+        log.debug("初始化权限检查服务: userSessionService={}, permissionDictionary={}",
+                userSessionService != null ? "已注入" : "未注入",
+                permissionDictionary != null ? "已注入" : "未注入");
+        return new PermissionService(userSessionService, permissionDictionary);
     }
 
     /**
@@ -103,10 +166,13 @@ public class SecurityAutoConfiguration {
     public AuthenticationService authenticationService(
             @Autowired(required = false) UserSessionService userSessionService,
             @Autowired(required = false) TokenService tokenService,
+            @Autowired(required = false) PasswordHashingService passwordHashingService,
+            @Autowired(required = false) LoginSecurityService loginSecurityService,
             SecurityProperties securityProperties) {
         if (userSessionService != null && tokenService != null) {
             log.debug("初始化认证服务（默认版本），UserSessionService: 已注入, TokenService: 已注入");
-            return new DefaultAuthenticationService(userSessionService, tokenService, securityProperties);
+            return new DefaultAuthenticationService(userSessionService, tokenService, securityProperties,
+                    passwordHashingService, loginSecurityService);
         } else {
             log.warn("初始化认证服务（默认版本），UserSessionService: {}, TokenService: {}",
                     userSessionService != null ? "已注入" : "未配置",
@@ -126,6 +192,43 @@ public class SecurityAutoConfiguration {
      * {@code UserContextInterceptor} 类，导致在 WebFlux 环境中抛出 {@code NoClassDefFoundError}。
      */
 
+    /**
+     * WebFlux 用户上下文传播配置
+     * 注册 UserContext 的 ThreadLocal 访问器，使 Reactor Context 中的用户上下文可通过
+     * UserContext.getCurrentUser() 读取（classpath 存在 io.micrometer:context-propagation 时生效）
+     */
+    @Configuration
+    @ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+    @ConditionalOnClass(name = "io.micrometer.context.ContextRegistry")
+    public static class ReactiveContextPropagationConfiguration {
+
+        @Bean
+        @ConditionalOnMissingBean
+        public UserContextThreadLocalAccessor userContextThreadLocalAccessor() {
+            UserContextThreadLocalAccessor accessor = new UserContextThreadLocalAccessor();
+            ContextRegistry.getInstance().registerThreadLocalAccessor(accessor);
+            log.debug("已注册 UserContext 上下文传播访问器");
+            return accessor;
+        }
+    }
+
+    /**
+     * Reactor 自动上下文传播（显式开启 synapse.security.reactive-context-propagation=true 时生效）
+     * {@code Hooks.enableAutomaticContextPropagation()} 对整个 JVM 生效，因此不默认开启
+     */
+    @Configuration
+    @ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+    @ConditionalOnClass(name = "io.micrometer.context.ContextRegistry")
+    @ConditionalOnProperty(prefix = "synapse.security", name = "reactive-context-propagation", havingValue = "true")
+    public static class AutomaticContextPropagationConfiguration implements InitializingBean {
+
+        @Override
+        public void afterPropertiesSet() {
+            Hooks.enableAutomaticContextPropagation();
+            log.info("已开启 Reactor 自动上下文传播");
+        }
+    }
+
     /**
      * WebFlux环境配置
      * 使用JDK17的现代特性
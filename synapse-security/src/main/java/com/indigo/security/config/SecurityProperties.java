@@ -1,5 +1,6 @@
 package com.indigo.security.config;
 
+import com.indigo.security.utils.UserContextCodec;
 import lombok.Data;
 import org.springframework.boot.context.properties.ConfigurationProperties;
 
@@ -53,6 +54,26 @@ public class SecurityProperties {
      */
     private InternalServiceConfig internalService = new InternalServiceConfig();
 
+    /**
+     * 自包含签名 Token 配置
+     * 启用后 Token 本身携带用户ID、过期时间和会话版本，微服务本地验签即可识别用户
+     */
+    private SignedTokenConfig signedToken = new SignedTokenConfig();
+
+    /**
+     * 密码哈希配置
+     */
+    private PasswordConfig password = new PasswordConfig();
+
+    /**
+     * WebFlux 下是否开启 Reactor 自动上下文传播（需要 io.micrometer:context-propagation）
+     * 过滤器只把用户上下文写入 Reactor Context，不设置 ThreadLocal；开启后调用
+     * {@code Hooks.enableAutomaticContextPropagation()}（对整个 JVM 生效），用户上下文会在每个操作符执行时
+     * 恢复到 ThreadLocal，兼容直接调用 UserContext.getCurrentUser() 的代码
+     * 默认 false；应用已通过 spring.reactor.context-propagation=auto 开启时无需重复开启
+     */
+    private boolean reactiveContextPropagation = false;
+
     /**
      * 白名单配置类
      */
@@ -129,6 +150,12 @@ public class SecurityProperties {
          * 启用后，Gateway 会将用户上下文编码到请求头，减少微服务的 Redis 查询
          */
         private boolean enableContextPassing = true;
+
+        /**
+         * 用户上下文请求头的编码格式
+         * 默认旧版 JSON 格式；所有下游服务都升级到可解码 b1./h1. 格式的版本后，再切换为 BINARY 或 HASH
+         */
+        private UserContextCodec.Format contextFormat = UserContextCodec.Format.JSON;
     }
 
     /**
@@ -233,6 +260,82 @@ public class SecurityProperties {
         private Map<String, String> allowedServices = new HashMap<>();
     }
 
+    /**
+     * 自包含签名 Token 配置类
+     */
+    @Data
+    public static class SignedTokenConfig {
+        /**
+         * 是否启用签名 Token
+         * 默认 false，仍使用 UUID 不透明 Token
+         */
+        private boolean enabled = false;
+
+        /**
+         * 签名密钥（HMAC-SHA256）
+         * 所有签发和验证 Token 的服务必须使用相同的密钥，生产环境必须配置为强密钥
+         */
+        private String secret;
+
+        /**
+         * 允许的时钟偏差（秒）
+         * 默认 30 秒
+         */
+        private long clockSkewSeconds = 30L;
+
+        /**
+         * 本地缓存用户会话版本的时间（秒）
+         * 版本变更会通过 Pub/Sub 通知各节点，此值只是通知丢失时的兜底
+         * 默认 60 秒
+         */
+        private long versionCacheSeconds = 60L;
+
+        /**
+         * 从 Redis 全量同步吊销列表的间隔（毫秒）
+         * 吊销事件会通过 Pub/Sub 实时通知，此值只是通知丢失时的兜底
+         * 默认 30 秒
+         */
+        private long revocationSyncIntervalMillis = 30_000L;
+    }
+
+    /**
+     * 密码哈希配置类
+     */
+    @Data
+    public static class PasswordConfig {
+        /**
+         * BCrypt 加密轮数（4-31）
+         * 默认 10
+         */
+        private int bcryptCost = 10;
+
+        /**
+         * 密码哈希线程数
+         * 0 表示使用 CPU 核数
+         */
+        private int threads = 0;
+
+        /**
+         * 等待哈希的最大排队数
+         * 超过后新的请求立即拒绝，而不是占用请求线程等待
+         * 默认 256
+         */
+        private int maxQueueDepth = 256;
+
+        /**
+         * 密码校验通过后签发 Token 的线程数（签发需要访问 Redis，不占用哈希线程）
+         * 0 表示使用 CPU 核数的 2 倍；等待队列与哈希共用 maxQueueDepth
+         */
+        private int completionThreads = 0;
+
+        /**
+         * 登录成功时是否将低轮数密码重新加密
+         * 只在调用方提供了保存新密码的回调时生效，重新加密的结果一定会交给调用方
+         * 默认 true
+         */
+        private boolean rehashOnLogin = true;
+    }
+
     /**
      * 安全模式枚举
      */
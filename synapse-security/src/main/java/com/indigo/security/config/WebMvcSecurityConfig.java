@@ -1,6 +1,7 @@
 package com.indigo.security.config;
 
 import com.indigo.cache.session.UserSessionService;
+import com.indigo.security.core.SignedTokenService;
 import com.indigo.security.interceptor.UserContextInterceptor;
 import com.indigo.security.utils.TokenExtractor;
 import lombok.extern.slf4j.Slf4j;
@@ -61,16 +62,19 @@ public class WebMvcSecurityConfig implements WebMvcConfigurer {
      * 
      * @param tokenExtractor Token 提取工具（必须）
      * @param userSessionService 用户会话服务（可选，用于滑动过期刷新 token）
+     * @param signedTokenService 签名 Token 服务（可选，启用后签名 Token 在本地验证）
      * @return 用户上下文拦截器
      */
     @Bean
     @ConditionalOnMissingBean(UserContextInterceptor.class)
     public UserContextInterceptor userContextInterceptor(TokenExtractor tokenExtractor,
-                                                        @Autowired(required = false) UserSessionService userSessionService) {
-        log.debug("初始化用户上下文拦截器，TokenExtractor: {}, UserSessionService: {}",
+                                                        @Autowired(required = false) UserSessionService userSessionService,
+                                                        @Autowired(required = false) SignedTokenService signedTokenService) {
+        log.debug("初始化用户上下文拦截器，TokenExtractor: {}, UserSessionService: {}, SignedTokenService: {}",
                 tokenExtractor != null ? "已注入" : "未配置",
-                userSessionService != null ? "已注入" : "未配置");
-        return new UserContextInterceptor(securityProperties, tokenExtractor, userSessionService);
+                userSessionService != null ? "已注入" : "未配置",
+                signedTokenService != null ? "已注入" : "未配置");
+        return new UserContextInterceptor(securityProperties, tokenExtractor, userSessionService, signedTokenService);
     }
 
     @Override
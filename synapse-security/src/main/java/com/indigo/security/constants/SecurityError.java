@@ -14,7 +14,7 @@ import lombok.Getter;
  * <p><b>错误码分类：</b>
  * <ul>
  *   <li>SEC001-SEC019：安全认证相关错误码（从 StandardErrorCode 迁移）</li>
- *   <li>SECURITY001-SECURITY006：认证请求相关错误码</li>
+ *   <li>SECURITY001-SECURITY007：认证请求相关错误码</li>
  * </ul>
  * 
  * @author 史偕成
@@ -185,6 +185,12 @@ public enum SecurityError implements ErrorCode {
      * 注意：建议使用 TOKEN_MISSING (SEC007)
      */
     AUTH_TOKEN_NULL("SECURITY006"),
+
+    /**
+     * 认证繁忙（密码哈希队列已满，请稍后重试）
+     * 错误码：SECURITY007
+     */
+    AUTH_BUSY("SECURITY007"),
     ;
 
     private final String code;
@@ -0,0 +1,222 @@
+package com.indigo.security.core;
+
+import com.indigo.core.exception.Ex;
+import com.indigo.security.config.SecurityProperties;
+import com.indigo.security.utils.PasswordUtils;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.RejectedExecutionHandler;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+import static com.indigo.security.constants.SecurityError.AUTH_BUSY;
+
+/**
+ * 密码哈希服务
+ * BCrypt 是刻意设计的慢计算（10 轮约数十毫秒），在请求线程上执行时，登录高峰会占满全部 Web 工作线程。
+ * 本服务把加密和校验放到独立的有界线程池中执行：
+ * <ul>
+ *   <li>线程数默认等于 CPU 核数，哈希计算是纯 CPU 任务，更多线程只会增加排队</li>
+ *   <li>等待队列有上限，队列已满时立即以 {@code AUTH_BUSY} 拒绝，而不是让请求线程排队等待</li>
+ *   <li>调用方要求时，校验成功且已存储密码的轮数低于配置值则在同一任务内按配置轮数重新加密，由调用方保存</li>
+ *   <li>校验之后的工作（如签发 Token）在另一个有界线程池中执行，不占用哈希线程，也不使用公共 ForkJoinPool</li>
+ * </ul>
+ * 通过 {@link #getStats()} 获取排队数、拒绝数和哈希耗时等指标。
+ *
+ * @author 史偕成
+ * @date 2025/12/19
+ */
+@Slf4j
+public class PasswordHashingService {
+
+    private final int cost;
+    private final boolean rehashOnLogin;
+    private final ThreadPoolExecutor executor;
+    private final ThreadPoolExecutor completionExecutor;
+
+    private final LongAdder completed = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+    private final LongAdder totalNanos = new LongAdder();
+    private final AtomicLong maxNanos = new AtomicLong();
+
+    public PasswordHashingService(SecurityProperties.PasswordConfig config) {
+        this.cost = Math.min(Math.max(config.getBcryptCost(), 4), 31);
+        this.rehashOnLogin = config.isRehashOnLogin();
+        int processors = Runtime.getRuntime().availableProcessors();
+        int threads = config.getThreads() > 0 ? config.getThreads() : processors;
+        int completionThreads = config.getCompletionThreads() > 0 ? config.getCompletionThreads() : processors * 2;
+        this.executor = newExecutor(threads, config.getMaxQueueDepth(), "synapse-password-hash-",
+                new ThreadPoolExecutor.AbortPolicy());
+        this.completionExecutor = newExecutor(completionThreads, config.getMaxQueueDepth(), "synapse-password-login-",
+                (r, pool) -> {
+                    rejected.increment();
+                    log.warn("登录处理队列已满，拒绝请求: queueDepth={}", pool.getQueue().size());
+                    throw Ex.of(AUTH_BUSY, "认证繁忙，请稍后重试");
+                });
+        log.info("密码哈希服务已初始化: cost={}, threads={}, completionThreads={}, maxQueueDepth={}",
+                cost, threads, completionThreads, config.getMaxQueueDepth());
+    }
+
+    /**
+     * 异步加密密码（按配置轮数）
+     *
+     * @param rawPassword 明文密码
+     * @return 加密后的密码；队列已满时以 {@code AUTH_BUSY} 异常完成
+     */
+    public CompletableFuture<String> encodeAsync(String rawPassword) {
+        return submit(() -> PasswordUtils.encode(rawPassword, cost));
+    }
+
+    /**
+     * 异步校验密码
+     *
+     * @param rawPassword    明文密码
+     * @param hashedPassword 已存储的密码
+     * @return 是否匹配；队列已满时以 {@code AUTH_BUSY} 异常完成
+     */
+    public CompletableFuture<Boolean> matchesAsync(String rawPassword, String hashedPassword) {
+        return submit(() -> PasswordUtils.matches(rawPassword, hashedPassword));
+    }
+
+    /**
+     * 异步校验密码（不重新加密）
+     *
+     * @param rawPassword    明文密码
+     * @param hashedPassword 已存储的密码
+     * @return 校验结果
+     */
+    public CompletableFuture<Verification> verifyAsync(String rawPassword, String hashedPassword) {
+        return verifyAsync(rawPassword, hashedPassword, false);
+    }
+
+    /**
+     * 异步校验密码，并在调用方要求时重新加密
+     *
+     * @param rawPassword    明文密码
+     * @param hashedPassword 已存储的密码
+     * @param rehash         是否允许重新加密（调用方能保存新密码时传 true，且 rehashOnLogin 开启才生效）
+     * @return 校验结果，{@link Verification#upgradedHash()} 不为 null 时调用方应保存新密码
+     */
+    public CompletableFuture<Verification> verifyAsync(String rawPassword, String hashedPassword, boolean rehash) {
+        return submit(() -> {
+            if (!PasswordUtils.matches(rawPassword, hashedPassword)) {
+                return Verification.MISMATCH;
+            }
+            if (rehash && rehashOnLogin && PasswordUtils.needsRehash(hashedPassword, cost)) {
+                return new Verification(true, PasswordUtils.encode(rawPassword, cost));
+            }
+            return Verification.MATCHED;
+        });
+    }
+
+    /**
+     * 校验之后的工作（如签发 Token）使用的有界线程池
+     * 队列已满时任务以 {@code AUTH_BUSY} 异常拒绝，依赖它的 CompletableFuture 随之异常完成
+     */
+    public Executor getCompletionExecutor() {
+        return completionExecutor;
+    }
+
+    /**
+     * 当前配置的加密轮数
+     */
+    public int getCost() {
+        return cost;
+    }
+
+    /**
+     * 获取哈希指标快照
+     */
+    public Stats getStats() {
+        long count = completed.sum();
+        return new Stats(
+                executor.getQueue().size(),
+                executor.getActiveCount(),
+                count,
+                rejected.sum(),
+                count > 0 ? TimeUnit.NANOSECONDS.toMicros(totalNanos.sum() / count) : 0L,
+                TimeUnit.NANOSECONDS.toMicros(maxNanos.get()));
+    }
+
+    /**
+     * 停止哈希线程池（已排队的任务会执行完）
+     */
+    public void shutdown() {
+        executor.shutdown();
+        completionExecutor.shutdown();
+    }
+
+    private static ThreadPoolExecutor newExecutor(int threads, int maxQueueDepth, String namePrefix,
+                                                  RejectedExecutionHandler rejectedHandler) {
+        AtomicInteger index = new AtomicInteger();
+        return new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(Math.max(maxQueueDepth, 1)),
+                r -> {
+                    Thread thread = new Thread(r, namePrefix + index.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                rejectedHandler);
+    }
+
+    private <T> CompletableFuture<T> submit(Supplier<T> task) {
+        CompletableFuture<T> future = new CompletableFuture<>();
+        try {
+            executor.execute(() -> {
+                long start = System.nanoTime();
+                try {
+                    future.complete(task.get());
+                } catch (Throwable e) {
+                    future.completeExceptionally(e);
+                } finally {
+                    record(System.nanoTime() - start);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            rejected.increment();
+            log.warn("密码哈希队列已满，拒绝请求: queueDepth={}", executor.getQueue().size());
+            future.completeExceptionally(Ex.of(AUTH_BUSY, "认证繁忙，请稍后重试"));
+        }
+        return future;
+    }
+
+    private void record(long nanos) {
+        completed.increment();
+        totalNanos.add(nanos);
+        maxNanos.accumulateAndGet(nanos, Math::max);
+    }
+
+    /**
+     * 密码校验结果
+     *
+     * @param matched      是否匹配
+     * @param upgradedHash 按当前轮数重新加密的密码，不需要升级时为 null
+     */
+    public record Verification(boolean matched, String upgradedHash) {
+
+        static final Verification MISMATCH = new Verification(false, null);
+        static final Verification MATCHED = new Verification(true, null);
+    }
+
+    /**
+     * 哈希指标快照
+     *
+     * @param queueDepth       当前排队数
+     * @param activeThreads    正在执行的线程数
+     * @param completed        已完成的哈希次数
+     * @param rejected         因队列已满被拒绝的次数
+     * @param avgLatencyMicros 平均哈希耗时（微秒）
+     * @param maxLatencyMicros 最大哈希耗时（微秒）
+     */
+    public record Stats(int queueDepth, int activeThreads, long completed, long rejected,
+                        long avgLatencyMicros, long maxLatencyMicros) {
+    }
+}
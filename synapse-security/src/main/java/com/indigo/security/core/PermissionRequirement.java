@@ -0,0 +1,49 @@
+package com.indigo.security.core;
+
+import com.indigo.cache.session.PermissionMask;
+import com.indigo.security.annotation.Logical;
+
+import java.util.List;
+
+/**
+ * 预编译的权限要求
+ * 由 {@link PermissionService#compileRequirement(String[], Logical)} 创建，
+ * 同一注解只编译一次，检查时直接使用位图判断
+ *
+ * @author 史偕成
+ * @date 2025/12/19
+ */
+public final class PermissionRequirement {
+
+    private final String[] codes;
+    private final Logical logical;
+    private final PermissionMask mask;
+
+    PermissionRequirement(String[] codes, Logical logical, PermissionMask mask) {
+        this.codes = codes;
+        this.logical = logical;
+        this.mask = mask;
+    }
+
+    /**
+     * 需要的权限编码
+     */
+    public List<String> getCodes() {
+        return List.of(codes);
+    }
+
+    public Logical getLogical() {
+        return logical;
+    }
+
+    /**
+     * 权限位图，未启用权限字典时为null
+     */
+    PermissionMask getMask() {
+        return mask;
+    }
+
+    String[] codes() {
+        return codes;
+    }
+}
@@ -1,6 +1,9 @@
 package com.indigo.security.core;
 
+import com.indigo.cache.session.PermissionDictionary;
+import com.indigo.cache.session.PermissionMask;
 import com.indigo.cache.session.UserSessionService;
+import com.indigo.core.context.PermissionMatcher;
 import com.indigo.core.context.UserContext;
 import com.indigo.core.exception.Ex;
 import com.indigo.security.annotation.Logical;
@@ -13,7 +16,6 @@ import org.springframework.web.context.request.RequestContextHolder;
 import org.springframework.web.context.request.ServletRequestAttributes;
 
 import jakarta.servlet.http.HttpServletRequest;
-import java.util.HashSet;
 import java.util.List;
 
 /**
@@ -25,6 +27,8 @@ import java.util.List;
  *   <li>从 UserContext 获取用户信息（ThreadLocal）</li>
  *   <li>从 UserSessionService 获取权限信息（通过 token）</li>
  *   <li>支持 AND/OR 逻辑判断</li>
+ *   <li>配置了 {@link PermissionDictionary} 时，权限要求预编译为位图，AND/OR 判断为逐字位运算</li>
+ *   <li>支持层级通配授权（如 {@code system:user:*}），见 {@link PermissionMatcher}</li>
  *   <li>检查失败时抛出相应异常</li>
  * </ul>
  * 
@@ -42,6 +46,7 @@ import java.util.List;
 public class PermissionService {
 
     private final UserSessionService userSessionService;
+    private final PermissionDictionary permissionDictionary;
 
     /**
      * 构造函数
@@ -49,7 +54,18 @@ public class PermissionService {
      * @param userSessionService 用户会话服务（可选，如果为 null 则无法获取权限）
      */
     public PermissionService(UserSessionService userSessionService) {
+        this(userSessionService, null);
+    }
+
+    /**
+     * 构造函数（支持权限字典）
+     * 
+     * @param userSessionService   用户会话服务（可选，如果为 null 则无法获取权限）
+     * @param permissionDictionary 权限字典（可选，如果为 null 则逐个比较权限编码）
+     */
+    public PermissionService(UserSessionService userSessionService, PermissionDictionary permissionDictionary) {
         this.userSessionService = userSessionService;
+        this.permissionDictionary = permissionDictionary;
     }
 
     /**
@@ -128,43 +144,69 @@ public class PermissionService {
      * @throws com.indigo.core.exception.SynapseException 如果用户未登录或没有所需权限
      */
     public void checkPermission(String[] permissions, Logical logical) {
+        checkPermission(compileRequirement(permissions, logical));
+    }
+
+    /**
+     * 预编译权限要求
+     * 启用权限字典时将权限编码转换为位图，之后每次检查只做位运算
+     * 
+     * @param permissions 需要的权限列表
+     * @param logical     逻辑运算符（AND/OR）
+     * @return 权限要求
+     */
+    public PermissionRequirement compileRequirement(String[] permissions, Logical logical) {
         validatePermissionParams(permissions);
+        String[] codes = permissions.clone();
+        PermissionMask mask = permissionDictionary != null ? permissionDictionary.compile(codes) : null;
+        return new PermissionRequirement(codes, logical, mask);
+    }
 
+    /**
+     * 检查用户是否满足预编译的权限要求
+     * 
+     * @param requirement 权限要求
+     * @throws com.indigo.core.exception.SynapseException 如果用户未登录或没有所需权限
+     */
+    public void checkPermission(PermissionRequirement requirement) {
         UserContext userContext = getCurrentUserContext();
         
         // 从 UserSessionService 获取权限（通过 token）
-        List<String> userPermissions = getUserPermissions();
+        String token = getTokenFromRequest();
+        List<String> userPermissions = getUserPermissions(token);
         
         if (userPermissions == null || userPermissions.isEmpty()) {
             log.warn("用户没有权限: userId={}", userContext.getUserId());
             Ex.throwEx(SecurityError.PERMISSION_DENIED, "用户没有所需权限");
         }
 
-        boolean hasPermission = checkPermissionLogic(userPermissions, permissions, logical);
+        boolean hasPermission = checkPermissionLogic(token, userPermissions, requirement);
         if (!hasPermission) {
             log.warn("用户权限不足: userId={}, required={}, userPermissions={}", 
-                    userContext.getUserId(), List.of(permissions), userPermissions);
+                    userContext.getUserId(), requirement.getCodes(), userPermissions);
             Ex.throwEx(SecurityError.PERMISSION_DENIED, "用户没有所需权限");
         }
 
-        log.debug("权限检查通过: userId={}, required={}, userPermissions={}", 
-                userContext.getUserId(), List.of(permissions), userPermissions);
+        if (log.isDebugEnabled()) {
+            log.debug("权限检查通过: userId={}, required={}, userPermissions={}", 
+                    userContext.getUserId(), requirement.getCodes(), userPermissions);
+        }
     }
 
     /**
      * 从 UserSessionService 获取用户权限列表
      * 
+     * @param token 访问令牌
      * @return 用户权限列表，如果无法获取则返回空列表
      */
-    private List<String> getUserPermissions() {
+    private List<String> getUserPermissions(String token) {
         // 1. 检查 UserSessionService 是否可用
         if (userSessionService == null) {
             log.warn("UserSessionService 未注入，无法获取权限信息");
             return List.of();
         }
 
-        // 2. 从请求属性中获取 token
-        String token = getTokenFromRequest();
+        // 2. 检查 token（从请求属性中获取）
         if (token == null || token.isEmpty()) {
             log.warn("无法从请求中获取 token，无法获取权限信息");
             return List.of();
@@ -230,16 +272,26 @@ public class PermissionService {
 
     /**
      * 检查权限逻辑（AND/OR）
+     * 启用权限字典时使用按 token 缓存的权限位图做逐字位运算，支持通配授权；
+     * 否则使用按授权列表内容共享的权限匹配器
      */
-    private boolean checkPermissionLogic(List<String> userPermissions, String[] requiredPermissions, Logical logical) {
-        List<String> requiredList = List.of(requiredPermissions);
-        if (logical == Logical.AND) {
-            // AND 逻辑：需要所有权限
-            return new HashSet<>(userPermissions).containsAll(requiredList);
-        } else {
-            // OR 逻辑：需要任一权限
-            return userPermissions.stream().anyMatch(requiredList::contains);
+    private boolean checkPermissionLogic(String token, List<String> userPermissions, PermissionRequirement requirement) {
+        PermissionMask requiredMask = requirement.getMask();
+        String[] requiredPermissions = requirement.codes();
+        boolean and = requirement.getLogical() == Logical.AND;
+        if (permissionDictionary != null && requiredMask != null) {
+            PermissionMask userMask = permissionDictionary.permissionsOf(token, userPermissions);
+            if (and ? userMask.containsAll(requiredMask) : userMask.intersects(requiredMask)) {
+                return true;
+            }
+            // 精确匹配未通过时，再按通配授权（如 system:user:*）匹配
+            PermissionMatcher matcher = permissionDictionary.matcherOf(token, userPermissions);
+            return matcher.hasWildcards()
+                    && (and ? matcher.matchesAll(requiredPermissions) : matcher.matchesAny(requiredPermissions));
         }
+        PermissionMatcher matcher = PermissionMatcher.of(userPermissions);
+        // AND 逻辑：需要所有权限；OR 逻辑：需要任一权限
+        return and ? matcher.matchesAll(requiredPermissions) : matcher.matchesAny(requiredPermissions);
     }
 
     /**
@@ -0,0 +1,241 @@
+package com.indigo.security.core;
+
+import com.indigo.security.config.SecurityProperties;
+import com.indigo.security.utils.HmacSigner;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.util.StringUtils;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.security.SecureRandom;
+import java.util.Base64;
+
+/**
+ * 自包含签名 Token 服务
+ * Token 本身携带用户ID、账号、过期时间和会话版本，并用 HMAC-SHA256 签名，
+ * 微服务在本地验签即可识别用户，请求路径上不再为鉴权访问 Redis
+ *
+ * <p><b>Token 格式：</b>{@code st1.<payload>.<signature>}
+ * <ul>
+ *   <li>payload：URL 安全 Base64（无填充），内容为 过期时间、会话版本、用户ID、账号、16 字节随机标识（jti）</li>
+ *   <li>signature：对 {@code st1.<payload>} 的 HMAC-SHA256，URL 安全 Base64（无填充）</li>
+ * </ul>
+ *
+ * <p><b>吊销：</b>由 {@link TokenRevocationRegistry} 维护，单个 Token 按 jti 吊销，
+ * 用户全部 Token 通过递增会话版本吊销，两者都只读取本地副本。
+ *
+ * @author 史偕成
+ * @date 2025/12/19
+ */
+@Slf4j
+public class SignedTokenService {
+
+    /**
+     * 签名 Token 前缀
+     */
+    public static final String PREFIX = "st1.";
+
+    private static final int JTI_LENGTH = 16;
+
+    private static final SecureRandom RANDOM = new SecureRandom();
+
+    private final String secret;
+    private final long clockSkewMillis;
+    private final TokenRevocationRegistry revocationRegistry;
+
+    public SignedTokenService(SecurityProperties.SignedTokenConfig config,
+                              TokenRevocationRegistry revocationRegistry) {
+        if (!StringUtils.hasText(config.getSecret())) {
+            throw new IllegalArgumentException("启用签名 Token 时必须配置 synapse.security.signed-token.secret");
+        }
+        this.secret = config.getSecret();
+        this.clockSkewMillis = Math.max(config.getClockSkewSeconds(), 0) * 1000L;
+        this.revocationRegistry = revocationRegistry;
+    }
+
+    /**
+     * 判断是否为签名 Token
+     */
+    public static boolean isSignedToken(String token) {
+        return token != null && token.startsWith(PREFIX);
+    }
+
+    /**
+     * 签发签名 Token
+     *
+     * @param userId     用户ID
+     * @param account    账号（可为 null）
+     * @param expiration 过期时间（秒）
+     * @return 签名 Token
+     */
+    public String issue(String userId, String account, long expiration) {
+        byte[] jti = new byte[JTI_LENGTH];
+        RANDOM.nextBytes(jti);
+        long expiresAt = System.currentTimeMillis() + expiration * 1000L;
+        long version = revocationRegistry.currentVersion(userId);
+        try {
+            ByteArrayOutputStream buffer = new ByteArrayOutputStream(64);
+            DataOutputStream out = new DataOutputStream(buffer);
+            out.writeLong(expiresAt);
+            out.writeLong(version);
+            out.writeUTF(userId);
+            out.writeBoolean(account != null);
+            if (account != null) {
+                out.writeUTF(account);
+            }
+            out.write(jti);
+            String unsigned = PREFIX + Base64.getUrlEncoder().withoutPadding().encodeToString(buffer.toByteArray());
+            return unsigned + "." + HmacSigner.current().append(unsigned).signUrlSafe(secret);
+        } catch (Exception e) {
+            throw new IllegalStateException("签名 Token 生成失败: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * 验证签名 Token（本地验签，检查过期、单个吊销和会话版本）
+     *
+     * @param token 签名 Token
+     * @return Token 声明，验证失败返回 null
+     */
+    public Claims verify(String token) {
+        Claims claims = verifyLocally(token);
+        if (claims == null || !isCurrentVersion(claims)) {
+            return null;
+        }
+        return claims;
+    }
+
+    /**
+     * 验证签名、过期和单个吊销（只读本地数据，不访问 Redis）
+     * 会话版本需再调用 {@link #isCurrentVersion(Claims)} 检查
+     *
+     * @param token 签名 Token
+     * @return Token 声明，验证失败返回 null
+     */
+    public Claims verifyLocally(String token) {
+        Claims claims = parse(token);
+        if (claims == null) {
+            return null;
+        }
+        if (claims.expiresAt() + clockSkewMillis < System.currentTimeMillis()) {
+            log.debug("签名 Token 已过期: userId={}", claims.userId());
+            return null;
+        }
+        if (revocationRegistry.isRevoked(claims.jti())) {
+            log.debug("签名 Token 已吊销: userId={}, jti={}", claims.userId(), claims.jti());
+            return null;
+        }
+        return claims;
+    }
+
+    /**
+     * 用户会话版本是否已在本地缓存（已缓存时 {@link #isCurrentVersion(Claims)} 不访问 Redis）
+     */
+    public boolean isVersionCached(String userId) {
+        return revocationRegistry.isVersionCached(userId);
+    }
+
+    /**
+     * 检查 Token 的会话版本是否仍有效（本地缓存未命中时读取 Redis）
+     *
+     * @param claims Token 声明
+     * @return 是否有效，读取失败时视为无效
+     */
+    public boolean isCurrentVersion(Claims claims) {
+        try {
+            if (claims.version() < revocationRegistry.currentVersion(claims.userId())) {
+                log.debug("签名 Token 会话版本已失效: userId={}, version={}", claims.userId(), claims.version());
+                return false;
+            }
+            return true;
+        } catch (Exception e) {
+            log.warn("读取用户会话版本失败，拒绝签名 Token: userId={}", claims.userId(), e);
+            return false;
+        }
+    }
+
+    /**
+     * 吊销单个签名 Token（签名无效的 Token 忽略）
+     *
+     * @param token 签名 Token
+     * @return 是否已登记吊销
+     */
+    public boolean revoke(String token) {
+        Claims claims = parse(token);
+        if (claims == null) {
+            return false;
+        }
+        revocationRegistry.revoke(claims.jti(), claims.expiresAt() + clockSkewMillis);
+        log.info("签名 Token 已吊销: userId={}, jti={}", claims.userId(), claims.jti());
+        return true;
+    }
+
+    /**
+     * 吊销用户此前签发的全部签名 Token
+     *
+     * @param userId 用户ID
+     */
+    public void revokeAll(String userId) {
+        revocationRegistry.bumpVersion(userId);
+    }
+
+    /**
+     * 验签并解析声明（不检查过期和吊销）
+     */
+    private Claims parse(String token) {
+        if (!isSignedToken(token)) {
+            return null;
+        }
+        int signatureStart = token.lastIndexOf('.');
+        if (signatureStart <= PREFIX.length()) {
+            return null;
+        }
+        try {
+            boolean valid = HmacSigner.current()
+                    .append(token, 0, signatureStart)
+                    .verifyUrlSafe(secret, token, signatureStart + 1, token.length());
+            if (!valid) {
+                log.debug("签名 Token 验签失败");
+                return null;
+            }
+            byte[] payload = Base64.getUrlDecoder().decode(token.substring(PREFIX.length(), signatureStart));
+            DataInputStream in = new DataInputStream(new ByteArrayInputStream(payload));
+            long expiresAt = in.readLong();
+            long version = in.readLong();
+            String userId = in.readUTF();
+            String account = in.readBoolean() ? in.readUTF() : null;
+            byte[] jti = new byte[JTI_LENGTH];
+            in.readFully(jti);
+            return new Claims(Base64.getUrlEncoder().withoutPadding().encodeToString(jti),
+                    userId, account, version, expiresAt);
+        } catch (IOException | IllegalArgumentException e) {
+            log.debug("签名 Token 格式错误", e);
+            return null;
+        } catch (Exception e) {
+            log.warn("签名 Token 验证异常", e);
+            return null;
+        }
+    }
+
+    /**
+     * 签名 Token 声明
+     *
+     * @param jti       Token 标识
+     * @param userId    用户ID
+     * @param account   账号
+     * @param version   会话版本
+     * @param expiresAt 过期时间（毫秒）
+     */
+    public record Claims(String jti, String userId, String account, long version, long expiresAt) {
+
+        /**
+         * 剩余有效时间（秒）
+         */
+        public long remainingSeconds() {
+            return Math.max((expiresAt - System.currentTimeMillis()) / 1000L, 0L);
+        }
+    }
+}
@@ -0,0 +1,274 @@
+package com.indigo.security.core;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.indigo.cache.core.CacheInvalidationService;
+import com.indigo.cache.core.constants.SessionCacheConstants;
+import com.indigo.cache.infrastructure.RedisService;
+import com.indigo.cache.manager.CacheKeyGenerator;
+import com.indigo.cache.session.SessionRevocationListener;
+import com.indigo.security.config.SecurityProperties;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.ZSetOperations;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 签名 Token 吊销登记表
+ * 签名 Token 在本地验签，只有吊销状态需要 Redis；本类把吊销状态缓存在本地，使请求路径上不访问 Redis
+ *
+ * <p><b>两种吊销方式：</b>
+ * <ul>
+ *   <li>单个 Token：按 Token 标识（jti）登记到 Redis 有序集合（分值为 Token 过期时间），
+ *       各节点在内存中保存一份完整副本，启动时及定期从 Redis 同步，过期条目自动清理</li>
+ *   <li>用户全部 Token：递增 Redis 哈希中的用户会话版本，版本低于当前值的 Token 全部失效；
+ *       各节点按用户缓存版本号</li>
+ * </ul>
+ * 吊销和版本变更通过缓存失效通知（Redis Pub/Sub）实时推送到各节点，定期同步和版本缓存过期只是通知丢失时的兜底。
+ *
+ * <p>作为 {@link SessionRevocationListener} 注册到会话模块：强制下线（单个或批量）时递增用户会话版本，
+ * 使已签发的签名 Token 与服务端会话一同失效。
+ *
+ * @author 史偕成
+ * @date 2025/12/19
+ */
+@Slf4j
+public class TokenRevocationRegistry implements SessionRevocationListener {
+
+    /**
+     * 吊销通知中 jti 与过期时间的分隔符（jti 为 URL 安全 Base64，不含此字符）
+     */
+    private static final char REVOCATION_SEPARATOR = ':';
+
+    private static final int MAX_CACHED_VERSIONS = 100_000;
+
+    private final StringRedisTemplate redisTemplate;
+    private final CacheInvalidationService invalidationService;
+    private final String versionKey;
+    private final String revokedKey;
+
+    /**
+     * 用户ID → 会话版本
+     */
+    private final Cache<String, Long> versions;
+
+    /**
+     * 已吊销的 jti → Token 过期时间（毫秒）
+     */
+    private final Map<String, Long> revoked = new ConcurrentHashMap<>();
+
+    private final CacheInvalidationService.CacheInvalidationListener listener = this::onInvalidation;
+    private final ScheduledExecutorService scheduler;
+
+    public TokenRevocationRegistry(RedisService redisService,
+                                   CacheKeyGenerator keyGenerator,
+                                   CacheInvalidationService invalidationService,
+                                   SecurityProperties.SignedTokenConfig config) {
+        this.redisTemplate = redisService.getStringRedisTemplate();
+        this.invalidationService = invalidationService;
+        this.versionKey = keyGenerator.generate(CacheKeyGenerator.Module.USER, "tokenVersion");
+        this.revokedKey = keyGenerator.generate(CacheKeyGenerator.Module.USER, "tokenRevoked");
+        this.versions = Caffeine.newBuilder()
+                .maximumSize(MAX_CACHED_VERSIONS)
+                .expireAfterWrite(Math.max(config.getVersionCacheSeconds(), 1), TimeUnit.SECONDS)
+                .build();
+        if (invalidationService != null) {
+            invalidationService.registerListener(listener);
+        }
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "synapse-token-revocation");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long interval = Math.max(config.getRevocationSyncIntervalMillis(), 1000L);
+        this.scheduler.scheduleWithFixedDelay(this::syncQuietly, 0, interval, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * 获取用户当前会话版本（本地缓存未命中时读取 Redis）
+     *
+     * @param userId 用户ID
+     * @return 会话版本，从未吊销过时为 0
+     */
+    public long currentVersion(String userId) {
+        return versions.get(userId, this::loadVersion);
+    }
+
+    /**
+     * 用户会话版本是否已在本地缓存
+     */
+    public boolean isVersionCached(String userId) {
+        return versions.getIfPresent(userId) != null;
+    }
+
+    /**
+     * 递增用户会话版本，使该用户此前签发的全部签名 Token 失效
+     *
+     * @param userId 用户ID
+     * @return 新的会话版本
+     */
+    public long bumpVersion(String userId) {
+        Long version = redisTemplate.opsForHash().increment(versionKey, userId, 1L);
+        long current = version != null ? version : 0L;
+        versions.put(userId, current);
+        publish(SessionCacheConstants.CACHE_TYPE_TOKEN_VERSION, userId);
+        log.info("用户会话版本已递增: userId={}, version={}", userId, current);
+        return current;
+    }
+
+    /**
+     * 批量递增用户会话版本（一次管道），使这些用户此前签发的全部签名 Token 失效
+     *
+     * @param userIds 用户ID
+     */
+    public void bumpVersions(Collection<String> userIds) {
+        Set<String> users = new LinkedHashSet<>(userIds);
+        users.remove(null);
+        if (users.isEmpty()) {
+            return;
+        }
+        if (users.size() == 1) {
+            bumpVersion(users.iterator().next());
+            return;
+        }
+        List<String> ordered = new ArrayList<>(users);
+        byte[] key = versionKey.getBytes(StandardCharsets.UTF_8);
+        List<Object> results = redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+            for (String userId : ordered) {
+                connection.hashCommands().hIncrBy(key, userId.getBytes(StandardCharsets.UTF_8), 1L);
+            }
+            return null;
+        });
+        for (int i = 0; i < ordered.size(); i++) {
+            Object version = i < results.size() ? results.get(i) : null;
+            if (version instanceof Number number) {
+                versions.put(ordered.get(i), number.longValue());
+            } else {
+                versions.invalidate(ordered.get(i));
+            }
+        }
+        if (invalidationService != null) {
+            invalidationService.publishInvalidationBatch(SessionCacheConstants.CACHE_TYPE_TOKEN_VERSION, users);
+        }
+        log.info("用户会话版本已批量递增: count={}", users.size());
+    }
+
+    /**
+     * 强制下线时吊销用户的全部签名 Token
+     */
+    @Override
+    public void onUserSessionsRevoked(Collection<String> userIds) {
+        bumpVersions(userIds);
+    }
+
+    /**
+     * 吊销单个 Token
+     *
+     * @param jti       Token 标识
+     * @param expiresAt Token 过期时间（毫秒），到期后吊销记录自动清理
+     */
+    public void revoke(String jti, long expiresAt) {
+        if (expiresAt <= System.currentTimeMillis()) {
+            return;
+        }
+        redisTemplate.opsForZSet().add(revokedKey, jti, expiresAt);
+        revoked.put(jti, expiresAt);
+        publish(SessionCacheConstants.CACHE_TYPE_TOKEN_REVOCATION, jti + REVOCATION_SEPARATOR + expiresAt);
+    }
+
+    /**
+     * 检查 Token 是否已吊销（只读本地副本）
+     *
+     * @param jti Token 标识
+     * @return 是否已吊销
+     */
+    public boolean isRevoked(String jti) {
+        return revoked.containsKey(jti);
+    }
+
+    /**
+     * 本地吊销列表大小
+     */
+    public int revokedCount() {
+        return revoked.size();
+    }
+
+    /**
+     * 从 Redis 全量同步吊销列表，并清理已过期的条目
+     */
+    public void sync() {
+        long now = System.currentTimeMillis();
+        redisTemplate.opsForZSet().removeRangeByScore(revokedKey, Double.NEGATIVE_INFINITY, now);
+        Set<ZSetOperations.TypedTuple<String>> entries =
+                redisTemplate.opsForZSet().rangeByScoreWithScores(revokedKey, now, Double.POSITIVE_INFINITY);
+        if (entries != null) {
+            for (ZSetOperations.TypedTuple<String> entry : entries) {
+                if (entry.getValue() != null && entry.getScore() != null) {
+                    revoked.put(entry.getValue(), entry.getScore().longValue());
+                }
+            }
+        }
+        revoked.values().removeIf(expiresAt -> expiresAt <= now);
+        log.debug("签名 Token 吊销列表已同步: size={}", revoked.size());
+    }
+
+    /**
+     * 停止后台同步并取消失效通知
+     */
+    public void shutdown() {
+        scheduler.shutdownNow();
+        if (invalidationService != null) {
+            invalidationService.unregisterListener(listener);
+        }
+    }
+
+    private void onInvalidation(String cacheType, String cacheKey) {
+        if (cacheKey == null) {
+            return;
+        }
+        if (SessionCacheConstants.CACHE_TYPE_TOKEN_VERSION.equals(cacheType)) {
+            versions.invalidate(cacheKey);
+        } else if (SessionCacheConstants.CACHE_TYPE_TOKEN_REVOCATION.equals(cacheType)) {
+            int separator = cacheKey.lastIndexOf(REVOCATION_SEPARATOR);
+            if (separator <= 0) {
+                return;
+            }
+            try {
+                revoked.put(cacheKey.substring(0, separator), Long.parseLong(cacheKey.substring(separator + 1)));
+            } catch (NumberFormatException e) {
+                log.warn("签名 Token 吊销通知格式错误: {}", cacheKey);
+            }
+        }
+    }
+
+    private Long loadVersion(String userId) {
+        Object value = redisTemplate.opsForHash().get(versionKey, userId);
+        return value != null ? Long.parseLong(value.toString()) : 0L;
+    }
+
+    private void publish(String cacheType, String cacheKey) {
+        if (invalidationService != null) {
+            invalidationService.publishInvalidation(cacheType, cacheKey);
+        }
+    }
+
+    private void syncQuietly() {
+        try {
+            sync();
+        } catch (Exception e) {
+            log.warn("同步签名 Token 吊销列表失败", e);
+        }
+    }
+}
@@ -2,8 +2,8 @@ package com.indigo.security.core;
 
 import com.indigo.cache.session.UserSessionService;
 import com.indigo.core.context.UserContext;
-import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnBean;
 import org.springframework.stereotype.Service;
 
@@ -22,6 +22,10 @@ import java.util.UUID;
  *   <li>用户信息：从 Redis 中获取 UserContext</li>
  * </ul>
  * 
+ * <p><b>签名 Token 模式：</b>注入 {@link SignedTokenService} 后（synapse.security.signed-token.enabled=true），
+ * 生成的 token 为自包含签名 Token，微服务本地验签即可识别用户；会话数据仍照常写入 Redis，
+ * 供权限、菜单等查询使用。撤销时同时登记吊销，本地验签的节点也会立即拒绝该 token。
+ * 
  * <p><b>与 TokenManager 的关系：</b>
  * TokenManager 后续将使用 TokenService 替代 Sa-Token 的功能
  * 
@@ -30,7 +34,6 @@ import java.util.UUID;
  */
 @Slf4j
 @Service
-@RequiredArgsConstructor
 @ConditionalOnBean(UserSessionService.class)
 public class TokenService {
 
@@ -41,6 +44,22 @@ public class TokenService {
 
     private final UserSessionService userSessionService;
 
+    /**
+     * 签名 Token 服务（可选，未启用签名 Token 时为 null）
+     */
+    private final SignedTokenService signedTokenService;
+
+    public TokenService(UserSessionService userSessionService) {
+        this(userSessionService, null);
+    }
+
+    @Autowired
+    public TokenService(UserSessionService userSessionService,
+                        @Autowired(required = false) SignedTokenService signedTokenService) {
+        this.userSessionService = userSessionService;
+        this.signedTokenService = signedTokenService;
+    }
+
     /**
      * 生成 Token 并存储用户会话
      * 
@@ -54,7 +73,7 @@ public class TokenService {
         expiration = normalizeExpiration(expiration, userId);
 
         try {
-            String token = createToken();
+            String token = createToken(userId, userContext, expiration);
             log.debug("生成Token: userId={}, token={}, expiration={}", userId, token, expiration);
 
             storeTokenData(token, userId, userContext, expiration);
@@ -96,9 +115,12 @@ public class TokenService {
         }
 
     /**
-     * 创建 Token（UUID）
+     * 创建 Token（启用签名 Token 时为签名 Token，否则为 UUID）
      */
-    private String createToken() {
+    private String createToken(String userId, UserContext userContext, long expiration) {
+        if (signedTokenService != null) {
+            return signedTokenService.issue(userId, userContext.getAccount(), expiration);
+        }
         return UUID.randomUUID().toString().replace("-", "");
     }
 
@@ -229,6 +251,10 @@ public class TokenService {
             userSessionService.removeUserSession(token);
             // 清除 Redis 中的 token
             userSessionService.removeToken(token);
+            // 签名 Token 在本地验签，需要登记吊销
+            if (signedTokenService != null && SignedTokenService.isSignedToken(token)) {
+                signedTokenService.revoke(token);
+            }
             
             log.info("Token撤销成功: token={}", token);
         } catch (Exception e) {
@@ -236,6 +262,25 @@ public class TokenService {
         }
     }
 
+    /**
+     * 撤销用户此前签发的全部签名 Token
+     * 只影响签名 Token 的本地验证；Redis 中的会话请配合 {@link UserSessionService} 的强制下线清除
+     * 
+     * @param userId 用户ID
+     */
+    public void revokeAllTokens(String userId) {
+        if (signedTokenService == null || userId == null || userId.trim().isEmpty()) {
+            return;
+        }
+
+        try {
+            signedTokenService.revokeAll(userId);
+            log.info("用户签名Token已全部撤销: userId={}", userId);
+        } catch (Exception e) {
+            log.error("撤销用户签名Token异常: userId={}", userId, e);
+        }
+    }
+
     /**
      * 获取 Token 剩余时间
      * 
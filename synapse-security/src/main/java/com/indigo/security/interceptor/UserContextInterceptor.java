@@ -1,6 +1,7 @@
 package com.indigo.security.interceptor;
 
 import cn.hutool.core.collection.CollUtil;
+import com.indigo.cache.session.AuthSnapshot;
 import com.indigo.cache.session.UserSessionService;
 import com.indigo.core.context.UserContext;
 import com.indigo.core.entity.Result;
@@ -11,6 +12,7 @@ import com.indigo.security.annotation.RequireRole;
 import com.indigo.security.config.SecurityProperties;
 import com.indigo.security.constants.SecurityConstants;
 import com.indigo.security.constants.SecurityError;
+import com.indigo.security.core.SignedTokenService;
 import com.indigo.security.exception.NotLoginException;
 import com.indigo.security.utils.GatewaySignatureUtils;
 import com.indigo.security.utils.InternalSignatureUtils;
@@ -44,6 +46,7 @@ import java.util.List;
  * - 此拦截器只负责设置用户上下文到ThreadLocal，不进行权限检查
  * - 权限检查请使用自定义注解：@RequireLogin、@RequirePermission、@RequireRole
  * - Gateway 只传递 token，不传递用户信息，下游服务统一从 token 获取
+ * - 启用签名 Token 时，签名 Token 在本地验签，不读取 Redis 会话快照
  *
  * @author 史偕成
  * @date 2025/03/21
@@ -64,6 +67,7 @@ public class UserContextInterceptor implements HandlerInterceptor {
     private final SecurityProperties securityProperties;
     private final TokenExtractor tokenExtractor;
     private final UserSessionService userSessionService;
+    private final SignedTokenService signedTokenService;
 
     /**
      * 构造函数
@@ -75,9 +79,25 @@ public class UserContextInterceptor implements HandlerInterceptor {
     public UserContextInterceptor(SecurityProperties securityProperties,
                                   TokenExtractor tokenExtractor,
                                   UserSessionService userSessionService) {
+        this(securityProperties, tokenExtractor, userSessionService, null);
+    }
+
+    /**
+     * 构造函数
+     *
+     * @param securityProperties 安全配置属性（必须）
+     * @param tokenExtractor Token 提取工具（必须）
+     * @param userSessionService 用户会话服务（可选，用于滑动过期刷新 token）
+     * @param signedTokenService 签名 Token 服务（可选，启用后签名 Token 在本地验证）
+     */
+    public UserContextInterceptor(SecurityProperties securityProperties,
+                                  TokenExtractor tokenExtractor,
+                                  UserSessionService userSessionService,
+                                  SignedTokenService signedTokenService) {
         this.securityProperties = securityProperties;
         this.tokenExtractor = tokenExtractor;
         this.userSessionService = userSessionService;
+        this.signedTokenService = signedTokenService;
     }
 
     @Override
@@ -102,8 +122,21 @@ public class UserContextInterceptor implements HandlerInterceptor {
             String token = extractToken(request);
 
             if (StringUtils.hasText(token)) {
+                // 签名 Token：本地验签（过期、吊销、会话版本），失败直接拒绝
+                SignedTokenService.Claims claims = null;
+                if (signedTokenService != null && SignedTokenService.isSignedToken(token)) {
+                    claims = signedTokenService.verify(token);
+                    if (claims == null) {
+                        log.warn("签名 Token 验证失败: URL={}", request.getRequestURI());
+                        return handleNotLogin(response);
+                    }
+                }
+
                 // 从请求头解析用户上下文（Gateway 传递）
                 UserContext userContext = extractUserContextFromHeader(request, token);
+                if (claims != null) {
+                    userContext = resolveSignedTokenContext(request, userContext, claims);
+                }
 
                 if (userContext != null) {
                     // 1. 设置到 ThreadLocal（供业务代码使用）
@@ -112,11 +145,18 @@ public class UserContextInterceptor implements HandlerInterceptor {
                     // 2. 将 token 存储到请求属性中（供 PermissionService 等组件使用）
                     request.setAttribute(SecurityConstants.REQUEST_ATTR_TOKEN, token);
                     
-                    // 3. 更新权限列表（如果从 Header 获取，直接存储到缓存）
-                    updatePermissionsFromHeader(request, token);
+                    // 3. 读取会话剩余时间，并按滑动过期策略续期（一次 Redis 往返）
+                    //    签名 Token 的过期时间固定在 token 中，直接使用，不访问 Redis
+                    long remainingTime;
+                    if (claims != null) {
+                        remainingTime = claims.remainingSeconds();
+                    } else {
+                        AuthSnapshot snapshot = loadAuthSnapshot(request, token);
+                        remainingTime = snapshot != null ? snapshot.getRemainingSeconds() : -1;
+                    }
                     
-                    // 4. 滑动过期：检查并刷新 token（如果启用）
-                    refreshTokenIfNeeded(token);
+                    // 4. 更新权限列表（如果从 Header 获取，直接存储到缓存）
+                    updatePermissionsFromHeader(request, token, remainingTime);
                     
                     log.debug("用户上下文已设置: userId={}, account={}, URL={}, source=gateway",
                             userContext.getUserId(), userContext.getAccount(), request.getRequestURI());
@@ -211,6 +251,31 @@ public class UserContextInterceptor implements HandlerInterceptor {
         return userContext;
     }
 
+    /**
+     * 确定签名 Token 请求的用户上下文
+     * Gateway 传递了用户上下文时必须与 token 中的用户一致；未传递时按 token 中的声明构建最小上下文
+     * 
+     * @param request HTTP 请求
+     * @param headerContext Gateway 传递的用户上下文（可为 null）
+     * @param claims 签名 Token 声明
+     * @return 用户上下文，用户不一致时返回 null
+     */
+    private UserContext resolveSignedTokenContext(HttpServletRequest request, UserContext headerContext,
+                                                  SignedTokenService.Claims claims) {
+        if (headerContext == null) {
+            return UserContext.builder()
+                    .userId(claims.userId())
+                    .account(claims.account())
+                    .build();
+        }
+        if (!claims.userId().equals(headerContext.getUserId())) {
+            log.warn("用户上下文与签名 Token 不一致: tokenUserId={}, headerUserId={}, URL={}",
+                    claims.userId(), headerContext.getUserId(), request.getRequestURI());
+            return null;
+        }
+        return headerContext;
+    }
+
     /**
      * 判断是否是内部服务调用
      * 
@@ -294,8 +359,9 @@ public class UserContextInterceptor implements HandlerInterceptor {
      * 
      * @param request HTTP 请求
      * @param token 用户 token
+     * @param remainingTime token 剩余时间（秒），未知时为 -1
      */
-    private void updatePermissionsFromHeader(HttpServletRequest request, String token) {
+    private void updatePermissionsFromHeader(HttpServletRequest request, String token, long remainingTime) {
         // 1. 检查 UserSessionService 是否可用
         if (userSessionService == null) {
             log.debug("UserSessionService 未注入，跳过从请求头更新权限列表");
@@ -313,20 +379,15 @@ public class UserContextInterceptor implements HandlerInterceptor {
         
         // 4. 获取 token 的剩余时间作为过期时间
         long expiration = 7200L; // 默认 2 小时
-        try {
-            long remainingTime = userSessionService.getTokenRemainingTime(token);
-            if (remainingTime > 0) {
-                expiration = remainingTime;
-            } else {
-                // 如果获取不到剩余时间，使用配置的默认过期时间
-                SecurityProperties.TokenConfig tokenConfig = 
-                        securityProperties != null ? securityProperties.getToken() : null;
-                if (tokenConfig != null && tokenConfig.getTimeout() > 0) {
-                    expiration = tokenConfig.getTimeout();
-                }
+        if (remainingTime > 0) {
+            expiration = remainingTime;
+        } else {
+            // 如果获取不到剩余时间，使用配置的默认过期时间
+            SecurityProperties.TokenConfig tokenConfig = 
+                    securityProperties != null ? securityProperties.getToken() : null;
+            if (tokenConfig != null && tokenConfig.getTimeout() > 0) {
+                expiration = tokenConfig.getTimeout();
             }
-        } catch (Exception e) {
-            log.debug("获取 token 剩余时间失败，使用默认过期时间: token={}", token, e);
         }
 
         // 5. 存储权限到缓存
@@ -522,7 +583,7 @@ public class UserContextInterceptor implements HandlerInterceptor {
     }
 
     /**
-     * 滑动过期：检查并刷新 token（如果启用且需要刷新）
+     * 读取认证快照：会话剩余时间与滑动过期续期在一次 Redis 往返中完成
      * 
      * <p>刷新策略：
      * <ul>
@@ -530,57 +591,44 @@ public class UserContextInterceptor implements HandlerInterceptor {
      *   <li>刷新时将 token 过期时间延长到配置的续期时长</li>
      *   <li>这样可以确保活跃用户的会话不会过期，同时避免长期不活跃的会话占用资源</li>
      * </ul>
+     * 未启用滑动过期且请求未携带权限列表时不读取快照。
      * 
+     * @param request HTTP 请求
      * @param token 用户 token
+     * @return 认证快照，未读取或会话不存在时返回 null
      */
-    private void refreshTokenIfNeeded(String token) {
-        // 1. 检查是否启用滑动过期
-        SecurityProperties.TokenConfig tokenConfig = securityProperties != null ? securityProperties.getToken() : null;
-        if (tokenConfig == null || !tokenConfig.isEnableSlidingExpiration()) {
-            return;
-        }
-
-        // 2. 检查 UserSessionService 是否可用
+    private AuthSnapshot loadAuthSnapshot(HttpServletRequest request, String token) {
+        // 1. 检查 UserSessionService 是否可用
         if (userSessionService == null) {
             log.debug("UserSessionService 未注入，跳过滑动过期刷新: token={}", token);
-            return;
+            return null;
         }
 
-        try {
-            // 3. 获取 token 剩余时间（单位：秒）
-            long remainingTime = userSessionService.getTokenRemainingTime(token);
-            
-            // 4. 如果剩余时间小于 0（token 不存在或已过期），不进行刷新
-            if (remainingTime < 0) {
-                log.debug("Token 不存在或已过期，跳过滑动过期刷新: token={}, remainingTime={}s", token, remainingTime);
-                return;
-            }
+        // 2. 检查是否启用滑动过期
+        SecurityProperties.TokenConfig tokenConfig = securityProperties != null ? securityProperties.getToken() : null;
+        boolean slidingEnabled = tokenConfig != null && tokenConfig.isEnableSlidingExpiration();
+        if (!slidingEnabled && !StringUtils.hasText(request.getHeader(SecurityConstants.X_USER_PERMISSIONS_HEADER))) {
+            return null;
+        }
 
-            // 5. 检查是否需要刷新（剩余时间少于刷新阈值）
-            long refreshThreshold = tokenConfig.getRefreshThreshold();
-            log.debug("检查 Token 是否需要刷新: token={}, remainingTime={}s, refreshThreshold={}s", 
-                    token, remainingTime, refreshThreshold);
+        try {
+            // 3. 读取快照（剩余时间少于刷新阈值时在同一次调用中续期）
+            long refreshThreshold = slidingEnabled ? tokenConfig.getRefreshThreshold() : 0;
+            long renewalDuration = slidingEnabled ? tokenConfig.getRenewalDuration() : 0;
+            AuthSnapshot snapshot = userSessionService.getAuthSnapshot(token, refreshThreshold, renewalDuration);
             
-            if (remainingTime < refreshThreshold) {
-                // 6. 刷新 token（延长到续期时长）
-                long renewalDuration = tokenConfig.getRenewalDuration();
-                log.info("Token 剩余时间少于阈值，开始刷新: token={}, remainingTime={}s, renewalDuration={}s", 
-                        token, remainingTime, renewalDuration);
-                
-                boolean success = userSessionService.renewToken(token, renewalDuration);
-                
-                if (success) {
-                    log.info("Token 滑动过期刷新成功: token={}, remainingTime={}s, renewedTo={}s", 
-                            token, remainingTime, renewalDuration);
-                } else {
-                    log.warn("Token 滑动过期刷新失败: token={}, remainingTime={}s", token, remainingTime);
-                }
+            if (snapshot == null) {
+                log.debug("Token 不存在或已过期，跳过滑动过期刷新: token={}", token);
+            } else if (snapshot.isRefreshed()) {
+                log.info("Token 滑动过期刷新成功: token={}, renewedTo={}s", token, renewalDuration);
             } else {
                 log.debug("Token 剩余时间充足，无需刷新: token={}, remainingTime={}s, threshold={}s", 
-                        token, remainingTime, refreshThreshold);
+                        token, snapshot.getRemainingSeconds(), refreshThreshold);
             }
+            return snapshot;
         } catch (Exception e) {
             log.error("滑动过期刷新 token 时发生异常: token={}", token, e);
+            return null;
         }
     }
 } 
@@ -0,0 +1,44 @@
+package com.indigo.security.interceptor;
+
+import com.indigo.core.context.UserContext;
+import io.micrometer.context.ThreadLocalAccessor;
+
+/**
+ * UserContext 的 ThreadLocal 访问器（Micrometer Context Propagation）
+ * WebFlux 下用户上下文只保存在 Reactor Context 中（键为 {@code UserContext.class}），
+ * 注册此访问器并开启 Reactor 自动上下文传播后，每个操作符执行时都会把 Context 中的用户上下文
+ * 恢复到 ThreadLocal，执行完毕后清除，因此线程切换后仍可通过 {@link UserContext#getCurrentUser()} 读取
+ *
+ * <p>由 {@link com.indigo.security.config.SecurityAutoConfiguration} 在 classpath 存在
+ * {@code io.micrometer:context-propagation} 时自动注册。
+ *
+ * @author 史偕成
+ * @date 2025/12/19
+ */
+public class UserContextThreadLocalAccessor implements ThreadLocalAccessor<UserContext> {
+
+    /**
+     * Reactor Context 中用户上下文的键
+     */
+    public static final Class<UserContext> KEY = UserContext.class;
+
+    @Override
+    public Object key() {
+        return KEY;
+    }
+
+    @Override
+    public UserContext getValue() {
+        return UserContext.getCurrentUser();
+    }
+
+    @Override
+    public void setValue(UserContext value) {
+        UserContext.setCurrentUser(value);
+    }
+
+    @Override
+    public void setValue() {
+        UserContext.clearCurrentUser();
+    }
+}
@@ -1,10 +1,14 @@
 package com.indigo.security.interceptor;
 
+import com.indigo.cache.session.AuthSnapshot;
+import com.indigo.cache.session.ReactiveAuthSnapshotLoader;
 import com.indigo.cache.session.UserSessionService;
 import com.indigo.core.context.UserContext;
 import com.indigo.security.config.SecurityProperties;
+import com.indigo.security.core.SignedTokenService;
 import com.indigo.security.utils.TokenConfigHelper;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnBean;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
 import org.springframework.stereotype.Component;
@@ -13,6 +17,9 @@ import org.springframework.web.server.ServerWebExchange;
 import org.springframework.web.server.WebFilter;
 import org.springframework.web.server.WebFilterChain;
 import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.util.Optional;
 
 /**
  * 用户上下文WebFlux过滤器
@@ -28,14 +35,22 @@ import reactor.core.publisher.Mono;
  * <p><b>工作流程：</b>
  * <ol>
  *   <li>从请求头或查询参数中提取 token（Authorization Bearer、X-Auth-Token 或查询参数）</li>
- *   <li>使用 UserSessionService 从 Redis 获取用户上下文</li>
- *   <li>将用户上下文设置到响应式上下文中，供业务代码使用</li>
+ *   <li>先查本地缓存，未命中时通过 {@link ReactiveAuthSnapshotLoader} 响应式读取 Redis</li>
+ *   <li>将用户上下文写入 Reactor Context（键为 {@code UserContext.class}），供业务代码使用</li>
  * </ol>
  * 
+ * <p><b>线程模型：</b>事件循环线程上不执行任何阻塞调用。本地缓存命中时直接在当前线程完成；
+ * 未注册响应式加载器时，阻塞的会话读取转移到 boundedElastic 线程执行。
+ * 过滤器不设置 ThreadLocal（线程切换后会读到错误的用户），业务代码应通过
+ * {@code Mono.deferContextual(ctx -> ...)} 读取 {@code ctx.get(UserContext.class)}；需要
+ * {@link UserContext#getCurrentUser()} 的旧代码可开启 {@code synapse.security.reactive-context-propagation}，
+ * 由 {@link UserContextThreadLocalAccessor} 从 Reactor Context 恢复（需要 io.micrometer:context-propagation）。
+ * 
  * <p><b>注意：</b>
  * <ul>
  *   <li>Gateway 只传递 token，不传递用户信息，下游服务统一从 token 获取</li>
  *   <li>此过滤器只负责设置用户上下文，不进行权限检查</li>
+ *   <li>启用签名 Token 时，签名 Token 在本地验签，上下文只包含 token 中的用户ID和账号，不读取 Redis</li>
  *   <li>权限检查请使用Sa-Token的注解：@SaCheckLogin、@SaCheckPermission、@SaCheckRole</li>
  * </ul>
  *
@@ -50,44 +65,95 @@ public class UserContextWebFluxFilter implements WebFilter {
 
     private final UserSessionService userSessionService;
     private final SecurityProperties securityProperties;
+    private final SignedTokenService signedTokenService;
+    private final ReactiveAuthSnapshotLoader reactiveAuthSnapshotLoader;
 
     public UserContextWebFluxFilter(UserSessionService userSessionService,
                                     SecurityProperties securityProperties) {
+        this(userSessionService, securityProperties, null, null);
+    }
+
+    public UserContextWebFluxFilter(UserSessionService userSessionService,
+                                    SecurityProperties securityProperties,
+                                    SignedTokenService signedTokenService) {
+        this(userSessionService, securityProperties, signedTokenService, null);
+    }
+
+    @Autowired
+    public UserContextWebFluxFilter(UserSessionService userSessionService,
+                                    SecurityProperties securityProperties,
+                                    @Autowired(required = false) SignedTokenService signedTokenService,
+                                    @Autowired(required = false) ReactiveAuthSnapshotLoader reactiveAuthSnapshotLoader) {
         this.userSessionService = userSessionService;
         this.securityProperties = securityProperties;
+        this.signedTokenService = signedTokenService;
+        this.reactiveAuthSnapshotLoader = reactiveAuthSnapshotLoader;
     }
 
     @Override
     public Mono<Void> filter(ServerWebExchange exchange, WebFilterChain chain) {
-        try {
-            // 从请求中提取 token
-            String token = extractToken(exchange);
-            
-            if (StringUtils.hasText(token)) {
-                // 从 Redis 获取用户上下文
-                UserContext userContext = userSessionService.getUserSession(token);
-                
-                if (userContext != null) {
-                    // 设置到响应式上下文和 ThreadLocal（兼容性）
-                    UserContext.setCurrentUser(userContext);
-                    
+        // 从请求中提取 token
+        String token = extractToken(exchange);
+        if (!StringUtils.hasText(token)) {
+            log.debug("请求中未包含 token，URL: {}", exchange.getRequest().getURI());
+            return chain.filter(exchange);
+        }
+
+        return resolveUserContext(token)
+                .onErrorResume(e -> {
+                    log.error("设置用户上下文时发生异常，URL: {}", exchange.getRequest().getURI(), e);
+                    return Mono.empty();
+                })
+                .map(Optional::of)
+                .defaultIfEmpty(Optional.empty())
+                .flatMap(userContext -> {
+                    if (userContext.isEmpty()) {
+                        log.debug("未找到用户上下文，token: {}, URL: {}", token, exchange.getRequest().getURI());
+                        return chain.filter(exchange);
+                    }
+                    // 只写入 Reactor Context，不设置 ThreadLocal
+                    // 键直接使用 UserContext.class，不引用访问器类，缺少可选依赖时过滤器仍可加载
                     return chain.filter(exchange)
-                            .contextWrite(context -> context.put(UserContext.class, userContext))
-                            .doFinally(signalType -> {
-                                // 清理上下文，防止内存泄漏
-                                UserContext.clearCurrentUser();
-                            });
-                } else {
-                    log.debug("未找到用户上下文，token: {}, URL: {}", token, exchange.getRequest().getURI());
-                }
-            } else {
-                log.debug("请求中未包含 token，URL: {}", exchange.getRequest().getURI());
+                            .contextWrite(context -> context.put(UserContext.class, userContext.get()));
+                });
+    }
+
+    /**
+     * 获取 token 对应的用户上下文（不阻塞调用线程）
+     * <ul>
+     *   <li>签名 Token：本地验签；用户会话版本未在本地缓存时，读取 Redis 的操作转移到 boundedElastic 线程</li>
+     *   <li>其他 token：本地缓存命中直接返回，未命中时响应式读取 Redis；
+     *       未注册响应式加载器时回退到阻塞读取并转移到 boundedElastic 线程</li>
+     * </ul>
+     */
+    private Mono<UserContext> resolveUserContext(String token) {
+        if (signedTokenService != null && SignedTokenService.isSignedToken(token)) {
+            SignedTokenService.Claims claims = signedTokenService.verifyLocally(token);
+            if (claims == null) {
+                return Mono.empty();
+            }
+            if (signedTokenService.isVersionCached(claims.userId())) {
+                return signedTokenService.isCurrentVersion(claims) ? Mono.just(toUserContext(claims)) : Mono.empty();
             }
-        } catch (Exception e) {
-            log.error("设置用户上下文时发生异常，URL: {}", exchange.getRequest().getURI(), e);
+            return Mono.fromCallable(() -> signedTokenService.isCurrentVersion(claims) ? toUserContext(claims) : null)
+                    .subscribeOn(Schedulers.boundedElastic());
         }
-        
-        return chain.filter(exchange);
+        if (reactiveAuthSnapshotLoader != null) {
+            // 与 UserSessionService#getAuthSnapshot 一致，记录访问统计（只写本地缓冲）
+            return reactiveAuthSnapshotLoader.load(token)
+                    .mapNotNull(AuthSnapshot::getUserContext)
+                    .doOnNext(userContext -> userSessionService.recordActivity(userContext.getUserId()));
+        }
+        return Mono.fromCallable(() -> userSessionService.getAuthSnapshot(token))
+                .subscribeOn(Schedulers.boundedElastic())
+                .mapNotNull(AuthSnapshot::getUserContext);
+    }
+
+    private static UserContext toUserContext(SignedTokenService.Claims claims) {
+        return UserContext.builder()
+                .userId(claims.userId())
+                .account(claims.account())
+                .build();
     }
 
     /**
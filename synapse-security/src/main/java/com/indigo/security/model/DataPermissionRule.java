@@ -1,22 +0,0 @@
-package com.indigo.security.model;
-
-/**
- * 数据权限规则模型
- * 
- * <p><b>注意：</b>此功能已暂时注释，待业务完整后扩展
- *
- * @author 史偕成
- * @date 2025/01/09
- */
-// TODO: 待业务完整后恢复数据权限规则模型
-/*
-import lombok.Data;
-
-import java.util.List;
-import java.util.Map;
-
-@Data
-public class DataPermissionRule {
-    // ... 所有字段和方法已注释 ...
-}
-*/
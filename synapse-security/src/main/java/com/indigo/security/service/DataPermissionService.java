@@ -10,7 +10,7 @@ package com.indigo.security.service;
  */
 // TODO: 待业务完整后恢复数据权限功能
 /*
-import com.indigo.security.model.DataPermissionRule;
+import com.indigo.core.permission.DataPermissionRule;
 import com.indigo.core.context.UserContext;
 
 import java.util.List;
@@ -6,6 +6,7 @@ import com.indigo.core.entity.Result;
 import com.indigo.core.exception.Ex;
 import com.indigo.security.config.SecurityProperties;
 import com.indigo.security.core.AuthenticationService;
+import com.indigo.security.core.PasswordHashingService;
 import com.indigo.security.core.TokenService;
 import com.indigo.security.model.AuthRequest;
 import com.indigo.security.model.AuthResponse;
@@ -13,6 +14,8 @@ import lombok.extern.slf4j.Slf4j;
 
 import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
 
 import static com.indigo.security.constants.SecurityError.*;
 
@@ -30,19 +33,40 @@ public class DefaultAuthenticationService implements AuthenticationService {
     private final UserSessionService userSessionService;
     private final TokenService tokenService;
     private final SecurityProperties securityProperties;
+    private final PasswordHashingService passwordHashingService;
+    private final LoginSecurityService loginSecurityService;
 
     public DefaultAuthenticationService() {
         this.userSessionService = null;
         this.tokenService = null;
         this.securityProperties = null;
+        this.passwordHashingService = null;
+        this.loginSecurityService = null;
     }
 
     public DefaultAuthenticationService(UserSessionService userSessionService, 
                                       TokenService tokenService,
                                       SecurityProperties securityProperties) {
+        this(userSessionService, tokenService, securityProperties, null);
+    }
+
+    public DefaultAuthenticationService(UserSessionService userSessionService,
+                                      TokenService tokenService,
+                                      SecurityProperties securityProperties,
+                                      PasswordHashingService passwordHashingService) {
+        this(userSessionService, tokenService, securityProperties, passwordHashingService, null);
+    }
+
+    public DefaultAuthenticationService(UserSessionService userSessionService,
+                                      TokenService tokenService,
+                                      SecurityProperties securityProperties,
+                                      PasswordHashingService passwordHashingService,
+                                      LoginSecurityService loginSecurityService) {
         this.userSessionService = userSessionService;
         this.tokenService = tokenService;
         this.securityProperties = securityProperties;
+        this.passwordHashingService = passwordHashingService;
+        this.loginSecurityService = loginSecurityService;
     }
 
     @Override
@@ -69,6 +93,73 @@ public class DefaultAuthenticationService implements AuthenticationService {
         return AuthResponse.of(token, null, expiration);
     }
 
+    /**
+     * 异步认证：先在密码哈希线程池中校验密码，成功后再签发 Token
+     * 请求线程不执行 BCrypt 计算，Controller 可直接返回 CompletableFuture（Servlet 异步请求）
+     *
+     * <p>密码哈希或登录处理队列已满时以 {@code AUTH_BUSY} 异常完成，密码错误时以 {@code LOGIN_FAILED} 异常完成。
+     * 校验之后签发 Token 在 {@link PasswordHashingService#getCompletionExecutor()} 上执行，不使用公共线程池。
+     *
+     * <p>只有提供了 passwordUpgrader 才会重新加密：已存储密码的加密轮数低于配置值时，按新轮数重新加密的密码
+     * 会在返回的 future 完成之前交给 passwordUpgrader 保存；保存失败只记录日志，不影响本次登录。
+     * 未提供 passwordUpgrader 时已存储的密码保持不变。
+     *
+     * @param request          认证请求（用户名密码认证）
+     * @param hashedPassword   数据库中存储的密码
+     * @param passwordUpgrader 保存升级后密码的回调（可为 null）
+     * @return 认证响应
+     */
+    public CompletableFuture<AuthResponse> authenticateAsync(AuthRequest request, String hashedPassword,
+                                                             Consumer<String> passwordUpgrader) {
+        return authenticateAsync(request, hashedPassword, passwordUpgrader, null);
+    }
+
+    /**
+     * 异步认证，并按客户端 IP 进行登录失败限制
+     * 配置了 {@link LoginSecurityService} 且提供了客户端 IP 时：账号或 IP 已锁定的请求直接以
+     * {@code ACCOUNT_LOCKED} 异常完成，不进行密码校验；密码错误时记录登录失败，成功时清除失败计数
+     *
+     * @param request          认证请求（用户名密码认证）
+     * @param hashedPassword   数据库中存储的密码
+     * @param passwordUpgrader 保存升级后密码的回调（可为 null）
+     * @param clientIp         客户端 IP（为 null 时不进行登录失败限制）
+     * @return 认证响应
+     */
+    public CompletableFuture<AuthResponse> authenticateAsync(AuthRequest request, String hashedPassword,
+                                                             Consumer<String> passwordUpgrader, String clientIp) {
+        if (passwordHashingService == null) {
+            return CompletableFuture.failedFuture(Ex.of(AUTH_REQUEST_INVALID, "PasswordHashingService 未配置"));
+        }
+        if (request == null || request.getUsernamePasswordAuth() == null) {
+            return CompletableFuture.failedFuture(Ex.of(AUTH_REQUEST_INVALID, "仅支持用户名密码认证"));
+        }
+        boolean limited = loginSecurityService != null && clientIp != null;
+        if (limited && (loginSecurityService.isIpLocked(clientIp)
+                || loginSecurityService.isAccountLocked(request.getUsername()))) {
+            log.info("账号或IP已锁定，拒绝登录: username={}, ip={}", request.getUsername(), clientIp);
+            return CompletableFuture.failedFuture(Ex.of(ACCOUNT_LOCKED, "登录失败次数过多，请稍后再试"));
+        }
+        String rawPassword = request.getUsernamePasswordAuth().getPassword();
+        // 签发 Token 需要访问 Redis，不在哈希线程上执行，避免占用 CPU 线程
+        return passwordHashingService.verifyAsync(rawPassword, hashedPassword, passwordUpgrader != null)
+                .thenApplyAsync(verification -> {
+                    if (!verification.matched()) {
+                        log.info("密码校验失败: username={}", request.getUsername());
+                        if (limited) {
+                            loginSecurityService.recordLoginFail(request.getUsername(), clientIp);
+                        }
+                        Ex.throwEx(LOGIN_FAILED, "用户名或密码错误");
+                    }
+                    if (limited) {
+                        loginSecurityService.recordLoginSuccess(request.getUsername(), clientIp);
+                    }
+                    if (verification.upgradedHash() != null && passwordUpgrader != null) {
+                        upgradePassword(request, verification.upgradedHash(), passwordUpgrader);
+                    }
+                    return authenticate(request);
+                }, passwordHashingService.getCompletionExecutor());
+    }
+
     @Override
     public AuthResponse renewToken(String token) {
         if (token == null || token.trim().isEmpty()) {
@@ -122,6 +213,19 @@ public class DefaultAuthenticationService implements AuthenticationService {
         }
     }
 
+    /**
+     * 保存重新加密的密码（失败只记录日志，不影响本次登录）
+     */
+    private void upgradePassword(AuthRequest request, String upgradedHash, Consumer<String> passwordUpgrader) {
+        try {
+            passwordUpgrader.accept(upgradedHash);
+            log.info("密码已按新的加密轮数重新加密: username={}, cost={}",
+                    request.getUsername(), passwordHashingService.getCost());
+        } catch (Exception e) {
+            log.warn("保存重新加密的密码失败: username={}", request.getUsername(), e);
+        }
+    }
+
     /**
      * 通过 TokenService 处理不同类型的认证
      *
@@ -11,7 +11,7 @@ package com.indigo.security.service;
 // TODO: 待业务完整后恢复数据权限功能
 /*
 import com.indigo.cache.core.CacheService;
-import com.indigo.security.model.DataPermissionRule;
+import com.indigo.core.permission.DataPermissionRule;
 import com.indigo.core.context.UserContext;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
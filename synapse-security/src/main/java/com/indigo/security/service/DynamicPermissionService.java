@@ -1,12 +1,15 @@
 package com.indigo.security.service;
 
 import com.indigo.cache.core.CacheService;
+import com.indigo.cache.session.SessionBulkOperations;
 import com.indigo.cache.session.UserSessionService;
-import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnBean;
 import org.springframework.stereotype.Service;
 
+import java.util.Collection;
+import java.util.Collections;
 import java.util.List;
 
 /**
@@ -18,12 +21,25 @@ import java.util.List;
  */
 @Slf4j
 @Service
-@RequiredArgsConstructor
 @ConditionalOnBean({UserSessionService.class, CacheService.class})
 public class DynamicPermissionService {
 
     private final UserSessionService userSessionService;
     private final CacheService cacheService;
+    private final SessionBulkOperations sessionBulkOperations;
+
+    public DynamicPermissionService(UserSessionService userSessionService, CacheService cacheService) {
+        this(userSessionService, cacheService, null);
+    }
+
+    @Autowired
+    public DynamicPermissionService(UserSessionService userSessionService,
+                                    CacheService cacheService,
+                                    @Autowired(required = false) SessionBulkOperations sessionBulkOperations) {
+        this.userSessionService = userSessionService;
+        this.cacheService = cacheService;
+        this.sessionBulkOperations = sessionBulkOperations;
+    }
 
     // 缓存键前缀
     private static final String PERMISSION_TEMPLATE_PREFIX = "permission_template:";
@@ -54,6 +70,63 @@ public class DynamicPermissionService {
         }
     }
 
+    /**
+     * 批量更新用户权限（作用于这些用户的所有在线会话）
+     * 配置了 {@link SessionBulkOperations} 时按批次并行执行，否则逐个更新
+     *
+     * @param userIds    用户ID
+     * @param permission 权限
+     * @param granted    true 授予，false 撤销
+     * @param progress   进度回调（可为 null）
+     * @return 实际更新的会话数
+     */
+    public int updateUsersPermission(Collection<String> userIds, String permission, boolean granted,
+                                     SessionBulkOperations.ProgressListener progress) {
+        if (userIds == null || userIds.isEmpty()) {
+            return 0;
+        }
+        if (sessionBulkOperations == null) {
+            int count = 0;
+            for (String userId : userIds) {
+                if (updateUserPermission(userId, permission, granted)) {
+                    count++;
+                }
+            }
+            return count;
+        }
+        List<String> change = Collections.singletonList(permission);
+        SessionBulkOperations.BulkResult result = sessionBulkOperations.updatePermissions(
+                userIds, granted ? change : null, granted ? null : change, progress);
+        log.info("批量更新用户权限完成: permission={}, granted={}, result={}", permission, granted, result);
+        return result.affected();
+    }
+
+    /**
+     * 批量更新用户角色（作用于这些用户的所有在线会话）
+     * 例如撤销某个角色时，把拥有该角色的上万个用户一次性推送到所有在线会话
+     *
+     * @param userIds  用户ID
+     * @param role     角色
+     * @param granted  true 授予，false 撤销
+     * @param progress 进度回调（可为 null）
+     * @return 实际更新的会话数
+     */
+    public int updateUsersRole(Collection<String> userIds, String role, boolean granted,
+                               SessionBulkOperations.ProgressListener progress) {
+        if (userIds == null || userIds.isEmpty()) {
+            return 0;
+        }
+        if (sessionBulkOperations == null) {
+            log.warn("SessionBulkOperations 未配置，无法批量更新用户角色: role={}", role);
+            return 0;
+        }
+        List<String> change = Collections.singletonList(role);
+        SessionBulkOperations.BulkResult result = sessionBulkOperations.updateRoles(
+                userIds, granted ? change : null, granted ? null : change, progress);
+        log.info("批量更新用户角色完成: role={}, granted={}, result={}", role, granted, result);
+        return result.affected();
+    }
+
     /**
      * 应用权限模板
      */
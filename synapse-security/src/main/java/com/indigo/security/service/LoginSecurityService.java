@@ -1,27 +1,101 @@
 package com.indigo.security.service;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.indigo.cache.core.CacheInvalidationService;
 import com.indigo.cache.core.CacheService;
-import lombok.RequiredArgsConstructor;
+import com.indigo.cache.core.constants.SessionCacheConstants;
+import com.indigo.cache.infrastructure.RedisService;
+import jakarta.annotation.PreDestroy;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnBean;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
 import org.springframework.stereotype.Service;
 
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
 
 /**
  * 登录安全防护服务
  * 提供登录失败次数限制、IP白名单/黑名单、异常登录检测等功能
  *
+ * <p>登录失败计数（账号、IP）、窗口过期和锁定判断在一次 Lua 调用中完成，并发失败不会丢失计数。
+ * 已知被锁定的 IP 记录在本地，{@link #isIpLocked(String)} 命中本地记录时不访问 Redis；
+ * 解锁 IP 时通过缓存失效通知清除所有节点的本地记录。
+ * Redis Cluster 下账号与 IP 的键不在同一槽位，改为逐键 INCR（计数仍是原子的，锁定判断在计数之后执行）。
+ *
  * @author 史偕成
  * @date 2025/01/08
  */
 @Slf4j
 @Service
-@RequiredArgsConstructor
 @ConditionalOnBean(CacheService.class)
 public class LoginSecurityService {
 
+    /**
+     * KEYS[1]=账号失败计数，KEYS[2]=IP失败计数，KEYS[3]=账号锁，KEYS[4]=IP锁
+     * ARGV[1]=失败窗口（秒），ARGV[2]=账号最大失败次数，ARGV[3]=账号锁定时长（秒），
+     * ARGV[4]=IP最大失败次数（0 表示不锁定IP），ARGV[5]=IP锁定时长（秒），ARGV[6]=IP
+     * 返回 {账号失败次数, IP失败次数, 账号是否锁定, IP锁定时长（未锁定为 -1）}
+     */
+    @SuppressWarnings("rawtypes")
+    private static final DefaultRedisScript<List> RECORD_FAIL_SCRIPT = new DefaultRedisScript<>(
+            "local window = tonumber(ARGV[1]) " +
+            "local fails = redis.call('INCR', KEYS[1]) " +
+            "if redis.call('TTL', KEYS[1]) < 0 then redis.call('EXPIRE', KEYS[1], window) end " +
+            "local ipAttempts = redis.call('INCR', KEYS[2]) " +
+            "if redis.call('TTL', KEYS[2]) < 0 then redis.call('EXPIRE', KEYS[2], window) end " +
+            "local accountLocked = 0 " +
+            "if fails >= tonumber(ARGV[2]) then " +
+            "  redis.call('SET', KEYS[3], ARGV[6], 'EX', ARGV[3]) " +
+            "  accountLocked = 1 " +
+            "end " +
+            "local ipLockTtl = -1 " +
+            "local maxIp = tonumber(ARGV[4]) " +
+            "if maxIp > 0 and ipAttempts >= maxIp then " +
+            "  redis.call('SET', KEYS[4], '1', 'EX', ARGV[5]) " +
+            "  ipLockTtl = tonumber(ARGV[5]) " +
+            "end " +
+            "return {fails, ipAttempts, accountLocked, ipLockTtl}",
+            List.class);
+
     private final CacheService cacheService;
+    private final RedisService redisService;
+    private final CacheInvalidationService invalidationService;
+
+    /**
+     * 已知被锁定的 IP → 解锁时间（毫秒时间戳）
+     */
+    private final Cache<String, Long> lockedIps = Caffeine.newBuilder()
+            .maximumSize(100_000)
+            .expireAfterWrite(1, TimeUnit.DAYS)
+            .build();
+
+    private final CacheInvalidationService.CacheInvalidationListener listener = this::onInvalidation;
+
+    public LoginSecurityService(CacheService cacheService) {
+        this(cacheService, null, null);
+    }
+
+    public LoginSecurityService(CacheService cacheService, RedisService redisService) {
+        this(cacheService, redisService, null);
+    }
+
+    @Autowired
+    public LoginSecurityService(CacheService cacheService,
+                                @Autowired(required = false) RedisService redisService,
+                                @Autowired(required = false) CacheInvalidationService invalidationService) {
+        this.cacheService = cacheService;
+        this.redisService = redisService;
+        this.invalidationService = invalidationService;
+        if (invalidationService != null) {
+            invalidationService.registerListener(listener);
+        }
+    }
 
     // 配置项
     @Value("${synapse.security.login.max-fail-count:5}")
@@ -33,10 +107,17 @@ public class LoginSecurityService {
     @Value("${synapse.security.login.fail-window:300}")
     private long failWindowSeconds;
 
+    @Value("${synapse.security.login.max-ip-fail-count:20}")
+    private int maxIpFailCount;
+
+    @Value("${synapse.security.login.ip-lock-duration:1800}")
+    private long ipLockDurationSeconds;
+
     // 缓存键前缀
     private static final String LOGIN_FAIL_PREFIX = "login_fail:";
     private static final String ACCOUNT_LOCK_PREFIX = "account_lock:";
     private static final String IP_ATTEMPT_PREFIX = "ip_attempt:";
+    private static final String IP_LOCK_PREFIX = "ip_lock:";
 
     /**
      * 检查账号是否被锁定
@@ -46,10 +127,98 @@ public class LoginSecurityService {
         return cacheService.hasKey(lockKey);
     }
 
+    /**
+     * 检查 IP 是否被锁定
+     * 本地已知锁定且未到期时直接返回，不访问 Redis
+     */
+    public boolean isIpLocked(String ip) {
+        Long lockedUntil = lockedIps.getIfPresent(ip);
+        if (lockedUntil != null) {
+            if (lockedUntil > System.currentTimeMillis()) {
+                return true;
+            }
+            lockedIps.invalidate(ip);
+        }
+        long ttl = cacheService.getTimeToLive(IP_LOCK_PREFIX + ip);
+        if (ttl > 0) {
+            rememberIpLock(ip, ttl);
+            return true;
+        }
+        return false;
+    }
+
     /**
      * 记录登录失败
+     * 账号、IP 两个计数及锁定判断在一次 Lua 调用中原子完成
      */
     public int recordLoginFail(String username, String ip) {
+        if (redisService == null) {
+            return recordLoginFailLegacy(username, ip);
+        }
+        if (redisService.isClusterMode()) {
+            return recordLoginFailPerKey(username, ip);
+        }
+        List<String> keys = Arrays.asList(LOGIN_FAIL_PREFIX + username, IP_ATTEMPT_PREFIX + ip,
+                ACCOUNT_LOCK_PREFIX + username, IP_LOCK_PREFIX + ip);
+        List<?> result = redisService.executeScript(RECORD_FAIL_SCRIPT, keys,
+                String.valueOf(failWindowSeconds), String.valueOf(maxFailCount), String.valueOf(lockDurationSeconds),
+                String.valueOf(maxIpFailCount), String.valueOf(ipLockDurationSeconds), String.valueOf(ip));
+        if (result == null || result.size() < 4) {
+            log.error("记录登录失败异常: username={}, ip={}", username, ip);
+            return 0;
+        }
+
+        int failCount = ((Number) result.get(0)).intValue();
+        if (((Number) result.get(2)).longValue() == 1) {
+            log.warn("账号被锁定: username={}, ip={}, duration={}秒", username, ip, lockDurationSeconds);
+        }
+        long ipLockTtl = ((Number) result.get(3)).longValue();
+        if (ipLockTtl > 0) {
+            rememberIpLock(ip, ipLockTtl);
+            log.warn("IP被锁定: ip={}, attempts={}, duration={}秒", ip, result.get(1), ipLockTtl);
+        }
+        return failCount;
+    }
+
+    /**
+     * 记录登录失败（Redis Cluster）
+     * 各计数分别 INCR，并发失败不会丢失计数；达到上限后再设置锁定
+     */
+    private int recordLoginFailPerKey(String username, String ip) {
+        StringRedisTemplate template = redisService.getStringRedisTemplate();
+        long failCount = incrementInWindow(template, LOGIN_FAIL_PREFIX + username);
+        long ipAttempts = incrementInWindow(template, IP_ATTEMPT_PREFIX + ip);
+        if (failCount >= maxFailCount) {
+            template.opsForValue().set(ACCOUNT_LOCK_PREFIX + username, String.valueOf(ip),
+                    lockDurationSeconds, TimeUnit.SECONDS);
+            log.warn("账号被锁定: username={}, ip={}, duration={}秒", username, ip, lockDurationSeconds);
+        }
+        if (maxIpFailCount > 0 && ipAttempts >= maxIpFailCount) {
+            template.opsForValue().set(IP_LOCK_PREFIX + ip, "1", ipLockDurationSeconds, TimeUnit.SECONDS);
+            rememberIpLock(ip, ipLockDurationSeconds);
+            log.warn("IP被锁定: ip={}, attempts={}, duration={}秒", ip, ipAttempts, ipLockDurationSeconds);
+        }
+        return (int) failCount;
+    }
+
+    /**
+     * 计数加一，窗口内第一次计数时设置过期时间
+     */
+    private long incrementInWindow(StringRedisTemplate template, String key) {
+        Long count = template.opsForValue().increment(key);
+        if (count == null) {
+            return 0;
+        }
+        if (count == 1) {
+            template.expire(key, failWindowSeconds, TimeUnit.SECONDS);
+        }
+        return count;
+    }
+
+    /**
+     * 记录登录失败（未注入 RedisService 时的兼容实现，非原子）
+     */
+    private int recordLoginFailLegacy(String username, String ip) {
         String failKey = LOGIN_FAIL_PREFIX + username;
         String ipKey = IP_ATTEMPT_PREFIX + ip;
 
@@ -84,6 +253,22 @@ public class LoginSecurityService {
         log.info("用户登录成功: username={}, ip={}", username, ip);
     }
 
+    /**
+     * 解锁 IP
+     * 清除本节点的本地锁定记录，并通知其他节点清除
+     */
+    public boolean unlockIp(String ip) {
+        lockedIps.invalidate(ip);
+        boolean unlocked = cacheService.delete(IP_LOCK_PREFIX + ip);
+        if (unlocked) {
+            cacheService.delete(IP_ATTEMPT_PREFIX + ip);
+        }
+        if (invalidationService != null) {
+            invalidationService.publishInvalidation(SessionCacheConstants.CACHE_TYPE_IP_LOCK, ip);
+        }
+        return unlocked;
+    }
+
     /**
      * 解锁账号
      */
@@ -103,4 +288,24 @@ public class LoginSecurityService {
         cacheService.setObject(lockKey, ip, lockDurationSeconds);
         log.warn("账号被锁定: username={}, ip={}, duration={}秒", username, ip, lockDurationSeconds);
     }
+
+    /**
+     * 取消失效通知
+     */
+    @PreDestroy
+    public void shutdown() {
+        if (invalidationService != null) {
+            invalidationService.unregisterListener(listener);
+        }
+    }
+
+    private void onInvalidation(String cacheType, String cacheKey) {
+        if (cacheKey != null && SessionCacheConstants.CACHE_TYPE_IP_LOCK.equals(cacheType)) {
+            lockedIps.invalidate(cacheKey);
+        }
+    }
+
+    private void rememberIpLock(String ip, long ttlSeconds) {
+        lockedIps.put(ip, System.currentTimeMillis() + ttlSeconds * 1000L);
+    }
 }
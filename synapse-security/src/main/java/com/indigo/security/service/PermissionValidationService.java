@@ -13,7 +13,7 @@ package com.indigo.security.service;
 /*
 import com.indigo.core.context.UserContext;
 import com.indigo.security.constants.PermissionCode;
-import com.indigo.security.model.DataPermissionRule;
+import com.indigo.core.permission.DataPermissionRule;
 import com.indigo.security.utils.SqlExpressionParser;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -3,12 +3,7 @@ package com.indigo.security.utils;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.util.StringUtils;
 
-import javax.crypto.Mac;
-import javax.crypto.spec.SecretKeySpec;
-import java.nio.charset.StandardCharsets;
-import java.security.InvalidKeyException;
-import java.security.NoSuchAlgorithmException;
-import java.util.Base64;
+import java.security.GeneralSecurityException;
 
 /**
  * Gateway 签名工具类
@@ -23,8 +18,6 @@ import java.util.Base64;
 @Slf4j
 public class GatewaySignatureUtils {
 
-    private static final String HMAC_SHA256 = "HmacSHA256";
-
     /**
      * 生成签名
      * 
@@ -41,17 +34,9 @@ public class GatewaySignatureUtils {
         }
 
         try {
-            // 构建签名内容：token + userId + timestamp
-            String signContent = token + userId + timestamp;
-            
-            // 使用 HMAC-SHA256 生成签名
-            Mac mac = Mac.getInstance(HMAC_SHA256);
-            SecretKeySpec secretKeySpec = new SecretKeySpec(secret.getBytes(StandardCharsets.UTF_8), HMAC_SHA256);
-            mac.init(secretKeySpec);
-            
-            byte[] signatureBytes = mac.doFinal(signContent.getBytes(StandardCharsets.UTF_8));
-            return Base64.getEncoder().encodeToString(signatureBytes);
-        } catch (NoSuchAlgorithmException | InvalidKeyException e) {
+            // 签名内容直接写入线程复用的缓冲区，Mac 按密钥复用
+            return HmacSigner.current().append(token).append(userId).append(timestamp).sign(secret);
+        } catch (GeneralSecurityException e) {
             log.error("生成签名失败", e);
             return null;
         }
@@ -75,38 +60,14 @@ public class GatewaySignatureUtils {
         }
 
         try {
-            // 重新生成签名
-            String expectedSignature = generateSignature(secret, token, userId, timestamp);
-            
-            // 比较签名（使用安全比较，防止时序攻击）
-            return constantTimeEquals(expectedSignature, signature);
+            // 重新计算签名并与解码后的字节做常量时间比较（防止时序攻击）
+            return HmacSigner.current().append(token).append(userId).append(timestamp).verify(secret, signature);
         } catch (Exception e) {
             log.error("验证签名异常", e);
             return false;
         }
     }
 
-    /**
-     * 常量时间比较，防止时序攻击
-     * 
-     * @param a 字符串 a
-     * @param b 字符串 b
-     * @return 是否相等
-     */
-    private static boolean constantTimeEquals(String a, String b) {
-        if (a == null || b == null) {
-            return a == b;
-        }
-        if (a.length() != b.length()) {
-            return false;
-        }
-        int result = 0;
-        for (int i = 0; i < a.length(); i++) {
-            result |= a.charAt(i) ^ b.charAt(i);
-        }
-        return result == 0;
-    }
-
     /**
      * 检查时间戳是否在有效期内（防止重放攻击）
      * 
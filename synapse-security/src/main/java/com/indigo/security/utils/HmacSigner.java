@@ -0,0 +1,268 @@
+package com.indigo.security.utils;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * 可复用的 HMAC-SHA256 签名器
+ * 每个线程持有一个实例：按密钥缓存已初始化的 {@link Mac}，签名内容直接以 UTF-8 写入复用的字节缓冲区，
+ * 避免每次签名都执行 {@code Mac.getInstance}、创建密钥和拼接字符串
+ *
+ * <p>验证时把传入的 Base64 签名直接解码到复用的字节数组，再与计算结果做常量时间比较，不产生中间字符串。
+ *
+ * <p><b>使用示例：</b>
+ * <pre>
+ * boolean valid = HmacSigner.current()
+ *         .append(token).append(userId).append(timestamp)
+ *         .verify(secret, signature);
+ * </pre>
+ *
+ * <p>注意：{@link #current()} 返回的实例只能在当前线程内使用，且每次调用都会清空已追加的内容。
+ *
+ * @author 史偕成
+ * @date 2025/12/19
+ */
+public final class HmacSigner {
+
+    private static final String HMAC_SHA256 = "HmacSHA256";
+
+    /**
+     * HMAC-SHA256 输出长度（字节）
+     */
+    private static final int MAC_LENGTH = 32;
+
+    /**
+     * 每个线程缓存的密钥数量上限（密钥来自配置，正常情况下只有一两个）
+     */
+    private static final int MAX_CACHED_SECRETS = 16;
+
+    private static final ThreadLocal<HmacSigner> CURRENT = ThreadLocal.withInitial(HmacSigner::new);
+
+    private static final byte[] BASE64_DECODE = decodeTable("+/");
+    private static final byte[] BASE64_URL_DECODE = decodeTable("-_");
+
+    private final Map<String, Mac> macs = new HashMap<>();
+    private final byte[] digest = new byte[MAC_LENGTH];
+    private final byte[] expected = new byte[MAC_LENGTH];
+    private byte[] buffer = new byte[256];
+    private int length;
+
+    private HmacSigner() {
+    }
+
+    /**
+     * 获取当前线程的签名器（内容已清空）
+     */
+    public static HmacSigner current() {
+        HmacSigner signer = CURRENT.get();
+        signer.length = 0;
+        return signer;
+    }
+
+    /**
+     * 追加字符串（UTF-8 编码，null 视为 "null"，与字符串拼接一致）
+     */
+    public HmacSigner append(String value) {
+        if (value == null) {
+            value = "null";
+        }
+        return append(value, 0, value.length());
+    }
+
+    /**
+     * 追加字符串的一部分（UTF-8 编码），避免截取子串
+     *
+     * @param value 字符串
+     * @param start 起始位置（包含）
+     * @param end   结束位置（不包含）
+     */
+    public HmacSigner append(String value, int start, int end) {
+        ensureCapacity((end - start) * 3);
+        for (int i = start; i < end; i++) {
+            char c = value.charAt(i);
+            if (c < 0x80) {
+                buffer[length++] = (byte) c;
+            } else if (c < 0x800) {
+                buffer[length++] = (byte) (0xC0 | (c >> 6));
+                buffer[length++] = (byte) (0x80 | (c & 0x3F));
+            } else if (Character.isHighSurrogate(c) && i + 1 < end && Character.isLowSurrogate(value.charAt(i + 1))) {
+                int codePoint = Character.toCodePoint(c, value.charAt(++i));
+                buffer[length++] = (byte) (0xF0 | (codePoint >> 18));
+                buffer[length++] = (byte) (0x80 | ((codePoint >> 12) & 0x3F));
+                buffer[length++] = (byte) (0x80 | ((codePoint >> 6) & 0x3F));
+                buffer[length++] = (byte) (0x80 | (codePoint & 0x3F));
+            } else if (Character.isSurrogate(c)) {
+                // 不成对的代理字符按 String#getBytes 的行为替换为 '?'
+                buffer[length++] = '?';
+            } else {
+                buffer[length++] = (byte) (0xE0 | (c >> 12));
+                buffer[length++] = (byte) (0x80 | ((c >> 6) & 0x3F));
+                buffer[length++] = (byte) (0x80 | (c & 0x3F));
+            }
+        }
+        return this;
+    }
+
+    /**
+     * 追加十进制数字（与字符串拼接一致）
+     */
+    public HmacSigner append(long value) {
+        ensureCapacity(20);
+        // 以负数处理，兼容 Long.MIN_VALUE
+        long v = value;
+        if (v < 0) {
+            buffer[length++] = '-';
+        } else {
+            v = -v;
+        }
+        int digits = 0;
+        for (long t = v; t != 0 || digits == 0; t /= 10) {
+            digits++;
+        }
+        int pos = length + digits;
+        do {
+            buffer[--pos] = (byte) ('0' - (v % 10));
+            v /= 10;
+        } while (v != 0);
+        length += digits;
+        return this;
+    }
+
+    /**
+     * 计算签名
+     *
+     * @param secret 密钥
+     * @return Base64 编码的签名
+     * @throws GeneralSecurityException 算法不可用或密钥无效
+     */
+    public String sign(String secret) throws GeneralSecurityException {
+        computeDigest(secret);
+        return Base64.getEncoder().encodeToString(digest);
+    }
+
+    /**
+     * 验证签名（常量时间比较）
+     *
+     * @param secret    密钥
+     * @param signature 待验证的 Base64 签名
+     * @return 验证是否通过
+     * @throws GeneralSecurityException 算法不可用或密钥无效
+     */
+    public boolean verify(String secret, String signature) throws GeneralSecurityException {
+        if (signature == null || !decodeBase64(signature, 0, signature.length(), expected, BASE64_DECODE, true)) {
+            return false;
+        }
+        return verifyDecoded(secret);
+    }
+
+    /**
+     * 计算签名（URL 安全 Base64，无填充）
+     *
+     * @param secret 密钥
+     * @return URL 安全 Base64 编码的签名
+     * @throws GeneralSecurityException 算法不可用或密钥无效
+     */
+    public String signUrlSafe(String secret) throws GeneralSecurityException {
+        computeDigest(secret);
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(digest);
+    }
+
+    /**
+     * 验证签名（URL 安全 Base64，无填充，常量时间比较）
+     *
+     * @param secret    密钥
+     * @param value     包含签名的字符串
+     * @param start     签名起始位置（包含）
+     * @param end       签名结束位置（不包含）
+     * @return 验证是否通过
+     * @throws GeneralSecurityException 算法不可用或密钥无效
+     */
+    public boolean verifyUrlSafe(String secret, String value, int start, int end) throws GeneralSecurityException {
+        if (value == null || !decodeBase64(value, start, end, expected, BASE64_URL_DECODE, false)) {
+            return false;
+        }
+        return verifyDecoded(secret);
+    }
+
+    private boolean verifyDecoded(String secret) throws GeneralSecurityException {
+        computeDigest(secret);
+        int result = 0;
+        for (int i = 0; i < MAC_LENGTH; i++) {
+            result |= digest[i] ^ expected[i];
+        }
+        return result == 0;
+    }
+
+    private void computeDigest(String secret) throws GeneralSecurityException {
+        Mac mac = macs.get(secret);
+        if (mac == null) {
+            if (macs.size() >= MAX_CACHED_SECRETS) {
+                macs.clear();
+            }
+            mac = Mac.getInstance(HMAC_SHA256);
+            mac.init(new SecretKeySpec(secret.getBytes(StandardCharsets.UTF_8), HMAC_SHA256));
+            macs.put(secret, mac);
+        }
+        // doFinal 之后 Mac 自动重置为初始化状态，可直接复用
+        mac.update(buffer, 0, length);
+        mac.doFinal(digest, 0);
+    }
+
+    private void ensureCapacity(int additional) {
+        if (length + additional > buffer.length) {
+            buffer = Arrays.copyOf(buffer, Math.max(buffer.length * 2, length + additional));
+        }
+    }
+
+    /**
+     * 将 value[start, end) 的 Base64 解码到 target
+     * 只接受规范编码（与 {@link Base64.Encoder} 的输出逐字符一致），长度不符或包含非法字符时返回 false
+     */
+    private static boolean decodeBase64(String value, int start, int end, byte[] target,
+                                        byte[] table, boolean padded) {
+        int dataChars = (target.length * 8 + 5) / 6;
+        int expectedLength = padded ? (target.length + 2) / 3 * 4 : dataChars;
+        if (start < 0 || end > value.length() || end - start != expectedLength) {
+            return false;
+        }
+        for (int i = start + dataChars; i < end; i++) {
+            if (value.charAt(i) != '=') {
+                return false;
+            }
+        }
+        int bits = 0;
+        int bitCount = 0;
+        int pos = 0;
+        for (int i = start; i < start + dataChars; i++) {
+            char c = value.charAt(i);
+            int v = c < 128 ? table[c] : -1;
+            if (v < 0) {
+                return false;
+            }
+            bits = ((bits << 6) | v) & 0xFFFF;
+            bitCount += 6;
+            if (bitCount >= 8) {
+                bitCount -= 8;
+                target[pos++] = (byte) (bits >> bitCount);
+            }
+        }
+        // 末尾多余的位必须为 0
+        return (bits & ((1 << bitCount) - 1)) == 0;
+    }
+
+    private static byte[] decodeTable(String lastTwo) {
+        byte[] table = new byte[128];
+        Arrays.fill(table, (byte) -1);
+        String alphabet = "ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz0123456789" + lastTwo;
+        for (int i = 0; i < alphabet.length(); i++) {
+            table[alphabet.charAt(i)] = (byte) i;
+        }
+        return table;
+    }
+}
@@ -10,6 +10,11 @@ import lombok.extern.slf4j.Slf4j;
 @Slf4j
 public class PasswordUtils {
 
+    /**
+     * 默认加密轮数（与 BCrypt.gensalt() 一致）
+     */
+    public static final int DEFAULT_COST = 10;
+
     /**
      * 加密密码
      *
@@ -23,6 +28,20 @@ public class PasswordUtils {
         return BCrypt.hashpw(rawPassword, BCrypt.gensalt());
     }
 
+    /**
+     * 按指定轮数加密密码
+     *
+     * @param rawPassword 明文密码
+     * @param cost        加密轮数（4-31）
+     * @return 加密后的密码
+     */
+    public static String encode(String rawPassword, int cost) {
+        if (rawPassword == null || rawPassword.trim().isEmpty()) {
+            throw new IllegalArgumentException("密码不能为空");
+        }
+        return BCrypt.hashpw(rawPassword, BCrypt.gensalt(cost));
+    }
+
     /**
      * 验证密码
      *
@@ -43,19 +62,44 @@ public class PasswordUtils {
     }
 
     /**
-     * 检查密码是否需要重新加密
-     * BCrypt会自动处理，但可以用于检查密码强度
+     * 检查密码是否需要重新加密（按默认轮数）
      *
      * @param hashedPassword 加密后的密码
      * @return 是否需要重新加密
      */
     public static boolean needsRehash(String hashedPassword) {
-        // BCrypt的hash格式：$2a$10$...
-        // 可以检查加密轮数，如果轮数过低，建议重新加密
-        if (hashedPassword == null || !hashedPassword.startsWith("$2a$")) {
-            return true;
+        return needsRehash(hashedPassword, DEFAULT_COST);
+    }
+
+    /**
+     * 检查密码是否需要重新加密
+     * 不是 BCrypt 格式，或加密轮数低于目标轮数时需要重新加密
+     *
+     * @param hashedPassword 加密后的密码
+     * @param cost           目标加密轮数
+     * @return 是否需要重新加密
+     */
+    public static boolean needsRehash(String hashedPassword, int cost) {
+        return getCost(hashedPassword) < cost;
+    }
+
+    /**
+     * 解析 BCrypt 密码的加密轮数
+     * BCrypt的hash格式：$2a$10$...（jBCrypt 只支持 $2a$ 版本）
+     *
+     * @param hashedPassword 加密后的密码
+     * @return 加密轮数，不是 BCrypt 格式时返回 -1
+     */
+    public static int getCost(String hashedPassword) {
+        if (hashedPassword == null || hashedPassword.length() < 7
+                || !hashedPassword.startsWith("$2a$") || hashedPassword.charAt(6) != '$') {
+            return -1;
+        }
+        char tens = hashedPassword.charAt(4);
+        char ones = hashedPassword.charAt(5);
+        if (tens < '0' || tens > '9' || ones < '0' || ones > '9') {
+            return -1;
         }
-        // 可以检查加密轮数（BCrypt.gensalt()默认是10轮）
-        return false;
+        return (tens - '0') * 10 + (ones - '0');
     }
 }
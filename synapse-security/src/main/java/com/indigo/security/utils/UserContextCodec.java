@@ -1,15 +1,36 @@
 package com.indigo.security.utils;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
 import com.indigo.core.context.UserContext;
 import lombok.extern.slf4j.Slf4j;
 
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
 import java.util.Base64;
+import java.util.concurrent.TimeUnit;
 
 /**
  * UserContext 编码/解码工具类
  * 用于在 Gateway 和微服务之间传递用户上下文信息
- * 
+ *
+ * <p><b>编码格式：</b>
+ * <ul>
+ *   <li>{@code b1.<payload>}：紧凑二进制格式。payload 为 URL 安全 Base64（无填充），
+ *       内容为 版本号 + 字段位图 + 各字段（varint 长度 + UTF-8 字节）</li>
+ *   <li>{@code h1.<hash>.<payload>}：内容哈希格式。hash 为二进制内容 SHA-256 的前 16 字节，
+ *       下游按 hash 查本地缓存，命中时完全跳过解码；未命中时解码并校验 hash 后写入缓存</li>
+ *   <li>无前缀：旧版 JSON + Base64 格式，解码时仍兼容</li>
+ * </ul>
+ * 新增字段只能追加在已有字段之后；解码时会跳过无法识别的字段，因此旧版本服务可以解码新版本的头。
+ *
+ * <p>{@link #encode(UserContext)} 默认仍输出旧版 JSON 格式，尚未升级的下游服务无法解码 {@code b1.} / {@code h1.} 格式。
+ * 所有下游服务升级后，再通过 {@code synapse.security.gateway-signature.context-format} 切换为新格式。
+ *
  * @author 史偕成
  * @date 2025/01/10
  */
@@ -19,18 +40,124 @@ public class UserContextCodec {
     private static final ObjectMapper objectMapper = new ObjectMapper();
 
     /**
-     * 编码 UserContext 为 Base64 字符串
-     * 
+     * 二进制格式前缀
+     */
+    public static final String BINARY_PREFIX = "b1.";
+
+    /**
+     * 内容哈希格式前缀
+     */
+    public static final String HASH_PREFIX = "h1.";
+
+    /**
+     * 二进制格式版本号
+     */
+    private static final int FORMAT_VERSION = 1;
+
+    /**
+     * 内容哈希长度（字节）
+     */
+    private static final int HASH_LENGTH = 16;
+
+    /**
+     * 当前版本的字段数量，字段顺序见 {@link #fieldsOf(UserContext)}
+     */
+    private static final int FIELD_COUNT = 6;
+
+    /**
+     * 字段位图中的字段数量上限（位图占用一个 varint）
+     */
+    private static final int MAX_FIELDS = 31;
+
+    /**
+     * {@link #encode(UserContext)} 使用的编码格式
+     */
+    private static volatile Format defaultFormat = Format.JSON;
+
+    /**
+     * 内容哈希 → 用户上下文
+     */
+    private static final Cache<String, UserContext> HASH_CACHE = Caffeine.newBuilder()
+            .maximumSize(10_000)
+            .expireAfterAccess(10, TimeUnit.MINUTES)
+            .build();
+
+    /**
+     * 设置 {@link #encode(UserContext)} 使用的编码格式
+     *
+     * @param format 编码格式，null 时使用旧版 JSON 格式
+     */
+    public static void setDefaultFormat(Format format) {
+        defaultFormat = format != null ? format : Format.JSON;
+    }
+
+    public static Format getDefaultFormat() {
+        return defaultFormat;
+    }
+
+    /**
+     * 编码 UserContext（使用 {@link #setDefaultFormat(Format)} 配置的格式，默认旧版 JSON 格式）
+     *
      * @param userContext 用户上下文
-     * @return Base64 编码的 JSON 字符串
+     * @return 编码后的字符串
      */
     public static String encode(UserContext userContext) {
+        return encode(userContext, defaultFormat);
+    }
+
+    /**
+     * 编码 UserContext 为新格式
+     *
+     * @param userContext 用户上下文
+     * @param withHash    是否使用内容哈希格式（下游可按哈希命中本地缓存）
+     * @return 编码后的字符串
+     */
+    public static String encode(UserContext userContext, boolean withHash) {
+        return encode(userContext, withHash ? Format.HASH : Format.BINARY);
+    }
+
+    /**
+     * 按指定格式编码 UserContext
+     *
+     * @param userContext 用户上下文
+     * @param format      编码格式
+     * @return 编码后的字符串
+     */
+    public static String encode(UserContext userContext, Format format) {
+        if (userContext == null) {
+            return null;
+        }
+        if (format == Format.JSON) {
+            return encodeJson(userContext);
+        }
+        boolean withHash = format == Format.HASH;
+        try {
+            byte[] binary = toBinary(userContext);
+            String payload = Base64.getUrlEncoder().withoutPadding().encodeToString(binary);
+            if (!withHash) {
+                return BINARY_PREFIX + payload;
+            }
+            return HASH_PREFIX + hash(binary) + "." + payload;
+        } catch (Exception e) {
+            log.error("编码 UserContext 失败", e);
+            return null;
+        }
+    }
+
+    /**
+     * 编码 UserContext 为旧版 JSON + Base64 格式
+     * 所有版本的下游服务均可解码
+     *
+     * @param userContext 用户上下文
+     * @return Base64 编码的 JSON 字符串
+     */
+    public static String encodeJson(UserContext userContext) {
         if (userContext == null) {
             return null;
         }
         try {
             String json = objectMapper.writeValueAsString(userContext);
-            return Base64.getEncoder().encodeToString(json.getBytes(java.nio.charset.StandardCharsets.UTF_8));
+            return Base64.getEncoder().encodeToString(json.getBytes(StandardCharsets.UTF_8));
         } catch (Exception e) {
             log.error("编码 UserContext 失败", e);
             return null;
@@ -38,9 +165,9 @@ public class UserContextCodec {
     }
 
     /**
-     * 解码 Base64 字符串为 UserContext
-     * 
-     * @param encodedValue Base64 编码的 JSON 字符串
+     * 解码为 UserContext（自动识别二进制、内容哈希和旧版 JSON 格式）
+     *
+     * @param encodedValue 编码后的字符串
      * @return 用户上下文，如果解码失败返回 null
      */
     public static UserContext decode(String encodedValue) {
@@ -48,13 +175,163 @@ public class UserContextCodec {
             return null;
         }
         try {
+            if (encodedValue.startsWith(HASH_PREFIX)) {
+                return decodeWithHash(encodedValue);
+            }
+            if (encodedValue.startsWith(BINARY_PREFIX)) {
+                return fromBinary(Base64.getUrlDecoder().decode(encodedValue.substring(BINARY_PREFIX.length())));
+            }
             byte[] jsonBytes = Base64.getDecoder().decode(encodedValue);
-            String json = new String(jsonBytes, java.nio.charset.StandardCharsets.UTF_8);
-            return objectMapper.readValue(json, UserContext.class);
+            return objectMapper.readValue(jsonBytes, UserContext.class);
         } catch (Exception e) {
             log.warn("解码 UserContext 失败: {}", encodedValue, e);
             return null;
         }
     }
-}
 
+    /**
+     * 内容哈希格式：命中缓存时直接返回副本，未命中时解码并校验哈希
+     */
+    private static UserContext decodeWithHash(String encodedValue) throws NoSuchAlgorithmException {
+        int separator = encodedValue.indexOf('.', HASH_PREFIX.length());
+        if (separator < 0) {
+            log.warn("UserContext 内容哈希格式错误: {}", encodedValue);
+            return null;
+        }
+        String hash = encodedValue.substring(HASH_PREFIX.length(), separator);
+        UserContext cached = HASH_CACHE.getIfPresent(hash);
+        if (cached != null) {
+            return copy(cached);
+        }
+        byte[] binary = Base64.getUrlDecoder().decode(encodedValue.substring(separator + 1));
+        if (!hash.equals(hash(binary))) {
+            log.warn("UserContext 内容哈希不匹配: {}", encodedValue);
+            return null;
+        }
+        UserContext userContext = fromBinary(binary);
+        HASH_CACHE.put(hash, copy(userContext));
+        return userContext;
+    }
+
+    // ========== 二进制格式 ==========
+
+    private static byte[] toBinary(UserContext userContext) {
+        String[] fields = fieldsOf(userContext);
+        int presence = 0;
+        for (int i = 0; i < fields.length; i++) {
+            if (fields[i] != null) {
+                presence |= 1 << i;
+            }
+        }
+        ByteArrayOutputStream out = new ByteArrayOutputStream(64);
+        out.write(FORMAT_VERSION);
+        writeVarint(out, presence);
+        for (String field : fields) {
+            if (field != null) {
+                byte[] bytes = field.getBytes(StandardCharsets.UTF_8);
+                writeVarint(out, bytes.length);
+                out.write(bytes, 0, bytes.length);
+            }
+        }
+        return out.toByteArray();
+    }
+
+    private static UserContext fromBinary(byte[] binary) {
+        int[] pos = {0};
+        if (binary.length == 0 || binary[pos[0]++] != FORMAT_VERSION) {
+            throw new IllegalArgumentException("不支持的 UserContext 编码版本");
+        }
+        int presence = readVarint(binary, pos);
+        String[] fields = new String[FIELD_COUNT];
+        for (int i = 0; i < MAX_FIELDS; i++) {
+            if ((presence & (1 << i)) == 0) {
+                continue;
+            }
+            int length = readVarint(binary, pos);
+            if (length < 0 || pos[0] + length > binary.length) {
+                throw new IllegalArgumentException("UserContext 编码长度错误");
+            }
+            // 无法识别的字段（由更高版本追加）直接跳过
+            if (i < FIELD_COUNT) {
+                fields[i] = new String(binary, pos[0], length, StandardCharsets.UTF_8);
+            }
+            pos[0] += length;
+        }
+        return build(fields);
+    }
+
+    /**
+     * 字段顺序即编码顺序，新增字段只能在末尾追加
+     */
+    private static String[] fieldsOf(UserContext userContext) {
+        return new String[]{
+                userContext.getUserId(),
+                userContext.getAccount(),
+                userContext.getRealName(),
+                userContext.getEmail(),
+                userContext.getMobile(),
+                userContext.getAvatar()
+        };
+    }
+
+    private static UserContext copy(UserContext userContext) {
+        return build(fieldsOf(userContext));
+    }
+
+    private static UserContext build(String[] fields) {
+        return UserContext.builder()
+                .userId(fields[0])
+                .account(fields[1])
+                .realName(fields[2])
+                .email(fields[3])
+                .mobile(fields[4])
+                .avatar(fields[5])
+                .build();
+    }
+
+    private static void writeVarint(ByteArrayOutputStream out, int value) {
+        while ((value & ~0x7F) != 0) {
+            out.write((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        out.write(value);
+    }
+
+    private static int readVarint(byte[] binary, int[] pos) {
+        int value = 0;
+        for (int shift = 0; shift < 32; shift += 7) {
+            if (pos[0] >= binary.length) {
+                throw new IllegalArgumentException("UserContext 编码被截断");
+            }
+            byte b = binary[pos[0]++];
+            value |= (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new IllegalArgumentException("UserContext 编码 varint 过长");
+    }
+
+    private static String hash(byte[] binary) throws NoSuchAlgorithmException {
+        byte[] digest = MessageDigest.getInstance("SHA-256").digest(binary);
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(Arrays.copyOf(digest, HASH_LENGTH));
+    }
+
+    /**
+     * 用户上下文请求头的编码格式
+     */
+    public enum Format {
+        /**
+         * 旧版 JSON + Base64 格式（所有版本均可解码）
+         */
+        JSON,
+        /**
+         * 紧凑二进制格式 {@code b1.}
+         */
+        BINARY,
+        /**
+         * 内容哈希格式 {@code h1.}
+         */
+        HASH
+    }
+}
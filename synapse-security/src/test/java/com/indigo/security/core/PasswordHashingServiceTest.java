@@ -0,0 +1,83 @@
+package com.indigo.security.core;
+
+import com.indigo.core.exception.SynapseException;
+import com.indigo.security.config.SecurityProperties;
+import com.indigo.security.utils.PasswordUtils;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * PasswordHashingService 测试
+ * 覆盖重新加密条件、队列已满时的快速拒绝以及指标
+ *
+ * @author 史偕成
+ * @date 2025/12/19
+ */
+class PasswordHashingServiceTest {
+
+    private PasswordHashingService service;
+
+    @BeforeEach
+    void setUp() {
+        SecurityProperties.PasswordConfig config = new SecurityProperties.PasswordConfig();
+        config.setBcryptCost(5);
+        config.setThreads(1);
+        config.setCompletionThreads(1);
+        config.setMaxQueueDepth(1);
+        service = new PasswordHashingService(config);
+    }
+
+    @AfterEach
+    void tearDown() {
+        service.shutdown();
+    }
+
+    @Test
+    void verifyRehashesOnlyLowerCostHashesWhenAsked() {
+        String lowCost = PasswordUtils.encode("pwd", 4);
+        String current = PasswordUtils.encode("pwd", 5);
+
+        assertFalse(service.verifyAsync("other", lowCost, true).join().matched());
+        assertNull(service.verifyAsync("pwd", current, true).join().upgradedHash());
+        assertNull(service.verifyAsync("pwd", lowCost, false).join().upgradedHash());
+        assertEquals(5, PasswordUtils.getCost(service.verifyAsync("pwd", lowCost, true).join().upgradedHash()));
+        assertEquals(4, service.getStats().completed());
+    }
+
+    @Test
+    void fullCompletionQueueRejectsWithAuthBusy() throws InterruptedException {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        Executor executor = service.getCompletionExecutor();
+        executor.execute(() -> {
+            started.countDown();
+            awaitQuietly(release);
+        });
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+        // 线程被占用，队列容量为 1
+        executor.execute(() -> { });
+
+        CompletableFuture<String> rejected = CompletableFuture.completedFuture("x").thenApplyAsync(v -> v, executor);
+        CompletionException e = assertThrows(CompletionException.class, rejected::join);
+        assertEquals("SECURITY007", assertInstanceOf(SynapseException.class, e.getCause()).getCode());
+        assertEquals(1, service.getStats().rejected());
+        release.countDown();
+    }
+
+    private static void awaitQuietly(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
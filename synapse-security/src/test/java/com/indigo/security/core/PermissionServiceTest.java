@@ -0,0 +1,104 @@
+package com.indigo.security.core;
+
+import com.indigo.cache.session.PermissionDictionary;
+import com.indigo.cache.session.UserSessionService;
+import com.indigo.core.context.UserContext;
+import com.indigo.core.exception.SynapseException;
+import com.indigo.security.annotation.Logical;
+import com.indigo.security.constants.SecurityConstants;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * PermissionService 测试
+ * 启用与未启用权限字典时，AND/OR 判断结果一致
+ *
+ * @author 史偕成
+ * @date 2025/12/19
+ */
+class PermissionServiceTest {
+
+    private UserSessionService userSessionService;
+
+    @BeforeEach
+    void setUp() {
+        userSessionService = mock(UserSessionService.class);
+        when(userSessionService.getUserPermissions("t1")).thenReturn(List.of("user:read", "order:read"));
+        UserContext.setCurrentUser(UserContext.builder().userId("1001").build());
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.setAttribute(SecurityConstants.REQUEST_ATTR_TOKEN, "t1");
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(request));
+    }
+
+    @AfterEach
+    void tearDown() {
+        UserContext.clearCurrentUser();
+        RequestContextHolder.resetRequestAttributes();
+    }
+
+    @ParameterizedTest
+    @ValueSource(booleans = {true, false})
+    void andRequiresEveryPermission(boolean withDictionary) {
+        PermissionService service = service(withDictionary);
+
+        assertDoesNotThrow(() -> service.checkPermission(new String[]{"user:read", "order:read"}, Logical.AND));
+        assertThrows(SynapseException.class,
+                () -> service.checkPermission(new String[]{"user:read", "user:delete"}, Logical.AND));
+    }
+
+    @ParameterizedTest
+    @ValueSource(booleans = {true, false})
+    void orRequiresAnyPermission(boolean withDictionary) {
+        PermissionService service = service(withDictionary);
+
+        assertDoesNotThrow(() -> service.checkPermission(new String[]{"user:delete", "order:read"}, Logical.OR));
+        assertThrows(SynapseException.class,
+                () -> service.checkPermission(new String[]{"user:delete", "order:write"}, Logical.OR));
+    }
+
+    @ParameterizedTest
+    @ValueSource(booleans = {true, false})
+    void compiledRequirementCanBeReused(boolean withDictionary) {
+        PermissionService service = service(withDictionary);
+        PermissionRequirement requirement = service.compileRequirement(new String[]{"user:read"}, Logical.AND);
+
+        assertDoesNotThrow(() -> service.checkPermission(requirement));
+        assertDoesNotThrow(() -> service.checkPermission(requirement));
+        assertEquals(List.of("user:read"), requirement.getCodes());
+        assertEquals(withDictionary, requirement.getMask() != null);
+    }
+
+    @ParameterizedTest
+    @ValueSource(booleans = {true, false})
+    void wildcardGrantMatchesChildPermissions(boolean withDictionary) {
+        when(userSessionService.getUserPermissions("t1")).thenReturn(List.of("system:user:*"));
+        PermissionService service = service(withDictionary);
+
+        assertDoesNotThrow(() -> service.checkPermission(new String[]{"system:user:add", "system:user:edit"}, Logical.AND));
+        assertThrows(SynapseException.class,
+                () -> service.checkPermission(new String[]{"system:user:add", "system:role:add"}, Logical.AND));
+    }
+
+    @ParameterizedTest
+    @ValueSource(booleans = {true, false})
+    void userWithoutPermissionsIsDenied(boolean withDictionary) {
+        when(userSessionService.getUserPermissions("t1")).thenReturn(List.of());
+
+        assertThrows(SynapseException.class,
+                () -> service(withDictionary).checkPermission(new String[]{"user:read"}, Logical.OR));
+    }
+
+    private PermissionService service(boolean withDictionary) {
+        return new PermissionService(userSessionService, withDictionary ? new PermissionDictionary() : null);
+    }
+}
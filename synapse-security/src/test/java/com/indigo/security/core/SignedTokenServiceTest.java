@@ -0,0 +1,124 @@
+package com.indigo.security.core;
+
+import com.indigo.security.config.SecurityProperties;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * SignedTokenService 签发、验签与吊销测试
+ *
+ * @author 史偕成
+ * @date 2025/12/19
+ */
+class SignedTokenServiceTest {
+
+    private TokenRevocationRegistry registry;
+    private SignedTokenService service;
+
+    @BeforeEach
+    void setUp() {
+        registry = mock(TokenRevocationRegistry.class);
+        SecurityProperties.SignedTokenConfig config = new SecurityProperties.SignedTokenConfig();
+        config.setSecret("test-secret");
+        config.setClockSkewSeconds(0);
+        service = new SignedTokenService(config, registry);
+    }
+
+    @Test
+    void issueAndVerify() {
+        when(registry.currentVersion("1001")).thenReturn(2L);
+
+        String token = service.issue("1001", "zhangsan", 3600);
+        SignedTokenService.Claims claims = service.verify(token);
+
+        assertTrue(SignedTokenService.isSignedToken(token));
+        assertNotNull(claims);
+        assertEquals("1001", claims.userId());
+        assertEquals("zhangsan", claims.account());
+        assertEquals(2L, claims.version());
+        assertTrue(claims.remainingSeconds() > 3500);
+        assertNotEquals(claims.jti(), service.verify(service.issue("1001", null, 3600)).jti());
+    }
+
+    @Test
+    void tamperedOrForeignTokensAreRejected() {
+        String token = service.issue("1001", null, 3600);
+        int signatureStart = token.lastIndexOf('.');
+        String otherPayload = service.issue("9999", null, 3600);
+        String forged = otherPayload.substring(0, otherPayload.lastIndexOf('.')) + token.substring(signatureStart);
+
+        SecurityProperties.SignedTokenConfig otherConfig = new SecurityProperties.SignedTokenConfig();
+        otherConfig.setSecret("other-secret");
+        SignedTokenService otherService = new SignedTokenService(otherConfig, registry);
+
+        assertNull(service.verify(forged));
+        assertNull(service.verify(token.substring(0, token.length() - 1)));
+        assertNull(service.verify("st1.garbage"));
+        assertNull(service.verify("not-a-signed-token"));
+        assertNull(otherService.verify(token));
+    }
+
+    @Test
+    void expiredTokenIsRejected() {
+        String token = service.issue("1001", null, -1);
+
+        assertNull(service.verify(token));
+    }
+
+    @Test
+    void revokedJtiIsRejected() {
+        String token = service.issue("1001", null, 3600);
+        String jti = service.verify(token).jti();
+        when(registry.isRevoked(jti)).thenReturn(true);
+
+        assertNull(service.verify(token));
+    }
+
+    @Test
+    void bumpedVersionRejectsOlderTokens() {
+        when(registry.currentVersion("1001")).thenReturn(0L);
+        String token = service.issue("1001", null, 3600);
+
+        when(registry.currentVersion("1001")).thenReturn(1L);
+        assertNull(service.verify(token));
+        // 本地验签不检查版本
+        assertNotNull(service.verifyLocally(token));
+    }
+
+    @Test
+    void versionLookupFailureRejects() {
+        String token = service.issue("1001", null, 3600);
+        when(registry.currentVersion("1001")).thenThrow(new IllegalStateException("redis down"));
+
+        assertNull(service.verify(token));
+    }
+
+    @Test
+    void revokeRegistersJtiUntilExpiry() {
+        String token = service.issue("1001", null, 3600);
+        SignedTokenService.Claims claims = service.verify(token);
+
+        assertTrue(service.revoke(token));
+        assertFalse(service.revoke("st1.invalid.token"));
+
+        verify(registry).revoke(claims.jti(), claims.expiresAt());
+        verify(registry, times(1)).revoke(anyString(), anyLong());
+    }
+
+    @Test
+    void revokeAllBumpsVersion() {
+        service.revokeAll("1001");
+
+        verify(registry).bumpVersion("1001");
+    }
+
+    @Test
+    void secretIsRequired() {
+        assertThrows(IllegalArgumentException.class,
+                () -> new SignedTokenService(new SecurityProperties.SignedTokenConfig(), registry));
+    }
+}
@@ -0,0 +1,109 @@
+package com.indigo.security.core;
+
+import com.indigo.cache.core.CacheInvalidationService;
+import com.indigo.cache.core.constants.SessionCacheConstants;
+import com.indigo.cache.infrastructure.RedisService;
+import com.indigo.cache.manager.CacheKeyGenerator;
+import com.indigo.security.config.SecurityProperties;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.data.redis.core.HashOperations;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.ZSetOperations;
+
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * TokenRevocationRegistry 测试
+ *
+ * @author 史偕成
+ * @date 2025/12/19
+ */
+class TokenRevocationRegistryTest {
+
+    private StringRedisTemplate template;
+    private HashOperations<String, Object, Object> hashOperations;
+    private CacheInvalidationService invalidationService;
+    private TokenRevocationRegistry registry;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        RedisService redisService = mock(RedisService.class);
+        template = mock(StringRedisTemplate.class);
+        hashOperations = mock(HashOperations.class);
+        when(redisService.getStringRedisTemplate()).thenReturn(template);
+        when(template.opsForHash()).thenReturn(hashOperations);
+        when(template.opsForZSet()).thenReturn(mock(ZSetOperations.class));
+        invalidationService = mock(CacheInvalidationService.class);
+        registry = new TokenRevocationRegistry(redisService, new CacheKeyGenerator(), invalidationService,
+                new SecurityProperties.SignedTokenConfig());
+    }
+
+    @AfterEach
+    void tearDown() {
+        registry.shutdown();
+    }
+
+    @Test
+    void bumpVersionCachesAndPublishes() {
+        when(hashOperations.increment(anyString(), eq("1001"), eq(1L))).thenReturn(3L);
+
+        assertEquals(3L, registry.bumpVersion("1001"));
+
+        // 新版本直接写入本地缓存，读取时不再访问 Redis
+        assertEquals(3L, registry.currentVersion("1001"));
+        verify(hashOperations, never()).get(anyString(), any());
+        verify(invalidationService).publishInvalidation(SessionCacheConstants.CACHE_TYPE_TOKEN_VERSION, "1001");
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void forceOfflineBumpsAllUsersInOnePipeline() {
+        when(template.executePipelined(any(RedisCallback.class))).thenReturn(List.of(2L, 5L));
+
+        registry.onUserSessionsRevoked(List.of("1001", "1002", "1001"));
+
+        verify(template, times(1)).executePipelined(any(RedisCallback.class));
+        assertEquals(2L, registry.currentVersion("1001"));
+        assertEquals(5L, registry.currentVersion("1002"));
+        verify(invalidationService).publishInvalidationBatch(SessionCacheConstants.CACHE_TYPE_TOKEN_VERSION,
+                Set.of("1001", "1002"));
+    }
+
+    @Test
+    void revokeIsVisibleLocally() {
+        registry.revoke("jti-1", System.currentTimeMillis() + 60_000);
+        registry.revoke("jti-expired", System.currentTimeMillis() - 1);
+
+        assertTrue(registry.isRevoked("jti-1"));
+        assertFalse(registry.isRevoked("jti-expired"));
+        assertEquals(1, registry.revokedCount());
+    }
+
+    @Test
+    void invalidationNotificationsUpdateLocalState() {
+        ArgumentCaptor<CacheInvalidationService.CacheInvalidationListener> captor =
+                ArgumentCaptor.forClass(CacheInvalidationService.CacheInvalidationListener.class);
+        verify(invalidationService).registerListener(captor.capture());
+        CacheInvalidationService.CacheInvalidationListener listener = captor.getValue();
+
+        long expiresAt = System.currentTimeMillis() + 60_000;
+        listener.onCacheInvalidation(SessionCacheConstants.CACHE_TYPE_TOKEN_REVOCATION, "remote-jti:" + expiresAt);
+        assertTrue(registry.isRevoked("remote-jti"));
+
+        when(hashOperations.increment(anyString(), eq("1001"), eq(1L))).thenReturn(1L);
+        registry.bumpVersion("1001");
+        listener.onCacheInvalidation(SessionCacheConstants.CACHE_TYPE_TOKEN_VERSION, "1001");
+        when(hashOperations.get(anyString(), eq("1001"))).thenReturn("4");
+        assertEquals(4L, registry.currentVersion("1001"));
+    }
+}
@@ -0,0 +1,103 @@
+package com.indigo.security.interceptor;
+
+import com.indigo.cache.session.AuthSnapshot;
+import com.indigo.cache.session.ReactiveAuthSnapshotLoader;
+import com.indigo.cache.session.UserSessionService;
+import com.indigo.core.context.UserContext;
+import com.indigo.security.config.SecurityProperties;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import org.springframework.web.server.WebFilterChain;
+import reactor.core.publisher.Mono;
+
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * UserContextWebFluxFilter 测试
+ * 用户上下文只写入 Reactor Context，不设置 ThreadLocal
+ *
+ * @author 史偕成
+ * @date 2025/12/19
+ */
+class UserContextWebFluxFilterTest {
+
+    private UserSessionService userSessionService;
+    private ReactiveAuthSnapshotLoader snapshotLoader;
+    private UserContextWebFluxFilter filter;
+
+    private final AtomicReference<UserContext> contextUser = new AtomicReference<>();
+    private final AtomicReference<UserContext> threadLocalUser = new AtomicReference<>();
+    private final WebFilterChain chain = exchange -> Mono.deferContextual(context -> {
+        contextUser.set(context.getOrDefault(UserContext.class, null));
+        threadLocalUser.set(UserContext.getCurrentUser());
+        return Mono.empty();
+    });
+
+    @BeforeEach
+    void setUp() {
+        userSessionService = mock(UserSessionService.class);
+        snapshotLoader = mock(ReactiveAuthSnapshotLoader.class);
+        filter = new UserContextWebFluxFilter(userSessionService, new SecurityProperties(), null, snapshotLoader);
+    }
+
+    @AfterEach
+    void tearDown() {
+        UserContext.clearCurrentUser();
+    }
+
+    @Test
+    void userContextIsWrittenToReactorContextOnly() {
+        UserContext user = UserContext.builder().userId("1001").build();
+        when(snapshotLoader.load("t1")).thenReturn(Mono.just(new AuthSnapshot(user, null, null, 3600, false)));
+
+        filter.filter(exchange("t1"), chain).block();
+
+        assertSame(user, contextUser.get());
+        assertNull(threadLocalUser.get());
+        assertNull(UserContext.getCurrentUser());
+        verify(userSessionService).recordActivity("1001");
+        verify(userSessionService, never()).getAuthSnapshot(anyString());
+    }
+
+    @Test
+    void missingSessionContinuesWithoutContext() {
+        when(snapshotLoader.load("t1")).thenReturn(Mono.empty());
+
+        filter.filter(exchange("t1"), chain).block();
+
+        assertNull(contextUser.get());
+        verify(userSessionService, never()).recordActivity(anyString());
+    }
+
+    @Test
+    void loaderFailureContinuesWithoutContext() {
+        when(snapshotLoader.load("t1")).thenReturn(Mono.error(new IllegalStateException("redis down")));
+
+        filter.filter(exchange("t1"), chain).block();
+
+        assertNull(contextUser.get());
+    }
+
+    @Test
+    void withoutReactiveLoaderFallsBackToBlockingRead() {
+        UserContext user = UserContext.builder().userId("1002").build();
+        when(userSessionService.getAuthSnapshot("t2")).thenReturn(new AuthSnapshot(user, null, null, 3600, false));
+        UserContextWebFluxFilter blockingFilter = new UserContextWebFluxFilter(userSessionService, new SecurityProperties());
+
+        blockingFilter.filter(exchange("t2"), chain).block();
+
+        assertSame(user, contextUser.get());
+        assertNull(threadLocalUser.get());
+    }
+
+    private static MockServerWebExchange exchange(String token) {
+        return MockServerWebExchange.from(MockServerHttpRequest.get("/api/test").header("X-Auth-Token", token));
+    }
+}
@@ -0,0 +1,159 @@
+package com.indigo.security.service;
+
+import com.indigo.cache.session.UserSessionService;
+import com.indigo.core.exception.SynapseException;
+import com.indigo.security.config.SecurityProperties;
+import com.indigo.security.core.PasswordHashingService;
+import com.indigo.security.core.TokenService;
+import com.indigo.security.model.AuthRequest;
+import com.indigo.security.model.AuthResponse;
+import com.indigo.security.model.auth.UsernamePasswordAuth;
+import com.indigo.security.utils.PasswordUtils;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * DefaultAuthenticationService 异步认证测试
+ * 覆盖签发线程、登录锁定、失败计数以及按需重新加密
+ *
+ * @author 史偕成
+ * @date 2025/12/19
+ */
+class DefaultAuthenticationServiceTest {
+
+    private static final String PASSWORD = "secret-1";
+    private static final String STORED_HASH = PasswordUtils.encode(PASSWORD, 4);
+
+    private TokenService tokenService;
+    private LoginSecurityService loginSecurityService;
+    private PasswordHashingService hashingService;
+    private DefaultAuthenticationService authenticationService;
+
+    @BeforeEach
+    void setUp() {
+        tokenService = mock(TokenService.class);
+        loginSecurityService = mock(LoginSecurityService.class);
+        SecurityProperties.PasswordConfig config = new SecurityProperties.PasswordConfig();
+        config.setBcryptCost(5);
+        config.setThreads(1);
+        config.setCompletionThreads(1);
+        hashingService = new PasswordHashingService(config);
+        authenticationService = new DefaultAuthenticationService(mock(UserSessionService.class), tokenService,
+                new SecurityProperties(), hashingService, loginSecurityService);
+    }
+
+    @AfterEach
+    void tearDown() {
+        hashingService.shutdown();
+    }
+
+    @Test
+    void tokenIsIssuedOnCompletionExecutor() {
+        AtomicReference<String> issuingThread = new AtomicReference<>();
+        when(tokenService.generateToken(eq("1001"), any(), anyLong())).thenAnswer(invocation -> {
+            issuingThread.set(Thread.currentThread().getName());
+            return "tok";
+        });
+
+        AuthResponse response = authenticationService.authenticateAsync(request(PASSWORD), STORED_HASH, null, "10.0.0.1")
+                .join();
+
+        assertEquals("tok", response.getAccessToken());
+        // 不在哈希线程上，也不在公共 ForkJoinPool 上
+        assertTrue(issuingThread.get().startsWith("synapse-password-login-"), issuingThread.get());
+        verify(loginSecurityService).recordLoginSuccess("alice", "10.0.0.1");
+    }
+
+    @Test
+    void wrongPasswordRecordsFailure() {
+        CompletableFuture<AuthResponse> future =
+                authenticationService.authenticateAsync(request("wrong"), STORED_HASH, null, "10.0.0.1");
+
+        assertEquals("SEC003", failureCode(future));
+        verify(loginSecurityService).recordLoginFail("alice", "10.0.0.1");
+        verify(loginSecurityService, never()).recordLoginSuccess(anyString(), anyString());
+        verifyNoInteractions(tokenService);
+    }
+
+    @Test
+    void lockedIpIsRejectedBeforeHashing() {
+        when(loginSecurityService.isIpLocked("10.0.0.1")).thenReturn(true);
+
+        assertEquals("SEC011", failureCode(
+                authenticationService.authenticateAsync(request(PASSWORD), STORED_HASH, null, "10.0.0.1")));
+        assertEquals(0, hashingService.getStats().completed());
+        verify(loginSecurityService, never()).recordLoginFail(anyString(), anyString());
+        verifyNoInteractions(tokenService);
+    }
+
+    @Test
+    void lockedAccountIsRejectedBeforeHashing() {
+        when(loginSecurityService.isAccountLocked("alice")).thenReturn(true);
+
+        assertEquals("SEC011", failureCode(
+                authenticationService.authenticateAsync(request(PASSWORD), STORED_HASH, null, "10.0.0.1")));
+        assertEquals(0, hashingService.getStats().completed());
+    }
+
+    @Test
+    void withoutClientIpLocksAreNotChecked() {
+        when(tokenService.generateToken(anyString(), any(), anyLong())).thenReturn("tok");
+
+        authenticationService.authenticateAsync(request(PASSWORD), STORED_HASH, null).join();
+
+        verifyNoInteractions(loginSecurityService);
+    }
+
+    @Test
+    void upgradedHashIsSavedBeforeCompletion() {
+        when(tokenService.generateToken(anyString(), any(), anyLong())).thenReturn("tok");
+        AtomicReference<String> saved = new AtomicReference<>();
+
+        authenticationService.authenticateAsync(request(PASSWORD), STORED_HASH, saved::set, "10.0.0.1").join();
+
+        assertNotNull(saved.get());
+        assertEquals(5, PasswordUtils.getCost(saved.get()));
+        assertTrue(PasswordUtils.matches(PASSWORD, saved.get()));
+    }
+
+    @Test
+    void upgraderFailureDoesNotFailLogin() {
+        when(tokenService.generateToken(anyString(), any(), anyLong())).thenReturn("tok");
+
+        AuthResponse response = authenticationService.authenticateAsync(request(PASSWORD), STORED_HASH,
+                hash -> {
+                    throw new IllegalStateException("db down");
+                }, "10.0.0.1").join();
+
+        assertEquals("tok", response.getAccessToken());
+    }
+
+    @Test
+    void passwordIsOnlyRehashedWhenCallerCanSaveIt() {
+        assertNull(hashingService.verifyAsync(PASSWORD, STORED_HASH).join().upgradedHash());
+        assertNotNull(hashingService.verifyAsync(PASSWORD, STORED_HASH, true).join().upgradedHash());
+    }
+
+    private static AuthRequest request(String password) {
+        return AuthRequest.builder()
+                .authType(AuthRequest.AuthType.USERNAME_PASSWORD)
+                .userId("1001")
+                .usernamePasswordAuth(UsernamePasswordAuth.builder().username("alice").password(password).build())
+                .build();
+    }
+
+    private static String failureCode(CompletableFuture<?> future) {
+        CompletionException e = assertThrows(CompletionException.class, future::join);
+        SynapseException cause = assertInstanceOf(SynapseException.class, e.getCause());
+        return cause.getCode();
+    }
+}
@@ -0,0 +1,128 @@
+package com.indigo.security.service;
+
+import com.indigo.cache.core.CacheInvalidationService;
+import com.indigo.cache.core.CacheService;
+import com.indigo.cache.core.constants.SessionCacheConstants;
+import com.indigo.cache.infrastructure.RedisService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.ValueOperations;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * LoginSecurityService 测试
+ * 覆盖单次脚本记录失败、本地 IP 锁定记录、解锁通知以及集群下的逐键计数
+ *
+ * @author 史偕成
+ * @date 2025/12/19
+ */
+class LoginSecurityServiceTest {
+
+    private CacheService cacheService;
+    private RedisService redisService;
+    private CacheInvalidationService invalidationService;
+    private LoginSecurityService service;
+
+    @BeforeEach
+    void setUp() {
+        cacheService = mock(CacheService.class);
+        redisService = mock(RedisService.class);
+        invalidationService = mock(CacheInvalidationService.class);
+        service = new LoginSecurityService(cacheService, redisService, invalidationService);
+        ReflectionTestUtils.setField(service, "maxFailCount", 5);
+        ReflectionTestUtils.setField(service, "lockDurationSeconds", 1800L);
+        ReflectionTestUtils.setField(service, "failWindowSeconds", 300L);
+        ReflectionTestUtils.setField(service, "maxIpFailCount", 20);
+        ReflectionTestUtils.setField(service, "ipLockDurationSeconds", 600L);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void recordLoginFailRunsOneScript() {
+        when(redisService.executeScript(any(RedisScript.class), anyList(), any(String[].class)))
+                .thenReturn(List.of(3L, 4L, 0L, -1L));
+
+        assertEquals(3, service.recordLoginFail("alice", "10.0.0.1"));
+
+        ArgumentCaptor<List<String>> keys = ArgumentCaptor.forClass(List.class);
+        ArgumentCaptor<String> args = ArgumentCaptor.forClass(String.class);
+        verify(redisService).executeScript(any(RedisScript.class), keys.capture(), args.capture());
+        assertEquals(List.of("login_fail:alice", "ip_attempt:10.0.0.1", "account_lock:alice", "ip_lock:10.0.0.1"),
+                keys.getValue());
+        assertEquals(List.of("300", "5", "1800", "20", "600", "10.0.0.1"), args.getAllValues());
+        verifyNoInteractions(cacheService);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void ipLockedByScriptIsAnsweredLocally() {
+        when(redisService.executeScript(any(RedisScript.class), anyList(), any(String[].class)))
+                .thenReturn(List.of(1L, 20L, 0L, 600L));
+
+        service.recordLoginFail("alice", "10.0.0.1");
+
+        assertTrue(service.isIpLocked("10.0.0.1"));
+        verify(cacheService, never()).getTimeToLive(anyString());
+    }
+
+    @Test
+    void ipLockFoundInRedisIsRemembered() {
+        when(cacheService.getTimeToLive("ip_lock:10.0.0.2")).thenReturn(60L);
+        when(cacheService.getTimeToLive("ip_lock:10.0.0.3")).thenReturn(-2L);
+
+        assertTrue(service.isIpLocked("10.0.0.2"));
+        assertTrue(service.isIpLocked("10.0.0.2"));
+        assertFalse(service.isIpLocked("10.0.0.3"));
+        verify(cacheService, times(1)).getTimeToLive("ip_lock:10.0.0.2");
+    }
+
+    @Test
+    void unlockIpIsBroadcastAndClearsRemoteLocalEntries() {
+        ArgumentCaptor<CacheInvalidationService.CacheInvalidationListener> captor =
+                ArgumentCaptor.forClass(CacheInvalidationService.CacheInvalidationListener.class);
+        verify(invalidationService).registerListener(captor.capture());
+        when(cacheService.getTimeToLive("ip_lock:10.0.0.2")).thenReturn(60L, -2L);
+        assertTrue(service.isIpLocked("10.0.0.2"));
+
+        // 其他节点解锁后收到通知，本地记录被清除，重新读取 Redis
+        captor.getValue().onCacheInvalidation(SessionCacheConstants.CACHE_TYPE_IP_LOCK, "10.0.0.2");
+        assertFalse(service.isIpLocked("10.0.0.2"));
+
+        service.unlockIp("10.0.0.2");
+        verify(invalidationService).publishInvalidation(SessionCacheConstants.CACHE_TYPE_IP_LOCK, "10.0.0.2");
+
+        service.shutdown();
+        verify(invalidationService).unregisterListener(captor.getValue());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void clusterModeCountsPerKey() {
+        StringRedisTemplate template = mock(StringRedisTemplate.class);
+        ValueOperations<String, String> values = mock(ValueOperations.class);
+        when(redisService.isClusterMode()).thenReturn(true);
+        when(redisService.getStringRedisTemplate()).thenReturn(template);
+        when(template.opsForValue()).thenReturn(values);
+        when(values.increment("login_fail:alice")).thenReturn(5L);
+        when(values.increment("ip_attempt:10.0.0.1")).thenReturn(1L);
+
+        assertEquals(5, service.recordLoginFail("alice", "10.0.0.1"));
+
+        verify(redisService, never()).executeScript(any(RedisScript.class), anyList(), any(String[].class));
+        // 窗口内第一次计数才设置过期时间
+        verify(template).expire("ip_attempt:10.0.0.1", 300L, TimeUnit.SECONDS);
+        verify(template, never()).expire(eq("login_fail:alice"), anyLong(), any(TimeUnit.class));
+        verify(values).set("account_lock:alice", "10.0.0.1", 1800L, TimeUnit.SECONDS);
+        verify(values, never()).set(eq("ip_lock:10.0.0.1"), anyString(), anyLong(), any(TimeUnit.class));
+    }
+}
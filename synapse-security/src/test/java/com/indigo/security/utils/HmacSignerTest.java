@@ -0,0 +1,121 @@
+package com.indigo.security.utils;
+
+import org.junit.jupiter.api.Test;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * HmacSigner 测试：签名结果与按字符串拼接后计算的 HMAC-SHA256 一致
+ *
+ * @author 史偕成
+ * @date 2025/12/19
+ */
+class HmacSignerTest {
+
+    private static final String SECRET = "test-secret";
+
+    @Test
+    void signMatchesStringConcatenation() throws Exception {
+        String signature = HmacSigner.current().append("token").append("1001").append(1734567890123L).sign(SECRET);
+
+        assertEquals(reference(SECRET, "token" + "1001" + 1734567890123L), signature);
+    }
+
+    @Test
+    void utf8EncodingMatchesStringGetBytes() throws Exception {
+        String[] values = {"用户", "é", "😀", "broken\uD800surrogate", "\uDC00", null, ""};
+        for (String value : values) {
+            String signature = HmacSigner.current().append(value).sign(SECRET);
+            assertEquals(reference(SECRET, String.valueOf(value)), signature, "value=" + value);
+        }
+    }
+
+    @Test
+    void appendRangeAvoidsSubstring() throws Exception {
+        String value = "prefix.payload.suffix";
+
+        String signature = HmacSigner.current().append(value, 7, 14).sign(SECRET);
+
+        assertEquals(reference(SECRET, "payload"), signature);
+    }
+
+    @Test
+    void appendLongMatchesDecimalString() throws Exception {
+        long[] values = {0, 7, -7, 10, -10, Long.MAX_VALUE, Long.MIN_VALUE};
+        for (long value : values) {
+            String signature = HmacSigner.current().append(value).sign(SECRET);
+            assertEquals(reference(SECRET, String.valueOf(value)), signature, "value=" + value);
+        }
+    }
+
+    @Test
+    void largeContentGrowsBuffer() throws Exception {
+        String value = "x".repeat(10_000);
+
+        assertEquals(reference(SECRET, value), HmacSigner.current().append(value).sign(SECRET));
+    }
+
+    @Test
+    void verifyAcceptsValidAndRejectsTampered() throws Exception {
+        String signature = HmacSigner.current().append("payload").sign(SECRET);
+
+        assertTrue(HmacSigner.current().append("payload").verify(SECRET, signature));
+        assertFalse(HmacSigner.current().append("payload2").verify(SECRET, signature));
+        assertFalse(HmacSigner.current().append("payload").verify("other-secret", signature));
+        assertFalse(HmacSigner.current().append("payload").verify(SECRET, null));
+        assertFalse(HmacSigner.current().append("payload").verify(SECRET, signature.substring(1)));
+        assertFalse(HmacSigner.current().append("payload").verify(SECRET, "!" + signature.substring(1)));
+    }
+
+    @Test
+    void verifyRejectsNonCanonicalBase64() throws Exception {
+        String signature = HmacSigner.current().append("payload").sign(SECRET);
+        // 32 字节签名的最后一个数据字符只使用 2 位，修改低位会得到非规范编码
+        char last = signature.charAt(signature.length() - 2);
+        String alphabet = "ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz0123456789+/";
+        char altered = alphabet.charAt(alphabet.indexOf(last) | 1);
+        assertNotEquals(last, altered);
+        String nonCanonical = signature.substring(0, signature.length() - 2) + altered + "=";
+
+        assertFalse(HmacSigner.current().append("payload").verify(SECRET, nonCanonical));
+    }
+
+    @Test
+    void urlSafeSignAndVerify() throws Exception {
+        String signature = HmacSigner.current().append("header.body").signUrlSafe(SECRET);
+        String token = "header.body." + signature;
+        int start = token.lastIndexOf('.') + 1;
+
+        assertEquals(Base64.getUrlEncoder().withoutPadding()
+                .encodeToString(Base64.getDecoder().decode(reference(SECRET, "header.body"))), signature);
+        assertTrue(HmacSigner.current().append(token, 0, start - 1).verifyUrlSafe(SECRET, token, start, token.length()));
+        assertFalse(HmacSigner.current().append(token, 0, start - 2).verifyUrlSafe(SECRET, token, start, token.length()));
+        assertFalse(HmacSigner.current().append(token, 0, start - 1).verifyUrlSafe(SECRET, token, start, token.length() - 1));
+    }
+
+    @Test
+    void currentClearsPreviousContent() throws Exception {
+        HmacSigner.current().append("leftover");
+
+        assertEquals(reference(SECRET, "payload"), HmacSigner.current().append("payload").sign(SECRET));
+    }
+
+    @Test
+    void differentSecretsOnSameThread() throws Exception {
+        for (int i = 0; i < 40; i++) {
+            String secret = "secret-" + i;
+            assertEquals(reference(secret, "payload"), HmacSigner.current().append("payload").sign(secret));
+        }
+    }
+
+    private static String reference(String secret, String content) throws Exception {
+        Mac mac = Mac.getInstance("HmacSHA256");
+        mac.init(new SecretKeySpec(secret.getBytes(StandardCharsets.UTF_8), "HmacSHA256"));
+        return Base64.getEncoder().encodeToString(mac.doFinal(content.getBytes(StandardCharsets.UTF_8)));
+    }
+}
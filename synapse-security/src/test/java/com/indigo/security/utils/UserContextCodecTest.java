@@ -0,0 +1,156 @@
+package com.indigo.security.utils;
+
+import com.indigo.core.context.UserContext;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Base64;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * UserContextCodec 编解码测试
+ * 覆盖二进制与内容哈希格式、异常输入、旧版 JSON 兼容以及默认编码格式
+ *
+ * @author 史偕成
+ * @date 2025/12/19
+ */
+class UserContextCodecTest {
+
+    @Test
+    void binaryRoundTrip() {
+        UserContext context = UserContext.builder()
+                .userId("1001").account("zhangsan").realName("张三")
+                .email("zs@example.com").mobile("13800000000").avatar("https://cdn.example.com/a.png?x=1&y=😀")
+                .build();
+
+        String encoded = UserContextCodec.encode(context, false);
+
+        assertTrue(encoded.startsWith(UserContextCodec.BINARY_PREFIX));
+        assertEquals(context, UserContextCodec.decode(encoded));
+    }
+
+    @Test
+    void nullAndEmptyFieldsArePreserved() {
+        UserContext context = UserContext.builder().userId("1002").account("").build();
+
+        UserContext decoded = UserContextCodec.decode(UserContextCodec.encode(context, false));
+
+        assertEquals("1002", decoded.getUserId());
+        assertEquals("", decoded.getAccount());
+        assertNull(decoded.getRealName());
+        assertNull(decoded.getAvatar());
+    }
+
+    @Test
+    void hashRoundTripAndCacheHitReturnsCopy() {
+        UserContext context = UserContext.builder().userId("1003").account("lisi").build();
+
+        String encoded = UserContextCodec.encode(context, true);
+        UserContext first = UserContextCodec.decode(encoded);
+        UserContext second = UserContextCodec.decode(encoded);
+
+        assertTrue(encoded.startsWith(UserContextCodec.HASH_PREFIX));
+        assertEquals(context, first);
+        assertEquals(context, second);
+        // 缓存命中时返回副本，调用方修改不影响后续解码
+        second.setAccount("changed");
+        assertEquals("lisi", UserContextCodec.decode(encoded).getAccount());
+    }
+
+    @Test
+    void hashMismatchIsRejected() {
+        String withHash = UserContextCodec.encode(UserContext.builder().userId("1004").build(), true);
+        String other = UserContextCodec.encode(UserContext.builder().userId("9999").build(), false);
+        String hash = withHash.substring(UserContextCodec.HASH_PREFIX.length(), withHash.lastIndexOf('.'));
+
+        String forged = UserContextCodec.HASH_PREFIX + hash + "."
+                + other.substring(UserContextCodec.BINARY_PREFIX.length());
+
+        assertNull(UserContextCodec.decode(forged));
+        assertNull(UserContextCodec.decode(UserContextCodec.HASH_PREFIX + "nohash"));
+    }
+
+    @Test
+    void unknownTrailingFieldsAreSkipped() {
+        // 版本 1，字段位图包含 userId（第 0 位）和一个未知字段（第 6 位）
+        byte[] userId = "1005".getBytes(StandardCharsets.UTF_8);
+        byte[] extra = "future".getBytes(StandardCharsets.UTF_8);
+        byte[] binary = new byte[3 + userId.length + 1 + extra.length];
+        int pos = 0;
+        binary[pos++] = 1;
+        binary[pos++] = (byte) ((1 << 0) | (1 << 6));
+        binary[pos++] = (byte) userId.length;
+        System.arraycopy(userId, 0, binary, pos, userId.length);
+        pos += userId.length;
+        binary[pos++] = (byte) extra.length;
+        System.arraycopy(extra, 0, binary, pos, extra.length);
+
+        UserContext decoded = UserContextCodec.decode(UserContextCodec.BINARY_PREFIX
+                + Base64.getUrlEncoder().withoutPadding().encodeToString(binary));
+
+        assertNotNull(decoded);
+        assertEquals("1005", decoded.getUserId());
+        assertNull(decoded.getAccount());
+    }
+
+    @Test
+    void malformedBinaryIsRejected() {
+        String encoded = UserContextCodec.encode(UserContext.builder().userId("1006").account("wangwu").build(), false);
+        byte[] binary = Base64.getUrlDecoder().decode(encoded.substring(UserContextCodec.BINARY_PREFIX.length()));
+
+        byte[] truncated = Arrays.copyOf(binary, binary.length - 2);
+        byte[] wrongVersion = binary.clone();
+        wrongVersion[0] = 2;
+
+        assertNull(UserContextCodec.decode(UserContextCodec.BINARY_PREFIX
+                + Base64.getUrlEncoder().withoutPadding().encodeToString(truncated)));
+        assertNull(UserContextCodec.decode(UserContextCodec.BINARY_PREFIX
+                + Base64.getUrlEncoder().withoutPadding().encodeToString(wrongVersion)));
+        assertNull(UserContextCodec.decode(UserContextCodec.BINARY_PREFIX + "!!"));
+    }
+
+    @Test
+    void legacyJsonFormatStillDecodes() {
+        UserContext context = UserContext.builder().userId("1007").account("zhaoliu").realName("赵六").build();
+
+        String legacy = UserContextCodec.encodeJson(context);
+
+        assertFalse(legacy.startsWith(UserContextCodec.BINARY_PREFIX));
+        assertEquals(context, UserContextCodec.decode(legacy));
+    }
+
+    @Test
+    void defaultFormatIsLegacyJson() {
+        UserContext context = UserContext.builder().userId("1008").account("sunqi").build();
+
+        assertEquals(UserContextCodec.Format.JSON, UserContextCodec.getDefaultFormat());
+        assertEquals(UserContextCodec.encodeJson(context), UserContextCodec.encode(context));
+    }
+
+    @Test
+    void defaultFormatCanBeSwitched() {
+        UserContext context = UserContext.builder().userId("1009").build();
+        try {
+            UserContextCodec.setDefaultFormat(UserContextCodec.Format.BINARY);
+            assertTrue(UserContextCodec.encode(context).startsWith(UserContextCodec.BINARY_PREFIX));
+
+            UserContextCodec.setDefaultFormat(UserContextCodec.Format.HASH);
+            assertTrue(UserContextCodec.encode(context).startsWith(UserContextCodec.HASH_PREFIX));
+            assertEquals(context, UserContextCodec.decode(UserContextCodec.encode(context)));
+
+            UserContextCodec.setDefaultFormat(null);
+            assertEquals(UserContextCodec.Format.JSON, UserContextCodec.getDefaultFormat());
+        } finally {
+            UserContextCodec.setDefaultFormat(UserContextCodec.Format.JSON);
+        }
+    }
+
+    @Test
+    void nullInput() {
+        assertNull(UserContextCodec.encode(null));
+        assertNull(UserContextCodec.decode(null));
+        assertNull(UserContextCodec.decode(" "));
+    }
+}